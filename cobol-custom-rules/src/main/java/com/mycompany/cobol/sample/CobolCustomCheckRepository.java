@@ -23,17 +23,13 @@ import com.mycompany.cobol.sample.checks.ForbiddenCallRule;
 import com.mycompany.cobol.sample.checks.IssueOnEachFileRule;
 import com.mycompany.cobol.sample.checks.TrivialEvaluateRule;
 import com.sonarsource.cobol.api.ast.CobolCheckRepository;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.api.server.rule.RulesDefinitionAnnotationLoader;
+import org.sonar.samples.rulekit.RuleDescriptions;
 
 /**
  * Extension point to list all your custom Cobol rules.
@@ -73,8 +69,10 @@ public class CobolCustomCheckRepository implements CobolCheckRepository, RulesDe
       .map(Class.class::cast)
       .forEach(ruleClass -> annotationLoader.load(repository, ruleClass));
 
-    // Optionally override html description from annotation with content from html files
-    repository.rules().forEach(rule -> rule.setHtmlDescription(loadResource("/org/sonar/l10n/cobol/rules/cobol/" + rule.key() + ".html")));
+    // Optionally override html description from annotation with content from html files, packed at build time
+    RuleDescriptions descriptions = RuleDescriptions.load(CobolCustomCheckRepository.class,
+      "/org/sonar/l10n/cobol/rules/cobol/" + RuleDescriptions.PACK_NAME);
+    repository.rules().forEach(rule -> rule.setHtmlDescription(descriptions.description(rule.key())));
 
 
     // Optionally define remediation costs
@@ -89,21 +87,4 @@ public class CobolCustomCheckRepository implements CobolCheckRepository, RulesDe
     repository.done();
   }
 
-  private String loadResource(String path) {
-    URL resource = getClass().getResource(path);
-    if (resource == null) {
-      throw new IllegalStateException("Resource not found: " + path);
-    }
-    ByteArrayOutputStream result = new ByteArrayOutputStream();
-    try (InputStream in = resource.openStream()) {
-      byte[] buffer = new byte[1024];
-      for (int len = in.read(buffer); len != -1; len = in.read(buffer)) {
-        result.write(buffer, 0, len);
-      }
-      return new String(result.toByteArray(), StandardCharsets.UTF_8);
-    } catch (IOException e) {
-      throw new IllegalStateException("Failed to read resource: " + path, e);
-    }
-  }
-
 }
@@ -19,6 +19,7 @@
  */
 package com.mycompany.cobol.sample;
 
+import com.mycompany.cobol.sample.profiling.RuleProfileSummaryPostJob;
 import org.sonar.api.Plugin;
 
 /**
@@ -30,6 +31,7 @@ public class CobolCustomRulesPlugin implements Plugin {
   public void define(Context context) {
     // custom checks
     context.addExtension(CobolCustomCheckRepository.class);
+    context.addExtension(RuleProfileSummaryPostJob.class);
   }
 
 }
@@ -0,0 +1,106 @@
+/*
+ * SonarQube COBOL Custom Rules Example
+ * Copyright (C) 2009-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package com.mycompany.cobol.sample.profiling;
+
+import com.sonar.sslr.api.AstNode;
+import com.sonarsource.cobol.api.ast.CobolCheck;
+import org.sonar.check.Rule;
+import org.sonar.samples.rulekit.profiling.RuleProfiler;
+
+/**
+ * Base class of the checks which opt into profiling: their time, visited nodes and allocations are measured per file
+ * by a {@link RuleProfiler}, sent to Java Flight Recorder and summed in the summary of the slowest rules.
+ * <p>
+ * The checks of all the rules are called one after the other on each node of a single walk of the tree, so each
+ * callback is measured on its own. Subclasses implement {@link #visit(AstNode)}, {@link #leave(AstNode)},
+ * {@link #startFile(AstNode)} and {@link #endFile(AstNode)} instead of the methods of {@link CobolCheck}, which are
+ * final here. The issues are not counted: they are reported through the context of the COBOL plugin.
+ */
+public abstract class ProfiledCobolCheck extends CobolCheck {
+
+  private final RuleProfiler profiler = RuleProfiler.of(ruleKey(getClass()));
+
+  @Override
+  public final void visitFile(AstNode astNode) {
+    profiler.startFile(astNode == null || astNode.getToken() == null ? "" : astNode.getToken().getURI().toString());
+    profiler.enter();
+    try {
+      startFile(astNode);
+    } finally {
+      profiler.exit();
+    }
+  }
+
+  @Override
+  public final void visitNode(AstNode astNode) {
+    profiler.node();
+    profiler.enter();
+    try {
+      visit(astNode);
+    } finally {
+      profiler.exit();
+    }
+  }
+
+  @Override
+  public final void leaveNode(AstNode astNode) {
+    profiler.enter();
+    try {
+      leave(astNode);
+    } finally {
+      profiler.exit();
+    }
+  }
+
+  @Override
+  public final void leaveFile(AstNode astNode) {
+    profiler.enter();
+    try {
+      endFile(astNode);
+    } finally {
+      profiler.exit();
+      profiler.endFile();
+    }
+  }
+
+  /**
+   * Called when a file starts, before its nodes are visited: the state of the previous file should be reset here.
+   */
+  protected void startFile(AstNode astNode) {
+  }
+
+  protected void visit(AstNode astNode) {
+  }
+
+  protected void leave(AstNode astNode) {
+  }
+
+  protected void endFile(AstNode astNode) {
+  }
+
+  /**
+   * @return the key of the {@link Rule} annotation of the check, or its simple name if it has none
+   */
+  static String ruleKey(Class<?> check) {
+    Rule rule = check.getAnnotation(Rule.class);
+    return rule == null || rule.key().isEmpty() ? check.getSimpleName() : rule.key();
+  }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Packs the {@code <rule key>.html} files of a directory in a single resource, read by {@link RuleDescriptions}.
+ * <p>
+ * Format, all integers being big-endian:
+ * <pre>
+ *   int magic, int version, int count
+ *   count * (int key length, key in UTF-8, int offset, int length)
+ *   descriptions in UTF-8, at offset from the end of the index
+ * </pre>
+ */
+public final class RuleDescriptionPacker {
+
+  static final int MAGIC = 0x52444b50;
+  static final int VERSION = 1;
+  static final String EXTENSION = ".html";
+
+  private RuleDescriptionPacker() {
+  }
+
+  /**
+   * @param args directory of the HTML files, then pack to write
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      throw new IllegalArgumentException("Usage: RuleDescriptionPacker <directory of the descriptions> <pack>");
+    }
+    int count = pack(Paths.get(args[0]), Paths.get(args[1]));
+    System.out.println("Packed " + count + " rule descriptions in " + args[1]);
+  }
+
+  /**
+   * Packs the HTML files found directly in the given directory: the subdirectories are ignored.
+   *
+   * @return number of packed descriptions
+   */
+  public static int pack(Path directory, Path pack) throws IOException {
+    List<Path> files;
+    try (Stream<Path> list = Files.list(directory)) {
+      files = list
+        .filter(file -> file.getFileName().toString().endsWith(EXTENSION) && Files.isRegularFile(file))
+        .sorted()
+        .collect(Collectors.toList());
+    }
+
+    List<byte[]> keys = new ArrayList<>(files.size());
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    List<int[]> locations = new ArrayList<>(files.size());
+    for (Path file : files) {
+      String name = file.getFileName().toString();
+      keys.add(name.substring(0, name.length() - EXTENSION.length()).getBytes(StandardCharsets.UTF_8));
+      byte[] description = Files.readAllBytes(file);
+      locations.add(new int[] {data.size(), description.length});
+      data.write(description);
+    }
+
+    Path parent = pack.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    try (OutputStream file = Files.newOutputStream(pack);
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(keys.size());
+      for (int i = 0; i < keys.size(); i++) {
+        out.writeInt(keys.get(i).length);
+        out.write(keys.get(i));
+        out.writeInt(locations.get(i)[0]);
+        out.writeInt(locations.get(i)[1]);
+      }
+      data.writeTo(out);
+    }
+    return keys.size();
+  }
+
+}
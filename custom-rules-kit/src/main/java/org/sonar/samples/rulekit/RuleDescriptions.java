@@ -0,0 +1,190 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rule descriptions of a repository, packed at build time by {@link RuleDescriptionPacker}.
+ * <p>
+ * The pack is read at once: in a single sequential read when it is in a jar, or mapped in memory when it is a file.
+ * Only its index is decoded when it is loaded, each description is decoded when it is requested
+ * and the last requested ones are kept in a bounded cache.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class RuleDescriptions {
+
+  public static final String PACK_NAME = "descriptions.pack";
+  public static final int DEFAULT_CACHE_SIZE = 64;
+
+  private static final int READ_BUFFER_SIZE = 8192;
+
+  private final ByteBuffer pack;
+  private final int dataOffset;
+  private final Map<String, Location> index;
+  private final Map<String, String> cache;
+
+  private RuleDescriptions(ByteBuffer pack, int cacheSize) {
+    this.pack = pack;
+    if (pack.getInt(0) != RuleDescriptionPacker.MAGIC || pack.getInt(4) != RuleDescriptionPacker.VERSION) {
+      throw new IllegalStateException("Not a rule descriptions pack of version " + RuleDescriptionPacker.VERSION);
+    }
+    int count = pack.getInt(8);
+    Map<String, Location> locations = new HashMap<>(count * 2);
+    int position = 12;
+    for (int i = 0; i < count; i++) {
+      int keyLength = pack.getInt(position);
+      String key = new String(bytes(position + 4, keyLength), StandardCharsets.UTF_8);
+      position += 4 + keyLength;
+      locations.put(key, new Location(pack.getInt(position), pack.getInt(position + 4)));
+      position += 8;
+    }
+    this.dataOffset = position;
+    this.index = Collections.unmodifiableMap(locations);
+    this.cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+        return size() > cacheSize;
+      }
+    };
+  }
+
+  /**
+   * Loads the pack found at the given path, relative to the class, with the {@link #DEFAULT_CACHE_SIZE default cache size}.
+   */
+  public static RuleDescriptions load(Class<?> owner, String path) {
+    URL resource = owner.getResource(path);
+    if (resource == null) {
+      throw new IllegalStateException("Resource not found: " + path);
+    }
+    return load(resource, DEFAULT_CACHE_SIZE);
+  }
+
+  public static RuleDescriptions load(URL resource, int cacheSize) {
+    try {
+      if ("file".equals(resource.getProtocol())) {
+        return new RuleDescriptions(map(new File(resource.toURI())), cacheSize);
+      }
+      return new RuleDescriptions(ByteBuffer.wrap(read(resource)), cacheSize);
+    } catch (IOException | URISyntaxException e) {
+      throw new IllegalStateException("Failed to read resource: " + resource, e);
+    }
+  }
+
+  private static ByteBuffer map(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(Paths.get(file.getPath()), StandardOpenOption.READ)) {
+      // the mapping stays valid once the channel is closed
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+  }
+
+  private static byte[] read(URL resource) throws IOException {
+    URLConnection connection = resource.openConnection();
+    long length = connection.getContentLengthLong();
+    try (InputStream in = connection.getInputStream()) {
+      byte[] content = new byte[length > 0 ? (int) length : READ_BUFFER_SIZE];
+      int size = 0;
+      for (int read = in.read(content, 0, content.length); read != -1; read = in.read(content, size, content.length - size)) {
+        size += read;
+        if (size == content.length) {
+          if (size == length) {
+            break;
+          }
+          content = Arrays.copyOf(content, content.length * 2);
+        }
+      }
+      return size == content.length ? content : Arrays.copyOf(content, size);
+    }
+  }
+
+  /**
+   * @return the description of the rule
+   * @throws IllegalStateException if the pack has no description for the rule
+   */
+  public String description(String ruleKey) {
+    String description = findDescription(ruleKey);
+    if (description == null) {
+      throw new IllegalStateException("Rule description not found: " + ruleKey);
+    }
+    return description;
+  }
+
+  /**
+   * @return the description of the rule, or null if the pack has no description for it
+   */
+  public String findDescription(String ruleKey) {
+    Location location = index.get(ruleKey);
+    if (location == null) {
+      return null;
+    }
+    synchronized (cache) {
+      return cache.computeIfAbsent(ruleKey,
+        key -> new String(bytes(dataOffset + location.offset, location.length), StandardCharsets.UTF_8));
+    }
+  }
+
+  public Set<String> ruleKeys() {
+    return index.keySet();
+  }
+
+  int cachedDescriptions() {
+    synchronized (cache) {
+      return cache.size();
+    }
+  }
+
+  private byte[] bytes(int offset, int length) {
+    byte[] bytes = new byte[length];
+    ByteBuffer slice = pack.duplicate();
+    // Buffer methods, which return a ByteBuffer from Java 9 only
+    ((Buffer) slice).position(offset);
+    slice.get(bytes);
+    return bytes;
+  }
+
+  private static final class Location {
+    private final int offset;
+    private final int length;
+
+    Location(int offset, int length) {
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+}
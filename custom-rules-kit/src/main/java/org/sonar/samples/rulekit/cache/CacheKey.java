@@ -0,0 +1,182 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.cache;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Key of the issues of a rule on a file in the {@link IssueCache}: the SHA-256 digest of the content of the file, of
+ * the key of the rule and of the values of its parameters. A file gets the same key as long as neither its content
+ * nor the configuration of the rule change, whatever its path.
+ */
+public final class CacheKey {
+
+  public static final int BYTES = 32;
+
+  private static final ThreadLocal<Object[]> LAST_CONTENT = new ThreadLocal<>();
+
+  private static final ClassValue<List<Field>> PROPERTY_FIELDS = new ClassValue<List<Field>>() {
+    @Override
+    protected List<Field> computeValue(Class<?> type) {
+      List<Field> fields = new ArrayList<>();
+      for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+        for (Field field : c.getDeclaredFields()) {
+          if (field.getDeclaredAnnotations().length > 0) {
+            field.setAccessible(true);
+            fields.add(field);
+          }
+        }
+      }
+      return Collections.unmodifiableList(fields);
+    }
+  };
+
+  private final byte[] digest;
+  private final int hash;
+
+  CacheKey(byte[] digest) {
+    if (digest.length != BYTES) {
+      throw new IllegalArgumentException("A key has " + BYTES + " bytes, not " + digest.length);
+    }
+    this.digest = digest;
+    this.hash = Arrays.hashCode(digest);
+  }
+
+  /**
+   * @param parameters the values of the parameters of the rule, by key
+   */
+  public static CacheKey of(String content, String ruleKey, Map<String, String> parameters) {
+    MessageDigest sha = sha256();
+    sha.update(contentDigest(content));
+    update(sha, ruleKey);
+    for (Map.Entry<String, String> parameter : new TreeMap<>(parameters).entrySet()) {
+      update(sha, parameter.getKey());
+      update(sha, parameter.getValue());
+    }
+    return new CacheKey(sha.digest());
+  }
+
+  /**
+   * @return the values of the fields of the check annotated with the given annotation, by key: the "key" attribute
+   * of the annotation, or the name of the field when it is empty. Arrays are given by their content.
+   */
+  public static SortedMap<String, String> parameters(Object check, Class<? extends Annotation> propertyAnnotation) {
+    SortedMap<String, String> parameters = new TreeMap<>();
+    for (Field field : PROPERTY_FIELDS.get(check.getClass())) {
+      Annotation property = field.getAnnotation(propertyAnnotation);
+      if (property != null) {
+        String key = key(property);
+        parameters.put(key.isEmpty() ? field.getName() : key, value(field, check));
+      }
+    }
+    return parameters;
+  }
+
+  /**
+   * The checks of a file are given the same content, so its digest is computed once per file and thread as long as
+   * the content is the same instance.
+   */
+  static byte[] contentDigest(String content) {
+    Object[] last = LAST_CONTENT.get();
+    if (last != null && last[0] == content) {
+      return (byte[]) last[1];
+    }
+    byte[] digest = sha256().digest(content.getBytes(StandardCharsets.UTF_8));
+    LAST_CONTENT.set(new Object[] {content, digest});
+    return digest;
+  }
+
+  byte[] digest() {
+    return digest;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return this == o || (o instanceof CacheKey && Arrays.equals(digest, ((CacheKey) o).digest));
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return PluginFingerprint.hex(digest);
+  }
+
+  static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Each string is followed by a 0 byte, so that moving a character from a string to the next one changes the digest.
+   */
+  private static void update(MessageDigest sha, String value) {
+    sha.update(value.getBytes(StandardCharsets.UTF_8));
+    sha.update((byte) 0);
+  }
+
+  private static String key(Annotation property) {
+    try {
+      Method key = property.annotationType().getMethod("key");
+      Object value = key.invoke(property);
+      return value instanceof String ? (String) value : "";
+    } catch (NoSuchMethodException e) {
+      return "";
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Cannot read the key of " + property, e);
+    }
+  }
+
+  private static String value(Field field, Object check) {
+    Object value;
+    try {
+      value = field.get(check);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Cannot read the parameter " + field, e);
+    }
+    if (value instanceof Object[]) {
+      return Arrays.deepToString((Object[]) value);
+    }
+    if (value != null && value.getClass().isArray()) {
+      return Arrays.deepToString(new Object[] {value});
+    }
+    return String.valueOf(value);
+  }
+
+}
@@ -0,0 +1,208 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Issue raised by a rule on a file, as kept by the {@link IssueCache}: its primary location, its secondary locations
+ * and its cost. The trees of the issue are not kept: each location only holds the positions of its first and last
+ * tokens, from which the plugin finds the trees again in the tree of the unchanged file.
+ */
+public final class CachedIssue {
+
+  private final Location primary;
+  private final List<Location> secondaries;
+  private final Double cost;
+
+  /**
+   * @param cost the cost of the issue, or null if it has none
+   */
+  public CachedIssue(Location primary, List<Location> secondaries, Double cost) {
+    this.primary = primary;
+    this.secondaries = Collections.unmodifiableList(new ArrayList<>(secondaries));
+    this.cost = cost;
+  }
+
+  public static CachedIssue of(Location primary) {
+    return new CachedIssue(primary, Collections.emptyList(), null);
+  }
+
+  public Location primary() {
+    return primary;
+  }
+
+  public List<Location> secondaries() {
+    return secondaries;
+  }
+
+  /**
+   * @return the cost of the issue, or null if it has none
+   */
+  public Double cost() {
+    return cost;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CachedIssue)) {
+      return false;
+    }
+    CachedIssue other = (CachedIssue) o;
+    return primary.equals(other.primary) && secondaries.equals(other.secondaries) && Objects.equals(cost, other.cost);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(primary, secondaries, cost);
+  }
+
+  @Override
+  public String toString() {
+    return primary + (secondaries.isEmpty() ? "" : " " + secondaries) + (cost == null ? "" : " cost " + cost);
+  }
+
+  /**
+   * Location of an issue: a range of tokens, a line or the whole file.
+   * <p>
+   * The range goes from the start of its first token to the end of its last token, lines starting at 1. The kind of
+   * tree of the location is kept for the plugins which can only report an issue on a single tree: it is the ordinal
+   * of the kind in the API of the language plugin, which is part of the fingerprint of the cache.
+   */
+  public static final class Location {
+
+    public static final int NO_KIND = -1;
+
+    private final int kind;
+    private final int startLine;
+    private final int startColumn;
+    private final int endLine;
+    private final int endColumn;
+    private final String message;
+
+    private Location(int kind, int startLine, int startColumn, int endLine, int endColumn, String message) {
+      this.kind = kind;
+      this.startLine = startLine;
+      this.startColumn = startColumn;
+      this.endLine = endLine;
+      this.endColumn = endColumn;
+      this.message = message;
+    }
+
+    /**
+     * @param kind the ordinal of the kind of tree, or {@link #NO_KIND} when the location is replayed on its tokens
+     * @param message the message of the location, or null if it has none
+     */
+    public static Location range(int kind, int startLine, int startColumn, int endLine, int endColumn, String message) {
+      if (kind < NO_KIND || startLine < 1 || startColumn < 0 || endLine < startLine || endColumn < 0) {
+        throw new IllegalArgumentException("Invalid range: " + startLine + ":" + startColumn + "-" + endLine + ":" + endColumn);
+      }
+      return new Location(kind, startLine, startColumn, endLine, endColumn, message);
+    }
+
+    public static Location line(int line, String message) {
+      if (line < 1) {
+        throw new IllegalArgumentException("Invalid line: " + line);
+      }
+      return new Location(NO_KIND, line, -1, line, -1, message);
+    }
+
+    public static Location file(String message) {
+      return new Location(NO_KIND, 0, -1, 0, -1, message);
+    }
+
+    static Location decode(int kind, int startLine, int startColumn, int endLine, int endColumn, String message) {
+      return new Location(kind, startLine, startColumn, endLine, endColumn, message);
+    }
+
+    public boolean isFile() {
+      return startLine == 0;
+    }
+
+    public boolean isLine() {
+      return startLine > 0 && startColumn < 0;
+    }
+
+    public int kind() {
+      return kind;
+    }
+
+    public int startLine() {
+      return startLine;
+    }
+
+    public int startColumn() {
+      return startColumn;
+    }
+
+    public int endLine() {
+      return endLine;
+    }
+
+    public int endColumn() {
+      return endColumn;
+    }
+
+    /**
+     * @return the message of the location, or null if it has none
+     */
+    public String message() {
+      return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Location)) {
+        return false;
+      }
+      Location other = (Location) o;
+      return kind == other.kind && startLine == other.startLine && startColumn == other.startColumn
+        && endLine == other.endLine && endColumn == other.endColumn && Objects.equals(message, other.message);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(kind, startLine, startColumn, endLine, endColumn, message);
+    }
+
+    @Override
+    public String toString() {
+      String position;
+      if (isFile()) {
+        position = "file";
+      } else if (isLine()) {
+        position = "line " + startLine;
+      } else {
+        position = startLine + ":" + startColumn + "-" + endLine + ":" + endColumn;
+      }
+      return position + (message == null ? "" : " \"" + message + "\"");
+    }
+  }
+
+}
@@ -0,0 +1,324 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues of the rules on the files they analyzed, by {@link CacheKey}, kept on disk from one analysis to the next so
+ * that the rules are not run again on the files which did not change: the issues are replayed instead.
+ * <p>
+ * The cache of a plugin is a single file, loaded when it is first used and written at the end of the analysis, see
+ * {@link PluginIssueCache}. The file is replaced at once: it is written next to its final path, then moved there. Its
+ * binary format starts with the {@link PluginFingerprint} of the plugins: the issues are dropped as soon as a plugin
+ * changes. The entries follow, each one being the key and the issues of a rule on a file, with integers written as
+ * variable-length quantities. When the entries are larger than the maximum size, the least recently used ones are
+ * evicted; the entries are kept encoded in memory, so the maximum size also bounds the memory used by the cache.
+ * <p>
+ * The key only depends on the content of the file, so the rules whose issues depend on other files, e.g. on the
+ * semantic of the classes they use, must not be cached.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class IssueCache {
+
+  public static final String INCREMENTAL_PROPERTY = "rulekit.incremental";
+  public static final String DIRECTORY_PROPERTY = "rulekit.incremental.directory";
+  public static final String MAX_SIZE_PROPERTY = "rulekit.incremental.maxSize";
+  public static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+  private static final int MAGIC = 0x524b4943;
+  private static final int VERSION = 1;
+
+  private final Path file;
+  private final String fingerprint;
+  private final long maxSize;
+  private final LinkedHashMap<CacheKey, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  private long size;
+  private boolean modified;
+  private long hits;
+  private long misses;
+
+  private IssueCache(Path file, String fingerprint, long maxSize) {
+    this.file = file;
+    this.fingerprint = fingerprint;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * @return the cache stored in the given file, empty when the file does not exist, cannot be read or was written
+   * with another fingerprint
+   */
+  public static IssueCache open(Path file, String fingerprint, long maxSize) {
+    IssueCache cache = new IssueCache(file, fingerprint, maxSize);
+    if (Files.exists(file)) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+        cache.read(in);
+      } catch (IOException | RuntimeException e) {
+        cache.entries.clear();
+        cache.size = 0;
+        cache.modified = true;
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * @return the cached issues, or null if the rule has not been run on the content of the file
+   */
+  public synchronized List<CachedIssue> get(CacheKey key) {
+    byte[] encoded = entries.get(key);
+    if (encoded == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    try {
+      return decode(new DataInputStream(new ByteArrayInputStream(encoded)));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public synchronized void put(CacheKey key, List<CachedIssue> issues) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      encode(issues, new DataOutputStream(bytes));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    byte[] encoded = bytes.toByteArray();
+    byte[] previous = entries.put(key, encoded);
+    if (previous != null) {
+      size -= entrySize(previous);
+    }
+    size += entrySize(encoded);
+    modified = true;
+    evict();
+  }
+
+  /**
+   * Writes the cache to its file if it changed since it was loaded or saved.
+   */
+  public synchronized void save() throws IOException {
+    if (!modified) {
+      return;
+    }
+    Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        write(out);
+      }
+      try {
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      modified = false;
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * @return the number of cached rule executions
+   */
+  public synchronized int entries() {
+    return entries.size();
+  }
+
+  /**
+   * @return the size of the entries in the file, in bytes
+   */
+  public synchronized long size() {
+    return size;
+  }
+
+  public synchronized long hits() {
+    return hits;
+  }
+
+  public synchronized long misses() {
+    return misses;
+  }
+
+  private void read(DataInputStream in) throws IOException {
+    if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION || !fingerprint.equals(in.readUTF())) {
+      modified = true;
+      return;
+    }
+    int count = readVarInt(in);
+    for (int i = 0; i < count; i++) {
+      byte[] key = new byte[CacheKey.BYTES];
+      in.readFully(key);
+      byte[] encoded = new byte[readVarInt(in)];
+      in.readFully(encoded);
+      entries.put(new CacheKey(key), encoded);
+      size += entrySize(encoded);
+    }
+    evict();
+  }
+
+  /**
+   * The entries are written from the least recently used, so that they are used in the same order once read.
+   */
+  private void write(DataOutputStream out) throws IOException {
+    out.writeInt(MAGIC);
+    out.writeByte(VERSION);
+    out.writeUTF(fingerprint);
+    writeVarInt(out, entries.size());
+    for (Map.Entry<CacheKey, byte[]> entry : entries.entrySet()) {
+      out.write(entry.getKey().digest());
+      writeVarInt(out, entry.getValue().length);
+      out.write(entry.getValue());
+    }
+  }
+
+  private void evict() {
+    Iterator<byte[]> eldest = entries.values().iterator();
+    while (size > maxSize && eldest.hasNext()) {
+      size -= entrySize(eldest.next());
+      eldest.remove();
+      modified = true;
+    }
+  }
+
+  private static long entrySize(byte[] encoded) {
+    return CacheKey.BYTES + varIntSize(encoded.length) + (long) encoded.length;
+  }
+
+  static void encode(List<CachedIssue> issues, DataOutput out) throws IOException {
+    writeVarInt(out, issues.size());
+    for (CachedIssue issue : issues) {
+      writeLocation(out, issue.primary());
+      writeVarInt(out, issue.secondaries().size());
+      for (CachedIssue.Location secondary : issue.secondaries()) {
+        writeLocation(out, secondary);
+      }
+      out.writeBoolean(issue.cost() != null);
+      if (issue.cost() != null) {
+        out.writeDouble(issue.cost());
+      }
+    }
+  }
+
+  static List<CachedIssue> decode(DataInput in) throws IOException {
+    int count = readVarInt(in);
+    List<CachedIssue> issues = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      CachedIssue.Location primary = readLocation(in);
+      int secondaryCount = readVarInt(in);
+      List<CachedIssue.Location> secondaries = new ArrayList<>(secondaryCount);
+      for (int j = 0; j < secondaryCount; j++) {
+        secondaries.add(readLocation(in));
+      }
+      Double cost = in.readBoolean() ? in.readDouble() : null;
+      issues.add(new CachedIssue(primary, secondaries, cost));
+    }
+    return issues;
+  }
+
+  /**
+   * The kind and the columns may be -1, so they are written plus one. The message is written as the length of its
+   * UTF-8 bytes plus one, 0 meaning no message, followed by the bytes.
+   */
+  private static void writeLocation(DataOutput out, CachedIssue.Location location) throws IOException {
+    writeVarInt(out, location.kind() + 1);
+    writeVarInt(out, location.startLine());
+    writeVarInt(out, location.startColumn() + 1);
+    writeVarInt(out, location.endLine() - location.startLine());
+    writeVarInt(out, location.endColumn() + 1);
+    if (location.message() == null) {
+      writeVarInt(out, 0);
+    } else {
+      byte[] message = location.message().getBytes(StandardCharsets.UTF_8);
+      writeVarInt(out, message.length + 1);
+      out.write(message);
+    }
+  }
+
+  private static CachedIssue.Location readLocation(DataInput in) throws IOException {
+    int kind = readVarInt(in) - 1;
+    int startLine = readVarInt(in);
+    int startColumn = readVarInt(in) - 1;
+    int endLine = startLine + readVarInt(in);
+    int endColumn = readVarInt(in) - 1;
+    int messageLength = readVarInt(in);
+    String message = null;
+    if (messageLength > 0) {
+      byte[] bytes = new byte[messageLength - 1];
+      in.readFully(bytes);
+      message = new String(bytes, StandardCharsets.UTF_8);
+    }
+    return CachedIssue.Location.decode(kind, startLine, startColumn, endLine, endColumn, message);
+  }
+
+  static void writeVarInt(DataOutput out, int value) throws IOException {
+    int remaining = value;
+    while ((remaining & ~0x7F) != 0) {
+      out.writeByte((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    out.writeByte(remaining);
+  }
+
+  static int readVarInt(DataInput in) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed variable-length integer");
+  }
+
+  private static int varIntSize(int value) {
+    int bytes = 1;
+    for (int remaining = value >>> 7; remaining != 0; remaining >>>= 7) {
+      bytes++;
+    }
+    return bytes;
+  }
+
+}
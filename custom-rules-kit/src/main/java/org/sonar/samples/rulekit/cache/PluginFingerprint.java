@@ -0,0 +1,117 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Fingerprint of the code of the plugins, stored in the {@link IssueCache}: when it changes, e.g. when a plugin jar is
+ * replaced by a new version, the cached issues are dropped.
+ * <p>
+ * A jar is identified by the digest of its content, and a directory of classes (tests, IDE) by the paths, sizes and
+ * modification times of its files.
+ */
+public final class PluginFingerprint {
+
+  private static final int READ_BUFFER_SIZE = 8192;
+
+  private static final Map<Path, String> BY_LOCATION = new ConcurrentHashMap<>();
+
+  private PluginFingerprint() {
+  }
+
+  /**
+   * @param classes a class of each plugin whose code may change the issues, typically the custom plugin and the
+   * language plugin it extends
+   * @return the hexadecimal digest of the locations of the classes
+   */
+  public static String of(Class<?>... classes) {
+    MessageDigest sha = CacheKey.sha256();
+    for (Class<?> c : classes) {
+      CodeSource source = c.getProtectionDomain().getCodeSource();
+      String fingerprint = source == null || source.getLocation() == null ? c.getName() : of(source.getLocation());
+      sha.update(fingerprint.getBytes(StandardCharsets.UTF_8));
+    }
+    return hex(sha.digest());
+  }
+
+  private static String of(URL location) {
+    Path path;
+    try {
+      path = Paths.get(location.toURI());
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return location.toString();
+    }
+    return BY_LOCATION.computeIfAbsent(path, PluginFingerprint::of);
+  }
+
+  static String of(Path location) {
+    MessageDigest sha = CacheKey.sha256();
+    try {
+      if (Files.isDirectory(location)) {
+        for (Path file : files(location)) {
+          String entry = location.relativize(file) + " " + Files.size(file) + " " + Files.getLastModifiedTime(file).toMillis() + "\n";
+          sha.update(entry.getBytes(StandardCharsets.UTF_8));
+        }
+      } else {
+        try (InputStream in = Files.newInputStream(location)) {
+          byte[] buffer = new byte[READ_BUFFER_SIZE];
+          int read;
+          while ((read = in.read(buffer)) > 0) {
+            sha.update(buffer, 0, read);
+          }
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Cannot read " + location, e);
+    }
+    return hex(sha.digest());
+  }
+
+  private static List<Path> files(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+  }
+
+  static String hex(byte[] digest) {
+    StringBuilder hex = new StringBuilder(digest.length * 2);
+    for (byte b : digest) {
+      hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+}
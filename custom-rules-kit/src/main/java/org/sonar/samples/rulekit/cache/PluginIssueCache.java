@@ -0,0 +1,80 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The {@link IssueCache} of a plugin during one analysis. The plugin keeps one instance, from which its checks get
+ * the cache when they are created, and ends the analysis from a component of the analysis, such as a post-job: the
+ * cache is then saved and released, and the next analysis run in the same JVM, e.g. by a daemon, loads it again.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class PluginIssueCache {
+
+  private final String plugin;
+  private final Class<?>[] pluginClasses;
+  private IssueCache cache;
+
+  /**
+   * @param plugin the key of the plugin, which names its cache file
+   * @param pluginClasses a class of each plugin whose code may change the issues, see {@link PluginFingerprint#of}
+   */
+  public PluginIssueCache(String plugin, Class<?>... pluginClasses) {
+    this.plugin = plugin;
+    this.pluginClasses = pluginClasses.clone();
+  }
+
+  /**
+   * @return null when the {@value IssueCache#INCREMENTAL_PROPERTY} system property is not "true", otherwise the cache
+   * of the current analysis, loaded on first call from the directory given by the
+   * {@value IssueCache#DIRECTORY_PROPERTY} system property (".sonar/rulekit-cache" in the home directory by default).
+   * Its maximum size in bytes is given by the {@value IssueCache#MAX_SIZE_PROPERTY} system property, 64 MB by default.
+   */
+  public synchronized IssueCache get() {
+    if (!Boolean.getBoolean(IssueCache.INCREMENTAL_PROPERTY)) {
+      return null;
+    }
+    if (cache == null) {
+      Path directory = Paths.get(System.getProperty(IssueCache.DIRECTORY_PROPERTY, Paths.get(System.getProperty("user.home"), ".sonar", "rulekit-cache").toString()));
+      cache = IssueCache.open(directory.resolve(plugin + ".cache"), PluginFingerprint.of(pluginClasses),
+        Long.getLong(IssueCache.MAX_SIZE_PROPERTY, IssueCache.DEFAULT_MAX_SIZE));
+    }
+    return cache;
+  }
+
+  /**
+   * Ends the analysis: the cache is saved if it was loaded, then released.
+   *
+   * @return the saved cache, or null if the analysis did not load it
+   */
+  public synchronized IssueCache endAnalysis() throws IOException {
+    IssueCache ended = cache;
+    cache = null;
+    if (ended != null) {
+      ended.save();
+    }
+    return ended;
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.profiling;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Access to {@link RuleExecutionEvent}, isolated so that the kit still loads on a JVM without the JFR API: the event
+ * class is only touched when {@link #AVAILABLE} is true.
+ */
+final class JfrEvents {
+
+  static final boolean AVAILABLE = isAvailable();
+
+  private JfrEvents() {
+  }
+
+  private static boolean isAvailable() {
+    try {
+      Class.forName("jdk.jfr.FlightRecorder", false, JfrEvents.class.getClassLoader());
+      return true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return true if a recording is running and has the rule execution events enabled. Before the first recording,
+   * only a static flag is read.
+   */
+  static boolean isEnabled() {
+    return AVAILABLE && FlightRecorder.isInitialized() && new RuleExecutionEvent().isEnabled();
+  }
+
+  /**
+   * @return the started event, typed as an Object so that the callers do not load the event class
+   */
+  static Object begin() {
+    RuleExecutionEvent event = new RuleExecutionEvent();
+    event.begin();
+    return event;
+  }
+
+  static void commit(Object started, String rule, String file, long ruleTime, long nodes, long allocated, int issues) {
+    RuleExecutionEvent event = (RuleExecutionEvent) started;
+    event.end();
+    if (event.shouldCommit()) {
+      event.rule = rule;
+      event.file = file;
+      event.ruleTime = ruleTime;
+      event.nodes = nodes;
+      event.allocated = allocated;
+      event.issues = issues;
+      event.commit();
+    }
+  }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event of the execution of one rule on one file. Its duration spans the analysis of the file,
+ * which may run other rules meanwhile: the time spent in the rule itself is {@link #ruleTime}.
+ * <p>
+ * Only loaded by {@link JfrEvents}, when the running JVM has the JFR API.
+ */
+@Name(RuleExecutionEvent.NAME)
+@Label("Rule Execution")
+@Category({"SonarQube", "Custom Rules"})
+@Description("Execution of a custom rule on a file")
+@StackTrace(false)
+final class RuleExecutionEvent extends Event {
+
+  static final String NAME = "org.sonar.samples.RuleExecution";
+
+  @Label("Rule")
+  String rule;
+
+  @Label("File")
+  String file;
+
+  @Label("Rule Time")
+  @Timespan(Timespan.NANOSECONDS)
+  long ruleTime;
+
+  @Label("Nodes Visited")
+  long nodes;
+
+  @Label("Allocated")
+  @DataAmount
+  long allocated;
+
+  @Label("Issues Raised")
+  int issues;
+
+}
@@ -0,0 +1,166 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.profiling;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Totals of the measures of the rules over all the analyzed files, written as the list of the slowest rules.
+ * <p>
+ * The {@link #global() global summary} is taken by {@link #endAnalysis()} at the end of the analysis, with the number
+ * of rules given by the {@value #TOP_PROPERTY} system property, {@value #DEFAULT_TOP} by default: each plugin logs it
+ * from a post-job.
+ * <p>
+ * Instances are thread-safe.
+ */
+public final class RuleProfileSummary {
+
+  public static final String TOP_PROPERTY = "rulekit.profiling.top";
+  public static final int DEFAULT_TOP = 10;
+
+  private static RuleProfileSummary global;
+
+  private final Map<String, Totals> totalsByRule = new ConcurrentHashMap<>();
+
+  /**
+   * @return the summary shared by all the rules of the class loader, created on first call
+   */
+  public static synchronized RuleProfileSummary global() {
+    if (global == null) {
+      global = new RuleProfileSummary();
+    }
+    return global;
+  }
+
+  /**
+   * Ends the analysis: the totals of the global summary are cleared, so that the next analysis run in the same JVM,
+   * e.g. by a daemon, starts from zero.
+   *
+   * @return the table of the slowest rules of the analysis, or null if no rule was profiled
+   */
+  public static synchronized String endAnalysis() {
+    if (global == null) {
+      return null;
+    }
+    String table = global.table(Integer.getInteger(TOP_PROPERTY, DEFAULT_TOP));
+    global.totalsByRule.clear();
+    return table.isEmpty() ? null : table;
+  }
+
+  public void record(String rule, long ruleTime, long nodes, long allocated, int issues) {
+    Totals totals = totalsByRule.computeIfAbsent(rule, Totals::new);
+    synchronized (totals) {
+      totals.files++;
+      totals.ruleTime += ruleTime;
+      totals.nodes += nodes;
+      totals.allocated += allocated;
+      totals.issues += issues;
+    }
+  }
+
+  /**
+   * @return the totals of the given number of rules which took the most time, the slowest first
+   */
+  public List<Totals> top(int count) {
+    List<Totals> all = new ArrayList<>();
+    for (Totals totals : totalsByRule.values()) {
+      synchronized (totals) {
+        all.add(totals.copy());
+      }
+    }
+    all.sort(Comparator.comparingLong(Totals::ruleTime).reversed().thenComparing(Totals::rule));
+    return all.subList(0, Math.min(count, all.size()));
+  }
+
+  /**
+   * @return the totals of the given number of slowest rules, one line per rule after a header, or an empty string
+   * if no rule was recorded
+   */
+  public String table(int count) {
+    List<Totals> top = top(count);
+    if (top.isEmpty()) {
+      return "";
+    }
+    StringBuilder table = new StringBuilder();
+    table.append(String.format(Locale.ROOT, "Top %d slowest rules, out of %d:%n", top.size(), totalsByRule.size()));
+    table.append(String.format(Locale.ROOT, "%-40s %12s %8s %12s %14s %8s%n", "Rule", "Time (ms)", "Files", "Nodes", "Allocated (KB)", "Issues"));
+    for (Totals totals : top) {
+      table.append(String.format(Locale.ROOT, "%-40s %12.1f %8d %12d %14d %8d%n",
+        totals.rule, totals.ruleTime / 1e6, totals.files, totals.nodes, totals.allocated / 1024, totals.issues));
+    }
+    return table.toString();
+  }
+
+  /**
+   * Measures of one rule, summed over the files.
+   */
+  public static final class Totals {
+    private final String rule;
+    private long files;
+    private long ruleTime;
+    private long nodes;
+    private long allocated;
+    private long issues;
+
+    Totals(String rule) {
+      this.rule = rule;
+    }
+
+    private Totals copy() {
+      Totals copy = new Totals(rule);
+      copy.files = files;
+      copy.ruleTime = ruleTime;
+      copy.nodes = nodes;
+      copy.allocated = allocated;
+      copy.issues = issues;
+      return copy;
+    }
+
+    public String rule() {
+      return rule;
+    }
+
+    public long files() {
+      return files;
+    }
+
+    public long ruleTime() {
+      return ruleTime;
+    }
+
+    public long nodes() {
+      return nodes;
+    }
+
+    public long allocated() {
+      return allocated;
+    }
+
+    public long issues() {
+      return issues;
+    }
+  }
+
+}
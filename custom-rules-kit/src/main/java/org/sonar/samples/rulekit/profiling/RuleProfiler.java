@@ -0,0 +1,161 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.profiling;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the executions of one rule, file by file: the time spent in the rule, the nodes it visited, the bytes it
+ * allocated and the issues it raised. Each file is sent as a {@link RuleExecutionEvent} to Java Flight Recorder when
+ * a recording enables the event, and added to the {@link RuleProfileSummary#global() summary} when the
+ * {@value #PROFILING_PROPERTY} system property is "true".
+ * <p>
+ * The base classes of the checks call {@link #startFile(String)} and {@link #endFile()} around each file, and
+ * {@link #enter()} and {@link #exit()} around each callback of the rule, which may be interleaved with the callbacks
+ * of other rules. When profiling is off, i.e. neither a recording nor the property enables it when the file starts,
+ * each call only reads a boolean field.
+ * <p>
+ * Instances are not thread-safe: like the checks, each one is used by one thread at a time.
+ */
+public final class RuleProfiler {
+
+  public static final String PROFILING_PROPERTY = "rulekit.profiling";
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private final String rule;
+  private final RuleProfileSummary summary;
+
+  private boolean active;
+  private Object event;
+  private String file;
+  private long ruleTime;
+  private long nodes;
+  private long allocated;
+  private int issues;
+  private long enteredAt;
+  private long allocatedAt;
+
+  RuleProfiler(String rule, RuleProfileSummary summary) {
+    this.rule = rule;
+    this.summary = summary;
+  }
+
+  /**
+   * @return a profiler of the rule, which adds its measures to the global summary when the
+   * {@value #PROFILING_PROPERTY} system property is "true"
+   */
+  public static RuleProfiler of(String rule) {
+    return new RuleProfiler(rule, Boolean.getBoolean(PROFILING_PROPERTY) ? RuleProfileSummary.global() : null);
+  }
+
+  public String rule() {
+    return rule;
+  }
+
+  /**
+   * @return true between {@link #startFile(String)} and {@link #endFile()} when profiling is on
+   */
+  public boolean isActive() {
+    return active;
+  }
+
+  /**
+   * Starts the measures of a file. A file which was not ended is ended first.
+   */
+  public void startFile(String file) {
+    if (active) {
+      endFile();
+    }
+    boolean recorded = JfrEvents.isEnabled();
+    if (!recorded && summary == null) {
+      return;
+    }
+    active = true;
+    event = recorded ? JfrEvents.begin() : null;
+    this.file = file == null ? "" : file;
+    ruleTime = 0;
+    nodes = 0;
+    allocated = 0;
+    issues = 0;
+  }
+
+  /**
+   * Starts measuring a callback of the rule.
+   */
+  public void enter() {
+    if (active) {
+      allocatedAt = allocatedBytes();
+      enteredAt = System.nanoTime();
+    }
+  }
+
+  /**
+   * Stops measuring the callback started by the last {@link #enter()}.
+   */
+  public void exit() {
+    if (active) {
+      ruleTime += System.nanoTime() - enteredAt;
+      allocated += allocatedBytes() - allocatedAt;
+    }
+  }
+
+  public void node() {
+    nodes++;
+  }
+
+  public void issue() {
+    issues++;
+  }
+
+  public void issues(int count) {
+    issues += count;
+  }
+
+  /**
+   * Sends the measures of the current file to Java Flight Recorder and to the summary.
+   */
+  public void endFile() {
+    if (!active) {
+      return;
+    }
+    active = false;
+    if (event != null) {
+      JfrEvents.commit(event, rule, file, ruleTime, nodes, allocated, issues);
+      event = null;
+    }
+    if (summary != null) {
+      summary.record(rule, ruleTime, nodes, allocated, issues);
+    }
+  }
+
+  /**
+   * @return the bytes allocated so far by the current thread, or 0 if the JVM does not measure them
+   */
+  private static long allocatedBytes() {
+    if (THREADS instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+      return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return 0;
+  }
+
+}
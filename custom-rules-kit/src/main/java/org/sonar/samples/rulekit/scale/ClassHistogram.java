@@ -0,0 +1,134 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.scale;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Instances and bytes of the live objects of each class, as printed by "jcmd &lt;pid&gt; GC.class_histogram": taking
+ * the histogram runs a full garbage collection first, so only the retained objects are counted.
+ */
+public final class ClassHistogram {
+
+  private static final String DIAGNOSTIC_COMMAND = "com.sun.management:type=DiagnosticCommand";
+  // "   1:         12345        1234567  [B (java.base@17)"
+  private static final Pattern LINE = Pattern.compile("^\\s*\\d+:\\s+(\\d+)\\s+(\\d+)\\s+(\\S+)");
+
+  private final Map<String, Entry> entries;
+
+  private ClassHistogram(Map<String, Entry> entries) {
+    this.entries = entries;
+  }
+
+  /**
+   * @return the histogram of the live objects of this JVM
+   * @throws IllegalStateException if the JVM has no diagnostic command MBean, e.g. it is not a HotSpot JVM
+   */
+  public static ClassHistogram live() {
+    return parse(liveOutput());
+  }
+
+  /**
+   * @return the histogram of the live objects of this JVM, as printed by the diagnostic command
+   */
+  public static String liveOutput() {
+    try {
+      return (String) ManagementFactory.getPlatformMBeanServer().invoke(new ObjectName(DIAGNOSTIC_COMMAND),
+        "gcClassHistogram", new Object[] {null}, new String[] {String[].class.getName()});
+    } catch (JMException e) {
+      throw new IllegalStateException("Unable to take the class histogram", e);
+    }
+  }
+
+  public static ClassHistogram parse(String output) {
+    Map<String, Entry> entries = new HashMap<>();
+    for (String line : output.split("\\R")) {
+      Matcher matcher = LINE.matcher(line);
+      if (matcher.find()) {
+        String className = matcher.group(3);
+        // the same name may be loaded by several class loaders
+        entries.merge(className, new Entry(className, Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))),
+          (a, b) -> new Entry(className, a.instances + b.instances, a.bytes + b.bytes));
+      }
+    }
+    return new ClassHistogram(entries);
+  }
+
+  public Entry get(String className) {
+    return entries.getOrDefault(className, new Entry(className, 0, 0));
+  }
+
+  /**
+   * @return the given number of classes whose retained bytes grew the most since the given histogram, the largest
+   * growth first: their entries give the growth of the instances and bytes
+   */
+  public List<Entry> largestGrowthSince(ClassHistogram before, int count) {
+    List<Entry> growth = new ArrayList<>();
+    for (Entry entry : entries.values()) {
+      Entry previous = before.get(entry.className);
+      long bytes = entry.bytes - previous.bytes;
+      if (bytes > 0) {
+        growth.add(new Entry(entry.className, entry.instances - previous.instances, bytes));
+      }
+    }
+    growth.sort(Comparator.comparingLong(Entry::bytes).reversed().thenComparing(Entry::className));
+    return growth.subList(0, Math.min(count, growth.size()));
+  }
+
+  public static final class Entry {
+    private final String className;
+    private final long instances;
+    private final long bytes;
+
+    Entry(String className, long instances, long bytes) {
+      this.className = className;
+      this.instances = instances;
+      this.bytes = bytes;
+    }
+
+    public String className() {
+      return className;
+    }
+
+    public long instances() {
+      return instances;
+    }
+
+    public long bytes() {
+      return bytes;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ROOT, "%12d %14d  %s", instances, bytes, className);
+    }
+  }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.scale;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Heap retained after the analysis of an increasing number of files. The growth per file stays close to zero when
+ * the checks do not keep anything from one file to the next, whatever the number of files.
+ */
+public final class RetainedMemory {
+
+  private static final int COLLECTIONS = 3;
+
+  private final List<Sample> samples = new ArrayList<>();
+
+  /**
+   * @return the bytes used by the heap after garbage collections, the least of several ones: a collection may not
+   * free all the unreachable objects, e.g. the ones of the old generation referenced by the young one
+   */
+  public static long retainedHeap() {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    long retained = Long.MAX_VALUE;
+    for (int i = 0; i < COLLECTIONS; i++) {
+      memory.gc();
+      retained = Math.min(retained, memory.getHeapMemoryUsage().getUsed());
+    }
+    return retained;
+  }
+
+  /**
+   * Records the heap retained once the given number of files are analyzed.
+   */
+  public Sample sample(long files) {
+    return add(files, retainedHeap());
+  }
+
+  Sample add(long files, long bytes) {
+    Sample sample = new Sample(files, bytes);
+    samples.add(sample);
+    return sample;
+  }
+
+  public List<Sample> samples() {
+    return Collections.unmodifiableList(samples);
+  }
+
+  /**
+   * @return the growth of the retained bytes by file: the median of the slopes between all the pairs of samples,
+   * which is not skewed by the few samples taken while the heap was holding softly reachable objects or caches;
+   * 0 with less than two samples
+   */
+  public double bytesPerFile() {
+    List<Double> slopes = new ArrayList<>();
+    for (int i = 0; i < samples.size(); i++) {
+      for (int j = i + 1; j < samples.size(); j++) {
+        Sample first = samples.get(i);
+        Sample second = samples.get(j);
+        if (second.files != first.files) {
+          slopes.add((double) (second.bytes - first.bytes) / (second.files - first.files));
+        }
+      }
+    }
+    if (slopes.isEmpty()) {
+      return 0;
+    }
+    Collections.sort(slopes);
+    int middle = slopes.size() / 2;
+    return slopes.size() % 2 == 1 ? slopes.get(middle) : ((slopes.get(middle - 1) + slopes.get(middle)) / 2);
+  }
+
+  public static final class Sample {
+    private final long files;
+    private final long bytes;
+
+    Sample(long files, long bytes) {
+      this.files = files;
+      this.bytes = bytes;
+    }
+
+    public long files() {
+      return files;
+    }
+
+    public long bytes() {
+      return bytes;
+    }
+  }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.scale;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Analyzes thousands of files in a single JVM with the same instances of the checks, as during an analysis, and fails
+ * when the checks keep anything from one file to the next:
+ * <ul>
+ *   <li>the first file of each batch is also analyzed by new instances of the checks: both must raise the same
+ *   issues, i.e. the state of the checks must be reset when a file starts</li>
+ *   <li>the heap retained after each batch must not grow with the number of files: its growth per file is compared
+ *   with a maximum, and the classes whose retained bytes grew the most are listed</li>
+ * </ul>
+ * The first batch is not measured: it fills the caches and the lazily initialized constants of the checks and of
+ * the parser.
+ */
+public final class ScaleHarness {
+
+  public static final int DEFAULT_FILES = 10_000;
+  public static final int DEFAULT_BATCH = 500;
+  public static final long DEFAULT_MAX_BYTES_PER_FILE = 64;
+
+  private static final int HISTOGRAM_CLASSES = 15;
+  private static final int MAX_REPORTED_STATE_LEAKS = 10;
+
+  private final int files;
+  private final int batch;
+  private final long maxBytesPerFile;
+  private final PrintStream out;
+
+  public ScaleHarness(int files, int batch, long maxBytesPerFile, PrintStream out) {
+    if (batch <= 0 || files < 3 * batch) {
+      throw new IllegalArgumentException("At least 3 batches of files are needed, got " + files + " files by " + batch);
+    }
+    this.files = files;
+    this.batch = batch;
+    this.maxBytesPerFile = maxBytesPerFile;
+    this.out = out;
+  }
+
+  /**
+   * @param args the number of files, the number of files per batch and the maximum growth of the retained heap, in
+   * bytes per file; the missing ones take their default value
+   */
+  public static ScaleHarness fromArgs(String[] args, PrintStream out) {
+    int files = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FILES;
+    int batch = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_BATCH;
+    long maxBytesPerFile = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_MAX_BYTES_PER_FILE;
+    return new ScaleHarness(files, batch, maxBytesPerFile, out);
+  }
+
+  /**
+   * Analysis of the generated files by the checks of a plugin.
+   */
+  public interface Analysis {
+
+    /**
+     * Analyzes the file of the given index with the instances of the checks used for all the files.
+     *
+     * @return the issues raised on the file, in any form implementing equals, e.g. a list of "rule:line" strings
+     */
+    Object analyze(int file);
+
+    /**
+     * Analyzes the file of the given index with new instances of the checks, which are then discarded.
+     */
+    Object analyzeWithNewChecks(int file);
+  }
+
+  /**
+   * @return the heap retained after each measured batch
+   * @throws IllegalStateException when the issues depend on the previous files or the retained heap grows
+   */
+  public RetainedMemory run(Analysis analysis) {
+    RetainedMemory memory = new RetainedMemory();
+    List<String> stateLeaks = new ArrayList<>();
+    Path warm = null;
+    for (int start = 0; start < files; start += batch) {
+      int end = Math.min(files, start + batch);
+      Object expected = analysis.analyzeWithNewChecks(start);
+      Object actual = analysis.analyze(start);
+      if (!expected.equals(actual)) {
+        stateLeaks.add(String.format(Locale.ROOT, "file %d: %s with new checks, %s with reused checks", start, expected, actual));
+      }
+      for (int file = start + 1; file < end; file++) {
+        analysis.analyze(file);
+      }
+      if (warm == null) {
+        warm = writeHistogram();
+      } else {
+        RetainedMemory.Sample sample = memory.sample(end);
+        out.printf(Locale.ROOT, "%8d files: %,12d KB retained%n", sample.files(), sample.bytes() / 1024);
+      }
+    }
+
+    double bytesPerFile = memory.bytesPerFile();
+    out.printf(Locale.ROOT, "Retained heap grows by %.1f bytes per file, at most %d are accepted%n", bytesPerFile, maxBytesPerFile);
+    out.printf(Locale.ROOT, "Largest growth of the retained objects after the first %d files:%n", batch);
+    out.printf(Locale.ROOT, "%12s %14s  %s%n", "#instances", "#bytes", "class name");
+    for (ClassHistogram.Entry entry : ClassHistogram.live().largestGrowthSince(readHistogram(warm), HISTOGRAM_CLASSES)) {
+      out.println(entry);
+    }
+    out.flush();
+
+    if (!stateLeaks.isEmpty()) {
+      throw new IllegalStateException("The issues depend on the previously analyzed files, the state of the checks is not reset:\n  "
+        + String.join("\n  ", stateLeaks.subList(0, Math.min(MAX_REPORTED_STATE_LEAKS, stateLeaks.size()))));
+    }
+    if (bytesPerFile > maxBytesPerFile) {
+      throw new IllegalStateException(String.format(Locale.ROOT,
+        "The retained heap grows with the number of files: %.1f bytes per file, at most %d are accepted", bytesPerFile, maxBytesPerFile));
+    }
+    return memory;
+  }
+
+  /**
+   * The histogram taken after the first batch is kept in a file, so that its own objects are not counted in the growth.
+   */
+  private static Path writeHistogram() {
+    try {
+      Path file = Files.createTempFile("class-histogram", ".txt");
+      Files.write(file, ClassHistogram.liveOutput().getBytes(StandardCharsets.UTF_8));
+      return file;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static ClassHistogram readHistogram(Path file) {
+    try {
+      ClassHistogram histogram = ClassHistogram.parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+      Files.delete(file);
+      return histogram;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
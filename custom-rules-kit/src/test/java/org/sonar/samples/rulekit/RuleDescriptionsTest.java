@@ -0,0 +1,130 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class RuleDescriptionsTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private Path pack;
+
+  @Before
+  public void setUp() throws IOException {
+    Path descriptions = temp.newFolder("descriptions").toPath();
+    write(descriptions.resolve("S1.html"), "<p>First rule</p>");
+    write(descriptions.resolve("S2.html"), "<p>Second rule é</p>");
+    write(descriptions.resolve("S3.html"), "");
+    write(descriptions.resolve("notes.txt"), "not a description");
+    Files.createDirectories(descriptions.resolve("sub"));
+    write(descriptions.resolve("sub/S4.html"), "<p>Not packed</p>");
+
+    pack = temp.getRoot().toPath().resolve("classes/org/sonar/l10n/rules/" + RuleDescriptions.PACK_NAME);
+    assertThat(RuleDescriptionPacker.pack(descriptions, pack)).isEqualTo(3);
+  }
+
+  @Test
+  public void mapped_file() throws IOException {
+    assertDescriptions(RuleDescriptions.load(pack.toUri().toURL(), 10));
+  }
+
+  @Test
+  public void single_read_from_jar() throws IOException {
+    File jar = temp.newFile("plugin.jar");
+    try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar.toPath()))) {
+      out.putNextEntry(new JarEntry("org/sonar/l10n/rules/" + RuleDescriptions.PACK_NAME));
+      Files.copy(pack, out);
+      out.closeEntry();
+    }
+    URL resource = new URL("jar:" + jar.toURI() + "!/org/sonar/l10n/rules/" + RuleDescriptions.PACK_NAME);
+
+    assertDescriptions(RuleDescriptions.load(resource, 10));
+  }
+
+  @Test
+  public void cache_is_bounded() throws IOException {
+    RuleDescriptions descriptions = RuleDescriptions.load(pack.toUri().toURL(), 2);
+    assertThat(descriptions.cachedDescriptions()).isZero();
+
+    descriptions.description("S1");
+    descriptions.description("S2");
+    descriptions.description("S3");
+    assertThat(descriptions.cachedDescriptions()).isEqualTo(2);
+    // evicted descriptions are decoded again
+    assertThat(descriptions.description("S1")).isEqualTo("<p>First rule</p>");
+  }
+
+  @Test
+  public void missing_description() throws IOException {
+    RuleDescriptions descriptions = RuleDescriptions.load(pack.toUri().toURL(), 10);
+    assertThat(descriptions.findDescription("S4")).isNull();
+    try {
+      descriptions.description("S4");
+      fail("Expected an exception");
+    } catch (IllegalStateException e) {
+      assertThat(e).hasMessage("Rule description not found: S4");
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void missing_pack() {
+    RuleDescriptions.load(RuleDescriptionsTest.class, "/unknown/" + RuleDescriptions.PACK_NAME);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void not_a_pack() throws IOException {
+    Path file = temp.newFile("S1.html").toPath();
+    write(file, "<p>First rule, not packed</p>");
+    RuleDescriptions.load(file.toUri().toURL(), 10);
+  }
+
+  private static void assertDescriptions(RuleDescriptions descriptions) {
+    assertThat(descriptions.ruleKeys()).containsOnly("S1", "S2", "S3");
+    assertThat(descriptions.description("S1")).isEqualTo("<p>First rule</p>");
+    assertThat(descriptions.description("S2")).isEqualTo("<p>Second rule é</p>");
+    assertThat(descriptions.description("S3")).isEmpty();
+    // same instance from the cache
+    assertThat(descriptions.description("S1")).isSameAs(descriptions.description("S1"));
+  }
+
+  private static void write(Path file, String content) throws IOException {
+    try (OutputStream out = Files.newOutputStream(file)) {
+      out.write(content.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+}
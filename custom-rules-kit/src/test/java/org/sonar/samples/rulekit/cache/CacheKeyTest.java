@@ -0,0 +1,81 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.cache;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Collections;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class CacheKeyTest {
+
+  @Test
+  public void key_depends_on_content_rule_and_parameters() {
+    CacheKey key = CacheKey.of("class A {}", "Rule", Collections.singletonMap("format", "^[a-z]+$"));
+
+    assertThat(CacheKey.of(new String("class A {}"), "Rule", Collections.singletonMap("format", "^[a-z]+$"))).isEqualTo(key);
+    assertThat(CacheKey.of("class A { }", "Rule", Collections.singletonMap("format", "^[a-z]+$"))).isNotEqualTo(key);
+    assertThat(CacheKey.of("class A {}", "Other", Collections.singletonMap("format", "^[a-z]+$"))).isNotEqualTo(key);
+    assertThat(CacheKey.of("class A {}", "Rule", Collections.singletonMap("format", "^[A-Z]+$"))).isNotEqualTo(key);
+    assertThat(CacheKey.of("class A {}", "Rule", Collections.emptyMap())).isNotEqualTo(key);
+    assertThat(key.toString()).hasSize(2 * CacheKey.BYTES);
+  }
+
+  @Test
+  public void strings_are_separated() {
+    assertThat(CacheKey.of("", "Rule", Collections.singletonMap("ab", "c")))
+      .isNotEqualTo(CacheKey.of("", "Rule", Collections.singletonMap("a", "bc")));
+  }
+
+  @Test
+  public void parameters_are_the_annotated_fields() {
+    Check check = new Check();
+    check.format = "^[a-z]+$";
+
+    assertThat(CacheKey.parameters(check, Property.class)).containsExactly(
+      entry("format", "^[a-z]+$"),
+      entry("max", "3"),
+      entry("names", "[a, b]"));
+  }
+
+  @Retention(RetentionPolicy.RUNTIME)
+  @interface Property {
+    String key() default "";
+  }
+
+  static class BaseCheck {
+    @Property
+    private int max = 3;
+  }
+
+  static class Check extends BaseCheck {
+    @Property(key = "format")
+    String format;
+
+    @Property(key = "names")
+    private String[] names = {"a", "b"};
+
+    private String state = "not a parameter";
+  }
+
+}
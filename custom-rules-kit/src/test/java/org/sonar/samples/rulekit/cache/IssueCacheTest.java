@@ -0,0 +1,166 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.samples.rulekit.cache.CachedIssue.Location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IssueCacheTest {
+
+  private static final List<CachedIssue> ISSUES = Arrays.asList(
+    new CachedIssue(Location.range(12, 3, 4, 5, 1, "Primary é"), Collections.singletonList(Location.range(Location.NO_KIND, 1, 0, 1, 8, null)), 2.5),
+    CachedIssue.of(Location.line(7, "Line")),
+    CachedIssue.of(Location.file(null)));
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void issues_are_replayed_after_save() throws IOException {
+    Path file = temp.getRoot().toPath().resolve("cache/plugin.cache");
+    IssueCache cache = IssueCache.open(file, "v1", 1024);
+    CacheKey key = CacheKey.of("class A {}", "Rule", Collections.emptyMap());
+    assertThat(cache.get(key)).isNull();
+    cache.put(key, ISSUES);
+    cache.save();
+
+    IssueCache reloaded = IssueCache.open(file, "v1", 1024);
+    assertThat(reloaded.get(key)).containsExactlyElementsOf(ISSUES);
+    assertThat(reloaded.get(CacheKey.of("class B {}", "Rule", Collections.emptyMap()))).isNull();
+    assertThat(reloaded.hits()).isEqualTo(1);
+    assertThat(reloaded.misses()).isEqualTo(1);
+    assertThat(reloaded.size()).isEqualTo(cache.size());
+    assertThat(Files.size(file)).isLessThan(150);
+  }
+
+  @Test
+  public void files_without_issues_are_cached() throws IOException {
+    Path file = temp.getRoot().toPath().resolve("plugin.cache");
+    IssueCache cache = IssueCache.open(file, "v1", 1024);
+    CacheKey key = CacheKey.of("class A {}", "Rule", Collections.emptyMap());
+    cache.put(key, Collections.emptyList());
+    cache.save();
+
+    assertThat(IssueCache.open(file, "v1", 1024).get(key)).isEmpty();
+  }
+
+  @Test
+  public void a_new_fingerprint_drops_the_issues() throws IOException {
+    Path file = temp.getRoot().toPath().resolve("plugin.cache");
+    IssueCache cache = IssueCache.open(file, "v1", 1024);
+    CacheKey key = CacheKey.of("class A {}", "Rule", Collections.emptyMap());
+    cache.put(key, ISSUES);
+    cache.save();
+
+    IssueCache upgraded = IssueCache.open(file, "v2", 1024);
+    assertThat(upgraded.get(key)).isNull();
+    assertThat(upgraded.entries()).isZero();
+    upgraded.save();
+    assertThat(IssueCache.open(file, "v1", 1024).entries()).isZero();
+  }
+
+  @Test
+  public void least_recently_used_entries_are_evicted() {
+    CacheKey first = CacheKey.of("1", "Rule", Collections.emptyMap());
+    CacheKey second = CacheKey.of("2", "Rule", Collections.emptyMap());
+    CacheKey third = CacheKey.of("3", "Rule", Collections.emptyMap());
+    IssueCache probe = IssueCache.open(temp.getRoot().toPath().resolve("probe.cache"), "v1", Long.MAX_VALUE);
+    probe.put(first, ISSUES);
+    long entrySize = probe.size();
+
+    IssueCache cache = IssueCache.open(temp.getRoot().toPath().resolve("plugin.cache"), "v1", 2 * entrySize);
+    cache.put(first, ISSUES);
+    cache.put(second, ISSUES);
+    cache.get(first);
+    cache.put(third, ISSUES);
+
+    assertThat(cache.entries()).isEqualTo(2);
+    assertThat(cache.size()).isEqualTo(2 * entrySize);
+    assertThat(cache.get(second)).isNull();
+    assertThat(cache.get(first)).isEqualTo(ISSUES);
+    assertThat(cache.get(third)).isEqualTo(ISSUES);
+  }
+
+  @Test
+  public void the_file_is_replaced_at_once() throws IOException {
+    Path directory = temp.newFolder().toPath();
+    Path file = directory.resolve("plugin.cache");
+    IssueCache cache = IssueCache.open(file, "v1", 1024);
+    cache.put(CacheKey.of("1", "Rule", Collections.emptyMap()), ISSUES);
+    cache.save();
+    cache.put(CacheKey.of("2", "Rule", Collections.emptyMap()), ISSUES);
+    cache.save();
+
+    try (Stream<Path> files = Files.list(directory)) {
+      assertThat(files).containsExactly(file);
+    }
+    assertThat(IssueCache.open(file, "v1", 1024).entries()).isEqualTo(2);
+  }
+
+  @Test
+  public void a_corrupted_file_is_ignored() throws IOException {
+    Path file = temp.getRoot().toPath().resolve("plugin.cache");
+    IssueCache cache = IssueCache.open(file, "v1", 1024);
+    CacheKey key = CacheKey.of("class A {}", "Rule", Collections.emptyMap());
+    cache.put(key, ISSUES);
+    cache.save();
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+    IssueCache truncated = IssueCache.open(file, "v1", 1024);
+    assertThat(truncated.get(key)).isNull();
+    assertThat(truncated.size()).isZero();
+
+    Files.write(file, "not a cache".getBytes("UTF-8"));
+    assertThat(IssueCache.open(file, "v1", 1024).entries()).isZero();
+  }
+
+  @Test
+  public void var_ints() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    int[] values = {0, 127, 128, 16_383, 16_384, Integer.MAX_VALUE};
+    for (int value : values) {
+      IssueCache.writeVarInt(out, value);
+    }
+    assertThat(bytes.size()).isEqualTo(1 + 1 + 2 + 2 + 3 + 5);
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    for (int value : values) {
+      assertThat(IssueCache.readVarInt(in)).isEqualTo(value);
+    }
+  }
+
+}
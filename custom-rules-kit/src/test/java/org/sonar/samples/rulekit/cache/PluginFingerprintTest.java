@@ -0,0 +1,67 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PluginFingerprintTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void a_jar_is_identified_by_its_content() throws IOException {
+    Path jar = temp.newFile("plugin.jar").toPath();
+    Files.write(jar, new byte[] {1, 2, 3});
+    String fingerprint = PluginFingerprint.of(jar);
+
+    Files.write(jar, new byte[] {1, 2, 3});
+    assertThat(PluginFingerprint.of(jar)).isEqualTo(fingerprint);
+    Files.write(jar, new byte[] {1, 2, 4});
+    assertThat(PluginFingerprint.of(jar)).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  public void a_directory_is_identified_by_its_files() throws IOException {
+    Path classes = temp.newFolder("classes").toPath();
+    Files.write(classes.resolve("A.class"), new byte[] {1});
+    String fingerprint = PluginFingerprint.of(classes);
+
+    assertThat(PluginFingerprint.of(classes)).isEqualTo(fingerprint);
+    Files.write(classes.resolve("B.class"), new byte[] {1});
+    assertThat(PluginFingerprint.of(classes)).isNotEqualTo(fingerprint);
+  }
+
+  @Test
+  public void fingerprint_of_classes() {
+    String fingerprint = PluginFingerprint.of(PluginFingerprintTest.class, Test.class);
+
+    assertThat(fingerprint).hasSize(64).isEqualTo(PluginFingerprint.of(PluginFingerprintTest.class, Test.class));
+    assertThat(PluginFingerprint.of(PluginFingerprintTest.class)).isNotEqualTo(fingerprint);
+  }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.samples.rulekit.cache.CachedIssue.Location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PluginIssueCacheTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @After
+  public void clearProperties() {
+    System.clearProperty(IssueCache.INCREMENTAL_PROPERTY);
+    System.clearProperty(IssueCache.DIRECTORY_PROPERTY);
+  }
+
+  @Test
+  public void incremental_mode_is_opt_in() throws IOException {
+    PluginIssueCache pluginCache = new PluginIssueCache("plugin", PluginIssueCacheTest.class);
+    assertThat(pluginCache.get()).isNull();
+    assertThat(pluginCache.endAnalysis()).isNull();
+  }
+
+  @Test
+  public void cache_is_saved_and_released_when_the_analysis_ends() throws IOException {
+    System.setProperty(IssueCache.INCREMENTAL_PROPERTY, "true");
+    System.setProperty(IssueCache.DIRECTORY_PROPERTY, temp.getRoot().toString());
+    PluginIssueCache pluginCache = new PluginIssueCache("plugin", PluginIssueCacheTest.class);
+    IssueCache cache = pluginCache.get();
+    assertThat(pluginCache.get()).isSameAs(cache);
+    CacheKey key = CacheKey.of("class A {}", "Rule", Collections.emptyMap());
+    cache.put(key, Collections.singletonList(CachedIssue.of(Location.line(1, "Issue"))));
+
+    assertThat(pluginCache.endAnalysis()).isSameAs(cache);
+    assertThat(Files.exists(temp.getRoot().toPath().resolve("plugin.cache"))).isTrue();
+    assertThat(pluginCache.endAnalysis()).isNull();
+
+    IssueCache next = pluginCache.get();
+    assertThat(next).isNotSameAs(cache);
+    assertThat(next.get(key)).hasSize(1);
+  }
+
+}
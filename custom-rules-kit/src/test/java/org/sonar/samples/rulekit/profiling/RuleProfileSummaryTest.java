@@ -0,0 +1,86 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.profiling;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RuleProfileSummaryTest {
+
+  @Test
+  public void sums_the_files_of_each_rule() {
+    RuleProfileSummary summary = new RuleProfileSummary();
+    summary.record("S1", 100, 10, 1000, 1);
+    summary.record("S1", 200, 20, 2000, 2);
+
+    RuleProfileSummary.Totals totals = summary.top(10).get(0);
+    assertThat(totals.files()).isEqualTo(2);
+    assertThat(totals.ruleTime()).isEqualTo(300);
+    assertThat(totals.nodes()).isEqualTo(30);
+    assertThat(totals.allocated()).isEqualTo(3000);
+    assertThat(totals.issues()).isEqualTo(3);
+  }
+
+  @Test
+  public void top_lists_the_slowest_rules_first() {
+    RuleProfileSummary summary = new RuleProfileSummary();
+    summary.record("fast", 10, 0, 0, 0);
+    summary.record("slow", 3_000, 0, 0, 0);
+    summary.record("medium", 200, 0, 0, 0);
+
+    assertThat(summary.top(2)).extracting(RuleProfileSummary.Totals::rule).containsExactly("slow", "medium");
+    assertThat(summary.top(5)).hasSize(3);
+  }
+
+  @Test
+  public void writes_a_table_of_the_top_rules() {
+    RuleProfileSummary summary = new RuleProfileSummary();
+    summary.record("S1", 2_500_000, 1234, 4096, 3);
+    summary.record("S2", 1_000, 1, 0, 0);
+
+    String[] lines = summary.table(1).split("\\R");
+    assertThat(lines).hasSize(3);
+    assertThat(lines[0]).isEqualTo("Top 1 slowest rules, out of 2:");
+    assertThat(lines[1]).startsWith("Rule ").contains("Time (ms)", "Allocated (KB)");
+    assertThat(lines[2].split("\\s+")).containsExactly("S1", "2.5", "1", "1234", "4", "3");
+  }
+
+  @Test
+  public void writes_nothing_without_rules() {
+    assertThat(new RuleProfileSummary().table(10)).isEmpty();
+  }
+
+  @Test
+  public void global_summary_is_shared() {
+    assertThat(RuleProfileSummary.global()).isSameAs(RuleProfileSummary.global());
+  }
+
+  @Test
+  public void end_of_analysis_takes_the_global_table() {
+    RuleProfileSummary.endAnalysis();
+    assertThat(RuleProfileSummary.endAnalysis()).isNull();
+
+    RuleProfileSummary.global().record("S1", 1_000, 1, 0, 0);
+    assertThat(RuleProfileSummary.endAnalysis()).startsWith("Top 1 slowest rules, out of 1:");
+    assertThat(RuleProfileSummary.endAnalysis()).isNull();
+  }
+
+}
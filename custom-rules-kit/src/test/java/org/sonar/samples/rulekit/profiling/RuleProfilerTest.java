@@ -0,0 +1,141 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.profiling;
+
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RuleProfilerTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void adds_each_file_to_the_summary() {
+    RuleProfileSummary summary = new RuleProfileSummary();
+    RuleProfiler profiler = new RuleProfiler("S1", summary);
+
+    for (String file : new String[] {"a.java", "b.java"}) {
+      profiler.startFile(file);
+      assertThat(profiler.isActive()).isTrue();
+      for (int i = 0; i < 3; i++) {
+        profiler.enter();
+        profiler.node();
+        allocate();
+        profiler.exit();
+      }
+      profiler.issue();
+      profiler.issues(2);
+      profiler.endFile();
+    }
+
+    assertThat(profiler.isActive()).isFalse();
+    RuleProfileSummary.Totals totals = summary.top(1).get(0);
+    assertThat(totals.rule()).isEqualTo("S1");
+    assertThat(totals.files()).isEqualTo(2);
+    assertThat(totals.nodes()).isEqualTo(6);
+    assertThat(totals.issues()).isEqualTo(6);
+    assertThat(totals.ruleTime()).isPositive();
+    assertThat(totals.allocated()).isPositive();
+  }
+
+  @Test
+  public void starting_a_file_ends_the_previous_one() {
+    RuleProfileSummary summary = new RuleProfileSummary();
+    RuleProfiler profiler = new RuleProfiler("S1", summary);
+
+    profiler.startFile("a.java");
+    profiler.startFile("b.java");
+    profiler.endFile();
+    profiler.endFile();
+
+    assertThat(summary.top(1).get(0).files()).isEqualTo(2);
+  }
+
+  @Test
+  public void is_inactive_without_summary_nor_recording() {
+    RuleProfiler profiler = new RuleProfiler("S1", null);
+
+    profiler.startFile("a.java");
+    profiler.enter();
+    profiler.exit();
+    profiler.endFile();
+
+    assertThat(profiler.isActive()).isFalse();
+  }
+
+  @Test
+  public void global_summary_is_only_used_when_enabled() {
+    System.clearProperty(RuleProfiler.PROFILING_PROPERTY);
+    RuleProfiler profiler = RuleProfiler.of("S1");
+    profiler.startFile("a.java");
+
+    assertThat(profiler.rule()).isEqualTo("S1");
+    assertThat(profiler.isActive()).isFalse();
+  }
+
+  @Test
+  public void sends_events_to_flight_recorder() throws Exception {
+    Path dump = temp.newFile("rules.jfr").toPath();
+    try (Recording recording = new Recording()) {
+      recording.enable(RuleExecutionEvent.NAME).withThreshold(java.time.Duration.ZERO);
+      recording.start();
+      RuleProfiler profiler = new RuleProfiler("S1", null);
+      profiler.startFile("a.java");
+      assertThat(profiler.isActive()).isTrue();
+      profiler.enter();
+      profiler.node();
+      profiler.node();
+      allocate();
+      profiler.exit();
+      profiler.issue();
+      profiler.endFile();
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+    assertThat(events).hasSize(1);
+    RecordedEvent event = events.get(0);
+    assertThat(event.getString("rule")).isEqualTo("S1");
+    assertThat(event.getString("file")).isEqualTo("a.java");
+    assertThat(event.getLong("nodes")).isEqualTo(2);
+    assertThat(event.getInt("issues")).isEqualTo(1);
+    assertThat(event.getLong("allocated")).isPositive();
+    assertThat(event.getDuration("ruleTime").toNanos()).isPositive();
+  }
+
+  private static void allocate() {
+    byte[][] garbage = new byte[16][];
+    for (int i = 0; i < garbage.length; i++) {
+      garbage[i] = new byte[1024];
+    }
+    assertThat(garbage[15]).hasSize(1024);
+  }
+
+}
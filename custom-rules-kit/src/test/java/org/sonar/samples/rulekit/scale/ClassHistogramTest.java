@@ -0,0 +1,74 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.scale;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ClassHistogramTest {
+
+  private static final String BEFORE = " num     #instances         #bytes  class name (module)\n"
+    + "-------------------------------------------------------\n"
+    + "   1:          1000          64000  [B (java.base@17.0.2)\n"
+    + "   2:           100           2400  java.lang.String (java.base@17.0.2)\n"
+    + "   3:            10            160  com.example.Check\n"
+    + "Total          1110          66560\n";
+
+  private static final String AFTER = " num     #instances         #bytes  class name (module)\n"
+    + "-------------------------------------------------------\n"
+    + "   1:          1500          96000  [B (java.base@17.0.2)\n"
+    + "   2:           200           4800  java.lang.String (java.base@17.0.2)\n"
+    + "   3:            10            160  com.example.Check\n"
+    + "   4:             5            120  com.example.Leak\n"
+    + "   5:             5            120  com.example.Leak\n"
+    + "Total          1720         101200\n";
+
+  @Test
+  public void parses_the_output_of_the_diagnostic_command() {
+    ClassHistogram histogram = ClassHistogram.parse(BEFORE);
+
+    assertThat(histogram.get("[B").instances()).isEqualTo(1000);
+    assertThat(histogram.get("[B").bytes()).isEqualTo(64000);
+    assertThat(histogram.get("com.example.Check").bytes()).isEqualTo(160);
+    assertThat(histogram.get("com.example.Unknown").bytes()).isZero();
+  }
+
+  @Test
+  public void sums_the_classes_of_several_class_loaders() {
+    assertThat(ClassHistogram.parse(AFTER).get("com.example.Leak").instances()).isEqualTo(10);
+  }
+
+  @Test
+  public void lists_the_largest_growth_first() {
+    ClassHistogram before = ClassHistogram.parse(BEFORE);
+    ClassHistogram after = ClassHistogram.parse(AFTER);
+
+    assertThat(after.largestGrowthSince(before, 2)).extracting(ClassHistogram.Entry::className).containsExactly("[B", "java.lang.String");
+    assertThat(after.largestGrowthSince(before, 10)).extracting(ClassHistogram.Entry::bytes).containsExactly(32000L, 2400L, 240L);
+    assertThat(after.largestGrowthSince(before, 10).get(0).instances()).isEqualTo(500);
+  }
+
+  @Test
+  public void live_histogram_counts_the_retained_objects() {
+    assertThat(ClassHistogram.live().get("java.lang.String").instances()).isPositive();
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.scale;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class RetainedMemoryTest {
+
+  @Test
+  public void growth_per_file_is_the_median_slope_of_the_samples() {
+    RetainedMemory memory = new RetainedMemory();
+    memory.add(1000, 10_000_000);
+    memory.add(2000, 10_100_000);
+    memory.add(3000, 10_200_000);
+
+    assertThat(memory.bytesPerFile()).isCloseTo(100, within(0.001));
+  }
+
+  @Test
+  public void noise_without_trend_has_no_growth() {
+    RetainedMemory memory = new RetainedMemory();
+    memory.add(1000, 10_000_000);
+    memory.add(2000, 10_050_000);
+    memory.add(3000, 9_950_000);
+    memory.add(4000, 10_000_000);
+
+    assertThat(memory.bytesPerFile()).isCloseTo(-12.5, within(0.001));
+  }
+
+  @Test
+  public void an_outlier_does_not_make_a_growth() {
+    RetainedMemory memory = new RetainedMemory();
+    memory.add(1000, 10_000_000);
+    memory.add(2000, 10_000_000);
+    memory.add(3000, 10_000_000);
+    memory.add(4000, 10_000_000);
+    memory.add(5000, 13_000_000);
+
+    assertThat(memory.bytesPerFile()).isZero();
+  }
+
+  @Test
+  public void no_growth_with_less_than_two_samples() {
+    RetainedMemory memory = new RetainedMemory();
+    assertThat(memory.bytesPerFile()).isZero();
+    memory.add(1000, 10_000_000);
+    assertThat(memory.bytesPerFile()).isZero();
+  }
+
+  @Test
+  public void samples_the_retained_heap() {
+    RetainedMemory memory = new RetainedMemory();
+    RetainedMemory.Sample sample = memory.sample(10);
+
+    assertThat(sample.files()).isEqualTo(10);
+    assertThat(sample.bytes()).isPositive();
+    assertThat(memory.samples()).containsExactly(sample);
+  }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * SonarQube Custom Rules Kit
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.rulekit.scale;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ScaleHarnessTest {
+
+  private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+  private final PrintStream out = new PrintStream(output, true);
+
+  @Test
+  public void passes_when_nothing_is_kept_between_files() {
+    RetainedMemory memory = new ScaleHarness(2_000, 500, ScaleHarness.DEFAULT_MAX_BYTES_PER_FILE, out).run(new Counter(0));
+
+    assertThat(memory.samples()).extracting(RetainedMemory.Sample::files).containsExactly(1000L, 1500L, 2000L);
+    assertThat(text()).contains("    2000 files:").contains("Retained heap grows by").contains("class name");
+  }
+
+  @Test
+  public void fails_when_the_retained_heap_grows() {
+    ScaleHarness harness = new ScaleHarness(2_000, 500, ScaleHarness.DEFAULT_MAX_BYTES_PER_FILE, out);
+
+    assertThatThrownBy(() -> harness.run(new Counter(4096)))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageStartingWith("The retained heap grows with the number of files");
+    // the retained arrays are the largest growth of the histogram
+    assertThat(text()).contains("  [B");
+  }
+
+  @Test
+  public void fails_when_the_issues_depend_on_the_previous_files() {
+    ScaleHarness harness = new ScaleHarness(1_500, 500, ScaleHarness.DEFAULT_MAX_BYTES_PER_FILE, out);
+    Counter counter = new Counter(0) {
+      @Override
+      public Object analyze(int file) {
+        super.analyze(file);
+        return analyzed;
+      }
+    };
+
+    assertThatThrownBy(() -> harness.run(counter))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageContaining("file 500: 1 with new checks, 501 with reused checks");
+  }
+
+  @Test
+  public void needs_three_batches() {
+    assertThatThrownBy(() -> new ScaleHarness(1_000, 500, 64, out)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void reads_the_arguments() {
+    assertThatThrownBy(() -> ScaleHarness.fromArgs(new String[] {"100", "50"}, out)).isInstanceOf(IllegalArgumentException.class);
+    ScaleHarness.fromArgs(new String[0], out);
+  }
+
+  private String text() {
+    return new String(output.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Counts the analyzed files, and keeps the given number of bytes per file.
+   */
+  private static class Counter implements ScaleHarness.Analysis {
+    private final int leakedBytes;
+    private final List<byte[]> leaked = new ArrayList<>();
+    int analyzed;
+
+    Counter(int leakedBytes) {
+      this.leakedBytes = leakedBytes;
+    }
+
+    @Override
+    public Object analyze(int file) {
+      analyzed++;
+      if (leakedBytes > 0) {
+        leaked.add(new byte[leakedBytes]);
+      }
+      return 1;
+    }
+
+    @Override
+    public Object analyzeWithNewChecks(int file) {
+      return 1;
+    }
+  }
+
+}
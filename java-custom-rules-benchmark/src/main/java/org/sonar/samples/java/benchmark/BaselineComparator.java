@@ -0,0 +1,169 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.benchmark;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH json result with the baseline committed in this module, and fails when
+ * the time or the allocations per scan of a benchmark grew by more than the given tolerance.
+ *
+ * Arguments: result file, baseline file, tolerance (0.10 for 10%), whether to replace the baseline.
+ */
+public final class BaselineComparator {
+
+  // JMH prefixes the metrics of profilers with a middle dot
+  static final String ALLOCATIONS = "\u00b7gc.alloc.rate.norm";
+  static final String NODES = "nodes";
+  static final String ISSUES = "issues";
+
+  private BaselineComparator() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 4) {
+      throw new IllegalArgumentException("Usage: BaselineComparator <result.json> <baseline.json> <tolerance> <updateBaseline>");
+    }
+    Path result = Paths.get(args[0]);
+    Path baseline = Paths.get(args[1]);
+    double tolerance = Double.parseDouble(args[2]);
+    boolean updateBaseline = Boolean.parseBoolean(args[3]);
+
+    Map<String, Score> current = read(result);
+    print(current);
+    if (updateBaseline || !Files.exists(baseline)) {
+      Files.createDirectories(baseline.toAbsolutePath().getParent());
+      Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+      System.out.println("Baseline written to " + baseline);
+      return;
+    }
+    List<String> regressions = compare(read(baseline), current, tolerance);
+    if (!regressions.isEmpty()) {
+      regressions.forEach(System.out::println);
+      throw new IllegalStateException(regressions.size() + " benchmark(s) regressed by more than " + percent(tolerance) + " compared to " + baseline);
+    }
+    System.out.println("No regression compared to " + baseline);
+  }
+
+  static List<String> compare(Map<String, Score> baseline, Map<String, Score> current, double tolerance) {
+    List<String> regressions = new ArrayList<>();
+    for (Map.Entry<String, Score> entry : current.entrySet()) {
+      Score reference = baseline.get(entry.getKey());
+      if (reference == null) {
+        continue;
+      }
+      Score score = entry.getValue();
+      if (score.nanosPerScan > reference.nanosPerScan * (1 + tolerance)) {
+        regressions.add(String.format(Locale.ENGLISH, "%s: %.0f ns/op, baseline %.0f ns/op", entry.getKey(), score.nanosPerScan, reference.nanosPerScan));
+      }
+      if (!Double.isNaN(reference.bytesPerScan) && score.bytesPerScan > reference.bytesPerScan * (1 + tolerance)) {
+        regressions.add(String.format(Locale.ENGLISH, "%s: %.0f B/op, baseline %.0f B/op", entry.getKey(), score.bytesPerScan, reference.bytesPerScan));
+      }
+    }
+    return regressions;
+  }
+
+  static Map<String, Score> read(Path path) throws IOException {
+    Map<String, Score> scores = new LinkedHashMap<>();
+    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      JsonArray results = new JsonParser().parse(reader).getAsJsonArray();
+      for (JsonElement element : results) {
+        JsonObject result = element.getAsJsonObject();
+        JsonObject secondary = result.getAsJsonObject("secondaryMetrics");
+        Score score = new Score(
+          result.getAsJsonObject("primaryMetric").get("score").getAsDouble(),
+          secondaryScore(secondary, ALLOCATIONS),
+          secondaryScore(secondary, NODES),
+          secondaryScore(secondary, ISSUES));
+        scores.put(key(result), score);
+      }
+    }
+    return scores;
+  }
+
+  private static String key(JsonObject result) {
+    String benchmark = result.get("benchmark").getAsString();
+    StringBuilder key = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.') + 1));
+    JsonObject params = result.getAsJsonObject("params");
+    if (params != null) {
+      Map<String, String> sorted = new TreeMap<>();
+      params.entrySet().forEach(param -> sorted.put(param.getKey(), param.getValue().getAsString()));
+      sorted.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+    }
+    return key.toString();
+  }
+
+  private static double secondaryScore(JsonObject secondary, String metric) {
+    if (secondary == null || !secondary.has(metric)) {
+      return Double.NaN;
+    }
+    // JMH writes "NaN" and "+INF" as strings, e.g. for the time per issue of a check raising none
+    String score = secondary.getAsJsonObject(metric).get("score").getAsString();
+    if ("+INF".equals(score)) {
+      return Double.POSITIVE_INFINITY;
+    }
+    return Double.parseDouble(score);
+  }
+
+  private static void print(Map<String, Score> scores) {
+    System.out.println(String.format(Locale.ENGLISH, "%-70s %14s %10s %14s %12s", "Benchmark", "ns/op", "ns/node", "B/op", "issues/s"));
+    scores.forEach((key, score) -> System.out.println(String.format(Locale.ENGLISH, "%-70s %14.0f %10.2f %14.0f %12.0f",
+      key, score.nanosPerScan, score.nanosPerNode, score.bytesPerScan, score.issuesPerSecond())));
+  }
+
+  private static String percent(double ratio) {
+    return String.format(Locale.ENGLISH, "%.0f%%", ratio * 100);
+  }
+
+  static final class Score {
+    final double nanosPerScan;
+    final double bytesPerScan;
+    final double nanosPerNode;
+    final double nanosPerIssue;
+
+    Score(double nanosPerScan, double bytesPerScan, double nanosPerNode, double nanosPerIssue) {
+      this.nanosPerScan = nanosPerScan;
+      this.bytesPerScan = bytesPerScan;
+      this.nanosPerNode = nanosPerNode;
+      this.nanosPerIssue = nanosPerIssue;
+    }
+
+    double issuesPerSecond() {
+      return Double.isInfinite(nanosPerIssue) || Double.isNaN(nanosPerIssue) ? 0 : (1_000_000_000d / nanosPerIssue);
+    }
+  }
+
+}
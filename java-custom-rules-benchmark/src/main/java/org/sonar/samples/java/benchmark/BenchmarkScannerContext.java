@@ -0,0 +1,160 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.benchmark;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Minimal scanner context: it only counts the issues reported by the checks, so that
+ * the benchmarks measure the checks and not the issue reporting machinery of the scanner.
+ */
+public class BenchmarkScannerContext implements JavaFileScannerContext {
+
+  private final CompilationUnitTree tree;
+  private final String content;
+  private final JavaVersion javaVersion = new JavaVersionImpl(8);
+  private int issues = 0;
+
+  public BenchmarkScannerContext(CompilationUnitTree tree, String content) {
+    this.tree = tree;
+    this.content = content;
+  }
+
+  public int issues() {
+    return issues;
+  }
+
+  public void resetIssues() {
+    issues = 0;
+  }
+
+  @Override
+  public CompilationUnitTree getTree() {
+    return tree;
+  }
+
+  @Override
+  public void addIssueOnFile(JavaCheck javaCheck, String message) {
+    issues++;
+  }
+
+  @Override
+  public void addIssueOnProject(JavaCheck javaCheck, String message) {
+    issues++;
+  }
+
+  @Override
+  public void addIssue(int line, JavaCheck javaCheck, String message) {
+    issues++;
+  }
+
+  @Override
+  public void addIssue(int line, JavaCheck javaCheck, String message, @Nullable Integer cost) {
+    issues++;
+  }
+
+  @Override
+  public Object getSemanticModel() {
+    return null;
+  }
+
+  @Override
+  public String getFileKey() {
+    return "Generated.java";
+  }
+
+  @Override
+  public InputFile getInputFile() {
+    return null;
+  }
+
+  @Override
+  public InputComponent getProject() {
+    return null;
+  }
+
+  @Override
+  public File getWorkingDirectory() {
+    return null;
+  }
+
+  @Override
+  public JavaVersion getJavaVersion() {
+    return javaVersion;
+  }
+
+  @Override
+  public boolean fileParsed() {
+    return true;
+  }
+
+  @Override
+  public List<Tree> getComplexityNodes(Tree tree) {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public void reportIssue(JavaCheck javaCheck, Tree tree, String message) {
+    issues++;
+  }
+
+  @Override
+  public void reportIssue(JavaCheck javaCheck, Tree tree, String message, List<Location> secondaryLocations, @Nullable Integer cost) {
+    issues++;
+  }
+
+  @Override
+  public void reportIssueWithFlow(JavaCheck javaCheck, Tree syntaxNode, String message, Iterable<List<Location>> flows, @Nullable Integer cost) {
+    issues++;
+  }
+
+  @Override
+  public void reportIssue(JavaCheck javaCheck, Tree startTree, Tree endTree, String message) {
+    issues++;
+  }
+
+  @Override
+  public void reportIssue(JavaCheck javaCheck, Tree startTree, Tree endTree, String message, List<Location> secondaryLocations, @Nullable Integer cost) {
+    issues++;
+  }
+
+  @Override
+  public List<String> getFileLines() {
+    return Arrays.asList(content.split("\n", -1));
+  }
+
+  @Override
+  public String getFileContent() {
+    return content;
+  }
+
+}
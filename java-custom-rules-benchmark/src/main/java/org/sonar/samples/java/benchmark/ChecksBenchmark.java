@@ -0,0 +1,141 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.java.model.JParser;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.samples.java.benchmark.CorpusGenerator.Shape;
+import org.sonar.samples.java.checks.ForLoopConditionFunctionCallChecks;
+import org.sonar.samples.java.checks.PrefixAssignmentChecks;
+
+/**
+ * Measures the cost of each check of the plugin on a single generated file.
+ *
+ * The file is parsed once per trial, each operation is one scan of the whole file by one check.
+ * Besides the average time per scan, JMH normalizes the "nodes" and "issues" counters like the primary result,
+ * i.e. it reports the time per visited node and per raised issue, and "-prof gc" gives the allocations per scan
+ * (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ChecksBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Corpus {
+
+    @Param({"MIXED", "DEEP_LOOPS", "CALL_HEAVY"})
+    public Shape shape;
+
+    @Param({"1000", "10000", "100000"})
+    public int lines;
+
+    BenchmarkScannerContext context;
+
+    @Setup(Level.Trial)
+    public void parse() {
+      String source = CorpusGenerator.generate(shape, lines);
+      CompilationUnitTree tree = JParser.parse("8", "Generated.java", source, Collections.emptyList());
+      context = new BenchmarkScannerContext(tree, source);
+    }
+  }
+
+  /**
+   * Checks are instantiated once and reused for every file, as during analysis.
+   */
+  @State(Scope.Thread)
+  public static class Checks {
+    SubscriptionDriver walkOnly;
+    SubscriptionDriver forLoopConditionFunctionCall;
+    SubscriptionDriver forLoopConditionFunctionCallLegacy;
+    SubscriptionDriver prefixAssignment;
+
+    @Setup(Level.Trial)
+    public void create() {
+      walkOnly = SubscriptionDriver.walkOnly();
+      forLoopConditionFunctionCall = SubscriptionDriver.of(new ForLoopConditionFunctionCallChecks());
+      forLoopConditionFunctionCallLegacy = SubscriptionDriver.of(new LegacyForLoopConditionFunctionCallChecks());
+      prefixAssignment = SubscriptionDriver.of(new PrefixAssignmentChecks());
+    }
+  }
+
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  @State(Scope.Thread)
+  public static class Counters {
+    public long nodes;
+    public long issues;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      nodes = 0;
+      issues = 0;
+    }
+  }
+
+  @Benchmark
+  public long walkOnly(Corpus corpus, Checks checks, Counters counters) {
+    return scan(checks.walkOnly, corpus, counters);
+  }
+
+  @Benchmark
+  public long forLoopConditionFunctionCall(Corpus corpus, Checks checks, Counters counters) {
+    return scan(checks.forLoopConditionFunctionCall, corpus, counters);
+  }
+
+  /**
+   * Implementation subscribing to every method invocation, to compare with {@link #forLoopConditionFunctionCall}.
+   */
+  @Benchmark
+  public long forLoopConditionFunctionCallLegacy(Corpus corpus, Checks checks, Counters counters) {
+    return scan(checks.forLoopConditionFunctionCallLegacy, corpus, counters);
+  }
+
+  @Benchmark
+  public long prefixAssignment(Corpus corpus, Checks checks, Counters counters) {
+    return scan(checks.prefixAssignment, corpus, counters);
+  }
+
+  private static long scan(SubscriptionDriver driver, Corpus corpus, Counters counters) {
+    BenchmarkScannerContext context = corpus.context;
+    context.resetIssues();
+    long nodes = driver.scan(context);
+    counters.nodes += nodes;
+    counters.issues += context.issues();
+    return nodes + context.issues();
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.sonar.java.model.JParser;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.samples.java.RulesList;
+import org.sonar.samples.java.benchmark.CorpusGenerator.Shape;
+import org.sonar.samples.rulekit.scale.ScaleHarness;
+
+/**
+ * Runs all the checks of the plugin on 10,000 generated files in one JVM, with the {@link ScaleHarness}: the checks
+ * are instantiated once and reused for every file, as during analysis, and must neither keep the state of a file
+ * for the next one nor retain more memory as the number of files grows.
+ * <p>
+ * Each file has its own class name and one of the shapes of the {@link CorpusGenerator}, in turn.
+ * The arguments are those of {@link ScaleHarness#fromArgs(String[], java.io.PrintStream)}.
+ */
+public final class ChecksScale implements ScaleHarness.Analysis {
+
+  private static final int LINES = 100;
+
+  private final List<JavaCheck> checks = newChecks();
+
+  public static void main(String[] args) {
+    ScaleHarness.fromArgs(args, System.out).run(new ChecksScale());
+  }
+
+  @Override
+  public Object analyze(int file) {
+    return analyze(checks, file);
+  }
+
+  @Override
+  public Object analyzeWithNewChecks(int file) {
+    return analyze(newChecks(), file);
+  }
+
+  /**
+   * @return the number of issues raised by each check
+   */
+  private static List<Integer> analyze(List<JavaCheck> checks, int file) {
+    Shape shape = Shape.values()[file % Shape.values().length];
+    String source = CorpusGenerator.generate(shape, LINES).replace("class Generated ", "class Generated" + file + " ");
+    CompilationUnitTree tree = JParser.parse("8", "Generated" + file + ".java", source, Collections.emptyList());
+    BenchmarkScannerContext context = new BenchmarkScannerContext(tree, source);
+    List<Integer> issues = new ArrayList<>(checks.size());
+    for (JavaCheck check : checks) {
+      context.resetIssues();
+      if (check instanceof IssuableSubscriptionVisitor) {
+        SubscriptionDriver.of((IssuableSubscriptionVisitor) check).scan(context);
+      } else {
+        ((JavaFileScanner) check).scanFile(context);
+      }
+      issues.add(context.issues());
+    }
+    return issues;
+  }
+
+  private static List<JavaCheck> newChecks() {
+    List<JavaCheck> checks = new ArrayList<>();
+    for (Class<? extends JavaCheck> checkClass : RulesList.getChecks()) {
+      try {
+        checks.add(checkClass.getDeclaredConstructor().newInstance());
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Unable to instantiate " + checkClass.getName(), e);
+      }
+    }
+    return checks;
+  }
+
+}
@@ -0,0 +1,171 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.benchmark;
+
+/**
+ * Generates deterministic Java sources used as benchmark input.
+ *
+ * The same shape and line count always produce the same source, so that results
+ * of successive runs can be compared with the baseline.
+ */
+public final class CorpusGenerator {
+
+  public enum Shape {
+    /** a bit of everything: loops, calls in loop conditions, increments */
+    MIXED,
+    /** few calls, loops nested up to {@link #MAX_DEPTH} levels */
+    DEEP_LOOPS,
+    /** long chains of method invocations, few loops */
+    CALL_HEAVY,
+    /** loop bodies doing the work reported by the loop rules: concatenations, boxing, lookups, sorts, buffers */
+    LOOP_WORK
+  }
+
+  static final int MAX_DEPTH = 8;
+
+  private CorpusGenerator() {
+  }
+
+  public static String generate(Shape shape, int lines) {
+    Source source = new Source();
+    source.line("import java.util.ArrayList;");
+    source.line("import java.util.Iterator;");
+    source.line("import java.util.List;");
+    source.line("");
+    source.line("class Generated {");
+    int method = 0;
+    while (source.lines < lines - 1) {
+      switch (shape) {
+        case DEEP_LOOPS:
+          deepLoopsMethod(source, method);
+          break;
+        case CALL_HEAVY:
+          callHeavyMethod(source, method);
+          break;
+        case LOOP_WORK:
+          loopWorkMethod(source, method);
+          break;
+        default:
+          mixedMethod(source, method);
+          break;
+      }
+      method++;
+    }
+    source.line("}");
+    return source.toString();
+  }
+
+  private static void mixedMethod(Source source, int index) {
+    source.line("  int mixed" + index + "(List<String> values, int[] array) {");
+    source.line("    int total = 0;");
+    source.line("    for (int i = 0; i < values.size(); i++) {");
+    source.line("      total += values.get(i).length();");
+    source.line("    }");
+    source.line("    for (int j = 0; j < array.length; ++j) {");
+    source.line("      total += array[j];");
+    source.line("    }");
+    source.line("    Iterator<String> it = values.iterator();");
+    source.line("    while (it.hasNext()) {");
+    source.line("      if (it.next().isEmpty()) {");
+    source.line("        total--;");
+    source.line("      }");
+    source.line("    }");
+    source.line("    int k = 0;");
+    source.line("    do {");
+    source.line("      k++;");
+    source.line("    } while (k < Math.min(total, 10));");
+    source.line("    return total;");
+    source.line("  }");
+    source.line("");
+  }
+
+  private static void deepLoopsMethod(Source source, int index) {
+    source.line("  long deep" + index + "(int n) {");
+    source.line("    long sum = 0;");
+    String indent = "    ";
+    for (int depth = 0; depth < MAX_DEPTH; depth++) {
+      String counter = "i" + depth;
+      source.line(indent + "for (int " + counter + " = 0; " + counter + " < n; " + counter + "++) {");
+      indent += "  ";
+    }
+    source.line(indent + "sum += i0 * i" + (MAX_DEPTH - 1) + ";");
+    for (int depth = MAX_DEPTH - 1; depth >= 0; depth--) {
+      indent = indent.substring(2);
+      source.line(indent + "}");
+    }
+    source.line("    return sum;");
+    source.line("  }");
+    source.line("");
+  }
+
+  private static void callHeavyMethod(Source source, int index) {
+    source.line("  String calls" + index + "(List<String> values) {");
+    source.line("    StringBuilder sb = new StringBuilder();");
+    source.line("    List<String> copy = new ArrayList<>(values);");
+    for (int i = 0; i < 12; i++) {
+      source.line("    sb.append(copy.get(" + i + " % copy.size()).trim().toLowerCase()).append(String.valueOf(sb.length()));");
+    }
+    source.line("    for (int i = 0; i < copy.size(); i++) {");
+    source.line("      sb.append(copy.get(i).substring(0, Math.min(3, copy.get(i).length())));");
+    source.line("    }");
+    source.line("    return sb.toString().trim();");
+    source.line("  }");
+    source.line("");
+  }
+
+  private static void loopWorkMethod(Source source, int index) {
+    source.line("  String work" + index + "(List<String> values, java.util.Map<String, Integer> counts) {");
+    source.line("    String result = \"\";");
+    source.line("    Integer total = 0;");
+    source.line("    List<String> sorted = new ArrayList<>();");
+    source.line("    for (String value : values) {");
+    source.line("      result += value;");
+    source.line("      total += counts.get(value);");
+    source.line("      if (value.matches(\"[a-z]+\") && !sorted.contains(value)) {");
+    source.line("        sorted.add(value);");
+    source.line("        java.util.Collections.sort(sorted);");
+    source.line("      }");
+    source.line("      StringBuilder sb = new StringBuilder();");
+    source.line("      sb.append(value).append(total);");
+    source.line("    }");
+    source.line("    for (String key : counts.keySet()) {");
+    source.line("      total += counts.get(key);");
+    source.line("    }");
+    source.line("    return result + total;");
+    source.line("  }");
+    source.line("");
+  }
+
+  private static final class Source {
+    private final StringBuilder sb = new StringBuilder();
+    private int lines = 0;
+
+    void line(String line) {
+      sb.append(line).append('\n');
+      lines++;
+    }
+
+    @Override
+    public String toString() {
+      return sb.toString();
+    }
+  }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.benchmark;
+
+import java.util.Collections;
+import java.util.List;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * First implementation of {@link org.sonar.samples.java.checks.ForLoopConditionFunctionCallChecks}, which
+ * subscribed to every method invocation of the file. Kept as reference for the benchmarks only.
+ */
+public class LegacyForLoopConditionFunctionCallChecks extends IssuableSubscriptionVisitor {
+
+  private static final String MESSAGE = "Function call inside a for loop condition should not be used";
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.METHOD_INVOCATION);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    MethodInvocationTree methodInvocationTree = (MethodInvocationTree) tree;
+    if (methodInvocationTree.parent().parent().is(Tree.Kind.FOR_STATEMENT)) {
+      reportIssue(methodInvocationTree, MESSAGE + ".");
+    }
+  }
+
+}
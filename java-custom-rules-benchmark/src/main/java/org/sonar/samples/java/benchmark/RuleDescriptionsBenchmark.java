@@ -0,0 +1,170 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonar.samples.rulekit.RuleDescriptionPacker;
+import org.sonar.samples.rulekit.RuleDescriptions;
+
+/**
+ * Measures the loading of the rule descriptions when a plugin starts, with one resource per rule
+ * and with the single resource of the custom-rules-kit.
+ *
+ * Each operation is a start: a new class loader is created on the plugin, then the descriptions of all the rules
+ * are read. The plugin is either a jar, as on the server, or a directory of classes, as in the tests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RuleDescriptionsBenchmark {
+
+  private static final String RESOURCE_BASE_PATH = "org/sonar/l10n/benchmark/rules/";
+
+  @State(Scope.Benchmark)
+  public static class Plugin {
+
+    @Param({"500", "2000"})
+    public int rules;
+
+    @Param({"jar", "directory"})
+    public String layout;
+
+    Path root;
+    URL[] classpath;
+    List<String> ruleKeys;
+
+    @Setup(Level.Trial)
+    public void create() throws IOException {
+      root = Files.createTempDirectory("rule-descriptions");
+      Path classes = root.resolve("classes");
+      Path descriptions = Files.createDirectories(classes.resolve(RESOURCE_BASE_PATH));
+      ruleKeys = new ArrayList<>(rules);
+      for (int i = 0; i < rules; i++) {
+        String key = "S" + (1000 + i);
+        ruleKeys.add(key);
+        Files.write(descriptions.resolve(key + ".html"), description(key).getBytes(StandardCharsets.UTF_8));
+      }
+      RuleDescriptionPacker.pack(descriptions, descriptions.resolve(RuleDescriptions.PACK_NAME));
+
+      if ("jar".equals(layout)) {
+        Path jar = root.resolve("plugin.jar");
+        jar(classes, jar);
+        classpath = new URL[] {jar.toUri().toURL()};
+      } else {
+        classpath = new URL[] {classes.toUri().toURL()};
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+      try (Stream<Path> files = Files.walk(root)) {
+        files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+      }
+    }
+
+    private static String description(String key) {
+      StringBuilder html = new StringBuilder("<p>Description of rule ").append(key).append("</p>\n<h2>Noncompliant Code Example</h2>\n<pre>\n");
+      for (int line = 0; line < 40; line++) {
+        html.append("  call(").append(line).append("); // some example code of the rule\n");
+      }
+      return html.append("</pre>\n").toString();
+    }
+
+    private static void jar(Path classes, Path jar) throws IOException {
+      try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar)); Stream<Path> files = Files.walk(classes)) {
+        files.filter(Files::isRegularFile).forEach(file -> {
+          try {
+            out.putNextEntry(new JarEntry(classes.relativize(file).toString().replace('\\', '/')));
+            Files.copy(file, out);
+            out.closeEntry();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+      }
+    }
+  }
+
+  /**
+   * One {@code getResource} and one read per rule, as done by the plugins before the custom-rules-kit.
+   */
+  @Benchmark
+  public void perRuleResources(Plugin plugin, Blackhole blackhole) throws IOException {
+    try (URLClassLoader loader = new URLClassLoader(plugin.classpath, null)) {
+      for (String key : plugin.ruleKeys) {
+        blackhole.consume(loadResource(loader.getResource(RESOURCE_BASE_PATH + key + ".html")));
+      }
+    }
+  }
+
+  @Benchmark
+  public void packedDescriptions(Plugin plugin, Blackhole blackhole) throws IOException {
+    try (URLClassLoader loader = new URLClassLoader(plugin.classpath, null)) {
+      RuleDescriptions descriptions = RuleDescriptions.load(loader.getResource(RESOURCE_BASE_PATH + RuleDescriptions.PACK_NAME),
+        RuleDescriptions.DEFAULT_CACHE_SIZE);
+      for (String key : plugin.ruleKeys) {
+        blackhole.consume(descriptions.description(key));
+      }
+    }
+  }
+
+  private static String loadResource(URL resource) throws IOException {
+    ByteArrayOutputStream result = new ByteArrayOutputStream();
+    try (InputStream in = resource.openStream()) {
+      byte[] buffer = new byte[1024];
+      for (int len = in.read(buffer); len != -1; len = in.read(buffer)) {
+        result.write(buffer, 0, len);
+      }
+      return new String(result.toByteArray(), StandardCharsets.UTF_8);
+    }
+  }
+
+}
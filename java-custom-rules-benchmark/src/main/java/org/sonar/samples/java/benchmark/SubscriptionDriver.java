@@ -0,0 +1,92 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.benchmark;
+
+import java.util.EnumSet;
+import java.util.List;
+import org.sonar.java.model.JavaTree;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Drives a single {@link IssuableSubscriptionVisitor} over a tree, the same way the
+ * sonar-java visitors bridge does it during analysis, but without any other check
+ * sharing the traversal.
+ *
+ * A driver created with {@link #walkOnly()} only walks the tree: its cost is the
+ * traversal overhead shared by all the checks, to be subtracted from their scores.
+ */
+public final class SubscriptionDriver {
+
+  private final IssuableSubscriptionVisitor check;
+  private final EnumSet<Tree.Kind> kinds;
+  private long visitedNodes;
+
+  private SubscriptionDriver(IssuableSubscriptionVisitor check, EnumSet<Tree.Kind> kinds) {
+    this.check = check;
+    this.kinds = kinds;
+  }
+
+  public static SubscriptionDriver of(IssuableSubscriptionVisitor check) {
+    List<Tree.Kind> nodesToVisit = check.nodesToVisit();
+    EnumSet<Tree.Kind> kinds = nodesToVisit.isEmpty() ? EnumSet.noneOf(Tree.Kind.class) : EnumSet.copyOf(nodesToVisit);
+    return new SubscriptionDriver(check, kinds);
+  }
+
+  public static SubscriptionDriver walkOnly() {
+    return new SubscriptionDriver(null, EnumSet.noneOf(Tree.Kind.class));
+  }
+
+  /**
+   * Scans the tree of the given context and returns the number of visited nodes.
+   */
+  public long scan(JavaFileScannerContext context) {
+    visitedNodes = 0;
+    if (check != null) {
+      check.setContext(context);
+    }
+    visit(context.getTree());
+    if (check != null) {
+      check.leaveFile(context);
+    }
+    return visitedNodes;
+  }
+
+  private void visit(Tree tree) {
+    visitedNodes++;
+    boolean subscribed = kinds.contains(tree.kind());
+    if (subscribed) {
+      check.visitNode(tree);
+    }
+    JavaTree javaTree = (JavaTree) tree;
+    if (!javaTree.isLeaf()) {
+      for (Tree child : javaTree.getChildren()) {
+        if (child != null) {
+          visit(child);
+        }
+      }
+    }
+    if (subscribed) {
+      check.leaveNode(tree);
+    }
+  }
+
+}
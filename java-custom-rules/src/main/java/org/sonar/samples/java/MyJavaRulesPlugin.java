@@ -20,6 +20,8 @@
 package org.sonar.samples.java;
 
 import org.sonar.api.Plugin;
+import org.sonar.samples.java.incremental.IssueCachePostJob;
+import org.sonar.samples.java.profiling.RuleProfileSummaryPostJob;
 
 /**
  * Entry point of your plugin containing your custom rules
@@ -34,6 +36,8 @@ public class MyJavaRulesPlugin implements Plugin {
 
     // batch extensions -> objects are instantiated during code analysis
     context.addExtension(MyJavaFileCheckRegistrar.class);
+    context.addExtension(RuleProfileSummaryPostJob.class);
+    context.addExtension(IssueCachePostJob.class);
 
   }
 
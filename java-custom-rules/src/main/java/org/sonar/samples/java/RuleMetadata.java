@@ -0,0 +1,150 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.sonar.api.rule.RuleStatus;
+import org.sonar.api.rules.RuleType;
+import org.sonar.api.server.debt.DebtRemediationFunction;
+import org.sonar.api.server.rule.RuleParamType;
+import org.sonar.api.server.rule.RulesDefinition.DebtRemediationFunctions;
+import org.sonar.api.server.rule.RulesDefinition.NewRepository;
+import org.sonar.api.server.rule.RulesDefinition.NewRule;
+import org.sonar.samples.rulekit.RuleDescriptions;
+
+/**
+ * Metadata of a rule, computed at build time by the {@code RuleRegistryProcessor} from the annotations
+ * of its check and from its JSON resource.
+ */
+final class RuleMetadata {
+
+  private final String key;
+  @Nullable
+  private final String name;
+  private final String severity;
+  @Nullable
+  private final String type;
+  private final String status;
+  private final boolean template;
+  private final String[] tags;
+  @Nullable
+  private final String htmlDescription;
+  private final List<Param> params = new ArrayList<>();
+  @Nullable
+  private Remediation remediation;
+
+  RuleMetadata(String key, @Nullable String name, String severity, @Nullable String type, String status, boolean template,
+    String[] tags, @Nullable String htmlDescription) {
+    this.key = key;
+    this.name = name;
+    this.severity = severity;
+    this.type = type;
+    this.status = status;
+    this.template = template;
+    this.tags = tags;
+    this.htmlDescription = htmlDescription;
+  }
+
+  RuleMetadata param(String key, String description, @Nullable String defaultValue, String type) {
+    params.add(new Param(key, description, defaultValue, type));
+    return this;
+  }
+
+  RuleMetadata remediation(String func, @Nullable String constantCost, @Nullable String linearFactor, @Nullable String linearOffset,
+    @Nullable String gapDescription) {
+    this.remediation = new Remediation(func, constantCost, linearFactor, linearOffset, gapDescription);
+    return this;
+  }
+
+  String key() {
+    return key;
+  }
+
+  /**
+   * @param descriptions the {@code <key>_java.html} descriptions, which replace the one of the annotation
+   */
+  void define(NewRepository repository, RuleDescriptions descriptions) {
+    String packedDescription = descriptions.findDescription(key + "_java");
+    NewRule rule = repository.createRule(key)
+      .setName(name)
+      .setHtmlDescription(packedDescription != null ? packedDescription : htmlDescription)
+      .setSeverity(severity)
+      .setTemplate(template)
+      .setStatus(RuleStatus.valueOf(status))
+      .setTags(tags);
+    if (type != null) {
+      rule.setType(RuleType.valueOf(type));
+    }
+    for (Param param : params) {
+      rule.createParam(param.key)
+        .setDescription(param.description)
+        .setDefaultValue(param.defaultValue)
+        .setType(RuleParamType.parse(param.type));
+    }
+    if (remediation != null) {
+      rule.setDebtRemediationFunction(remediation.remediationFunction(rule.debtRemediationFunctions()));
+      rule.setGapDescription(remediation.gapDescription);
+    }
+  }
+
+  private static class Param {
+    private final String key;
+    private final String description;
+    private final String defaultValue;
+    private final String type;
+
+    Param(String key, String description, @Nullable String defaultValue, String type) {
+      this.key = key;
+      this.description = description;
+      this.defaultValue = defaultValue;
+      this.type = type;
+    }
+  }
+
+  private static class Remediation {
+    private final String func;
+    private final String constantCost;
+    private final String linearFactor;
+    private final String linearOffset;
+    private final String gapDescription;
+
+    Remediation(String func, @Nullable String constantCost, @Nullable String linearFactor, @Nullable String linearOffset,
+      @Nullable String gapDescription) {
+      this.func = func;
+      this.constantCost = constantCost;
+      this.linearFactor = linearFactor;
+      this.linearOffset = linearOffset;
+      this.gapDescription = gapDescription;
+    }
+
+    DebtRemediationFunction remediationFunction(DebtRemediationFunctions drf) {
+      if (func.startsWith("Constant")) {
+        return drf.constantPerIssue(constantCost.replace("mn", "min"));
+      }
+      if ("Linear".equals(func)) {
+        return drf.linear(linearFactor.replace("mn", "min"));
+      }
+      return drf.linearWithOffset(linearFactor.replace("mn", "min"), linearOffset.replace("mn", "min"));
+    }
+  }
+
+}
@@ -41,10 +41,29 @@ public final class RulesList {
   public static List<Class<? extends JavaCheck>> getJavaChecks() {
     return Collections.unmodifiableList(Arrays.asList(
       ForLoopConditionFunctionCallChecks.class,
-      PrefixAssignmentChecks.class));
+      PrefixAssignmentChecks.class,
+      StringConcatenationInLoopCheck.class,
+      CollectionCapacityInLoopCheck.class,
+      BoxedAccumulatorInLoopCheck.class,
+      BoxingInLoopCheck.class,
+      UnboxingInLoopCheck.class,
+      RegexCompilationCheck.class,
+      ConcurrentContentionCheck.class,
+      JdbcInLoopCheck.class,
+      VirtualThreadPinningCheck.class,
+      ExpensiveCallInLoopCheck.class,
+      KeySetIterationCheck.class,
+      LinearListOperationInLoopCheck.class,
+      NestedLoopJoinCheck.class,
+      PerIterationWorkInLoopCheck.class));
   }
 
   public static List<Class<? extends JavaCheck>> getJavaTestChecks() {
-    return Collections.emptyList();
+    return Collections.unmodifiableList(Arrays.asList(
+      BenchmarkDeadCodeCheck.class,
+      BenchmarkConstantFoldingCheck.class,
+      BenchmarkStateSetupCheck.class,
+      SleepInTestCheck.class,
+      ExpensiveTestFixtureCheck.class));
   }
 }
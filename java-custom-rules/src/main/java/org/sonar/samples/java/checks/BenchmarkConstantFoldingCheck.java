@@ -0,0 +1,125 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.Jmh;
+import org.sonar.samples.java.checks.helpers.PrimitiveWrappers;
+
+/**
+ * Reports the JMH benchmarks whose only inputs are "static final" constants of a primitive or String type: the JIT
+ * treats them as constants, and may fold the whole computation into its result. The inputs are the fields and the
+ * parameters read by the benchmark, and the calls to the methods other than the side-effect free methods of the
+ * JDK, whose results are not known in advance.
+ */
+@Rule(key = BenchmarkConstantFoldingCheck.KEY)
+public class BenchmarkConstantFoldingCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "BenchmarkConstantFoldingCheck";
+  private static final String MESSAGE = "Read the inputs of this benchmark from the non-final fields of a @State class: "
+    + "it only reads constants, and its computation may be folded.";
+
+  private static final List<String> PURE_OWNERS = Collections.unmodifiableList(Arrays.asList(
+    "java.lang.String",
+    "java.lang.Math",
+    "java.lang.StrictMath"));
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.METHOD);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    MethodTree method = (MethodTree) tree;
+    if (method.block() == null || !Jmh.isBenchmark(method)) {
+      return;
+    }
+    InputVisitor visitor = new InputVisitor(method);
+    method.block().accept(visitor);
+    if (!visitor.variableInput && !visitor.constants.isEmpty()) {
+      List<JavaFileScannerContext.Location> secondaries = new ArrayList<>();
+      for (IdentifierTree constant : visitor.constants) {
+        secondaries.add(new JavaFileScannerContext.Location("Constant input", constant));
+      }
+      reportIssue(method.simpleName(), MESSAGE, secondaries, null);
+    }
+  }
+
+  private static boolean isConstant(Symbol field) {
+    Type type = field.type();
+    return field.isStatic() && field.isFinal() && (type.isPrimitive() || type.is("java.lang.String"));
+  }
+
+  private static boolean isPure(Symbol method) {
+    Type owner = method.owner().type();
+    return PURE_OWNERS.stream().anyMatch(owner::is) || PrimitiveWrappers.isWrapper(owner) || owner.is(Jmh.BLACKHOLE);
+  }
+
+  private static class InputVisitor extends BaseTreeVisitor {
+
+    private final MethodTree method;
+    private final List<IdentifierTree> constants = new ArrayList<>();
+    private boolean variableInput;
+
+    InputVisitor(MethodTree method) {
+      this.method = method;
+    }
+
+    @Override
+    public void visitIdentifier(IdentifierTree tree) {
+      Symbol symbol = tree.symbol();
+      if (!symbol.isVariableSymbol()) {
+        return;
+      }
+      if (symbol.owner().isTypeSymbol()) {
+        if (isConstant(symbol)) {
+          constants.add(tree);
+        } else {
+          variableInput = true;
+        }
+      } else if (method.parameters().stream().anyMatch(parameter -> parameter.symbol() == symbol)) {
+        variableInput |= !Jmh.isBlackhole(symbol);
+      }
+    }
+
+    @Override
+    public void visitMethodInvocation(MethodInvocationTree tree) {
+      variableInput |= !isPure(tree.symbol());
+      super.visitMethodInvocation(tree);
+    }
+
+    @Override
+    public void visitNewClass(NewClassTree tree) {
+      variableInput = true;
+    }
+  }
+
+}
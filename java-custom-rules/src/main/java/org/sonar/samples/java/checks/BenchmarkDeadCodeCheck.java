@@ -0,0 +1,149 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.Jmh;
+import org.sonar.samples.java.checks.helpers.PrimitiveWrappers;
+
+import static org.sonar.samples.java.checks.helpers.Expressions.skipParentheses;
+
+/**
+ * Reports the values computed by a JMH benchmark and then dropped, which the JIT is free to eliminate as dead code:
+ * local variables which are only written, e.g. a sum accumulated in a loop and never returned, and the discarded
+ * results of the calls to side-effect free methods, e.g. "Math.log(x);". Such benchmarks measure nothing.
+ */
+@Rule(key = BenchmarkDeadCodeCheck.KEY)
+public class BenchmarkDeadCodeCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "BenchmarkDeadCodeCheck";
+  private static final String VARIABLE_MESSAGE = "Return \"%s\" or pass it to \"Blackhole.consume\": its value is never used, and may be eliminated as dead code.";
+  private static final String CALL_MESSAGE = "Return the result of \"%s\" or pass it to \"Blackhole.consume\": it is discarded, and may be eliminated as dead code.";
+
+  /**
+   * Owners of methods without side effects: discarding their result discards all their work.
+   */
+  private static final List<String> PURE_OWNERS = Collections.unmodifiableList(Arrays.asList(
+    "java.lang.String",
+    "java.lang.Math",
+    "java.lang.StrictMath",
+    "java.math.BigInteger",
+    "java.math.BigDecimal"));
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.METHOD);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    MethodTree method = (MethodTree) tree;
+    if (method.block() == null || !Jmh.isBenchmark(method)) {
+      return;
+    }
+    BodyVisitor visitor = new BodyVisitor();
+    method.block().accept(visitor);
+    for (VariableTree variable : visitor.variables) {
+      if (isOnlyWritten(variable)) {
+        reportIssue(variable.simpleName(), String.format(VARIABLE_MESSAGE, variable.simpleName().name()));
+      }
+    }
+    for (MethodInvocationTree invocation : visitor.discarded) {
+      reportIssue(invocation, String.format(CALL_MESSAGE, invocation.symbol().name()));
+    }
+  }
+
+  private static boolean isOnlyWritten(VariableTree variable) {
+    List<IdentifierTree> usages = variable.symbol().usages();
+    if (usages.isEmpty() && variable.initializer() == null) {
+      return false;
+    }
+    return usages.stream().allMatch(BenchmarkDeadCodeCheck::isDiscardedWrite);
+  }
+
+  /**
+   * @return true for "x = ...", "x += ..." or "x++" as statements, whose value is not read
+   */
+  private static boolean isDiscardedWrite(IdentifierTree usage) {
+    Tree parent = usage.parent();
+    while (parent.is(Tree.Kind.PARENTHESIZED_EXPRESSION)) {
+      parent = parent.parent();
+    }
+    boolean write = parent instanceof AssignmentExpressionTree && skipParentheses(((AssignmentExpressionTree) parent).variable()) == usage
+      || parent.is(Tree.Kind.POSTFIX_INCREMENT, Tree.Kind.POSTFIX_DECREMENT, Tree.Kind.PREFIX_INCREMENT, Tree.Kind.PREFIX_DECREMENT);
+    return write && parent.parent().is(Tree.Kind.EXPRESSION_STATEMENT);
+  }
+
+  private static boolean isPure(MethodInvocationTree invocation) {
+    Symbol method = invocation.symbol();
+    if (!method.isMethodSymbol() || ((Symbol.MethodSymbol) method).returnType().type().isVoid()) {
+      return false;
+    }
+    Type owner = method.owner().type();
+    return PURE_OWNERS.stream().anyMatch(owner::is) || PrimitiveWrappers.isWrapper(owner);
+  }
+
+  /**
+   * Collects the local variables and the discarded calls of the body, but not those of the lambdas and the classes
+   * it declares, which are not executed by the benchmark itself.
+   */
+  private static class BodyVisitor extends BaseTreeVisitor {
+
+    private final List<VariableTree> variables = new ArrayList<>();
+    private final List<MethodInvocationTree> discarded = new ArrayList<>();
+
+    @Override
+    public void visitVariable(VariableTree tree) {
+      if (tree.parent().is(Tree.Kind.BLOCK) || tree.parent().is(Tree.Kind.LIST) && tree.parent().parent().is(Tree.Kind.FOR_STATEMENT)) {
+        variables.add(tree);
+      }
+      super.visitVariable(tree);
+    }
+
+    @Override
+    public void visitExpressionStatement(ExpressionStatementTree tree) {
+      ExpressionTree expression = skipParentheses(tree.expression());
+      if (expression.is(Tree.Kind.METHOD_INVOCATION) && isPure((MethodInvocationTree) expression)) {
+        discarded.add((MethodInvocationTree) expression);
+      }
+      super.visitExpressionStatement(tree);
+    }
+
+    @Override
+    public void visitLambdaExpression(LambdaExpressionTree lambdaExpressionTree) {
+      // not executed by the benchmark itself
+    }
+
+    @Override
+    public void visitClass(ClassTree tree) {
+      // neither are the methods of anonymous classes
+    }
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.Jmh;
+
+import static org.sonar.samples.java.checks.helpers.Expressions.skipParentheses;
+
+/**
+ * Reports the mutable fields of the JMH @State classes which are read, but never set up: they are not initialized,
+ * not injected with @Param, and not assigned by a @Setup method, a constructor, an initializer or a benchmark. The
+ * benchmarks then measure their default value, e.g. a loop over a null or empty array. The assignments done elsewhere,
+ * e.g. in a method which was meant to be annotated with @Setup, are secondary locations.
+ */
+@Rule(key = BenchmarkStateSetupCheck.KEY)
+public class BenchmarkStateSetupCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "BenchmarkStateSetupCheck";
+  private static final String MESSAGE = "Set up \"%s\" in a @Setup method: the benchmarks read its default value.";
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.CLASS);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    ClassTree classTree = (ClassTree) tree;
+    if (!classTree.symbol().metadata().isAnnotatedWith(Jmh.STATE)) {
+      return;
+    }
+    for (Tree member : classTree.members()) {
+      if (member.is(Tree.Kind.VARIABLE)) {
+        checkField((VariableTree) member);
+      }
+    }
+  }
+
+  private void checkField(VariableTree field) {
+    Symbol symbol = field.symbol();
+    if (field.initializer() != null || symbol.isStatic() || symbol.isFinal() || symbol.metadata().isAnnotatedWith(Jmh.PARAM)) {
+      return;
+    }
+    List<JavaFileScannerContext.Location> otherWrites = new ArrayList<>();
+    boolean read = false;
+    for (IdentifierTree usage : symbol.usages()) {
+      if (!isWrite(usage)) {
+        read = true;
+      } else if (isSetUp(usage)) {
+        return;
+      } else {
+        otherWrites.add(new JavaFileScannerContext.Location("Assigned outside of a @Setup method", usage));
+      }
+    }
+    if (read) {
+      reportIssue(field.simpleName(), String.format(MESSAGE, symbol.name()), otherWrites, null);
+    }
+  }
+
+  /**
+   * @return true for "x = ..." and "this.x = ...", but not for "x[i] = ..." which requires "x" to be set up
+   */
+  private static boolean isWrite(IdentifierTree usage) {
+    Tree target = usage;
+    if (usage.parent().is(Tree.Kind.MEMBER_SELECT) && ((MemberSelectExpressionTree) usage.parent()).identifier() == usage) {
+      target = usage.parent();
+    }
+    Tree parent = target.parent();
+    while (parent.is(Tree.Kind.PARENTHESIZED_EXPRESSION)) {
+      target = parent;
+      parent = parent.parent();
+    }
+    return parent.is(Tree.Kind.ASSIGNMENT) && skipParentheses(((AssignmentExpressionTree) parent).variable()) == skipParentheses((ExpressionTree) target);
+  }
+
+  /**
+   * @return true if the assignment is run before or by the benchmarks, whatever the lambdas it is nested in
+   */
+  private static boolean isSetUp(Tree usage) {
+    Tree parent = usage.parent();
+    while (parent != null && !parent.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR, Tree.Kind.INITIALIZER, Tree.Kind.STATIC_INITIALIZER)) {
+      parent = parent.parent();
+    }
+    if (parent == null || !parent.is(Tree.Kind.METHOD)) {
+      return parent != null;
+    }
+    MethodTree method = (MethodTree) parent;
+    return Jmh.isSetup(method) || Jmh.isBenchmark(method);
+  }
+
+}
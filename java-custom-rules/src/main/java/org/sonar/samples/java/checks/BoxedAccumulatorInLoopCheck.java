@@ -0,0 +1,129 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.LoopContext;
+import org.sonar.samples.java.checks.helpers.PrimitiveWrappers;
+
+import static org.sonar.samples.java.checks.helpers.Expressions.skipParentheses;
+
+/**
+ * Reports the wrapper-typed counters and accumulators updated in loops, e.g. "Integer count" incremented at each
+ * iteration: each update unboxes the value and boxes the result in a new wrapper. Also reports the wrapper-typed
+ * variables of the foreach loops over arrays of primitives, which box each element.
+ */
+@Rule(key = BoxedAccumulatorInLoopCheck.KEY)
+public class BoxedAccumulatorInLoopCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "BoxedAccumulatorInLoopCheck";
+  private static final String MESSAGE = "Declare \"%s\" as a primitive %s: it is unboxed and boxed again at each iteration.";
+  private static final String FOREACH_MESSAGE = "Declare \"%s\" as a primitive %s: each element of the array is boxed.";
+
+  private static final Tree.Kind[] ARITHMETIC = {
+    Tree.Kind.PLUS,
+    Tree.Kind.MINUS,
+    Tree.Kind.MULTIPLY,
+    Tree.Kind.DIVIDE,
+    Tree.Kind.REMAINDER,
+    Tree.Kind.LEFT_SHIFT,
+    Tree.Kind.RIGHT_SHIFT,
+    Tree.Kind.UNSIGNED_RIGHT_SHIFT,
+    Tree.Kind.AND,
+    Tree.Kind.OR,
+    Tree.Kind.XOR,
+    Tree.Kind.UNARY_MINUS,
+    Tree.Kind.BITWISE_COMPLEMENT};
+
+  private final LoopContext loopContext = new LoopContext();
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    loopContext.reset();
+    super.setContext(context);
+  }
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(
+      Tree.Kind.POSTFIX_INCREMENT,
+      Tree.Kind.POSTFIX_DECREMENT,
+      Tree.Kind.PREFIX_INCREMENT,
+      Tree.Kind.PREFIX_DECREMENT,
+      Tree.Kind.PLUS_ASSIGNMENT,
+      Tree.Kind.MINUS_ASSIGNMENT,
+      Tree.Kind.MULTIPLY_ASSIGNMENT,
+      Tree.Kind.DIVIDE_ASSIGNMENT,
+      Tree.Kind.REMAINDER_ASSIGNMENT,
+      Tree.Kind.ASSIGNMENT,
+      Tree.Kind.FOR_EACH_STATEMENT);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    if (tree.is(Tree.Kind.FOR_EACH_STATEMENT)) {
+      checkForEach((ForEachStatement) tree);
+    } else if (tree instanceof UnaryExpressionTree) {
+      checkUpdate(tree, ((UnaryExpressionTree) tree).expression());
+    } else if (tree.is(Tree.Kind.ASSIGNMENT)) {
+      AssignmentExpressionTree assignment = (AssignmentExpressionTree) tree;
+      if (skipParentheses(assignment.expression()).is(ARITHMETIC)) {
+        checkUpdate(tree, assignment.variable());
+      }
+    } else {
+      checkUpdate(tree, ((AssignmentExpressionTree) tree).variable());
+    }
+  }
+
+  private void checkUpdate(Tree update, ExpressionTree variable) {
+    String primitive = PrimitiveWrappers.primitiveOf(variable.symbolType());
+    if (primitive != null && !"boolean".equals(primitive) && loopContext.isInLoop(update)) {
+      reportIssue(update, String.format(MESSAGE, name(variable), primitive));
+    }
+  }
+
+  private void checkForEach(ForEachStatement forEach) {
+    Type iterated = forEach.expression().symbolType();
+    VariableTree variable = forEach.variable();
+    String primitive = PrimitiveWrappers.primitiveOf(variable.type().symbolType());
+    if (primitive != null && iterated.isArray() && iterated.fullyQualifiedName().equals(primitive + "[]")) {
+      reportIssue(variable, String.format(FOREACH_MESSAGE, variable.simpleName().name(), primitive));
+    }
+  }
+
+  private static String name(ExpressionTree variable) {
+    ExpressionTree skipped = skipParentheses(variable);
+    if (skipped.is(Tree.Kind.IDENTIFIER)) {
+      return ((IdentifierTree) skipped).name();
+    }
+    if (skipped.is(Tree.Kind.MEMBER_SELECT)) {
+      return ((MemberSelectExpressionTree) skipped).identifier().name();
+    }
+    return variable.symbolType().name();
+  }
+
+}
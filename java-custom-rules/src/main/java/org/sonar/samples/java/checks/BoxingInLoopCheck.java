@@ -0,0 +1,78 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.LoopContext;
+
+/**
+ * Reports the primitive arguments boxed at each iteration of a loop because the invoked method takes an object,
+ * e.g. "Map&lt;Integer, Long&gt;.get(int)" or "List&lt;Integer&gt;.add(int)". Booleans and literals are not
+ * reported: their wrappers are cached, or are constants the JIT compiler folds.
+ */
+@Rule(key = BoxingInLoopCheck.KEY)
+public class BoxingInLoopCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "BoxingInLoopCheck";
+  private static final String MESSAGE = "This %s is boxed at each iteration: use a primitive-specialized collection or method.";
+
+  private final LoopContext loopContext = new LoopContext();
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    loopContext.reset();
+    super.setContext(context);
+  }
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.METHOD_INVOCATION);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    MethodInvocationTree invocation = (MethodInvocationTree) tree;
+    Symbol symbol = invocation.symbol();
+    if (!symbol.isMethodSymbol() || invocation.arguments().isEmpty() || !loopContext.isInLoop(invocation)) {
+      return;
+    }
+    List<Type> parameterTypes = ((Symbol.MethodSymbol) symbol).parameterTypes();
+    Arguments arguments = invocation.arguments();
+    // the trailing arguments of a varargs method are boxed into an array
+    int checked = Math.min(arguments.size(), parameterTypes.size());
+    for (int i = 0; i < checked; i++) {
+      Type parameter = parameterTypes.get(i);
+      Type argument = arguments.get(i).symbolType();
+      if (!parameter.isPrimitive() && !parameter.isArray() && !parameter.isUnknown()
+        && argument.isPrimitive() && !argument.isPrimitive(Type.Primitives.BOOLEAN) && !(arguments.get(i) instanceof LiteralTree)) {
+        reportIssue(arguments.get(i), String.format(MESSAGE, argument.name()));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.Loops;
+
+/**
+ * Reports the collections created without initial capacity, then filled by a loop whose number of iterations is
+ * known before it starts: a foreach over an array or a Collection, or an indexed loop up to "length" or "size()".
+ * Their backing array is copied each time it is full, while its final size could have been given up front.
+ * <p>
+ * To keep false positives low, the collection must be a local variable filled by the loop at each iteration,
+ * outside of any condition, then escape after the loop: returned, passed as argument or assigned. A collection
+ * which is only read locally after the loop is not worth the noise.
+ */
+@Rule(key = CollectionCapacityInLoopCheck.KEY)
+public class CollectionCapacityInLoopCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "CollectionCapacityInLoopCheck";
+  private static final String MESSAGE = "Create this %s with an initial capacity: the loop at line %d which fills it has a known number of iterations.";
+  private static final String SECONDARY_MESSAGE = "Filled by this loop";
+
+  private static final List<String> GROWABLE_COLLECTIONS = Arrays.asList(
+    "java.util.ArrayList",
+    "java.util.HashMap",
+    "java.util.HashSet",
+    "java.util.LinkedHashMap",
+    "java.util.LinkedHashSet");
+
+  private static final List<String> FILLING_METHODS = Arrays.asList("add", "put");
+
+  private static final Tree.Kind[] CONDITIONALS = {
+    Tree.Kind.IF_STATEMENT,
+    Tree.Kind.SWITCH_STATEMENT,
+    Tree.Kind.CONDITIONAL_EXPRESSION,
+    Tree.Kind.CONDITIONAL_AND,
+    Tree.Kind.CONDITIONAL_OR,
+    Tree.Kind.CATCH};
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.VARIABLE);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    VariableTree variable = (VariableTree) tree;
+    ExpressionTree initializer = variable.initializer();
+    if (initializer == null || !variable.parent().is(Tree.Kind.BLOCK) || !isCreatedWithoutCapacity(initializer)) {
+      return;
+    }
+    List<StatementTree> statements = ((BlockTree) variable.parent()).body();
+    Symbol symbol = variable.symbol();
+    for (int i = statements.indexOf(variable) + 1; i < statements.size(); i++) {
+      StatementTree statement = statements.get(i);
+      if (Loops.iteratedSource(statement) != null && isFilledBy(symbol, statement)) {
+        if (escapes(symbol, statements.subList(i + 1, statements.size()))) {
+          String message = String.format(MESSAGE, initializer.symbolType().name(), statement.firstToken().line());
+          List<JavaFileScannerContext.Location> secondary = Collections.singletonList(
+            new JavaFileScannerContext.Location(SECONDARY_MESSAGE, statement));
+          reportIssue(initializer, message, secondary, null);
+        }
+        return;
+      }
+    }
+  }
+
+  private static boolean isCreatedWithoutCapacity(ExpressionTree initializer) {
+    if (!initializer.is(Tree.Kind.NEW_CLASS)) {
+      return false;
+    }
+    NewClassTree newClass = (NewClassTree) initializer;
+    Type type = newClass.symbolType();
+    return newClass.arguments().isEmpty() && newClass.classBody() == null && GROWABLE_COLLECTIONS.stream().anyMatch(type::is);
+  }
+
+  /**
+   * @return true if the loop calls "add" or "put" on the collection at each of its iterations
+   */
+  private static boolean isFilledBy(Symbol symbol, Tree loop) {
+    for (IdentifierTree usage : symbol.usages()) {
+      Tree memberSelect = usage.parent();
+      if (memberSelect.is(Tree.Kind.MEMBER_SELECT)
+        && FILLING_METHODS.contains(((MemberSelectExpressionTree) memberSelect).identifier().name())
+        && memberSelect.parent().is(Tree.Kind.METHOD_INVOCATION)
+        && Loops.enclosingLoop(memberSelect) == loop
+        && !isConditional(memberSelect, loop)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isConditional(Tree tree, Tree loop) {
+    Tree parent = tree.parent();
+    while (parent != loop) {
+      if (parent.is(CONDITIONALS)) {
+        return true;
+      }
+      parent = parent.parent();
+    }
+    return false;
+  }
+
+  /**
+   * @return true if one of the statements returns the collection, passes it as argument or assigns it
+   */
+  private static boolean escapes(Symbol symbol, List<StatementTree> statements) {
+    for (IdentifierTree usage : symbol.usages()) {
+      if (isEscaping(usage) && statements.stream().anyMatch(statement -> Loops.isAncestor(statement, usage))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isEscaping(IdentifierTree usage) {
+    Tree parent = usage.parent();
+    if (parent.is(Tree.Kind.ASSIGNMENT)) {
+      return ((AssignmentExpressionTree) parent).expression() == usage;
+    }
+    if (parent.is(Tree.Kind.VARIABLE)) {
+      return ((VariableTree) parent).initializer() == usage;
+    }
+    return parent.is(Tree.Kind.RETURN_STATEMENT, Tree.Kind.ARGUMENTS);
+  }
+
+}
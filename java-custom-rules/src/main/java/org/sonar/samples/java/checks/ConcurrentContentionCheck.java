@@ -0,0 +1,253 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.*;
+
+import static org.sonar.samples.java.checks.helpers.Expressions.skipParentheses;
+
+/**
+ * Reports two kinds of contention on shared state:
+ * <ul>
+ *   <li>"put" on a ConcurrentMap preceded, in the same method, by "get" or "containsKey" of the same key on the same
+ *   map: the key is looked up twice, and another thread may write it in between. "computeIfAbsent", "putIfAbsent",
+ *   "merge" and "compute" do it atomically, in a single lookup.</li>
+ *   <li>private static AtomicLong and AtomicInteger fields only incremented and read, typically metrics: all the
+ *   threads spin on the same value, where a LongAdder spreads the increments over several cells.</li>
+ * </ul>
+ */
+@Rule(key = ConcurrentContentionCheck.KEY)
+public class ConcurrentContentionCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "ConcurrentContentionCheck";
+  private static final String ABSENT_MESSAGE = "Use \"computeIfAbsent\" or \"putIfAbsent\" instead of checking the key then putting it: it is looked up twice and races with the other writers.";
+  private static final String UPDATE_MESSAGE = "Use \"merge\" or \"compute\" instead of getting then putting the value: the key is looked up twice and races with the other writers.";
+  private static final String LOOKUP_MESSAGE = "First lookup";
+  private static final String COUNTER_MESSAGE = "Replace this %s by a LongAdder: it is only incremented and read, and all the threads contend on its single value.";
+
+  private static final List<String> LOOKUP_METHODS = Arrays.asList("get", "containsKey");
+  private static final List<String> INCREMENT_METHODS = Arrays.asList(
+    "incrementAndGet", "getAndIncrement", "decrementAndGet", "getAndDecrement", "addAndGet", "getAndAdd");
+  private static final List<String> READ_METHODS = Arrays.asList("get", "intValue", "longValue", "doubleValue", "toString");
+
+  private static final Tree.Kind[] BOUNDARIES = {
+    Tree.Kind.METHOD,
+    Tree.Kind.CONSTRUCTOR,
+    Tree.Kind.LAMBDA_EXPRESSION,
+    Tree.Kind.CLASS};
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.METHOD_INVOCATION, Tree.Kind.VARIABLE);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    if (tree.is(Tree.Kind.VARIABLE)) {
+      checkCounter((VariableTree) tree);
+    } else {
+      checkPut((MethodInvocationTree) tree);
+    }
+  }
+
+  private void checkPut(MethodInvocationTree put) {
+    if (!"put".equals(methodName(put)) || put.arguments().size() != 2) {
+      return;
+    }
+    ExpressionTree receiver = receiver(put);
+    if (receiver == null || !receiver.symbolType().isSubtypeOf("java.util.concurrent.ConcurrentMap")) {
+      return;
+    }
+    MethodInvocationTree lookup = findLookup(put, receiver, put.arguments().get(0));
+    if (lookup != null) {
+      String message = isAbsenceCheck(lookup) ? ABSENT_MESSAGE : UPDATE_MESSAGE;
+      reportIssue(put, message, Collections.singletonList(new JavaFileScannerContext.Location(LOOKUP_MESSAGE, lookup)), null);
+    }
+  }
+
+  /**
+   * @return the closest "get" or "containsKey" of the key on the map evaluated before the "put": in the value put, in
+   * the condition of an enclosing "if", or in a previous statement of an enclosing block
+   */
+  private static MethodInvocationTree findLookup(MethodInvocationTree put, ExpressionTree map, ExpressionTree key) {
+    LookupFinder finder = new LookupFinder(map, key);
+    put.arguments().get(1).accept(finder);
+    if (finder.lookup != null) {
+      return finder.lookup;
+    }
+    Tree child = put;
+    Tree parent = put.parent();
+    while (parent != null && !parent.is(BOUNDARIES)) {
+      if (parent.is(Tree.Kind.IF_STATEMENT) && ((IfStatementTree) parent).condition() != child) {
+        ((IfStatementTree) parent).condition().accept(finder);
+      } else if (parent.is(Tree.Kind.BLOCK)) {
+        List<StatementTree> statements = ((BlockTree) parent).body();
+        for (int i = statements.indexOf(child) - 1; i >= 0 && finder.lookup == null; i--) {
+          statements.get(i).accept(finder);
+        }
+      }
+      if (finder.lookup != null) {
+        return finder.lookup;
+      }
+      child = parent;
+      parent = parent.parent();
+    }
+    return null;
+  }
+
+  private static boolean isAbsenceCheck(MethodInvocationTree lookup) {
+    if ("containsKey".equals(methodName(lookup))) {
+      return true;
+    }
+    Tree parent = lookup.parent();
+    while (parent.is(Tree.Kind.PARENTHESIZED_EXPRESSION)) {
+      parent = parent.parent();
+    }
+    if (parent.is(Tree.Kind.EQUAL_TO, Tree.Kind.NOT_EQUAL_TO)) {
+      BinaryExpressionTree comparison = (BinaryExpressionTree) parent;
+      return skipParentheses(comparison.leftOperand()).is(Tree.Kind.NULL_LITERAL)
+        || skipParentheses(comparison.rightOperand()).is(Tree.Kind.NULL_LITERAL);
+    }
+    return false;
+  }
+
+  private void checkCounter(VariableTree variable) {
+    Symbol symbol = variable.symbol();
+    if (!variable.parent().is(Tree.Kind.CLASS, Tree.Kind.ENUM) || !symbol.isStatic() || !symbol.isPrivate()
+      || !variable.type().symbolType().is("java.util.concurrent.atomic.AtomicLong")
+      && !variable.type().symbolType().is("java.util.concurrent.atomic.AtomicInteger")) {
+      return;
+    }
+    boolean incremented = false;
+    for (IdentifierTree usage : symbol.usages()) {
+      Tree parent = usage.parent();
+      if (!parent.is(Tree.Kind.MEMBER_SELECT) || !parent.parent().is(Tree.Kind.METHOD_INVOCATION)) {
+        return;
+      }
+      String method = ((MemberSelectExpressionTree) parent).identifier().name();
+      if (INCREMENT_METHODS.contains(method) && parent.parent().parent().is(Tree.Kind.EXPRESSION_STATEMENT)) {
+        incremented = true;
+      } else if (!READ_METHODS.contains(method)) {
+        return;
+      }
+    }
+    if (incremented) {
+      reportIssue(variable.simpleName(), String.format(COUNTER_MESSAGE, variable.type().symbolType().name()));
+    }
+  }
+
+  private static String methodName(MethodInvocationTree invocation) {
+    ExpressionTree methodSelect = invocation.methodSelect();
+    if (methodSelect.is(Tree.Kind.MEMBER_SELECT)) {
+      return ((MemberSelectExpressionTree) methodSelect).identifier().name();
+    }
+    return null;
+  }
+
+  private static ExpressionTree receiver(MethodInvocationTree invocation) {
+    ExpressionTree methodSelect = invocation.methodSelect();
+    if (methodSelect.is(Tree.Kind.MEMBER_SELECT)) {
+      return ((MemberSelectExpressionTree) methodSelect).expression();
+    }
+    return null;
+  }
+
+  /**
+   * @return true if both expressions are the same variable, field or literal, e.g. "map" and "this.map"
+   */
+  private static boolean isSameValue(ExpressionTree first, ExpressionTree second) {
+    ExpressionTree left = unqualified(skipParentheses(first));
+    ExpressionTree right = unqualified(skipParentheses(second));
+    if (isThis(left) || isThis(right)) {
+      return isThis(left) && isThis(right);
+    }
+    if (left.is(Tree.Kind.IDENTIFIER) && right.is(Tree.Kind.IDENTIFIER)) {
+      Symbol symbol = ((IdentifierTree) left).symbol();
+      return !symbol.isUnknown() && symbol == ((IdentifierTree) right).symbol();
+    }
+    if (left.is(Tree.Kind.MEMBER_SELECT) && right.is(Tree.Kind.MEMBER_SELECT)) {
+      MemberSelectExpressionTree leftSelect = (MemberSelectExpressionTree) left;
+      MemberSelectExpressionTree rightSelect = (MemberSelectExpressionTree) right;
+      Symbol symbol = leftSelect.identifier().symbol();
+      return !symbol.isUnknown() && symbol == rightSelect.identifier().symbol()
+        && isSameValue(leftSelect.expression(), rightSelect.expression());
+    }
+    if (left instanceof LiteralTree && right instanceof LiteralTree) {
+      return left.kind() == right.kind() && ((LiteralTree) left).value().equals(((LiteralTree) right).value());
+    }
+    return false;
+  }
+
+  /**
+   * @return "field" for "this.field"
+   */
+  private static ExpressionTree unqualified(ExpressionTree expression) {
+    if (expression.is(Tree.Kind.MEMBER_SELECT) && isThis(((MemberSelectExpressionTree) expression).expression())) {
+      return ((MemberSelectExpressionTree) expression).identifier();
+    }
+    return expression;
+  }
+
+  private static boolean isThis(ExpressionTree expression) {
+    return expression.is(Tree.Kind.IDENTIFIER) && "this".equals(((IdentifierTree) expression).name());
+  }
+
+  private static class LookupFinder extends BaseTreeVisitor {
+
+    private final ExpressionTree map;
+    private final ExpressionTree key;
+    private MethodInvocationTree lookup;
+
+    LookupFinder(ExpressionTree map, ExpressionTree key) {
+      this.map = map;
+      this.key = key;
+    }
+
+    @Override
+    public void visitMethodInvocation(MethodInvocationTree tree) {
+      ExpressionTree receiver = receiver(tree);
+      if (lookup == null && LOOKUP_METHODS.contains(methodName(tree)) && tree.arguments().size() == 1
+        && isSameValue(receiver, map) && isSameValue(tree.arguments().get(0), key)) {
+        lookup = tree;
+      } else {
+        super.visitMethodInvocation(tree);
+      }
+    }
+
+    @Override
+    public void visitLambdaExpression(LambdaExpressionTree lambdaExpressionTree) {
+      // evaluated later, or never
+    }
+
+    @Override
+    public void visitClass(ClassTree tree) {
+      // neither are the bodies of anonymous classes
+    }
+  }
+
+}
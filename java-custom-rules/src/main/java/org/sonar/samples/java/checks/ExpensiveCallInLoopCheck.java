@@ -0,0 +1,81 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.LoopContext;
+import org.sonar.samples.java.checks.helpers.MethodCatalog;
+
+/**
+ * Reports the calls, in a loop, to the JDK methods which allocate, copy or take a lock at each call, such as
+ * "MyEnum.values()", reflection lookups or charsets looked up by name. The methods and the advice given for each of
+ * them are listed in the "expensive-calls.txt" resource, next to this class: adding a line to it is enough to report
+ * another method.
+ */
+@Rule(key = ExpensiveCallInLoopCheck.KEY)
+public class ExpensiveCallInLoopCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "ExpensiveCallInLoopCheck";
+  private static final String MESSAGE = "Move this call to \"%s\" out of the loop: %s.";
+
+  static final String EXPENSIVE_CALLS_RESOURCE = "expensive-calls.txt";
+  private static final MethodCatalog EXPENSIVE_CALLS = MethodCatalog.load(ExpensiveCallInLoopCheck.class, EXPENSIVE_CALLS_RESOURCE);
+
+  private final LoopContext loopContext = new LoopContext();
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    loopContext.reset();
+    super.setContext(context);
+  }
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.METHOD_INVOCATION, Tree.Kind.NEW_CLASS);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    Symbol symbol;
+    Tree reported;
+    if (tree.is(Tree.Kind.METHOD_INVOCATION)) {
+      MethodInvocationTree invocation = (MethodInvocationTree) tree;
+      symbol = invocation.symbol();
+      reported = invocation.methodSelect().is(Tree.Kind.MEMBER_SELECT) ? ((MemberSelectExpressionTree) invocation.methodSelect()).identifier() : invocation;
+    } else {
+      NewClassTree newClass = (NewClassTree) tree;
+      symbol = newClass.constructorSymbol();
+      reported = newClass.identifier();
+    }
+    String advice = EXPENSIVE_CALLS.value(symbol);
+    if (advice != null && loopContext.isInLoop(tree)) {
+      String method = "<init>".equals(symbol.name()) ? ("new " + symbol.owner().name()) : (symbol.owner().name() + "." + symbol.name());
+      reportIssue(reported, String.format(MESSAGE, method, advice));
+    }
+  }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.MethodCatalog;
+import org.sonar.samples.java.checks.helpers.TestFrameworks;
+
+/**
+ * Reports the expensive objects of the test code which are created before each test method: in the methods
+ * annotated with @Before, @BeforeEach or @BeforeMethod, and in the constructors, the initializers and the instance
+ * field initializers of the test classes, which JUnit runs again for each test method. The expensive objects are
+ * listed with the cost of their creation in the "expensive-fixtures.txt" resource.
+ */
+@Rule(key = ExpensiveTestFixtureCheck.KEY)
+public class ExpensiveTestFixtureCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "ExpensiveTestFixtureCheck";
+  private static final String MESSAGE = "Create this %s once per test class, e.g. in a static @BeforeClass or @BeforeAll method: it %s before each test.";
+
+  static final String EXPENSIVE_FIXTURES_RESOURCE = "expensive-fixtures.txt";
+  static final MethodCatalog EXPENSIVE_FIXTURES = MethodCatalog.load(ExpensiveTestFixtureCheck.class, EXPENSIVE_FIXTURES_RESOURCE);
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.METHOD_INVOCATION, Tree.Kind.NEW_CLASS);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    Symbol symbol = tree.is(Tree.Kind.NEW_CLASS) ? ((NewClassTree) tree).constructorSymbol() : ((MethodInvocationTree) tree).symbol();
+    String cost = EXPENSIVE_FIXTURES.value(symbol);
+    if (cost != null && isRunBeforeEachTest(tree)) {
+      String name = tree.is(Tree.Kind.NEW_CLASS) ? symbol.owner().name() : ((ExpressionTree) tree).symbolType().name();
+      reportIssue(tree, String.format(MESSAGE, name, cost));
+    }
+  }
+
+  /**
+   * @return true if the tree is run before each test, but not by a lambda or an anonymous class, which may run later
+   */
+  private static boolean isRunBeforeEachTest(Tree tree) {
+    Tree parent = tree.parent();
+    while (parent != null) {
+      if (parent.is(Tree.Kind.METHOD)) {
+        return TestFrameworks.isAnnotatedWithAny(((MethodTree) parent).symbol().metadata(), TestFrameworks.BEFORE_EACH);
+      }
+      if (parent.is(Tree.Kind.CONSTRUCTOR, Tree.Kind.INITIALIZER)) {
+        return TestFrameworks.isTestClass((ClassTree) parent.parent());
+      }
+      if (parent.is(Tree.Kind.VARIABLE) && parent.parent() instanceof ClassTree) {
+        return !((VariableTree) parent).symbol().isStatic() && TestFrameworks.isTestClass((ClassTree) parent.parent());
+      }
+      if (parent.is(Tree.Kind.LAMBDA_EXPRESSION, Tree.Kind.CLASS, Tree.Kind.STATIC_INITIALIZER)) {
+        return false;
+      }
+      parent = parent.parent();
+    }
+    return false;
+  }
+
+}
@@ -6,38 +6,99 @@ import com.google.common.collect.ImmutableList;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.LoopInvariance;
 
 @Rule(
         key = ForLoopConditionFunctionCallChecks.KEY,
         priority = Priority.MAJOR,
-        name = "Function call in For loop condition",
+        name = "Function call in loop condition",
         tags = {"ecoscan"},
 // Description can either be given in this annotation or through HTML name <ruleKey>.html located in package src/resources/org/sonar/l10n/php/rules/<repositoryKey>
-        description = "<p>Function call inside a for loop condition should not be used:</p><ul><li>Example: </li><li>Replace </li><li>for($i = 0; $i < count($array); $i++)</li><li>with $count = count($array); </li><li>for($i = 0; $i < $count; $i++) </li></ul>"
+        description = "<p>Function call inside a for, while or do-while loop condition should not be used:</p><ul><li>Example: </li><li>Replace </li><li>for($i = 0; $i < count($array); $i++)</li><li>with $count = count($array); </li><li>for($i = 0; $i < $count; $i++) </li></ul>"
 )
-
+/**
+ * Subscribes to the loops rather than to the method invocations: only the condition of each loop
+ * is scanned, instead of being called back for every invocation of the file.
+ * Only the calls whose receiver and arguments are not changed by the loop are reported: the others,
+ * such as "it.hasNext()" or "queue.poll() != null", cannot be hoisted out of the loop.
+ */
 public class ForLoopConditionFunctionCallChecks extends IssuableSubscriptionVisitor {
 
     public static final String KEY = "ForLoopConditionFunctionCallCheck";
-    private static final String MESSAGE = "Function call inside a for loop condition should not be used";
+    private static final String FOR_MESSAGE = "Function call inside a for loop condition should not be used.";
+    private static final String WHILE_MESSAGE = "Function call inside a while loop condition should not be used.";
+    private static final String DO_WHILE_MESSAGE = "Function call inside a do-while loop condition should not be used.";
+
+    private final ConditionVisitor conditionVisitor = new ConditionVisitor();
+    private final LoopInvariance loopInvariance = new LoopInvariance();
+
+    @Override
+    public void setContext(JavaFileScannerContext context) {
+        // usages collected on the previous file must not be kept
+        loopInvariance.reset();
+        super.setContext(context);
+    }
 
     @Override
     public List<Tree.Kind> nodesToVisit() {
         return ImmutableList.of(
-                Tree.Kind.METHOD_INVOCATION
+                Tree.Kind.FOR_STATEMENT,
+                Tree.Kind.WHILE_STATEMENT,
+                Tree.Kind.DO_STATEMENT
         );
     }
 
     @Override
     public void visitNode(Tree tree) {
-
-        MethodInvocationTree methodInvocationTree = (MethodInvocationTree) tree;
-        if(methodInvocationTree.parent().parent().is(Tree.Kind.FOR_STATEMENT)) {
-            reportIssue(methodInvocationTree, MESSAGE + ".");
+        if (tree.is(Tree.Kind.FOR_STATEMENT)) {
+            checkCondition(tree, ((ForStatementTree) tree).condition(), FOR_MESSAGE);
+        } else if (tree.is(Tree.Kind.WHILE_STATEMENT)) {
+            checkCondition(tree, ((WhileStatementTree) tree).condition(), WHILE_MESSAGE);
+        } else {
+            checkCondition(tree, ((DoWhileStatementTree) tree).condition(), DO_WHILE_MESSAGE);
         }
 
         super.visitNode(tree);
     }
 
+    private void checkCondition(Tree loop, ExpressionTree condition, String message) {
+        // condition of "for(;;)" is optional
+        if (condition != null) {
+            conditionVisitor.loop = loop;
+            conditionVisitor.message = message;
+            condition.accept(conditionVisitor);
+        }
+    }
+
+    /**
+     * Reports the outermost loop-invariant method invocations of a condition, however deeply nested they are.
+     */
+    private class ConditionVisitor extends BaseTreeVisitor {
+
+        private Tree loop;
+        private String message;
+
+        @Override
+        public void visitMethodInvocation(MethodInvocationTree tree) {
+            if (loopInvariance.isInvariant(tree, loop)) {
+                // the invocations nested in its receiver and arguments are invariant too
+                reportIssue(tree, message);
+            } else {
+                super.visitMethodInvocation(tree);
+            }
+        }
+
+        @Override
+        public void visitLambdaExpression(LambdaExpressionTree lambdaExpressionTree) {
+            // body of a lambda is not evaluated by the condition itself
+        }
+
+        @Override
+        public void visitClass(ClassTree tree) {
+            // neither are the bodies of anonymous classes
+        }
+    }
+
 }
@@ -0,0 +1,178 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.LoopContext;
+import org.sonar.samples.java.checks.helpers.Loops;
+
+/**
+ * Reports the loops which execute JDBC statements at each iteration, one round-trip to the database each:
+ * "execute", "executeUpdate" and "executeLargeUpdate", and "executeQuery" when its SQL, or a parameter bound to its
+ * PreparedStatement in the loop, comes from a variable of the loop. Queries which do not depend on the loop are left
+ * to the invariance rules.
+ * <p>
+ * The calls are collected while the loop is visited, then reported on the loop when leaving it: one issue per loop,
+ * with the calls as secondary locations.
+ */
+@Rule(key = JdbcInLoopCheck.KEY)
+public class JdbcInLoopCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "JdbcInLoopCheck";
+  private static final String MESSAGE = "Batch the %s executed in this loop with \"addBatch\" and \"executeBatch\", or use a set-based query.";
+  private static final String SECONDARY_MESSAGE = "Executed at each iteration";
+
+  private static final List<String> UPDATE_METHODS = Arrays.asList("execute", "executeUpdate", "executeLargeUpdate");
+
+  private final LoopContext loopContext = new LoopContext();
+  private final Map<Tree, LoopExecutions> executions = new HashMap<>();
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    loopContext.reset();
+    executions.clear();
+    super.setContext(context);
+  }
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(
+      Tree.Kind.FOR_STATEMENT,
+      Tree.Kind.FOR_EACH_STATEMENT,
+      Tree.Kind.WHILE_STATEMENT,
+      Tree.Kind.DO_STATEMENT,
+      Tree.Kind.METHOD_INVOCATION);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    if (!tree.is(Tree.Kind.METHOD_INVOCATION)) {
+      return;
+    }
+    MethodInvocationTree invocation = (MethodInvocationTree) tree;
+    Symbol symbol = invocation.symbol();
+    if (!symbol.isMethodSymbol() || !symbol.owner().type().isSubtypeOf("java.sql.Statement")) {
+      return;
+    }
+    Tree loop = loopContext.enclosingLoop(invocation);
+    if (loop == null) {
+      return;
+    }
+    LoopExecutions loopExecutions = executions.computeIfAbsent(loop, k -> new LoopExecutions());
+    String name = symbol.name();
+    if (UPDATE_METHODS.contains(name)) {
+      loopExecutions.calls.add(invocation);
+    } else if ("executeQuery".equals(name)) {
+      if (invocation.arguments().isEmpty()) {
+        loopExecutions.queries.add(invocation);
+      } else if (dependsOn(invocation.arguments().get(0), loop)) {
+        loopExecutions.calls.add(invocation);
+      }
+    } else if (name.startsWith("set") && invocation.arguments().size() >= 2 && dependsOn(invocation.arguments().get(1), loop)) {
+      Symbol statement = receiverSymbol(invocation);
+      if (statement != null) {
+        loopExecutions.boundStatements.add(statement);
+      }
+    }
+  }
+
+  @Override
+  public void leaveNode(Tree tree) {
+    if (tree.is(Tree.Kind.METHOD_INVOCATION)) {
+      return;
+    }
+    LoopExecutions loopExecutions = executions.remove(tree);
+    if (loopExecutions == null) {
+      return;
+    }
+    List<MethodInvocationTree> reported = new ArrayList<>(loopExecutions.calls);
+    for (MethodInvocationTree query : loopExecutions.queries) {
+      if (loopExecutions.boundStatements.contains(receiverSymbol(query))) {
+        reported.add(query);
+      }
+    }
+    if (!reported.isEmpty()) {
+      reported.sort((first, second) -> Integer.compare(first.firstToken().line(), second.firstToken().line()));
+      List<JavaFileScannerContext.Location> secondaries = new ArrayList<>();
+      for (MethodInvocationTree call : reported) {
+        secondaries.add(new JavaFileScannerContext.Location(SECONDARY_MESSAGE, call));
+      }
+      String statements = reported.size() == 1 ? "statement" : (reported.size() + " statements");
+      reportIssue(tree.firstToken(), String.format(MESSAGE, statements), secondaries, null);
+    }
+  }
+
+  private static Symbol receiverSymbol(MethodInvocationTree invocation) {
+    ExpressionTree methodSelect = invocation.methodSelect();
+    if (methodSelect.is(Tree.Kind.MEMBER_SELECT)) {
+      ExpressionTree receiver = ((MemberSelectExpressionTree) methodSelect).expression();
+      if (receiver.is(Tree.Kind.IDENTIFIER)) {
+        return ((IdentifierTree) receiver).symbol();
+      }
+      if (receiver.is(Tree.Kind.MEMBER_SELECT)) {
+        return ((MemberSelectExpressionTree) receiver).identifier().symbol();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return true if the expression reads a variable declared by the loop, e.g. its foreach variable, or in its body
+   */
+  private static boolean dependsOn(ExpressionTree expression, Tree loop) {
+    LoopVariableFinder finder = new LoopVariableFinder(loop);
+    expression.accept(finder);
+    return finder.found;
+  }
+
+  private static class LoopExecutions {
+    private final List<MethodInvocationTree> calls = new ArrayList<>();
+    private final List<MethodInvocationTree> queries = new ArrayList<>();
+    private final Set<Symbol> boundStatements = new HashSet<>();
+  }
+
+  private static class LoopVariableFinder extends BaseTreeVisitor {
+
+    private final Tree loop;
+    private boolean found;
+
+    LoopVariableFinder(Tree loop) {
+      this.loop = loop;
+    }
+
+    @Override
+    public void visitIdentifier(IdentifierTree tree) {
+      found |= Loops.isDeclaredIn(tree.symbol(), loop);
+    }
+  }
+
+}
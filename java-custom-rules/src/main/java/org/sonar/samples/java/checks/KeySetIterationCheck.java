@@ -0,0 +1,101 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.*;
+
+import static org.sonar.samples.java.checks.helpers.Expressions.skipParentheses;
+
+/**
+ * Reports the foreach loops over "map.keySet()" which look each key up again with "map.get(key)": iterating over
+ * "entrySet()" gives the values without the extra lookups.
+ */
+@Rule(key = KeySetIterationCheck.KEY)
+public class KeySetIterationCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "KeySetIterationCheck";
+  private static final String MESSAGE = "Iterate over \"entrySet()\" instead of calling \"get\" for each key: n extra lookups, %s for the whole loop.";
+  private static final String SECONDARY_MESSAGE = "Extra lookup";
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.FOR_EACH_STATEMENT);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    ForEachStatement forEach = (ForEachStatement) tree;
+    ExpressionTree iterated = skipParentheses(forEach.expression());
+    if (!iterated.is(Tree.Kind.METHOD_INVOCATION)) {
+      return;
+    }
+    MethodInvocationTree keySet = (MethodInvocationTree) iterated;
+    ExpressionTree map = receiver(keySet);
+    if (map == null || !"keySet".equals(keySet.symbol().name()) || !keySet.arguments().isEmpty()
+      || !map.symbolType().isSubtypeOf("java.util.Map")) {
+      return;
+    }
+    Symbol mapSymbol = symbol(map);
+    List<JavaFileScannerContext.Location> lookups = new ArrayList<>();
+    for (IdentifierTree usage : forEach.variable().symbol().usages()) {
+      Tree arguments = usage.parent();
+      if (arguments.is(Tree.Kind.ARGUMENTS) && arguments.parent().is(Tree.Kind.METHOD_INVOCATION)) {
+        MethodInvocationTree get = (MethodInvocationTree) arguments.parent();
+        ExpressionTree getReceiver = receiver(get);
+        if ("get".equals(get.symbol().name()) && get.arguments().size() == 1
+          && getReceiver != null && mapSymbol != null && symbol(getReceiver) == mapSymbol) {
+          lookups.add(new JavaFileScannerContext.Location(SECONDARY_MESSAGE, get));
+        }
+      }
+    }
+    if (!lookups.isEmpty()) {
+      String complexity = map.symbolType().isSubtypeOf("java.util.SortedMap") ? "O(n log n)" : "O(n)";
+      reportIssue(((MemberSelectExpressionTree) keySet.methodSelect()).identifier(), String.format(MESSAGE, complexity), lookups, null);
+    }
+  }
+
+  private static ExpressionTree receiver(MethodInvocationTree invocation) {
+    ExpressionTree methodSelect = invocation.methodSelect();
+    return methodSelect.is(Tree.Kind.MEMBER_SELECT) ? ((MemberSelectExpressionTree) methodSelect).expression() : null;
+  }
+
+  /**
+   * @return the symbol of a variable or of a field, e.g. "map" or "this.map", null for other expressions
+   */
+  private static Symbol symbol(ExpressionTree expression) {
+    ExpressionTree skipped = skipParentheses(expression);
+    Symbol symbol = null;
+    if (skipped.is(Tree.Kind.IDENTIFIER)) {
+      symbol = ((IdentifierTree) skipped).symbol();
+    } else if (skipped.is(Tree.Kind.MEMBER_SELECT)) {
+      symbol = ((MemberSelectExpressionTree) skipped).identifier().symbol();
+    }
+    return symbol == null || symbol.isUnknown() ? null : symbol;
+  }
+
+}
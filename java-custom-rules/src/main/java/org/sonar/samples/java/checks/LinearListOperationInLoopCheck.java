@@ -0,0 +1,105 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.Complexity;
+import org.sonar.samples.java.checks.helpers.LoopContext;
+
+import static org.sonar.samples.java.checks.helpers.Expressions.skipParentheses;
+
+/**
+ * Reports the operations linear in the size of a List called in a loop, which make the loop quadratic:
+ * <ul>
+ *   <li>"contains", "indexOf" and "lastIndexOf", which scan the list</li>
+ *   <li>"remove(0)" and "add(0, e)", which shift all the elements of an array-backed list. Lists declared as a
+ *   LinkedList are not reported for those.</li>
+ * </ul>
+ * The complexity given in the message counts the enclosing loops.
+ */
+@Rule(key = LinearListOperationInLoopCheck.KEY)
+public class LinearListOperationInLoopCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "LinearListOperationInLoopCheck";
+  private static final String SEARCH_MESSAGE = "Index the elements in a HashSet or a HashMap: \"%s\" scans the list, O(n) per call, %s in loop.";
+  private static final String SHIFT_MESSAGE = "Use an ArrayDeque: \"%s\" shifts all the elements of the list, O(n) per call, %s in loop.";
+
+  private static final List<String> SEARCH_METHODS = Arrays.asList("contains", "indexOf", "lastIndexOf");
+
+  private final LoopContext loopContext = new LoopContext();
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    loopContext.reset();
+    super.setContext(context);
+  }
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.METHOD_INVOCATION);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    MethodInvocationTree invocation = (MethodInvocationTree) tree;
+    if (!invocation.methodSelect().is(Tree.Kind.MEMBER_SELECT)) {
+      return;
+    }
+    MemberSelectExpressionTree methodSelect = (MemberSelectExpressionTree) invocation.methodSelect();
+    Type list = methodSelect.expression().symbolType();
+    if (!list.isSubtypeOf("java.util.List")) {
+      return;
+    }
+    String name = methodSelect.identifier().name();
+    Arguments arguments = invocation.arguments();
+    String message;
+    if (SEARCH_METHODS.contains(name) && arguments.size() == 1) {
+      message = SEARCH_MESSAGE;
+    } else if (!list.isSubtypeOf("java.util.LinkedList") && isShift(name, arguments)) {
+      message = SHIFT_MESSAGE;
+      name = "remove".equals(name) ? "remove(0)" : "add(0, e)";
+    } else {
+      return;
+    }
+    int depth = loopContext.depth(invocation);
+    if (depth > 0) {
+      reportIssue(methodSelect.identifier(), String.format(message, name, Complexity.polynomial(depth + 1)));
+    }
+  }
+
+  private static boolean isShift(String name, Arguments arguments) {
+    return ("remove".equals(name) && arguments.size() == 1 || "add".equals(name) && arguments.size() == 2)
+      && isZero(arguments.get(0));
+  }
+
+  private static boolean isZero(ExpressionTree expression) {
+    ExpressionTree skipped = skipParentheses(expression);
+    return skipped.is(Tree.Kind.INT_LITERAL) && "0".equals(((LiteralTree) skipped).value());
+  }
+
+}
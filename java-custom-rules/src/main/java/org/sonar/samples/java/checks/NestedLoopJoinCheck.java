@@ -0,0 +1,256 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.Loops;
+
+import static org.sonar.samples.java.checks.helpers.Expressions.skipParentheses;
+
+/**
+ * Reports the nested loops which join two collections: the inner loop compares, with "equals" or "==", an element of
+ * its source, or one of its fields, to an element of the source of the outer loop. Such a join is O(n&#215;m), where a
+ * hash index of one of the sources makes it O(n+m).
+ * <p>
+ * Both loops must iterate over a collection or an array, with a foreach or an index bounded by its size, which is not
+ * constant-sized: "Arrays.asList", "List.of", "EnumSet", "values()", array initializers and static final fields are
+ * small enough to be left alone.
+ */
+@Rule(key = NestedLoopJoinCheck.KEY)
+public class NestedLoopJoinCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "NestedLoopJoinCheck";
+  private static final String MESSAGE = "Build a hash index of one of the collections before this loop: the nested loop compares their elements, O(n\u00d7m).";
+  private static final String SECONDARY_MESSAGE = "Compared at each iteration of the nested loop";
+
+  private static final List<String> CONSTANT_FACTORIES = Arrays.asList("asList", "of", "singletonList", "singleton",
+    "emptyList", "emptySet", "allOf", "noneOf");
+
+  private final Set<Tree> reportedLoops = new HashSet<>();
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    reportedLoops.clear();
+    super.setContext(context);
+  }
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.FOR_EACH_STATEMENT, Tree.Kind.FOR_STATEMENT);
+  }
+
+  @Override
+  public void visitNode(Tree inner) {
+    if (!isJoinSource(Loops.iteratedSource(inner))) {
+      return;
+    }
+    for (Tree outer = Loops.enclosingLoop(inner); outer != null; outer = Loops.enclosingLoop(outer)) {
+      if (!reportedLoops.contains(outer) && isJoinSource(Loops.iteratedSource(outer))) {
+        Tree comparison = findComparison(outer, inner);
+        if (comparison != null) {
+          reportedLoops.add(outer);
+          reportIssue(outer.firstToken(), MESSAGE,
+            Collections.singletonList(new JavaFileScannerContext.Location(SECONDARY_MESSAGE, comparison)), null);
+          return;
+        }
+      }
+    }
+  }
+
+  private static boolean isJoinSource(ExpressionTree source) {
+    if (source == null) {
+      return false;
+    }
+    ExpressionTree skipped = skipParentheses(source);
+    if (skipped.is(Tree.Kind.NEW_ARRAY)) {
+      return ((NewArrayTree) skipped).initializers().isEmpty();
+    }
+    if (skipped.is(Tree.Kind.METHOD_INVOCATION)) {
+      Symbol method = ((MethodInvocationTree) skipped).symbol();
+      boolean enumValues = "values".equals(method.name()) && method.owner().type().isSubtypeOf("java.lang.Enum");
+      return !enumValues && !CONSTANT_FACTORIES.contains(method.name());
+    }
+    Symbol symbol = null;
+    if (skipped.is(Tree.Kind.IDENTIFIER)) {
+      symbol = ((IdentifierTree) skipped).symbol();
+    } else if (skipped.is(Tree.Kind.MEMBER_SELECT)) {
+      symbol = ((MemberSelectExpressionTree) skipped).identifier().symbol();
+    }
+    return symbol == null || !(symbol.isStatic() && symbol.isFinal());
+  }
+
+  private static Tree findComparison(Tree outer, Tree inner) {
+    ComparisonFinder finder = new ComparisonFinder(new LoopElements(outer), new LoopElements(inner));
+    body(inner).accept(finder);
+    return finder.comparison;
+  }
+
+  private static StatementTree body(Tree loop) {
+    return loop.is(Tree.Kind.FOR_EACH_STATEMENT) ? ((ForEachStatement) loop).statement() : ((ForStatementTree) loop).statement();
+  }
+
+  /**
+   * The expressions giving the current element of a loop: its foreach variable, "source[i]" and "source.get(i)" for an
+   * indexed loop, and the local variables of its body initialized with them.
+   */
+  private static class LoopElements {
+
+    private final ExpressionTree source;
+    private final Symbol index;
+    private final Set<Symbol> variables = new HashSet<>();
+
+    LoopElements(Tree loop) {
+      source = skipParentheses(Loops.iteratedSource(loop));
+      if (loop.is(Tree.Kind.FOR_EACH_STATEMENT)) {
+        index = null;
+        variables.add(((ForEachStatement) loop).variable().symbol());
+      } else {
+        ExpressionTree counter = Loops.index(loop);
+        index = counter != null && counter.is(Tree.Kind.IDENTIFIER) ? ((IdentifierTree) counter).symbol() : null;
+      }
+      StatementTree body = body(loop);
+      if (body.is(Tree.Kind.BLOCK)) {
+        for (StatementTree statement : ((BlockTree) body).body()) {
+          if (statement.is(Tree.Kind.VARIABLE) && ((VariableTree) statement).initializer() != null
+            && isElement(((VariableTree) statement).initializer())) {
+            variables.add(((VariableTree) statement).symbol());
+          }
+        }
+      }
+    }
+
+    /**
+     * @return true for an element of the loop, or a field or getter of such an element, e.g. "order.getId()"
+     */
+    boolean isElementOrKey(ExpressionTree expression) {
+      ExpressionTree skipped = skipParentheses(expression);
+      if (isElement(skipped)) {
+        return true;
+      }
+      if (skipped.is(Tree.Kind.MEMBER_SELECT)) {
+        return isElementOrKey(((MemberSelectExpressionTree) skipped).expression());
+      }
+      if (skipped.is(Tree.Kind.METHOD_INVOCATION) && ((MethodInvocationTree) skipped).arguments().isEmpty()
+        && ((MethodInvocationTree) skipped).methodSelect().is(Tree.Kind.MEMBER_SELECT)) {
+        return isElementOrKey(((MemberSelectExpressionTree) ((MethodInvocationTree) skipped).methodSelect()).expression());
+      }
+      return false;
+    }
+
+    private boolean isElement(ExpressionTree expression) {
+      ExpressionTree skipped = skipParentheses(expression);
+      if (skipped.is(Tree.Kind.IDENTIFIER)) {
+        return variables.contains(((IdentifierTree) skipped).symbol());
+      }
+      if (index == null) {
+        return false;
+      }
+      if (skipped.is(Tree.Kind.ARRAY_ACCESS_EXPRESSION)) {
+        ArrayAccessExpressionTree access = (ArrayAccessExpressionTree) skipped;
+        return isIndex(access.dimension().expression()) && isSource(access.expression());
+      }
+      if (skipped.is(Tree.Kind.METHOD_INVOCATION)) {
+        MethodInvocationTree get = (MethodInvocationTree) skipped;
+        return get.methodSelect().is(Tree.Kind.MEMBER_SELECT) && "get".equals(get.symbol().name())
+          && get.arguments().size() == 1 && isIndex(get.arguments().get(0))
+          && isSource(((MemberSelectExpressionTree) get.methodSelect()).expression());
+      }
+      return false;
+    }
+
+    private boolean isIndex(ExpressionTree expression) {
+      ExpressionTree skipped = skipParentheses(expression);
+      return skipped.is(Tree.Kind.IDENTIFIER) && ((IdentifierTree) skipped).symbol() == index;
+    }
+
+    private boolean isSource(ExpressionTree expression) {
+      ExpressionTree skipped = skipParentheses(expression);
+      return skipped.is(Tree.Kind.IDENTIFIER) && source.is(Tree.Kind.IDENTIFIER)
+        && ((IdentifierTree) skipped).symbol() == ((IdentifierTree) source).symbol();
+    }
+  }
+
+  private static class ComparisonFinder extends BaseTreeVisitor {
+
+    private final LoopElements outer;
+    private final LoopElements inner;
+    private Tree comparison;
+
+    ComparisonFinder(LoopElements outer, LoopElements inner) {
+      this.outer = outer;
+      this.inner = inner;
+    }
+
+    @Override
+    public void visitBinaryExpression(BinaryExpressionTree tree) {
+      if (tree.is(Tree.Kind.EQUAL_TO) && joins(tree.leftOperand(), tree.rightOperand())) {
+        found(tree);
+      } else {
+        super.visitBinaryExpression(tree);
+      }
+    }
+
+    @Override
+    public void visitMethodInvocation(MethodInvocationTree tree) {
+      String name = tree.symbol().name();
+      Arguments arguments = tree.arguments();
+      if ("equals".equals(name) && arguments.size() == 1 && tree.methodSelect().is(Tree.Kind.MEMBER_SELECT)
+        && joins(((MemberSelectExpressionTree) tree.methodSelect()).expression(), arguments.get(0))) {
+        found(tree);
+      } else if ("equals".equals(name) && arguments.size() == 2 && joins(arguments.get(0), arguments.get(1))) {
+        // Objects.equals(a, b)
+        found(tree);
+      } else {
+        super.visitMethodInvocation(tree);
+      }
+    }
+
+    private boolean joins(ExpressionTree left, ExpressionTree right) {
+      return (outer.isElementOrKey(left) && inner.isElementOrKey(right)) || (inner.isElementOrKey(left) && outer.isElementOrKey(right));
+    }
+
+    private void found(Tree tree) {
+      if (comparison == null) {
+        comparison = tree;
+      }
+    }
+
+    @Override
+    public void visitLambdaExpression(LambdaExpressionTree lambdaExpressionTree) {
+      // evaluated later, or never
+    }
+
+    @Override
+    public void visitClass(ClassTree tree) {
+      // neither are the bodies of anonymous classes
+    }
+  }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.LoopContext;
+import org.sonar.samples.java.checks.helpers.Loops;
+
+import static org.sonar.samples.java.checks.helpers.Expressions.skipParentheses;
+
+/**
+ * Reports the work done again at each iteration of a loop:
+ * <ul>
+ *   <li>buffers allocated in the body of the loop which do not escape the iteration, and could be allocated once and
+ *   reused: arrays of at least {@value #BUFFER_SIZE} elements, builders and byte or char buffers. A buffer escapes when
+ *   it is returned, assigned, captured, added to a collection or a map, or passed to a constructor.</li>
+ *   <li>sorts of a collection or an array declared outside of the loop, which is sorted again at each iteration while
+ *   it grows.</li>
+ * </ul>
+ */
+@Rule(key = PerIterationWorkInLoopCheck.KEY)
+public class PerIterationWorkInLoopCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "PerIterationWorkInLoopCheck";
+  private static final String BUFFER_MESSAGE = "Allocate this %s once, before the loop, and reuse it at each iteration.";
+  private static final String BUILDER_MESSAGE = "Create this %s once, before the loop, and reuse it with \"setLength(0)\" at each iteration.";
+  private static final String SORT_MESSAGE = "Keep \"%s\" sorted, e.g. in a PriorityQueue or a TreeMap, instead of sorting it at each iteration: O(n log n) per iteration.";
+
+  static final int BUFFER_SIZE = 256;
+
+  private static final List<String> BUILDERS = Arrays.asList("java.lang.StringBuilder", "java.lang.StringBuffer");
+  private static final List<String> BUFFERS = Arrays.asList("java.io.ByteArrayOutputStream", "java.io.CharArrayWriter");
+  private static final List<String> NIO_BUFFERS = Arrays.asList("java.nio.ByteBuffer", "java.nio.CharBuffer");
+  private static final List<String> STORING_OWNERS = Arrays.asList("java.util.Collection", "java.util.Map");
+  /**
+   * Methods returning a view of the elements of their receiver: sorting the view sorts the receiver again
+   */
+  private static final List<String> STREAM_VIEWS = Arrays.asList("stream", "parallelStream", "filter", "map", "mapToInt", "mapToLong",
+    "mapToDouble", "mapToObj", "boxed", "distinct", "peek", "limit", "skip", "sequential", "parallel", "unordered");
+
+  private final LoopContext loopContext = new LoopContext();
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    loopContext.reset();
+    super.setContext(context);
+  }
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.VARIABLE, Tree.Kind.METHOD_INVOCATION);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    if (tree.is(Tree.Kind.VARIABLE)) {
+      checkBuffer((VariableTree) tree);
+    } else {
+      checkSort((MethodInvocationTree) tree);
+    }
+  }
+
+  private void checkBuffer(VariableTree variable) {
+    ExpressionTree initializer = variable.initializer();
+    if (initializer == null || !variable.parent().is(Tree.Kind.BLOCK)) {
+      return;
+    }
+    String message = bufferMessage(skipParentheses(initializer));
+    Tree loop = loopContext.enclosingLoop(variable);
+    if (message != null && loop != null && !escapes(variable.symbol())) {
+      reportIssue(initializer, message);
+    }
+  }
+
+  private static String bufferMessage(ExpressionTree initializer) {
+    Type type = initializer.symbolType();
+    if (initializer.is(Tree.Kind.NEW_ARRAY)) {
+      NewArrayTree newArray = (NewArrayTree) initializer;
+      return newArray.dimensions().size() == 1 && isBufferSize(newArray.dimensions().get(0).expression()) ? String.format(BUFFER_MESSAGE, type.name()) : null;
+    }
+    if (initializer.is(Tree.Kind.NEW_CLASS)) {
+      if (BUILDERS.stream().anyMatch(type::is)) {
+        return String.format(BUILDER_MESSAGE, type.name());
+      }
+      return BUFFERS.stream().anyMatch(type::is) ? String.format(BUFFER_MESSAGE, type.name()) : null;
+    }
+    if (initializer.is(Tree.Kind.METHOD_INVOCATION)) {
+      Symbol method = ((MethodInvocationTree) initializer).symbol();
+      boolean allocation = "allocate".equals(method.name()) || "allocateDirect".equals(method.name());
+      return allocation && NIO_BUFFERS.stream().anyMatch(method.owner().type()::is) ? String.format(BUFFER_MESSAGE, type.name()) : null;
+    }
+    return null;
+  }
+
+  /**
+   * @return true for a literal of at least {@link #BUFFER_SIZE}, or a constant: constant sizes are those of buffers
+   */
+  private static boolean isBufferSize(ExpressionTree dimension) {
+    ExpressionTree skipped = skipParentheses(dimension);
+    if (skipped.is(Tree.Kind.INT_LITERAL)) {
+      try {
+        return Integer.decode(((LiteralTree) skipped).value().replace("_", "")) >= BUFFER_SIZE;
+      } catch (NumberFormatException e) {
+        return false;
+      }
+    }
+    Symbol symbol = null;
+    if (skipped.is(Tree.Kind.IDENTIFIER)) {
+      symbol = ((IdentifierTree) skipped).symbol();
+    } else if (skipped.is(Tree.Kind.MEMBER_SELECT)) {
+      symbol = ((MemberSelectExpressionTree) skipped).identifier().symbol();
+    }
+    return symbol != null && symbol.isVariableSymbol() && symbol.isStatic() && symbol.isFinal();
+  }
+
+  private static boolean escapes(Symbol symbol) {
+    for (IdentifierTree usage : symbol.usages()) {
+      Tree parent = usage.parent();
+      while (parent.is(Tree.Kind.PARENTHESIZED_EXPRESSION, Tree.Kind.CONDITIONAL_EXPRESSION, Tree.Kind.TYPE_CAST)) {
+        parent = parent.parent();
+      }
+      if (parent.is(Tree.Kind.RETURN_STATEMENT, Tree.Kind.THROW_STATEMENT, Tree.Kind.VARIABLE, Tree.Kind.ASSIGNMENT)
+        || parent.is(Tree.Kind.ARGUMENTS) && isStoring(parent.parent())
+        || isCaptured(usage, symbol)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isStoring(Tree call) {
+    if (call.is(Tree.Kind.NEW_CLASS)) {
+      return true;
+    }
+    if (call.is(Tree.Kind.METHOD_INVOCATION)) {
+      Type owner = ((MethodInvocationTree) call).symbol().owner().type();
+      return STORING_OWNERS.stream().anyMatch(owner::isSubtypeOf);
+    }
+    return false;
+  }
+
+  /**
+   * @return true if the usage is in a lambda or a class declared after the variable
+   */
+  private static boolean isCaptured(Tree usage, Symbol symbol) {
+    Tree declaration = symbol.declaration();
+    Tree parent = usage.parent();
+    while (parent != null && !Loops.isAncestor(parent, declaration)) {
+      if (parent.is(Tree.Kind.LAMBDA_EXPRESSION, Tree.Kind.CLASS)) {
+        return true;
+      }
+      parent = parent.parent();
+    }
+    return false;
+  }
+
+  private void checkSort(MethodInvocationTree invocation) {
+    Symbol method = invocation.symbol();
+    Type owner = method.owner().type();
+    ExpressionTree sorted = null;
+    if ("sort".equals(method.name()) && (owner.is("java.util.Collections") || owner.is("java.util.Arrays")) && !invocation.arguments().isEmpty()) {
+      sorted = invocation.arguments().get(0);
+    } else if (("sort".equals(method.name()) && owner.isSubtypeOf("java.util.List")
+      || "sorted".equals(method.name()) && owner.isSubtypeOf("java.util.stream.Stream"))
+      && invocation.methodSelect().is(Tree.Kind.MEMBER_SELECT)) {
+      sorted = ((MemberSelectExpressionTree) invocation.methodSelect()).expression();
+    }
+    if (sorted == null) {
+      return;
+    }
+    IdentifierTree root = root(sorted);
+    Tree loop = loopContext.enclosingLoop(invocation);
+    if (root != null && loop != null && !root.symbol().isUnknown() && !Loops.isDeclaredIn(root.symbol(), loop)) {
+      reportIssue(invocation, String.format(SORT_MESSAGE, root.name()));
+    }
+  }
+
+  /**
+   * @return the variable at the root of a chain of stream views, e.g. "list" in "list.stream().filter(p)", or null.
+   * Other calls, such as the element accessor in "groups.get(i)", return another collection than their receiver.
+   */
+  private static IdentifierTree root(ExpressionTree expression) {
+    ExpressionTree current = skipParentheses(expression);
+    while (isStreamView(current)) {
+      current = skipParentheses(((MemberSelectExpressionTree) ((MethodInvocationTree) current).methodSelect()).expression());
+    }
+    if (current.is(Tree.Kind.METHOD_INVOCATION)) {
+      return null;
+    }
+    if (current.is(Tree.Kind.MEMBER_SELECT)) {
+      return ((MemberSelectExpressionTree) current).identifier();
+    }
+    return current.is(Tree.Kind.IDENTIFIER) ? (IdentifierTree) current : null;
+  }
+
+  private static boolean isStreamView(ExpressionTree expression) {
+    if (!expression.is(Tree.Kind.METHOD_INVOCATION)) {
+      return false;
+    }
+    MethodInvocationTree invocation = (MethodInvocationTree) expression;
+    Symbol method = invocation.symbol();
+    if (!invocation.methodSelect().is(Tree.Kind.MEMBER_SELECT) || !STREAM_VIEWS.contains(method.name())) {
+      return false;
+    }
+    Type owner = method.owner().type();
+    return owner.isSubtypeOf("java.util.Collection") || owner.isSubtypeOf("java.util.stream.BaseStream");
+  }
+
+}
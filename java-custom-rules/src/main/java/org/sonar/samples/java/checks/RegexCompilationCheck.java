@@ -0,0 +1,226 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.LoopContext;
+
+import static org.sonar.samples.java.checks.helpers.Expressions.skipParentheses;
+
+/**
+ * Reports the regular expressions compiled again and again:
+ * <ul>
+ *   <li>"String.matches", "replaceAll", "replaceFirst" and "split", and "Pattern.compile" and "Pattern.matches",
+ *   called in a loop. "split" is not reported when its regular expression is a literal on the fast path of the JDK,
+ *   which splits on a single character without compiling it.</li>
+ *   <li>"Pattern.compile" of a constant anywhere but in the initializer of a static final field, or in a static
+ *   initializer.</li>
+ * </ul>
+ */
+@Rule(key = RegexCompilationCheck.KEY)
+public class RegexCompilationCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "RegexCompilationCheck";
+  private static final String CONSTANT_MESSAGE = "Precompile this regular expression in a \"static final Pattern\".";
+  private static final String LOOP_MESSAGE = "Compile this regular expression once, before the loop, instead of at each iteration.";
+
+  private static final List<String> STRING_METHODS = Arrays.asList("matches", "replaceAll", "replaceFirst", "split");
+  private static final List<String> PATTERN_METHODS = Arrays.asList("compile", "matches");
+
+  /**
+   * Characters which prevent a one-character regular expression from being on the fast path of "String.split".
+   */
+  private static final String METACHARACTERS = ".$|()[{^?*+\\";
+
+  private final LoopContext loopContext = new LoopContext();
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    loopContext.reset();
+    super.setContext(context);
+  }
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.METHOD_INVOCATION);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    MethodInvocationTree invocation = (MethodInvocationTree) tree;
+    Symbol symbol = invocation.symbol();
+    if (!symbol.isMethodSymbol() || invocation.arguments().isEmpty()) {
+      return;
+    }
+    String name = symbol.name();
+    ExpressionTree regex = invocation.arguments().get(0);
+    if (symbol.owner().type().is("java.lang.String") && STRING_METHODS.contains(name)) {
+      if (loopContext.isInLoop(invocation) && (!"split".equals(name) || isCompiledBySplit(regex))) {
+        reportIssue(invocation, isConstant(regex) ? CONSTANT_MESSAGE : LOOP_MESSAGE);
+      }
+    } else if (symbol.owner().type().is("java.util.regex.Pattern") && PATTERN_METHODS.contains(name)) {
+      if (isConstant(regex) && !("compile".equals(name) && isStaticInitialization(invocation))) {
+        reportIssue(invocation, CONSTANT_MESSAGE);
+      } else if (loopContext.isInLoop(invocation)) {
+        reportIssue(invocation, LOOP_MESSAGE);
+      }
+    }
+  }
+
+  /**
+   * Mirrors "String.split": a single character which is not a metacharacter, or a backslash followed by a
+   * character which is neither an ASCII letter nor a digit, is split on without compiling a Pattern. The regular
+   * expressions which are not literals may be on this fast path.
+   */
+  private static boolean isCompiledBySplit(ExpressionTree regex) {
+    ExpressionTree skipped = skipParentheses(regex);
+    if (!skipped.is(Tree.Kind.STRING_LITERAL)) {
+      return false;
+    }
+    String literal = ((LiteralTree) skipped).value();
+    // the rules apply to the runtime value: "\\." in the source is the two characters '\' and '.'
+    String value = unescape(literal.substring(1, literal.length() - 1));
+    if (value.length() == 1) {
+      return METACHARACTERS.indexOf(value.charAt(0)) >= 0;
+    }
+    if (value.length() == 2 && value.charAt(0) == '\\') {
+      return isAsciiLetterOrDigit(value.charAt(1));
+    }
+    return true;
+  }
+
+  /**
+   * @return the characters of the body of a string literal, with its escape sequences and unicode escapes replaced
+   */
+  private static String unescape(String body) {
+    StringBuilder value = new StringBuilder(body.length());
+    int i = 0;
+    while (i < body.length()) {
+      char c = body.charAt(i++);
+      if (c != '\\' || i == body.length()) {
+        value.append(c);
+        continue;
+      }
+      char escaped = body.charAt(i++);
+      if (escaped == 'u') {
+        while (i < body.length() && body.charAt(i) == 'u') {
+          i++;
+        }
+        String digits = body.substring(i, Math.min(body.length(), i + 4));
+        // a malformed unicode escape, in a file which does not compile, is counted as one character
+        value.append(digits.length() == 4 && isHexadecimal(digits) ? (char) Integer.parseInt(digits, 16) : '?');
+        i += digits.length();
+      } else if (escaped >= '0' && escaped <= '7') {
+        int maxEnd = Math.min(body.length(), i + (escaped <= '3' ? 2 : 1));
+        int end = i;
+        while (end < maxEnd && body.charAt(end) >= '0' && body.charAt(end) <= '7') {
+          end++;
+        }
+        value.append((char) Integer.parseInt(body.substring(i - 1, end), 8));
+        i = end;
+      } else {
+        value.append(unescape(escaped));
+      }
+    }
+    return value.toString();
+  }
+
+  private static char unescape(char escaped) {
+    switch (escaped) {
+      case 'b':
+        return '\b';
+      case 't':
+        return '\t';
+      case 'n':
+        return '\n';
+      case 'f':
+        return '\f';
+      case 'r':
+        return '\r';
+      case 's':
+        return ' ';
+      default:
+        // '\\', '"' and '\''
+        return escaped;
+    }
+  }
+
+  private static boolean isHexadecimal(String digits) {
+    for (int i = 0; i < digits.length(); i++) {
+      if (Character.digit(digits.charAt(i), 16) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isAsciiLetterOrDigit(char c) {
+    return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean isConstant(ExpressionTree expression) {
+    ExpressionTree skipped = skipParentheses(expression);
+    if (skipped.is(Tree.Kind.STRING_LITERAL)) {
+      return true;
+    }
+    if (skipped.is(Tree.Kind.PLUS)) {
+      BinaryExpressionTree concatenation = (BinaryExpressionTree) skipped;
+      return isConstant(concatenation.leftOperand()) && isConstant(concatenation.rightOperand());
+    }
+    Symbol symbol = null;
+    if (skipped.is(Tree.Kind.IDENTIFIER)) {
+      symbol = ((IdentifierTree) skipped).symbol();
+    } else if (skipped.is(Tree.Kind.MEMBER_SELECT)) {
+      symbol = ((MemberSelectExpressionTree) skipped).identifier().symbol();
+    }
+    return symbol != null && symbol.isVariableSymbol() && symbol.isStatic() && symbol.isFinal();
+  }
+
+  /**
+   * @return true if the invocation is evaluated once per class: in the initializer of a static final field, or in
+   * a static initializer
+   */
+  private static boolean isStaticInitialization(Tree invocation) {
+    Tree parent = invocation.parent();
+    while (parent != null) {
+      if (parent.is(Tree.Kind.STATIC_INITIALIZER)) {
+        return true;
+      }
+      if (parent.is(Tree.Kind.VARIABLE) && parent.parent().is(Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE)) {
+        Symbol field = ((VariableTree) parent).symbol();
+        return field.isStatic() && field.isFinal();
+      }
+      if (parent.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR, Tree.Kind.LAMBDA_EXPRESSION, Tree.Kind.CLASS, Tree.Kind.INITIALIZER)) {
+        return false;
+      }
+      parent = parent.parent();
+    }
+    return false;
+  }
+
+}
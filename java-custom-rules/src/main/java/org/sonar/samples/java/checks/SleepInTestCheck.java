@@ -0,0 +1,165 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.LoopContext;
+
+import static org.sonar.samples.java.checks.helpers.Expressions.skipParentheses;
+
+/**
+ * Reports the fixed waits of the test code, which make the test suites slow and flaky: "Thread.sleep",
+ * "TimeUnit.sleep" and "LockSupport.parkNanos", and the busy loops polling a condition with an empty body. When the
+ * duration of a wait is a constant, the message gives the time it wastes, at each iteration when it is in a loop.
+ */
+@Rule(key = SleepInTestCheck.KEY)
+public class SleepInTestCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "SleepInTestCheck";
+  private static final String MESSAGE = "Replace this fixed wait with a CountDownLatch or Awaitility: it waits for a fixed time.";
+  private static final String WASTED_MESSAGE = "Replace this fixed wait with a CountDownLatch or Awaitility: it wastes up to %s%s.";
+  private static final String BUSY_LOOP_MESSAGE = "Replace this busy loop with a CountDownLatch or Awaitility: it keeps a CPU busy while polling.";
+
+  private final LoopContext loopContext = new LoopContext();
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    loopContext.reset();
+    super.setContext(context);
+  }
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.METHOD_INVOCATION, Tree.Kind.WHILE_STATEMENT, Tree.Kind.DO_STATEMENT);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    if (tree.is(Tree.Kind.WHILE_STATEMENT)) {
+      WhileStatementTree loop = (WhileStatementTree) tree;
+      checkBusyLoop(loop.whileKeyword(), loop.condition(), loop.statement());
+    } else if (tree.is(Tree.Kind.DO_STATEMENT)) {
+      DoWhileStatementTree loop = (DoWhileStatementTree) tree;
+      checkBusyLoop(loop.doKeyword(), loop.condition(), loop.statement());
+    } else {
+      checkWait((MethodInvocationTree) tree);
+    }
+  }
+
+  private void checkWait(MethodInvocationTree invocation) {
+    Symbol method = invocation.symbol();
+    Type owner = method.owner().type();
+    Arguments arguments = invocation.arguments();
+    if (arguments.isEmpty()) {
+      return;
+    }
+    Optional<Long> nanos;
+    if ("sleep".equals(method.name()) && owner.is("java.lang.Thread")) {
+      nanos = duration(arguments.get(0), TimeUnit.MILLISECONDS);
+    } else if ("sleep".equals(method.name()) && owner.is("java.util.concurrent.TimeUnit")) {
+      TimeUnit unit = unitOf(invocation.methodSelect());
+      nanos = unit == null ? Optional.empty() : duration(arguments.get(0), unit);
+    } else if ("parkNanos".equals(method.name()) && owner.is("java.util.concurrent.locks.LockSupport")) {
+      nanos = duration(arguments.get(arguments.size() - 1), TimeUnit.NANOSECONDS);
+    } else {
+      return;
+    }
+    if (nanos.isPresent()) {
+      String perIteration = loopContext.isInLoop(invocation) ? " at each iteration" : "";
+      reportIssue(invocation, String.format(WASTED_MESSAGE, format(nanos.get()), perIteration));
+    } else {
+      reportIssue(invocation, MESSAGE);
+    }
+  }
+
+  private static Optional<Long> duration(ExpressionTree argument, TimeUnit unit) {
+    return argument.asConstant().filter(Number.class::isInstance).map(value -> unit.toNanos(((Number) value).longValue()));
+  }
+
+  /**
+   * @return the unit of "TimeUnit.SECONDS.sleep(n)", or of "SECONDS.sleep(n)" with a static import, or null
+   */
+  private static TimeUnit unitOf(ExpressionTree methodSelect) {
+    if (!methodSelect.is(Tree.Kind.MEMBER_SELECT)) {
+      return null;
+    }
+    ExpressionTree receiver = skipParentheses(((MemberSelectExpressionTree) methodSelect).expression());
+    IdentifierTree constant = null;
+    if (receiver.is(Tree.Kind.MEMBER_SELECT)) {
+      constant = ((MemberSelectExpressionTree) receiver).identifier();
+    } else if (receiver.is(Tree.Kind.IDENTIFIER)) {
+      constant = (IdentifierTree) receiver;
+    }
+    if (constant == null || !constant.symbol().isEnum()) {
+      return null;
+    }
+    String name = constant.name();
+    return Arrays.stream(TimeUnit.values()).filter(unit -> unit.name().equals(name)).findFirst().orElse(null);
+  }
+
+  static String format(long nanos) {
+    if (nanos >= TimeUnit.SECONDS.toNanos(1)) {
+      double seconds = nanos / (double) TimeUnit.SECONDS.toNanos(1);
+      return seconds == Math.rint(seconds) ? String.format(Locale.ROOT, "%d s", (long) seconds) : String.format(Locale.ROOT, "%.1f s", seconds);
+    }
+    if (nanos >= TimeUnit.MILLISECONDS.toNanos(1)) {
+      return TimeUnit.NANOSECONDS.toMillis(nanos) + " ms";
+    }
+    return TimeUnit.NANOSECONDS.toMicros(nanos) + " \u00b5s";
+  }
+
+  private void checkBusyLoop(SyntaxToken keyword, ExpressionTree condition, StatementTree body) {
+    if (!condition.asConstant().isPresent() && isSpinning(body)) {
+      reportIssue(keyword, BUSY_LOOP_MESSAGE);
+    }
+  }
+
+  /**
+   * @return true for an empty body, or for a body which only calls "Thread.onSpinWait" or "Thread.yield"
+   */
+  private static boolean isSpinning(StatementTree body) {
+    if (body.is(Tree.Kind.EMPTY_STATEMENT)) {
+      return true;
+    }
+    if (body.is(Tree.Kind.BLOCK)) {
+      return ((BlockTree) body).body().stream().allMatch(SleepInTestCheck::isSpinning);
+    }
+    if (body.is(Tree.Kind.EXPRESSION_STATEMENT)) {
+      ExpressionTree expression = skipParentheses(((ExpressionStatementTree) body).expression());
+      if (expression.is(Tree.Kind.METHOD_INVOCATION)) {
+        Symbol method = ((MethodInvocationTree) expression).symbol();
+        return ("onSpinWait".equals(method.name()) || "yield".equals(method.name())) && method.owner().type().is("java.lang.Thread");
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.Loops;
+
+import static org.sonar.samples.java.checks.helpers.Expressions.skipParentheses;
+
+/**
+ * Reports the Strings built by concatenation across the iterations of a loop: "s += x" or "s = s + x" creates
+ * a new String, copying all the characters of "s", at each iteration.
+ * <p>
+ * Only the variables declared outside the loop are reported: a String declared and concatenated in the body of
+ * the loop does not grow from one iteration to the next.
+ */
+@Rule(key = StringConcatenationInLoopCheck.KEY)
+public class StringConcatenationInLoopCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "StringConcatenationInLoopCheck";
+  private static final String MESSAGE = "Use a StringBuilder declared outside the loop to build \"%s\".";
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(Tree.Kind.PLUS_ASSIGNMENT, Tree.Kind.ASSIGNMENT);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    AssignmentExpressionTree assignment = (AssignmentExpressionTree) tree;
+    ExpressionTree variable = assignment.variable();
+    if (!isString(variable)) {
+      return;
+    }
+    IdentifierTree identifier = identifier(variable);
+    if (identifier == null || identifier.symbol().isUnknown()) {
+      return;
+    }
+    if (assignment.is(Tree.Kind.ASSIGNMENT) && !isConcatenationOf(assignment.expression(), identifier.symbol())) {
+      // "s = prefix + x" replaces the value of "s" instead of growing it
+      return;
+    }
+    Tree loop = Loops.enclosingLoop(assignment);
+    if (loop != null && !Loops.isDeclaredIn(identifier.symbol(), loop)) {
+      reportIssue(assignment, String.format(MESSAGE, identifier.name()));
+    }
+  }
+
+  private static boolean isString(ExpressionTree expression) {
+    return expression.symbolType().is("java.lang.String");
+  }
+
+  /**
+   * @return true if the expression is a String concatenation with the symbol as one of its operands, e.g.
+   * "s + x" or "x + (s + y)"
+   */
+  private static boolean isConcatenationOf(ExpressionTree expression, Symbol symbol) {
+    ExpressionTree skipped = skipParentheses(expression);
+    if (!skipped.is(Tree.Kind.PLUS) || !isString(skipped)) {
+      return false;
+    }
+    BinaryExpressionTree concatenation = (BinaryExpressionTree) skipped;
+    return isOperand(concatenation.leftOperand(), symbol) || isOperand(concatenation.rightOperand(), symbol);
+  }
+
+  private static boolean isOperand(ExpressionTree operand, Symbol symbol) {
+    IdentifierTree identifier = identifier(skipParentheses(operand));
+    return (identifier != null && identifier.symbol() == symbol) || isConcatenationOf(operand, symbol);
+  }
+
+  /**
+   * @return the identifier of a variable or of a field, e.g. "s" or "this.s", null for an array element
+   */
+  private static IdentifierTree identifier(ExpressionTree variable) {
+    if (variable.is(Tree.Kind.IDENTIFIER)) {
+      return (IdentifierTree) variable;
+    }
+    if (variable.is(Tree.Kind.MEMBER_SELECT)) {
+      return ((MemberSelectExpressionTree) variable).identifier();
+    }
+    return null;
+  }
+
+}
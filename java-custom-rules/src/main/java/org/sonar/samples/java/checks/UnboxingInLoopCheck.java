@@ -0,0 +1,103 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.LoopContext;
+import org.sonar.samples.java.checks.helpers.PrimitiveWrappers;
+
+/**
+ * Reports the wrappers unboxed by arithmetic or comparisons at each iteration of a loop, e.g. the elements of a
+ * "List&lt;Integer&gt;" summed one by one. Updates of wrapper-typed variables are left to
+ * {@link BoxedAccumulatorInLoopCheck}, which reports the variable to declare as a primitive.
+ */
+@Rule(key = UnboxingInLoopCheck.KEY)
+public class UnboxingInLoopCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "UnboxingInLoopCheck";
+  private static final String MESSAGE = "This %s is unboxed at each iteration: store primitives, in a primitive local or a primitive-specialized collection.";
+
+  private final LoopContext loopContext = new LoopContext();
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    loopContext.reset();
+    super.setContext(context);
+  }
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Arrays.asList(
+      Tree.Kind.PLUS,
+      Tree.Kind.MINUS,
+      Tree.Kind.MULTIPLY,
+      Tree.Kind.DIVIDE,
+      Tree.Kind.REMAINDER,
+      Tree.Kind.LESS_THAN,
+      Tree.Kind.GREATER_THAN,
+      Tree.Kind.LESS_THAN_OR_EQUAL_TO,
+      Tree.Kind.GREATER_THAN_OR_EQUAL_TO,
+      Tree.Kind.PLUS_ASSIGNMENT,
+      Tree.Kind.MINUS_ASSIGNMENT,
+      Tree.Kind.MULTIPLY_ASSIGNMENT,
+      Tree.Kind.DIVIDE_ASSIGNMENT,
+      Tree.Kind.REMAINDER_ASSIGNMENT);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    if (tree instanceof AssignmentExpressionTree) {
+      AssignmentExpressionTree assignment = (AssignmentExpressionTree) tree;
+      if (assignment.variable().symbolType().isPrimitive()) {
+        checkOperand(assignment.expression());
+      }
+      return;
+    }
+    BinaryExpressionTree binary = (BinaryExpressionTree) tree;
+    if (!binary.symbolType().is("java.lang.String") && !isWrapperUpdate(binary)) {
+      checkOperand(binary.leftOperand());
+      checkOperand(binary.rightOperand());
+    }
+  }
+
+  private void checkOperand(ExpressionTree operand) {
+    if (PrimitiveWrappers.isWrapper(operand.symbolType()) && !operand.is(Tree.Kind.NULL_LITERAL) && loopContext.isInLoop(operand)) {
+      reportIssue(operand, String.format(MESSAGE, operand.symbolType().name()));
+    }
+  }
+
+  /**
+   * @return true for "x = x + 1" where "x" is a wrapper, reported by {@link BoxedAccumulatorInLoopCheck}
+   */
+  private static boolean isWrapperUpdate(BinaryExpressionTree binary) {
+    Tree parent = binary.parent();
+    while (parent.is(Tree.Kind.PARENTHESIZED_EXPRESSION)) {
+      parent = parent.parent();
+    }
+    return parent.is(Tree.Kind.ASSIGNMENT) && PrimitiveWrappers.isWrapper(((AssignmentExpressionTree) parent).variable().symbolType());
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.*;
+import org.sonar.samples.java.checks.helpers.MethodCatalog;
+
+/**
+ * Reports the blocking calls lexically inside a synchronized method or block: a virtual thread blocked while holding
+ * a monitor stays pinned to its carrier thread, which no other virtual thread can use meanwhile. The bodies of lambdas
+ * and of classes declared in the synchronized region are not part of it. The streams in memory, such as a
+ * ByteArrayOutputStream, never block: the calls on them are not reported.
+ */
+@Rule(key = VirtualThreadPinningCheck.KEY)
+public class VirtualThreadPinningCheck extends IssuableSubscriptionVisitor {
+
+  public static final String KEY = "VirtualThreadPinningCheck";
+  private static final String MESSAGE = "Replace this \"synchronized\" by a ReentrantLock: \"%s\" blocks while holding the monitor and pins the carrier thread.";
+  private static final String WAIT_MESSAGE = "Replace this \"synchronized\" by a ReentrantLock and \"%s\" by a Condition: waiting on the monitor pins the carrier thread.";
+  private static final String SECONDARY_MESSAGE = "Monitor held during the call";
+
+  private static final List<String> IN_MEMORY_STREAMS = Arrays.asList("java.io.ByteArrayInputStream", "java.io.ByteArrayOutputStream",
+    "java.io.StringReader", "java.io.StringWriter", "java.io.CharArrayReader", "java.io.CharArrayWriter");
+
+  static final String DEFAULT_BLOCKING_METHODS = "java.lang.Thread#sleep, java.lang.Thread#join, java.lang.Object#wait, "
+    + "java.io.InputStream#read*, java.io.Reader#read*, java.io.OutputStream#write, java.io.OutputStream#flush, "
+    + "java.net.Socket#connect, java.net.ServerSocket#accept, java.net.URLConnection#connect, java.net.URLConnection#getInputStream, "
+    + "java.util.concurrent.Future#get, java.util.concurrent.BlockingQueue#take, java.util.concurrent.BlockingQueue#put, "
+    + "java.util.concurrent.CountDownLatch#await, java.util.concurrent.Semaphore#acquire, "
+    + "java.sql.DriverManager#getConnection, javax.sql.DataSource#getConnection, java.sql.Statement#execute*, "
+    + "java.sql.ResultSet#next, java.sql.Connection#commit, java.sql.Connection#rollback";
+
+  @RuleProperty(
+    key = "blockingMethods",
+    description = "Blocking methods, as <fully qualified type>#<method> separated by commas or new lines. "
+      + "The subtypes of the type match too, and a trailing * matches the methods starting with the given name",
+    defaultValue = DEFAULT_BLOCKING_METHODS,
+    type = "TEXT")
+  public String blockingMethods = DEFAULT_BLOCKING_METHODS;
+
+  private MethodCatalog catalog;
+
+  @Override
+  public void setContext(JavaFileScannerContext context) {
+    // the catalog is parsed once, for the first file
+    if (catalog == null) {
+      catalog = MethodCatalog.parse(blockingMethods);
+    }
+    super.setContext(context);
+  }
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return Collections.singletonList(Tree.Kind.METHOD_INVOCATION);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    MethodInvocationTree invocation = (MethodInvocationTree) tree;
+    if (!catalog.matches(invocation.symbol()) || isInMemoryStream(invocation)) {
+      return;
+    }
+    SyntaxToken monitor = enclosingSynchronized(invocation);
+    if (monitor != null) {
+      Symbol symbol = invocation.symbol();
+      String method = symbol.owner().name() + "." + symbol.name();
+      boolean waits = "wait".equals(symbol.name()) && symbol.owner().type().is("java.lang.Object");
+      reportIssue(methodName(invocation), String.format(waits ? WAIT_MESSAGE : MESSAGE, method),
+        Collections.singletonList(new JavaFileScannerContext.Location(SECONDARY_MESSAGE, monitor)), null);
+    }
+  }
+
+  private static boolean isInMemoryStream(MethodInvocationTree invocation) {
+    ExpressionTree methodSelect = invocation.methodSelect();
+    if (!methodSelect.is(Tree.Kind.MEMBER_SELECT)) {
+      return false;
+    }
+    Type receiver = ((MemberSelectExpressionTree) methodSelect).expression().symbolType();
+    return IN_MEMORY_STREAMS.stream().anyMatch(receiver::isSubtypeOf);
+  }
+
+  /**
+   * @return the "synchronized" keyword of the innermost synchronized block or method which contains the tree, or null
+   */
+  private static SyntaxToken enclosingSynchronized(Tree tree) {
+    Tree parent = tree.parent();
+    while (parent != null && !parent.is(Tree.Kind.LAMBDA_EXPRESSION, Tree.Kind.CLASS, Tree.Kind.ENUM, Tree.Kind.INTERFACE)) {
+      if (parent.is(Tree.Kind.SYNCHRONIZED_STATEMENT)) {
+        return ((SynchronizedStatementTree) parent).synchronizedKeyword();
+      }
+      if (parent.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR)) {
+        for (ModifierKeywordTree modifier : ((MethodTree) parent).modifiers().modifiers()) {
+          if (modifier.modifier() == Modifier.SYNCHRONIZED) {
+            return modifier.keyword();
+          }
+        }
+        return null;
+      }
+      parent = parent.parent();
+    }
+    return null;
+  }
+
+  private static Tree methodName(MethodInvocationTree invocation) {
+    ExpressionTree methodSelect = invocation.methodSelect();
+    if (methodSelect.is(Tree.Kind.MEMBER_SELECT)) {
+      return ((MemberSelectExpressionTree) methodSelect).identifier();
+    }
+    return methodSelect;
+  }
+
+}
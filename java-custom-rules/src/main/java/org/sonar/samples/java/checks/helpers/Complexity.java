@@ -0,0 +1,42 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks.helpers;
+
+/**
+ * Complexity notes of the issue messages.
+ */
+public final class Complexity {
+
+  private static final String[] SUPERSCRIPTS = {"", "", "\u00b2", "\u00b3"};
+
+  private Complexity() {
+  }
+
+  /**
+   * @return "O(1)", "O(n)", "O(n&#178;)", "O(n&#179;)", then "O(n^4)"...
+   */
+  public static String polynomial(int exponent) {
+    if (exponent == 0) {
+      return "O(1)";
+    }
+    return exponent < SUPERSCRIPTS.length ? ("O(n" + SUPERSCRIPTS[exponent] + ")") : ("O(n^" + exponent + ")");
+  }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks.helpers;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+/**
+ * The annotations and the classes of JMH benchmarks.
+ */
+public final class Jmh {
+
+  public static final String BENCHMARK = "org.openjdk.jmh.annotations.Benchmark";
+  public static final String STATE = "org.openjdk.jmh.annotations.State";
+  public static final String SETUP = "org.openjdk.jmh.annotations.Setup";
+  public static final String PARAM = "org.openjdk.jmh.annotations.Param";
+  public static final String BLACKHOLE = "org.openjdk.jmh.infra.Blackhole";
+
+  private Jmh() {
+  }
+
+  public static boolean isBenchmark(MethodTree method) {
+    return method.symbol().metadata().isAnnotatedWith(BENCHMARK);
+  }
+
+  public static boolean isSetup(MethodTree method) {
+    return method.symbol().metadata().isAnnotatedWith(SETUP);
+  }
+
+  public static boolean isBlackhole(Symbol symbol) {
+    return symbol.type().is(BLACKHOLE);
+  }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks.helpers;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Memoized {@link Loops#enclosingLoop(Tree)} for the trees of one file, used by the checks which report on trees
+ * executed in loops.
+ * <p>
+ * The enclosing loop of a tree is the one of its parent, unless the parent is itself a loop or a boundary: once
+ * computed for a tree, it is recorded for all the ancestors walked to find it. The memo is not shared between checks:
+ * each check keeps its own instance, {@link #reset() reset} for each file, so the parents shared by the trees it
+ * reports on are walked once per check and per file.
+ */
+public class LoopContext {
+
+  private final Map<Tree, Tree> enclosingLoops = new IdentityHashMap<>();
+  private final Deque<Tree> walked = new ArrayDeque<>();
+
+  public void reset() {
+    enclosingLoops.clear();
+  }
+
+  public boolean isInLoop(Tree tree) {
+    return enclosingLoop(tree) != null;
+  }
+
+  /**
+   * @return the number of loops executing the tree at each of their iterations, 0 outside of any loop
+   */
+  public int depth(Tree tree) {
+    int depth = 0;
+    for (Tree loop = enclosingLoop(tree); loop != null; loop = enclosingLoop(loop)) {
+      depth++;
+    }
+    return depth;
+  }
+
+  /**
+   * @return the innermost loop which executes the tree at each of its iterations, or null
+   */
+  public Tree enclosingLoop(Tree tree) {
+    Tree loop = null;
+    Tree current = tree;
+    while (true) {
+      if (enclosingLoops.containsKey(current)) {
+        loop = enclosingLoops.get(current);
+        break;
+      }
+      walked.push(current);
+      Tree parent = current.parent();
+      if (parent == null || Loops.isBoundary(parent)) {
+        break;
+      }
+      if (Loops.isLoop(parent) && Loops.isEvaluatedAtEachIteration(current, parent)) {
+        loop = parent;
+        break;
+      }
+      current = parent;
+    }
+    while (!walked.isEmpty()) {
+      enclosingLoops.put(walked.pop(), loop);
+    }
+    return loop;
+  }
+
+}
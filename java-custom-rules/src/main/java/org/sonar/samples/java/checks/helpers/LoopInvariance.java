@@ -0,0 +1,430 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks.helpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.*;
+
+import static org.sonar.samples.java.checks.helpers.Expressions.skipParentheses;
+
+/**
+ * Tells whether an expression evaluated at each iteration of a loop always yields the same value.
+ * <p>
+ * The usages of the variables which may change their value (assignments, increments, declarations,
+ * calls to mutating methods, escapes as arguments) are collected in a single pass over the enclosing
+ * method, and this index is reused for all the loops of the method. It is conservative: anything
+ * which cannot be proven unchanged, such as an unresolved symbol, is considered as changed. Values which
+ * other threads may change, i.e. volatile fields, concurrent objects and the state of threads, are never
+ * invariant: hoisting them out of a loop waiting for them would make it endless.
+ * <p>
+ * An instance keeps the index of the last scanned method, so {@link #reset()} must be called
+ * at the beginning of each file.
+ */
+public class LoopInvariance {
+
+  /**
+   * Methods which change the state of their receiver, or whose result differs at each call.
+   */
+  private static final Set<String> MUTATING_METHODS = new HashSet<>(Arrays.asList(
+    "next", "nextInt", "nextLong", "nextDouble", "nextLine", "previous", "hasMoreElements", "nextElement", "nextToken",
+    "poll", "pollFirst", "pollLast", "pop", "push", "remove", "removeFirst", "removeLast", "take", "offer", "put", "add",
+    "addAll", "set", "clear", "read", "readLine", "ready", "available", "getAndIncrement", "incrementAndGet",
+    "getAndDecrement", "decrementAndGet", "compareAndSet", "currentTimeMillis", "nanoTime", "random", "now"));
+
+  /**
+   * Methods which do not change the state of a mutable receiver. Any other method may change it.
+   */
+  private static final Set<String> READ_ONLY_METHODS = new HashSet<>(Arrays.asList(
+    "size", "length", "isEmpty", "contains", "containsKey", "containsValue", "indexOf", "lastIndexOf", "charAt",
+    "equals", "hashCode", "toString", "capacity", "getClass"));
+
+  /**
+   * Methods which only read a container: on other types, such as the "get" of a "java.nio.Buffer" which moves its
+   * position, they may change their receiver.
+   */
+  private static final Set<String> CONTAINER_READ_ONLY_METHODS = new HashSet<>(Arrays.asList(
+    "get", "getOrDefault", "peek", "peekFirst", "peekLast", "first", "last", "isPresent"));
+
+  private static final List<String> CONTAINERS = Arrays.asList("java.util.Collection", "java.util.Map", "java.util.Optional");
+
+  /**
+   * Types whose static methods only depend on their arguments.
+   */
+  private static final Set<String> PURE_STATIC_OWNERS = new HashSet<>(Arrays.asList(
+    "java.lang.Math", "java.lang.StrictMath", "java.lang.String", "java.lang.Integer", "java.lang.Long",
+    "java.lang.Short", "java.lang.Byte", "java.lang.Character", "java.lang.Boolean", "java.lang.Float",
+    "java.lang.Double", "java.util.Objects"));
+
+  private static final String CONCURRENT_PACKAGE = "java.util.concurrent.";
+
+  private static final Set<String> IMMUTABLE_TYPES = new HashSet<>(Arrays.asList(
+    "java.lang.String", "java.lang.Integer", "java.lang.Long", "java.lang.Short", "java.lang.Byte",
+    "java.lang.Character", "java.lang.Boolean", "java.lang.Float", "java.lang.Double",
+    "java.math.BigInteger", "java.math.BigDecimal"));
+
+  private Tree scope;
+  private Usages usages;
+
+  public void reset() {
+    scope = null;
+    usages = null;
+  }
+
+  /**
+   * @return true if the given call, found in the given loop, is proven to return the same value at each iteration
+   */
+  public boolean isInvariant(MethodInvocationTree call, Tree loop) {
+    Span span = Span.of(loop);
+    return isInvariantCall(call, span, usagesOf(loop));
+  }
+
+  /**
+   * @return true if the given expression, found in the given loop, is proven to have the same value at each iteration
+   */
+  public boolean isInvariant(ExpressionTree expression, Tree loop) {
+    Span span = Span.of(loop);
+    return isInvariantExpression(expression, span, usagesOf(loop), null);
+  }
+
+  private Usages usagesOf(Tree loop) {
+    Tree enclosingScope = enclosingScope(loop);
+    if (enclosingScope != scope) {
+      scope = enclosingScope;
+      usages = new Usages();
+      enclosingScope.accept(usages);
+    }
+    return usages;
+  }
+
+  private static Tree enclosingScope(Tree tree) {
+    Tree current = tree;
+    while (current.parent() != null
+      && !current.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR, Tree.Kind.INITIALIZER, Tree.Kind.STATIC_INITIALIZER)) {
+      current = current.parent();
+    }
+    return current;
+  }
+
+  private static boolean isInvariantCall(MethodInvocationTree call, Span span, Usages usages) {
+    Symbol method = call.symbol();
+    if (method.isUnknown() || MUTATING_METHODS.contains(method.name()) || isChangedByOtherThreads(method)) {
+      return false;
+    }
+    if (method.isStatic() && !PURE_STATIC_OWNERS.contains(method.owner().type().fullyQualifiedName())) {
+      return false;
+    }
+    for (ExpressionTree argument : call.arguments()) {
+      if (!isInvariantExpression(argument, span, usages, null)) {
+        return false;
+      }
+    }
+    // the receiver usage of the call itself is not a change when the method only reads its receiver
+    boolean readOnly = isReadOnly(method);
+    ExpressionTree methodSelect = call.methodSelect();
+    if (methodSelect.is(Tree.Kind.MEMBER_SELECT)) {
+      ExpressionTree receiver = ((MemberSelectExpressionTree) methodSelect).expression();
+      return isInvariantExpression(receiver, span, usages, readOnly ? usageTree(receiver) : null);
+    }
+    return method.isStatic() || !span.containsAny(usages.thisChanges, readOnly ? call : null);
+  }
+
+  private static boolean isReadOnly(Symbol method) {
+    String name = method.name();
+    if (READ_ONLY_METHODS.contains(name)) {
+      return true;
+    }
+    Symbol owner = method.owner();
+    return CONTAINER_READ_ONLY_METHODS.contains(name) && owner != null && CONTAINERS.stream().anyMatch(owner.type()::isSubtypeOf);
+  }
+
+  /**
+   * @return true for the methods of threads and of the types of "java.util.concurrent", such as atomics, whose
+   * results may be changed by other threads between two calls
+   */
+  private static boolean isChangedByOtherThreads(Symbol method) {
+    Symbol owner = method.owner();
+    if (owner == null) {
+      return false;
+    }
+    String type = owner.type().fullyQualifiedName();
+    return type.startsWith(CONCURRENT_PACKAGE) || owner.type().isSubtypeOf("java.lang.Thread");
+  }
+
+  private static boolean isInvariantExpression(ExpressionTree tree, Span span, Usages usages, Tree ignored) {
+    ExpressionTree expression = skipParentheses(tree);
+    switch (expression.kind()) {
+      case INT_LITERAL:
+      case LONG_LITERAL:
+      case FLOAT_LITERAL:
+      case DOUBLE_LITERAL:
+      case BOOLEAN_LITERAL:
+      case CHAR_LITERAL:
+      case STRING_LITERAL:
+      case NULL_LITERAL:
+        return true;
+      case IDENTIFIER:
+        return isInvariantIdentifier((IdentifierTree) expression, span, usages, ignored);
+      case MEMBER_SELECT:
+        return isInvariantMemberSelect((MemberSelectExpressionTree) expression, span, usages, ignored);
+      case METHOD_INVOCATION:
+        return isInvariantCall((MethodInvocationTree) expression, span, usages);
+      case TYPE_CAST:
+        return isInvariantExpression(((TypeCastTree) expression).expression(), span, usages, null);
+      case CONDITIONAL_EXPRESSION:
+        ConditionalExpressionTree conditional = (ConditionalExpressionTree) expression;
+        return isInvariantExpression(conditional.condition(), span, usages, null)
+          && isInvariantExpression(conditional.trueExpression(), span, usages, null)
+          && isInvariantExpression(conditional.falseExpression(), span, usages, null);
+      case UNARY_PLUS:
+      case UNARY_MINUS:
+      case BITWISE_COMPLEMENT:
+      case LOGICAL_COMPLEMENT:
+        return isInvariantExpression(((UnaryExpressionTree) expression).expression(), span, usages, null);
+      default:
+        if (expression instanceof BinaryExpressionTree) {
+          BinaryExpressionTree binary = (BinaryExpressionTree) expression;
+          return isInvariantExpression(binary.leftOperand(), span, usages, null)
+            && isInvariantExpression(binary.rightOperand(), span, usages, null);
+        }
+        return false;
+    }
+  }
+
+  private static boolean isInvariantIdentifier(IdentifierTree identifier, Span span, Usages usages, Tree ignored) {
+    if ("this".equals(identifier.name()) || "super".equals(identifier.name())) {
+      return !span.containsAny(usages.thisChanges, ignored);
+    }
+    Symbol symbol = identifier.symbol();
+    if (symbol.isUnknown() || symbol.isVolatile()) {
+      return false;
+    }
+    if (symbol.isTypeSymbol() || symbol.isPackageSymbol()) {
+      return true;
+    }
+    if (symbol.isFinal() && !isField(symbol)) {
+      // a final local variable or parameter is never reassigned, but its content may change
+      return isImmutable(symbol.type()) || !span.containsAny(usages.changesOf(symbol), ignored);
+    }
+    if (isField(symbol) && !symbol.isStatic() && span.containsAny(usages.thisChanges, ignored)) {
+      return false;
+    }
+    return !span.containsAny(usages.changesOf(symbol), ignored);
+  }
+
+  private static boolean isInvariantMemberSelect(MemberSelectExpressionTree memberSelect, Span span, Usages usages, Tree ignored) {
+    Symbol member = memberSelect.identifier().symbol();
+    if (member.isUnknown()) {
+      // "length" of an array has no symbol
+      return "length".equals(memberSelect.identifier().name())
+        && memberSelect.expression().symbolType().isArray()
+        && isInvariantExpression(memberSelect.expression(), span, usages, null);
+    }
+    if (member.isTypeSymbol() || member.isPackageSymbol()) {
+      return true;
+    }
+    if (member.isVolatile()) {
+      return false;
+    }
+    if (!member.isFinal() && span.containsAny(usages.changesOf(member), ignored)) {
+      return false;
+    }
+    return isInvariantExpression(memberSelect.expression(), span, usages, null);
+  }
+
+  private static boolean isField(Symbol symbol) {
+    Symbol owner = symbol.owner();
+    return symbol.isVariableSymbol() && owner != null && owner.isTypeSymbol();
+  }
+
+  private static boolean isImmutable(Type type) {
+    return type.isPrimitive() || IMMUTABLE_TYPES.contains(type.fullyQualifiedName());
+  }
+
+  /**
+   * @return the tree recorded by {@link Usages} for a usage of the given expression
+   */
+  private static Tree usageTree(ExpressionTree tree) {
+    ExpressionTree expression = skipParentheses(tree);
+    if (expression.is(Tree.Kind.MEMBER_SELECT)) {
+      return ((MemberSelectExpressionTree) expression).identifier();
+    }
+    return expression;
+  }
+
+  /**
+   * Range of tokens evaluated at each iteration of a loop: the initializer of a "for" loop is excluded.
+   */
+  private static final class Span {
+
+    private final long start;
+    private final long end;
+
+    private Span(long start, long end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    static Span of(Tree loop) {
+      SyntaxToken first = loop.is(Tree.Kind.FOR_STATEMENT) ? ((ForStatementTree) loop).firstSemicolonToken() : loop.firstToken();
+      return new Span(position(first), position(loop.lastToken()));
+    }
+
+    boolean containsAny(List<Tree> trees, Tree ignored) {
+      for (Tree tree : trees) {
+        if (tree != ignored) {
+          long position = position(tree.firstToken());
+          if (start <= position && position <= end) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    private static long position(SyntaxToken token) {
+      return ((long) token.line() << 32) | token.column();
+    }
+  }
+
+  /**
+   * Collects, for each variable of a method, the usages which may change its value or its content.
+   */
+  private static final class Usages extends BaseTreeVisitor {
+
+    private final Map<Symbol, List<Tree>> changes = new HashMap<>();
+    /** usages which may change the fields of the current instance */
+    private final List<Tree> thisChanges = new ArrayList<>();
+
+    List<Tree> changesOf(Symbol symbol) {
+      return changes.getOrDefault(symbol, Collections.emptyList());
+    }
+
+    @Override
+    public void visitVariable(VariableTree tree) {
+      addChange(tree.simpleName(), tree.symbol());
+      super.visitVariable(tree);
+    }
+
+    @Override
+    public void visitAssignmentExpression(AssignmentExpressionTree tree) {
+      addWrite(tree.variable());
+      super.visitAssignmentExpression(tree);
+    }
+
+    @Override
+    public void visitUnaryExpression(UnaryExpressionTree tree) {
+      if (tree.is(Tree.Kind.PREFIX_INCREMENT, Tree.Kind.PREFIX_DECREMENT, Tree.Kind.POSTFIX_INCREMENT, Tree.Kind.POSTFIX_DECREMENT)) {
+        addWrite(tree.expression());
+      }
+      super.visitUnaryExpression(tree);
+    }
+
+    @Override
+    public void visitMethodInvocation(MethodInvocationTree tree) {
+      ExpressionTree methodSelect = tree.methodSelect();
+      boolean readOnly = isReadOnly(tree.symbol());
+      if (methodSelect.is(Tree.Kind.MEMBER_SELECT)) {
+        if (!readOnly) {
+          addMutation(((MemberSelectExpressionTree) methodSelect).expression());
+        }
+      } else if (!readOnly && !tree.symbol().isStatic()) {
+        thisChanges.add(tree);
+      }
+      addEscapes(tree.arguments());
+      super.visitMethodInvocation(tree);
+    }
+
+    @Override
+    public void visitNewClass(NewClassTree tree) {
+      addEscapes(tree.arguments());
+      super.visitNewClass(tree);
+    }
+
+    @Override
+    public void visitMethodReference(MethodReferenceTree tree) {
+      if (tree.expression() instanceof ExpressionTree) {
+        addMutation((ExpressionTree) tree.expression());
+      }
+      super.visitMethodReference(tree);
+    }
+
+    private void addEscapes(Arguments arguments) {
+      for (ExpressionTree argument : arguments) {
+        addMutation(argument);
+      }
+    }
+
+    /**
+     * The variable is reassigned.
+     */
+    private void addWrite(ExpressionTree tree) {
+      ExpressionTree expression = skipParentheses(tree);
+      if (expression.is(Tree.Kind.IDENTIFIER)) {
+        IdentifierTree identifier = (IdentifierTree) expression;
+        addChange(identifier, identifier.symbol());
+      } else if (expression.is(Tree.Kind.MEMBER_SELECT)) {
+        MemberSelectExpressionTree memberSelect = (MemberSelectExpressionTree) expression;
+        addChange(memberSelect.identifier(), memberSelect.identifier().symbol());
+        addMutation(memberSelect.expression());
+      } else if (expression.is(Tree.Kind.ARRAY_ACCESS_EXPRESSION)) {
+        addMutation(((ArrayAccessExpressionTree) expression).expression());
+      }
+    }
+
+    /**
+     * The content of the object referenced by the expression may change: immutable objects are not concerned.
+     */
+    private void addMutation(ExpressionTree tree) {
+      ExpressionTree expression = skipParentheses(tree);
+      if (isImmutable(expression.symbolType())) {
+        return;
+      }
+      if (expression.is(Tree.Kind.IDENTIFIER)) {
+        IdentifierTree identifier = (IdentifierTree) expression;
+        if ("this".equals(identifier.name()) || "super".equals(identifier.name())) {
+          thisChanges.add(identifier);
+        } else {
+          addChange(identifier, identifier.symbol());
+        }
+      } else if (expression.is(Tree.Kind.MEMBER_SELECT)) {
+        MemberSelectExpressionTree memberSelect = (MemberSelectExpressionTree) expression;
+        addChange(memberSelect.identifier(), memberSelect.identifier().symbol());
+      }
+    }
+
+    private void addChange(Tree tree, Symbol symbol) {
+      if (isField(symbol) && !symbol.isStatic()) {
+        thisChanges.add(tree);
+      }
+      changes.computeIfAbsent(symbol, s -> new ArrayList<>()).add(tree);
+    }
+  }
+
+}
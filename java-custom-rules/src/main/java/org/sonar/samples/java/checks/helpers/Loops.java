@@ -0,0 +1,181 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks.helpers;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.*;
+
+/**
+ * Relations between the trees and the loops which execute them at each iteration.
+ */
+public final class Loops {
+
+  private static final Tree.Kind[] LOOPS = {
+    Tree.Kind.FOR_STATEMENT,
+    Tree.Kind.FOR_EACH_STATEMENT,
+    Tree.Kind.WHILE_STATEMENT,
+    Tree.Kind.DO_STATEMENT};
+
+  /**
+   * Code nested in those trees is not executed by the enclosing loop itself.
+   */
+  private static final Tree.Kind[] BOUNDARIES = {
+    Tree.Kind.METHOD,
+    Tree.Kind.CONSTRUCTOR,
+    Tree.Kind.LAMBDA_EXPRESSION,
+    Tree.Kind.CLASS,
+    Tree.Kind.ENUM,
+    Tree.Kind.INTERFACE,
+    Tree.Kind.ANNOTATION_TYPE,
+    Tree.Kind.INITIALIZER,
+    Tree.Kind.STATIC_INITIALIZER};
+
+  private Loops() {
+  }
+
+  public static boolean isLoop(Tree tree) {
+    return tree.is(LOOPS);
+  }
+
+  /**
+   * @return the innermost loop which executes the tree at each of its iterations, or null. The initializer of a
+   * "for" loop and the iterated expression of a "foreach" loop are evaluated once, before the loop.
+   */
+  public static Tree enclosingLoop(Tree tree) {
+    Tree child = tree;
+    Tree parent = tree.parent();
+    while (parent != null && !isBoundary(parent)) {
+      if (parent.is(LOOPS) && isEvaluatedAtEachIteration(child, parent)) {
+        return parent;
+      }
+      child = parent;
+      parent = parent.parent();
+    }
+    return null;
+  }
+
+  static boolean isBoundary(Tree tree) {
+    return tree.is(BOUNDARIES);
+  }
+
+  static boolean isEvaluatedAtEachIteration(Tree child, Tree loop) {
+    if (loop.is(Tree.Kind.FOR_STATEMENT)) {
+      ListTree<StatementTree> initializer = ((ForStatementTree) loop).initializer();
+      return child != initializer && !initializer.contains(child);
+    }
+    if (loop.is(Tree.Kind.FOR_EACH_STATEMENT)) {
+      return child != ((ForEachStatement) loop).expression();
+    }
+    return true;
+  }
+
+  /**
+   * @return the array or Collection iterated by a foreach loop, or bounding an indexed loop, e.g. "source" in
+   * "i &lt; source.length" or "i &lt; source.size()": the number of iterations of those loops is known when they
+   * start. Null for the other loops.
+   */
+  public static ExpressionTree iteratedSource(Tree loop) {
+    if (loop.is(Tree.Kind.FOR_EACH_STATEMENT)) {
+      ExpressionTree iterated = ((ForEachStatement) loop).expression();
+      Type type = iterated.symbolType();
+      return type.isArray() || type.isSubtypeOf("java.util.Collection") ? iterated : null;
+    }
+    BinaryExpressionTree condition = indexCondition(loop);
+    if (condition != null) {
+      return condition.is(Tree.Kind.LESS_THAN, Tree.Kind.LESS_THAN_OR_EQUAL_TO)
+        ? sizeOf(condition.rightOperand())
+        : sizeOf(condition.leftOperand());
+    }
+    return null;
+  }
+
+  /**
+   * @return the index compared to the bound of an indexed loop, e.g. "i" in "i &lt; source.length", or null
+   */
+  public static ExpressionTree index(Tree loop) {
+    BinaryExpressionTree condition = indexCondition(loop);
+    if (condition == null) {
+      return null;
+    }
+    return Expressions.skipParentheses(condition.is(Tree.Kind.LESS_THAN, Tree.Kind.LESS_THAN_OR_EQUAL_TO)
+      ? condition.leftOperand()
+      : condition.rightOperand());
+  }
+
+  private static BinaryExpressionTree indexCondition(Tree loop) {
+    if (!loop.is(Tree.Kind.FOR_STATEMENT) || ((ForStatementTree) loop).condition() == null) {
+      return null;
+    }
+    ExpressionTree condition = Expressions.skipParentheses(((ForStatementTree) loop).condition());
+    if (condition.is(Tree.Kind.LESS_THAN, Tree.Kind.LESS_THAN_OR_EQUAL_TO, Tree.Kind.GREATER_THAN, Tree.Kind.GREATER_THAN_OR_EQUAL_TO)) {
+      return (BinaryExpressionTree) condition;
+    }
+    return null;
+  }
+
+  /**
+   * @return "source" for "source.length" on an array and "source.size()" on a Collection or a Map, null otherwise
+   */
+  private static ExpressionTree sizeOf(ExpressionTree expression) {
+    ExpressionTree bound = Expressions.skipParentheses(expression);
+    if (bound.is(Tree.Kind.MEMBER_SELECT)) {
+      MemberSelectExpressionTree memberSelect = (MemberSelectExpressionTree) bound;
+      if ("length".equals(memberSelect.identifier().name()) && memberSelect.expression().symbolType().isArray()) {
+        return memberSelect.expression();
+      }
+    } else if (bound.is(Tree.Kind.METHOD_INVOCATION)) {
+      MethodInvocationTree invocation = (MethodInvocationTree) bound;
+      if (invocation.arguments().isEmpty() && invocation.methodSelect().is(Tree.Kind.MEMBER_SELECT)) {
+        MemberSelectExpressionTree methodSelect = (MemberSelectExpressionTree) invocation.methodSelect();
+        Type receiver = methodSelect.expression().symbolType();
+        if ("size".equals(methodSelect.identifier().name())
+          && (receiver.isSubtypeOf("java.util.Collection") || receiver.isSubtypeOf("java.util.Map"))) {
+          return methodSelect.expression();
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return true if the symbol is declared by the given tree or by one of its descendants, e.g. a variable
+   * declared in the body of a loop. Symbols without declaration, e.g. from other files, are declared elsewhere.
+   */
+  public static boolean isDeclaredIn(Symbol symbol, Tree tree) {
+    Tree declaration = symbol.declaration();
+    return declaration != null && isAncestor(tree, declaration);
+  }
+
+  /**
+   * @return true if the tree is the given ancestor or one of its descendants
+   */
+  public static boolean isAncestor(Tree ancestor, Tree tree) {
+    Tree current = tree;
+    while (current != null) {
+      if (current == ancestor) {
+        return true;
+      }
+      current = current.parent();
+    }
+    return false;
+  }
+
+}
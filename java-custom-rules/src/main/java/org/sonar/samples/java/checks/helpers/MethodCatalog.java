@@ -0,0 +1,195 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks.helpers;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+
+/**
+ * A list of methods, given as "&lt;fully qualified type&gt;#&lt;method&gt;" entries, e.g. "java.lang.Thread#sleep" or
+ * "java.sql.Statement#execute*". A method matches an entry when its owner is the type or one of its subtypes, and its
+ * name is the one of the entry, or starts with it when the entry ends with "*". An entry may restrict the parameter
+ * types, e.g. "java.lang.String#getBytes(java.lang.String)", and name the constructors "&lt;init&gt;".
+ * <p>
+ * The entries are indexed by method name, so that matching an invocation only checks the types of the entries with
+ * the same name, and of the entries with a prefix.
+ */
+public final class MethodCatalog {
+
+  private static final String ENTRY_SEPARATOR = "[\\s,]+(?![^(]*\\))";
+
+  private final Map<String, List<Entry>> entriesByName = new HashMap<>();
+  private final List<Entry> prefixes = new ArrayList<>();
+
+  private MethodCatalog() {
+  }
+
+  /**
+   * @param entries entries separated by commas or whitespace
+   * @throws IllegalArgumentException if an entry is not made of a type and a method name
+   */
+  public static MethodCatalog parse(String entries) {
+    MethodCatalog catalog = new MethodCatalog();
+    for (String entry : entries.trim().split(ENTRY_SEPARATOR)) {
+      if (!entry.isEmpty()) {
+        catalog.add(entry, null);
+      }
+    }
+    return catalog;
+  }
+
+  /**
+   * Loads a table of entries with a value each, one "&lt;entry&gt; = &lt;value&gt;" per line. Blank lines and lines
+   * starting with "#" are ignored.
+   *
+   * @throws IllegalArgumentException if the resource does not exist, or a line is not a valid entry
+   */
+  public static MethodCatalog load(Class<?> owner, String resource) {
+    InputStream input = owner.getResourceAsStream(resource);
+    if (input == null) {
+      throw new IllegalArgumentException("Method catalog not found: " + resource);
+    }
+    MethodCatalog catalog = new MethodCatalog();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+      String line;
+      int lineNumber = 0;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        int separator = line.indexOf('=');
+        if (separator < 0) {
+          throw new IllegalArgumentException("Invalid line " + lineNumber + " of " + resource + ": expected <method> = <value>");
+        }
+        catalog.add(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to read " + resource, e);
+    }
+    return catalog;
+  }
+
+  private void add(String text, String value) {
+    int separator = text.indexOf('#');
+    int parameters = text.indexOf('(');
+    int methodEnd = parameters < 0 ? text.length() : parameters;
+    if (separator <= 0 || separator >= methodEnd - 1 || text.indexOf('#', separator + 1) >= 0
+      || (parameters >= 0 && !text.endsWith(")"))) {
+      throw new IllegalArgumentException("Invalid method \"" + text + "\": expected <fully qualified type>#<method>");
+    }
+    String type = text.substring(0, separator);
+    String name = text.substring(separator + 1, methodEnd);
+    List<String> parameterTypes = null;
+    if (parameters >= 0) {
+      String list = text.substring(parameters + 1, text.length() - 1).trim();
+      parameterTypes = list.isEmpty() ? Collections.emptyList() : Arrays.asList(list.split("\\s*,\\s*"));
+    }
+    if (name.endsWith("*")) {
+      prefixes.add(new Entry(type, name.substring(0, name.length() - 1), parameterTypes, value));
+    } else {
+      entriesByName.computeIfAbsent(name, k -> new ArrayList<>()).add(new Entry(type, name, parameterTypes, value));
+    }
+  }
+
+  public boolean matches(Symbol symbol) {
+    return find(symbol) != null;
+  }
+
+  /**
+   * @return the value of the first entry matching the method, or null if none does. Entries parsed without value
+   * have an empty one.
+   */
+  public String value(Symbol symbol) {
+    Entry entry = find(symbol);
+    return entry == null ? null : entry.value;
+  }
+
+  private Entry find(Symbol symbol) {
+    if (!symbol.isMethodSymbol()) {
+      return null;
+    }
+    Symbol.MethodSymbol method = (Symbol.MethodSymbol) symbol;
+    String name = method.name();
+    for (Entry entry : entriesByName.getOrDefault(name, Collections.emptyList())) {
+      if (entry.matches(method)) {
+        return entry;
+      }
+    }
+    for (Entry entry : prefixes) {
+      if (name.startsWith(entry.name) && entry.matches(method)) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  public int size() {
+    return entriesByName.values().stream().mapToInt(List::size).sum() + prefixes.size();
+  }
+
+  private static class Entry {
+    private final String type;
+    private final String name;
+    private final List<String> parameterTypes;
+    private final String value;
+
+    Entry(String type, String name, List<String> parameterTypes, String value) {
+      this.type = type;
+      this.name = name;
+      this.parameterTypes = parameterTypes;
+      this.value = value == null ? "" : value;
+    }
+
+    boolean matches(Symbol.MethodSymbol method) {
+      if (!method.owner().type().isSubtypeOf(type)) {
+        return false;
+      }
+      if (parameterTypes == null) {
+        return true;
+      }
+      List<Type> actual = method.parameterTypes();
+      if (actual.size() != parameterTypes.size()) {
+        return false;
+      }
+      for (int i = 0; i < actual.size(); i++) {
+        if (!actual.get(i).is(parameterTypes.get(i))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+}
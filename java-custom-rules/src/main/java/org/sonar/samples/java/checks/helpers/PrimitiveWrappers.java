@@ -0,0 +1,59 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks.helpers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.sonar.plugins.java.api.semantic.Type;
+
+/**
+ * The wrapper classes of the primitive types.
+ */
+public final class PrimitiveWrappers {
+
+  private static final Map<String, String> PRIMITIVES = new HashMap<>();
+
+  static {
+    PRIMITIVES.put("java.lang.Boolean", "boolean");
+    PRIMITIVES.put("java.lang.Byte", "byte");
+    PRIMITIVES.put("java.lang.Character", "char");
+    PRIMITIVES.put("java.lang.Short", "short");
+    PRIMITIVES.put("java.lang.Integer", "int");
+    PRIMITIVES.put("java.lang.Long", "long");
+    PRIMITIVES.put("java.lang.Float", "float");
+    PRIMITIVES.put("java.lang.Double", "double");
+  }
+
+  private PrimitiveWrappers() {
+  }
+
+  public static boolean isWrapper(Type type) {
+    return PRIMITIVES.containsKey(type.fullyQualifiedName());
+  }
+
+  /**
+   * @return the primitive type wrapped by the type, e.g. "int" for "java.lang.Integer", or null
+   */
+  public static String primitiveOf(Type type) {
+    return PRIMITIVES.get(type.fullyQualifiedName());
+  }
+
+}
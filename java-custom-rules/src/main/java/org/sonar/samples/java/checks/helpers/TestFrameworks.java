@@ -0,0 +1,66 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks.helpers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.sonar.plugins.java.api.semantic.SymbolMetadata;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * The annotations of the test methods and of their fixtures, for JUnit 4, JUnit 5 and TestNG.
+ */
+public final class TestFrameworks {
+
+  public static final List<String> TESTS = Collections.unmodifiableList(Arrays.asList(
+    "org.junit.Test",
+    "org.junit.jupiter.api.Test",
+    "org.junit.jupiter.params.ParameterizedTest",
+    "org.testng.annotations.Test"));
+
+  /**
+   * Annotations of the methods run before each test method.
+   */
+  public static final List<String> BEFORE_EACH = Collections.unmodifiableList(Arrays.asList(
+    "org.junit.Before",
+    "org.junit.jupiter.api.BeforeEach",
+    "org.testng.annotations.BeforeMethod"));
+
+  private TestFrameworks() {
+  }
+
+  public static boolean isAnnotatedWithAny(SymbolMetadata metadata, List<String> annotations) {
+    return annotations.stream().anyMatch(metadata::isAnnotatedWith);
+  }
+
+  /**
+   * @return true if the class declares a test method
+   */
+  public static boolean isTestClass(ClassTree classTree) {
+    return classTree.members().stream()
+      .filter(member -> member.is(Tree.Kind.METHOD))
+      .anyMatch(member -> isAnnotatedWithAny(((MethodTree) member).symbol().metadata(), TESTS));
+  }
+
+}
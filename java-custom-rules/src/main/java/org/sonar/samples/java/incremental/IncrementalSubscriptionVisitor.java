@@ -0,0 +1,261 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.incremental;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.samples.rulekit.cache.CacheKey;
+import org.sonar.samples.rulekit.cache.CachedIssue;
+import org.sonar.samples.rulekit.cache.CachedIssue.Location;
+import org.sonar.samples.rulekit.cache.IssueCache;
+import org.sonar.samples.rulekit.cache.PluginIssueCache;
+
+/**
+ * Base class of the checks which opt into the incremental mode: when the {@value IssueCache#INCREMENTAL_PROPERTY}
+ * system property is "true", the issues of the check on a file are kept in the {@link IssueCache} of the plugin, and
+ * replayed instead of running the check again as long as neither the content of the file nor the parameters of the
+ * check change. Only the checks whose issues depend on the file alone, and not on the semantic of other files, should
+ * extend this class.
+ * <p>
+ * The subscription visitors of all the rules are called on each node of a single walk of the tree, so the tree is
+ * still walked: the callbacks of a cached file are simply not forwarded. The issues are replayed when the file ends,
+ * on the trees found again from the positions of their tokens. Subclasses implement {@link #visit(Tree)},
+ * {@link #leave(Tree)}, {@link #startFile(JavaFileScannerContext)} and {@link #endFile(JavaFileScannerContext)}
+ * instead of the methods of {@link IssuableSubscriptionVisitor}, which are final here.
+ */
+public abstract class IncrementalSubscriptionVisitor extends IssuableSubscriptionVisitor {
+
+  public static final String PLUGIN_KEY = "java-custom-rules";
+
+  /**
+   * Saved and released at the end of each analysis by {@link IssueCachePostJob}
+   */
+  static final PluginIssueCache PLUGIN_CACHE = new PluginIssueCache(PLUGIN_KEY, IncrementalSubscriptionVisitor.class, IssuableSubscriptionVisitor.class);
+
+  private final IssueCache cache;
+  private CacheKey key;
+  private List<CachedIssue> cached;
+  private List<CachedIssue> recorded;
+
+  protected IncrementalSubscriptionVisitor() {
+    this(PLUGIN_CACHE.get());
+  }
+
+  /**
+   * @param cache the cache of the issues, or null to always run the check
+   */
+  IncrementalSubscriptionVisitor(IssueCache cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  public final void setContext(JavaFileScannerContext context) {
+    super.setContext(context);
+    key = null;
+    cached = null;
+    recorded = null;
+    if (cache != null) {
+      key = CacheKey.of(context.getFileContent(), ruleKey(getClass()), CacheKey.parameters(this, RuleProperty.class));
+      cached = cache.get(key);
+      if (cached == null) {
+        recorded = new ArrayList<>();
+      }
+    }
+    if (cached == null) {
+      startFile(context);
+    }
+  }
+
+  @Override
+  public final void visitNode(Tree tree) {
+    if (cached == null) {
+      visit(tree);
+    }
+  }
+
+  @Override
+  public final void leaveNode(Tree tree) {
+    if (cached == null) {
+      leave(tree);
+    }
+  }
+
+  @Override
+  public final void leaveFile(JavaFileScannerContext context) {
+    if (cached != null) {
+      replay(context, cached);
+    } else {
+      endFile(context);
+      if (recorded != null) {
+        cache.put(key, recorded);
+      }
+    }
+    key = null;
+    cached = null;
+    recorded = null;
+    super.leaveFile(context);
+  }
+
+  /**
+   * Called when a file which is not cached starts, before its nodes are visited: the state of the previous file
+   * should be reset here.
+   */
+  protected void startFile(JavaFileScannerContext context) {
+  }
+
+  protected void visit(Tree tree) {
+  }
+
+  protected void leave(Tree tree) {
+  }
+
+  protected void endFile(JavaFileScannerContext context) {
+  }
+
+  @Override
+  public void reportIssue(Tree tree, String message) {
+    record(location(tree, message), Collections.emptyList(), null);
+    super.reportIssue(tree, message);
+  }
+
+  @Override
+  public void reportIssue(Tree tree, String message, List<JavaFileScannerContext.Location> flow, Integer cost) {
+    List<Location> secondaries = new ArrayList<>(flow.size());
+    for (JavaFileScannerContext.Location secondary : flow) {
+      secondaries.add(location(secondary.syntaxNode, secondary.msg));
+    }
+    record(location(tree, message), secondaries, cost == null ? null : cost.doubleValue());
+    super.reportIssue(tree, message, flow, cost);
+  }
+
+  @Override
+  public void reportIssue(Tree startTree, Tree endTree, String message) {
+    record(range(Location.NO_KIND, startTree.firstToken(), endTree.lastToken(), message), Collections.emptyList(), null);
+    super.reportIssue(startTree, endTree, message);
+  }
+
+  @Override
+  public void addIssue(int line, String message) {
+    record(Location.line(line, message), Collections.emptyList(), null);
+    super.addIssue(line, message);
+  }
+
+  @Override
+  public void addIssueOnFile(String message) {
+    record(Location.file(message), Collections.emptyList(), null);
+    super.addIssueOnFile(message);
+  }
+
+  private void record(Location primary, List<Location> secondaries, Double cost) {
+    if (recorded != null) {
+      recorded.add(new CachedIssue(primary, secondaries, cost));
+    }
+  }
+
+  /**
+   * The file has the same content, so the trees of the issues are found again. Were one of them missing, its issue
+   * would be reported on its line.
+   */
+  private void replay(JavaFileScannerContext context, List<CachedIssue> issues) {
+    if (issues.isEmpty()) {
+      return;
+    }
+    TreeLocator trees = new TreeLocator(issues, context.getTree());
+    for (CachedIssue issue : issues) {
+      Location primary = issue.primary();
+      if (primary.isFile()) {
+        super.addIssueOnFile(primary.message());
+      } else if (primary.isLine()) {
+        super.addIssue(primary.startLine(), primary.message());
+      } else if (primary.kind() == Location.NO_KIND) {
+        SyntaxToken first = trees.firstToken(primary);
+        SyntaxToken last = trees.lastToken(primary);
+        if (first != null && last != null) {
+          super.reportIssue(first, last, primary.message());
+        } else {
+          super.addIssue(primary.startLine(), primary.message());
+        }
+      } else {
+        Tree tree = trees.tree(primary);
+        if (tree == null) {
+          super.addIssue(primary.startLine(), primary.message());
+        } else if (issue.secondaries().isEmpty() && issue.cost() == null) {
+          super.reportIssue(tree, primary.message());
+        } else {
+          super.reportIssue(tree, primary.message(), flow(trees, issue.secondaries()), issue.cost() == null ? null : issue.cost().intValue());
+        }
+      }
+    }
+  }
+
+  private static List<JavaFileScannerContext.Location> flow(TreeLocator trees, List<Location> secondaries) {
+    List<JavaFileScannerContext.Location> flow = new ArrayList<>(secondaries.size());
+    for (Location secondary : secondaries) {
+      Tree tree = trees.tree(secondary);
+      if (tree != null) {
+        flow.add(new JavaFileScannerContext.Location(secondary.message(), tree));
+      }
+    }
+    return flow;
+  }
+
+  private static Location location(Tree tree, String message) {
+    return range(tree.kind().ordinal(), tree.firstToken(), tree.lastToken(), message);
+  }
+
+  private static Location range(int kind, SyntaxToken first, SyntaxToken last, String message) {
+    return Location.range(kind, first.line(), first.column(), endLine(last), endColumn(last), message);
+  }
+
+  /**
+   * Text blocks span several lines.
+   */
+  static int endLine(SyntaxToken token) {
+    String text = token.text();
+    int line = token.line();
+    for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+      line++;
+    }
+    return line;
+  }
+
+  static int endColumn(SyntaxToken token) {
+    String text = token.text();
+    int lastLineBreak = text.lastIndexOf('\n');
+    return lastLineBreak < 0 ? token.column() + text.length() : text.length() - lastLineBreak - 1;
+  }
+
+  /**
+   * @return the key of the {@link Rule} annotation of the check, or its simple name if it has none
+   */
+  static String ruleKey(Class<?> check) {
+    Rule rule = check.getAnnotation(Rule.class);
+    return rule == null || rule.key().isEmpty() ? check.getSimpleName() : rule.key();
+  }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.incremental;
+
+import java.io.IOException;
+import org.sonar.api.batch.postjob.PostJob;
+import org.sonar.api.batch.postjob.PostJobContext;
+import org.sonar.api.batch.postjob.PostJobDescriptor;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.samples.rulekit.cache.IssueCache;
+
+/**
+ * Saves the {@link IssueCache} of the incremental checks of the plugin when the analysis ends, and releases it.
+ */
+public class IssueCachePostJob implements PostJob {
+
+  private static final Logger LOG = Loggers.get(IssueCachePostJob.class);
+
+  @Override
+  public void describe(PostJobDescriptor descriptor) {
+    descriptor.name("Issue cache of the incremental rules");
+  }
+
+  @Override
+  public void execute(PostJobContext context) {
+    try {
+      IssueCache saved = IncrementalSubscriptionVisitor.PLUGIN_CACHE.endAnalysis();
+      if (saved != null) {
+        LOG.debug("Issue cache saved: {} entries, {} hits, {} misses", saved.entries(), saved.hits(), saved.misses());
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.warn("Cannot save the issue cache of the incremental rules", e);
+    }
+  }
+
+}
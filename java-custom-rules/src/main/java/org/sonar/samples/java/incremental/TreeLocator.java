@@ -0,0 +1,130 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.incremental;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.samples.rulekit.cache.CachedIssue;
+import org.sonar.samples.rulekit.cache.CachedIssue.Location;
+
+/**
+ * Finds the trees of cached issues in the tree of a file, from the kinds and the positions of their locations, in a
+ * single walk of the tree which only stops on the kinds of the locations, and on the tokens when a location is a
+ * range of tokens.
+ */
+final class TreeLocator extends SubscriptionVisitor {
+
+  private static final Tree.Kind[] KINDS = Tree.Kind.values();
+
+  private final List<Tree.Kind> kinds;
+  private final Set<Location> ranges = new HashSet<>();
+  private final Map<Location, Tree> trees = new HashMap<>();
+  private final Map<Long, SyntaxToken> tokensByStart = new HashMap<>();
+  private final Map<Long, SyntaxToken> tokensByEnd = new HashMap<>();
+
+  TreeLocator(List<CachedIssue> issues, Tree root) {
+    EnumSet<Tree.Kind> visited = EnumSet.noneOf(Tree.Kind.class);
+    for (CachedIssue issue : issues) {
+      add(issue.primary(), visited);
+      for (Location secondary : issue.secondaries()) {
+        add(secondary, visited);
+      }
+    }
+    kinds = new ArrayList<>(visited);
+    if (!kinds.isEmpty()) {
+      scanTree(root);
+    }
+  }
+
+  @Override
+  public List<Tree.Kind> nodesToVisit() {
+    return kinds;
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    match(tree);
+  }
+
+  @Override
+  public void visitToken(SyntaxToken token) {
+    tokensByStart.putIfAbsent(position(token.line(), token.column()), token);
+    tokensByEnd.putIfAbsent(position(IncrementalSubscriptionVisitor.endLine(token), IncrementalSubscriptionVisitor.endColumn(token)), token);
+    match(token);
+  }
+
+  /**
+   * @return the tree of the kind of the location which spans its range, or null if there is none
+   */
+  Tree tree(Location location) {
+    return trees.get(range(location));
+  }
+
+  SyntaxToken firstToken(Location location) {
+    return tokensByStart.get(position(location.startLine(), location.startColumn()));
+  }
+
+  SyntaxToken lastToken(Location location) {
+    return tokensByEnd.get(position(location.endLine(), location.endColumn()));
+  }
+
+  private void add(Location location, Set<Tree.Kind> visited) {
+    if (location.isFile() || location.isLine()) {
+      return;
+    }
+    if (location.kind() == Location.NO_KIND) {
+      visited.add(Tree.Kind.TOKEN);
+    } else if (location.kind() < KINDS.length) {
+      visited.add(KINDS[location.kind()]);
+      ranges.add(range(location));
+    }
+  }
+
+  private void match(Tree tree) {
+    SyntaxToken first = tree.firstToken();
+    SyntaxToken last = tree.lastToken();
+    if (first == null || last == null) {
+      return;
+    }
+    Location range = Location.range(tree.kind().ordinal(), first.line(), first.column(),
+      IncrementalSubscriptionVisitor.endLine(last), IncrementalSubscriptionVisitor.endColumn(last), null);
+    if (ranges.contains(range)) {
+      trees.putIfAbsent(range, tree);
+    }
+  }
+
+  private static Location range(Location location) {
+    return Location.range(location.kind(), location.startLine(), location.startColumn(), location.endLine(), location.endColumn(), null);
+  }
+
+  private static long position(int line, int column) {
+    return ((long) line << 32) | column;
+  }
+
+}
@@ -0,0 +1,421 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.processor;
+
+import com.google.gson.Gson;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates, at compile time, the registry of the metadata of the rules: {@link #REGISTRY_CLASS}.
+ * <p>
+ * The metadata given by the {@code @Rule}, {@code @RuleProperty} and {@code @RuleTemplate} annotations of each check
+ * is merged with the {@code <key>_java.json} resource, exactly as it was done by {@code RulesDefinitionAnnotationLoader}
+ * and {@code MyJavaRulesDefinition} when the server started: the rules definition then has neither reflection nor
+ * per-rule resource to read at runtime. The {@code <key>_java.html} descriptions are not inlined in the registry,
+ * they are packed in a single resource read by {@code RuleDescriptions}.
+ * <p>
+ * The resources are read from the class output, so they must be copied there before the compilation,
+ * which is what Maven does in the "process-resources" phase.
+ */
+public class RuleRegistryProcessor extends AbstractProcessor {
+
+  public static final String REGISTRY_CLASS = "org.sonar.samples.java.GeneratedRulesRegistry";
+
+  // don't change that because the path is hard coded in CheckVerifier
+  private static final String RESOURCE_PACKAGE = "org.sonar.l10n.java.rules.squid";
+
+  private static final String RULE_ANNOTATION = "org.sonar.check.Rule";
+  private static final String RULE_PROPERTY_ANNOTATION = "org.sonar.check.RuleProperty";
+  private static final String RULE_TEMPLATE_ANNOTATION = "org.sonar.squidbridge.annotations.RuleTemplate";
+  private static final String JAVA_CHECK = "org.sonar.plugins.java.api.JavaCheck";
+
+  // rule per generated method, so that the size of the static initializer does not depend on the number of rules
+  private static final String METHOD_PREFIX = "rule";
+
+  private final Gson gson = new Gson();
+  private boolean generated = false;
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(RULE_ANNOTATION);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    // all the checks are sources of the first round, the next rounds only contain generated code
+    if (generated || annotations.isEmpty()) {
+      return false;
+    }
+    generated = true;
+    TypeElement ruleAnnotation = processingEnv.getElementUtils().getTypeElement(RULE_ANNOTATION);
+    List<RuleModel> rules = new ArrayList<>();
+    for (Element element : roundEnv.getElementsAnnotatedWith(ruleAnnotation)) {
+      RuleModel rule = ruleOf((TypeElement) element);
+      if (rule != null) {
+        rules.add(rule);
+      }
+    }
+    rules.sort((r1, r2) -> r1.className.compareTo(r2.className));
+    writeRegistry(rules);
+    return false;
+  }
+
+  private RuleModel ruleOf(TypeElement check) {
+    TypeMirror javaCheck = processingEnv.getElementUtils().getTypeElement(JAVA_CHECK).asType();
+    if (!processingEnv.getTypeUtils().isAssignable(check.asType(), javaCheck)) {
+      warning(check, "Rule " + check + " is not a " + JAVA_CHECK + ": it is not added to the rules registry");
+      return null;
+    }
+    Map<? extends ExecutableElement, ? extends AnnotationValue> values = valuesOf(annotation(check, RULE_ANNOTATION));
+    String key = stringValue(values, "key");
+    if (key.isEmpty()) {
+      error(check, "No key is defined in Rule annotation of " + check);
+      return null;
+    }
+
+    RuleModel rule = new RuleModel(check.getQualifiedName().toString(), key);
+    rule.name = emptyToNull(stringValue(values, "name"));
+    rule.htmlDescription = emptyToNull(stringValue(values, "description"));
+    rule.severity = ((VariableElement) value(values, "priority")).getSimpleName().toString();
+    rule.status = stringValue(values, "status");
+    rule.tags.addAll(stringValues(values, "tags"));
+    rule.template = annotation(check, RULE_TEMPLATE_ANNOTATION) != null;
+    addParams(rule, check);
+
+    readMetadata(rule, check);
+    return rule;
+  }
+
+  private void addParams(RuleModel rule, TypeElement check) {
+    // fields of the super classes first, as FieldUtils2 does
+    TypeMirror superclass = check.getSuperclass();
+    if (superclass.getKind() == TypeKind.DECLARED) {
+      addParams(rule, (TypeElement) ((DeclaredType) superclass).asElement());
+    }
+    for (Element member : check.getEnclosedElements()) {
+      AnnotationMirror property = member.getKind() == ElementKind.FIELD ? annotation(member, RULE_PROPERTY_ANNOTATION) : null;
+      if (property != null) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values = valuesOf(property);
+        String type = stringValue(values, "type").trim();
+        rule.params.add(new ParamModel(
+          defaultIfEmpty(stringValue(values, "key"), member.getSimpleName().toString()),
+          stringValue(values, "description"),
+          emptyToNull(stringValue(values, "defaultValue")),
+          type.isEmpty() ? guessType(member.asType()) : type));
+      }
+    }
+  }
+
+  private static String guessType(TypeMirror type) {
+    String name = type.getKind().isPrimitive() ? type.getKind().name().toLowerCase(Locale.ENGLISH) : type.toString();
+    switch (name) {
+      case "int":
+      case "java.lang.Integer":
+        return "INTEGER";
+      case "float":
+      case "java.lang.Float":
+        return "FLOAT";
+      case "boolean":
+      case "java.lang.Boolean":
+        return "BOOLEAN";
+      default:
+        return "STRING";
+    }
+  }
+
+  private void readMetadata(RuleModel rule, TypeElement check) {
+    String json = readResource(rule.key + "_java.json", check);
+    if (json == null) {
+      return;
+    }
+    RuleMetadata metadata = gson.fromJson(json, RuleMetadata.class);
+    rule.severity = metadata.defaultSeverity.toUpperCase(Locale.US);
+    rule.name = metadata.title;
+    if (metadata.tags != null) {
+      rule.tags.addAll(Arrays.asList(metadata.tags));
+    }
+    rule.type = metadata.type;
+    rule.status = metadata.status.toUpperCase(Locale.US);
+    rule.remediation = metadata.remediation;
+  }
+
+  private String readResource(String name, Element check) {
+    FileObject resource;
+    try {
+      resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, RESOURCE_PACKAGE, name);
+    } catch (IOException | IllegalArgumentException e) {
+      return null;
+    }
+    try (InputStream input = resource.openInputStream()) {
+      ByteArrayOutputStream content = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        content.write(buffer, 0, read);
+      }
+      return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      // the resource does not exist
+      return null;
+    } catch (RuntimeException e) {
+      error(check, "Failed to read: " + resource.toUri() + " (" + e + ")");
+      return null;
+    }
+  }
+
+  private void writeRegistry(List<RuleModel> rules) {
+    int lastDot = REGISTRY_CLASS.lastIndexOf('.');
+    String packageName = REGISTRY_CLASS.substring(0, lastDot);
+    String simpleName = REGISTRY_CLASS.substring(lastDot + 1);
+
+    StringBuilder source = new StringBuilder();
+    source.append("package ").append(packageName).append(";\n\n")
+      .append("import java.util.HashMap;\n")
+      .append("import java.util.Map;\n")
+      .append("import org.sonar.plugins.java.api.JavaCheck;\n\n")
+      .append("/**\n")
+      .append(" * Generated by ").append(RuleRegistryProcessor.class.getName()).append(": do not edit.\n")
+      .append(" */\n")
+      .append("final class ").append(simpleName).append(" {\n\n")
+      .append("  private static final Map<Class<? extends JavaCheck>, RuleMetadata> RULES = new HashMap<>(")
+      .append(rules.size() * 2).append(");\n\n")
+      .append("  static {\n");
+    for (int i = 0; i < rules.size(); i++) {
+      source.append("    RULES.put(").append(rules.get(i).className).append(".class, ").append(METHOD_PREFIX).append(i).append("());\n");
+    }
+    source.append("  }\n\n")
+      .append("  private ").append(simpleName).append("() {\n")
+      .append("  }\n\n")
+      .append("  static RuleMetadata get(Class<? extends JavaCheck> check) {\n")
+      .append("    return RULES.get(check);\n")
+      .append("  }\n");
+    for (int i = 0; i < rules.size(); i++) {
+      source.append('\n');
+      appendRule(source, METHOD_PREFIX + i, rules.get(i));
+    }
+    source.append("}\n");
+
+    try {
+      JavaFileObject file = processingEnv.getFiler().createSourceFile(REGISTRY_CLASS);
+      try (Writer writer = file.openWriter()) {
+        writer.write(source.toString());
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate " + REGISTRY_CLASS + ": " + e);
+    }
+  }
+
+  private static void appendRule(StringBuilder source, String methodName, RuleModel rule) {
+    source.append("  private static RuleMetadata ").append(methodName).append("() {\n")
+      .append("    return new RuleMetadata(").append(literal(rule.key)).append(", ").append(literal(rule.name)).append(", ")
+      .append(literal(rule.severity)).append(", ").append(literal(rule.type)).append(", ").append(literal(rule.status)).append(", ")
+      .append(rule.template).append(",\n")
+      .append("      new String[] {");
+    boolean first = true;
+    for (String tag : rule.tags) {
+      source.append(first ? "" : ", ").append(literal(tag));
+      first = false;
+    }
+    source.append("},\n")
+      .append("      ").append(literal(rule.htmlDescription)).append(")");
+    for (ParamModel param : rule.params) {
+      source.append("\n      .param(").append(literal(param.key)).append(", ").append(literal(param.description)).append(", ")
+        .append(literal(param.defaultValue)).append(", ").append(literal(param.type)).append(")");
+    }
+    Remediation remediation = rule.remediation;
+    if (remediation != null) {
+      source.append("\n      .remediation(").append(literal(remediation.func)).append(", ").append(literal(remediation.constantCost)).append(", ")
+        .append(literal(remediation.linearFactor)).append(", ").append(literal(remediation.linearOffset)).append(", ")
+        .append(literal(remediation.linearDesc)).append(")");
+    }
+    source.append(";\n")
+      .append("  }\n");
+  }
+
+  static String literal(String value) {
+    if (value == null) {
+      return "null";
+    }
+    StringBuilder literal = new StringBuilder("\"");
+    for (char c : value.toCharArray()) {
+      switch (c) {
+        case '"':
+          literal.append("\\\"");
+          break;
+        case '\\':
+          literal.append("\\\\");
+          break;
+        case '\n':
+          literal.append("\\n");
+          break;
+        case '\r':
+          literal.append("\\r");
+          break;
+        case '\t':
+          literal.append("\\t");
+          break;
+        default:
+          if (c < ' ' || c > '~') {
+            // independent from the encoding of the generated source
+            literal.append(String.format("\\u%04x", (int) c));
+          } else {
+            literal.append(c);
+          }
+      }
+    }
+    return literal.append('"').toString();
+  }
+
+  private static AnnotationMirror annotation(Element element, String annotationName) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+        return mirror;
+      }
+    }
+    return null;
+  }
+
+  private Map<? extends ExecutableElement, ? extends AnnotationValue> valuesOf(AnnotationMirror mirror) {
+    return processingEnv.getElementUtils().getElementValuesWithDefaults(mirror);
+  }
+
+  private static Object value(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : values.entrySet()) {
+      if (entry.getKey().getSimpleName().contentEquals(name)) {
+        return entry.getValue().getValue();
+      }
+    }
+    throw new IllegalArgumentException("Unknown annotation attribute: " + name);
+  }
+
+  private static String stringValue(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+    return (String) value(values, name);
+  }
+
+  private static List<String> stringValues(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+    List<String> strings = new ArrayList<>();
+    for (Object value : (List<?>) value(values, name)) {
+      strings.add((String) ((AnnotationValue) value).getValue());
+    }
+    return strings;
+  }
+
+  private static String emptyToNull(String value) {
+    return value.isEmpty() ? null : value;
+  }
+
+  private static String defaultIfEmpty(String value, String defaultValue) {
+    return value.isEmpty() ? defaultValue : value;
+  }
+
+  private void warning(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  private static class RuleModel {
+    private final String className;
+    private final String key;
+    private String name;
+    private String htmlDescription;
+    private String severity;
+    private String type;
+    private String status;
+    private boolean template;
+    private final Set<String> tags = new LinkedHashSet<>();
+    private final List<ParamModel> params = new ArrayList<>();
+    private Remediation remediation;
+
+    RuleModel(String className, String key) {
+      this.className = className;
+      this.key = key;
+    }
+  }
+
+  private static class ParamModel {
+    private final String key;
+    private final String description;
+    private final String defaultValue;
+    private final String type;
+
+    ParamModel(String key, String description, String defaultValue, String type) {
+      this.key = key;
+      this.description = description;
+      this.defaultValue = defaultValue;
+      this.type = type;
+    }
+  }
+
+  // format of the <key>_java.json resources
+  private static class RuleMetadata {
+    String title;
+    String status;
+    Remediation remediation;
+    String type;
+    String[] tags;
+    String defaultSeverity;
+  }
+
+  private static class Remediation {
+    String func;
+    String constantCost;
+    String linearDesc;
+    String linearOffset;
+    String linearFactor;
+  }
+
+}
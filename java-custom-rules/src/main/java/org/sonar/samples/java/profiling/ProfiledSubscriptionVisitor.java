@@ -0,0 +1,141 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.profiling;
+
+import java.util.List;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.samples.rulekit.profiling.RuleProfiler;
+
+/**
+ * Base class of the checks which opt into profiling: their time, visited nodes, allocations and issues are measured
+ * per file by a {@link RuleProfiler}, sent to Java Flight Recorder and summed in the summary of the slowest rules.
+ * <p>
+ * The subscription visitors of all the rules are called one after the other on each node of a single walk of the
+ * tree, so each callback is measured on its own. Subclasses implement {@link #visit(Tree)}, {@link #leave(Tree)},
+ * {@link #startFile(JavaFileScannerContext)} and {@link #endFile(JavaFileScannerContext)} instead of the methods of
+ * {@link IssuableSubscriptionVisitor}, which are final here.
+ */
+public abstract class ProfiledSubscriptionVisitor extends IssuableSubscriptionVisitor {
+
+  private final RuleProfiler profiler = RuleProfiler.of(ruleKey(getClass()));
+
+  @Override
+  public final void setContext(JavaFileScannerContext context) {
+    profiler.startFile(context.getInputFile() == null ? context.getFileKey() : context.getInputFile().toString());
+    profiler.enter();
+    try {
+      super.setContext(context);
+      startFile(context);
+    } finally {
+      profiler.exit();
+    }
+  }
+
+  @Override
+  public final void visitNode(Tree tree) {
+    profiler.node();
+    profiler.enter();
+    try {
+      visit(tree);
+    } finally {
+      profiler.exit();
+    }
+  }
+
+  @Override
+  public final void leaveNode(Tree tree) {
+    profiler.enter();
+    try {
+      leave(tree);
+    } finally {
+      profiler.exit();
+    }
+  }
+
+  @Override
+  public final void leaveFile(JavaFileScannerContext context) {
+    profiler.enter();
+    try {
+      endFile(context);
+      super.leaveFile(context);
+    } finally {
+      profiler.exit();
+      profiler.endFile();
+    }
+  }
+
+  /**
+   * Called when a file starts, before its nodes are visited: the state of the previous file should be reset here.
+   */
+  protected void startFile(JavaFileScannerContext context) {
+  }
+
+  protected void visit(Tree tree) {
+  }
+
+  protected void leave(Tree tree) {
+  }
+
+  protected void endFile(JavaFileScannerContext context) {
+  }
+
+  @Override
+  public void reportIssue(Tree tree, String message) {
+    profiler.issue();
+    super.reportIssue(tree, message);
+  }
+
+  @Override
+  public void reportIssue(Tree tree, String message, List<JavaFileScannerContext.Location> flow, Integer cost) {
+    profiler.issue();
+    super.reportIssue(tree, message, flow, cost);
+  }
+
+  @Override
+  public void reportIssue(Tree startTree, Tree endTree, String message) {
+    profiler.issue();
+    super.reportIssue(startTree, endTree, message);
+  }
+
+  @Override
+  public void addIssue(int line, String message) {
+    profiler.issue();
+    super.addIssue(line, message);
+  }
+
+  @Override
+  public void addIssueOnFile(String message) {
+    profiler.issue();
+    super.addIssueOnFile(message);
+  }
+
+  /**
+   * @return the key of the {@link Rule} annotation of the check, or its simple name if it has none
+   */
+  static String ruleKey(Class<?> check) {
+    Rule rule = check.getAnnotation(Rule.class);
+    return rule == null || rule.key().isEmpty() ? check.getSimpleName() : rule.key();
+  }
+
+}
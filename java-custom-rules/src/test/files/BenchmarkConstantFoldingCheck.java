@@ -0,0 +1,67 @@
+import java.util.List;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+public class BenchmarkConstantFoldingCheck {
+  private static final double X = Math.PI;
+  private static final List<String> ITEMS = List.of("a");
+  private static double mutableStatic = 2.0;
+  private double x = Math.PI;
+  private final double finalField = 1.0;
+
+  @Benchmark
+  public double field() {
+    return Math.log(x) + X;
+  }
+
+  @Benchmark
+  public double parameter(Input input) {
+    return Math.log(input.value) * X;
+  }
+
+  @Benchmark
+  public double staticField() {
+    return Math.log(mutableStatic) + X;
+  }
+
+  @Benchmark
+  public double instanceFinal() {
+    return finalField * X;
+  }
+
+  @Benchmark
+  public int collection() {
+    return ITEMS.size();
+  }
+
+  @Benchmark
+  public long call() {
+    return System.nanoTime() + (long) X;
+  }
+
+  @Benchmark
+  public Object allocation() {
+    return new StringBuilder().append(X);
+  }
+
+  @Benchmark
+  public double literalsOnly() {
+    return Math.log(42.0);
+  }
+
+  @Benchmark
+  public void empty() {
+  }
+
+  public double notABenchmark() {
+    return Math.log(X);
+  }
+
+  @State(Scope.Thread)
+  public static class Input {
+    double value = 3.0;
+  }
+}
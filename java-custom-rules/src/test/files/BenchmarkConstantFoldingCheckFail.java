@@ -0,0 +1,36 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+public class BenchmarkConstantFoldingCheckFail {
+  private static final double X = Math.PI;
+  private static final int N = 1_000;
+  private static final String TEXT = "a,b,c";
+
+  @Benchmark
+  public double log() { // Noncompliant [[sc=17;ec=20;secondary=14]] {{Read the inputs of this benchmark from the non-final fields of a @State class: it only reads constants, and its computation may be folded.}}
+    return Math.log(X);
+  }
+
+  @Benchmark
+  public long loop() { // Noncompliant [[secondary=20,21]]
+    long sum = 0;
+    for (int i = 0; i < N; i++) {
+      sum += i * N;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public void consumed(Blackhole blackhole) { // Noncompliant [[secondary=28,29]]
+    blackhole.consume(TEXT.length());
+    blackhole.consume(Integer.toString(N));
+  }
+
+  @Benchmark
+  public double qualified() { // Noncompliant [[secondary=34]]
+    return Math.sqrt(BenchmarkConstantFoldingCheckFail.X);
+  }
+}
@@ -0,0 +1,68 @@
+import java.util.concurrent.locks.Lock;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+public class BenchmarkDeadCodeCheck {
+  private int[] values = {1, 2, 3};
+  private double x = 2.0;
+  private long total;
+  private Lock lock;
+
+  @Benchmark
+  public long returned() {
+    long sum = 0;
+    for (int i = 0; i < values.length; i++) {
+      sum += values[i];
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public void consumed(Blackhole blackhole) {
+    double log = Math.log(x);
+    blackhole.consume(log);
+    blackhole.consume(Math.sqrt(x));
+  }
+
+  @Benchmark
+  public void stored() {
+    long sum = 0;
+    for (int value : values) {
+      sum += value;
+    }
+    total = sum;
+  }
+
+  @Benchmark
+  public int chained() {
+    int a = 0;
+    int b = (a += values[0]);
+    return b;
+  }
+
+  @Benchmark
+  public void sideEffects(StringBuilder sb) {
+    sb.append("a").append(x);
+    values[0]++;
+    lock.lock();
+  }
+
+  @Benchmark
+  public Runnable lambdas() {
+    return () -> {
+      int unused = values[0];
+      Math.log(x);
+    };
+  }
+
+  public void notABenchmark() {
+    int unused = values[0];
+    Math.log(x);
+  }
+
+  @Benchmark
+  public abstract void noBody();
+}
@@ -0,0 +1,39 @@
+import java.math.BigInteger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class BenchmarkDeadCodeCheckFail {
+  private int[] values = {1, 2, 3};
+  private double x = 2.0;
+  private String text = "a,b";
+  private BigInteger big = BigInteger.TEN;
+
+  @Benchmark
+  public void accumulated() {
+    long sum = 0; // Noncompliant [[sc=10;ec=13]] {{Return "sum" or pass it to "Blackhole.consume": its value is never used, and may be eliminated as dead code.}}
+    for (int value : values) {
+      sum += value;
+    }
+  }
+
+  @Benchmark
+  public void computed() {
+    double log = Math.log(x); // Noncompliant {{Return "log" or pass it to "Blackhole.consume": its value is never used, and may be eliminated as dead code.}}
+    int count; // Noncompliant
+    count = values.length;
+    for (int i = 0, j = 0; i < values.length; i++) { // Noncompliant [[sc=21;ec=22]]
+      j++;
+    }
+  }
+
+  @Benchmark
+  public int discarded() {
+    Math.log(x); // Noncompliant [[sc=5;ec=16]] {{Return the result of "log" or pass it to "Blackhole.consume": it is discarded, and may be eliminated as dead code.}}
+    text.split(","); // Noncompliant {{Return the result of "split" or pass it to "Blackhole.consume": it is discarded, and may be eliminated as dead code.}}
+    big.multiply(big); // Noncompliant
+    Integer.parseInt("42"); // Noncompliant
+    return values.length;
+  }
+}
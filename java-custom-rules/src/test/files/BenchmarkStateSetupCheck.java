@@ -0,0 +1,61 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class BenchmarkStateSetupCheck {
+  private int[] initialized = {1, 2, 3};
+  @Param({"10", "100"})
+  private int size;
+  private int[] setUp;
+  private String qualified;
+  private long counter;
+  private Object constructed;
+  private Object block;
+  private Object lambda;
+  private static int[] shared;
+  private final int[] constant = new int[0];
+  private int[] unused;
+  private int[] elementsOnly;
+
+  {
+    block = new Object();
+  }
+
+  public BenchmarkStateSetupCheck() {
+    constructed = new Object();
+  }
+
+  @Setup
+  public void setUp() {
+    setUp = new int[size];
+    this.qualified = "a";
+    Runnable r = () -> lambda = new Object();
+    r.run();
+    elementsOnly = new int[1];
+  }
+
+  @Benchmark
+  public long measure() {
+    counter++;
+    elementsOnly[0] = 1;
+    return initialized.length + setUp.length + qualified.length() + counter + constructed.hashCode() + block.hashCode()
+      + lambda.hashCode() + shared.length + constant.length;
+  }
+
+  @Benchmark
+  public int assigned() {
+    counter = 0;
+    return (int) counter;
+  }
+}
+
+class NotAState {
+  private int[] values;
+
+  int measure() {
+    return values.length;
+  }
+}
@@ -0,0 +1,38 @@
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class BenchmarkStateSetupCheckFail {
+  private int[] values; // Noncompliant [[sc=17;ec=23;secondary=20]] {{Set up "values" in a @Setup method: the benchmarks read its default value.}}
+  private String text; // Noncompliant [[secondary=21]] {{Set up "text" in a @Setup method: the benchmarks read its default value.}}
+  private double x; // Noncompliant [[sc=18;ec=19]]
+  private long total;
+
+  @Setup
+  public void setUp() {
+    total = 0;
+    values[0] = 1;
+  }
+
+  public void fill() {
+    values = new int[] {1, 2, 3};
+    (this.text) = "a";
+  }
+
+  @Benchmark
+  public double measure() {
+    return values.length + text.length() + x + total;
+  }
+
+  @State(Scope.Thread)
+  public static class Input {
+    int[] data; // Noncompliant
+  }
+
+  @Benchmark
+  public int input(Input input) {
+    return input.data.length;
+  }
+}
@@ -0,0 +1,33 @@
+import java.util.List;
+
+class BoxedAccumulatorInLoopCheckClass {
+  private Integer calls = 0;
+
+  long primitives(int[] values) {
+    long total = 0;
+    for (int value : values) {
+      total += value;
+    }
+    for (int i = 0; i < values.length; i++) {
+      total++;
+    }
+    return total;
+  }
+
+  Integer outsideLoop(Integer count) {
+    count++;
+    calls = calls + 1;
+    return count;
+  }
+
+  void notArithmetic(List<Integer> values, Integer max) {
+    for (Integer value : values) {
+      max = value;
+      Boolean found = true;
+      found = !found;
+    }
+    for (Integer value : values) {
+      Runnable r = () -> calls++;
+    }
+  }
+}
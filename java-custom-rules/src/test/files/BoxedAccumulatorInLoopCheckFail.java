@@ -0,0 +1,33 @@
+import java.util.List;
+
+class BoxedAccumulatorInLoopCheckFailClass {
+  private Long total = 0L;
+
+  Integer counters(List<String> values) {
+    Integer count = 0;
+    for (String value : values) {
+      count++; // Noncompliant {{Declare "count" as a primitive int: it is unboxed and boxed again at each iteration.}}
+    }
+    for (Integer i = 0; i < values.size(); i++) { // Noncompliant
+      --count; // Noncompliant
+    }
+    int i = 0;
+    while (i < values.size()) {
+      count = count + values.get(i++).length(); // Noncompliant
+      count = (count * 2); // Noncompliant
+    }
+    return count;
+  }
+
+  void accumulators(long[] amounts, int[] ids) {
+    do {
+      this.total += amounts[0]; // Noncompliant {{Declare "total" as a primitive long: it is unboxed and boxed again at each iteration.}}
+      total -= 1; // Noncompliant
+    } while (total < 10);
+    for (Long amount : amounts) { // Noncompliant {{Declare "amount" as a primitive long: each element of the array is boxed.}}
+      total = amount;
+    }
+    for (Integer id : ids) { // Noncompliant
+    }
+  }
+}
@@ -0,0 +1,29 @@
+import java.util.List;
+import java.util.Map;
+
+class BoxingInLoopCheckClass {
+
+  void primitiveMethods(List<String> names, int[] ids, StringBuilder sb) {
+    for (int i = 0; i < ids.length; i++) {
+      String name = names.get(i);
+      names.remove(i);
+      sb.append(i);
+      System.out.println(i);
+      Integer.toString(ids[i]);
+    }
+  }
+
+  void outsideLoop(Map<Integer, Long> totals, int id) {
+    totals.get(id);
+  }
+
+  void objects(Map<Integer, Long> totals, List<Integer> ids) {
+    for (Integer id : ids) {
+      totals.get(id);
+      totals.put(id, null);
+      String.format("%d %d", 1, 2);
+      java.util.Objects.hash(1, 2);
+      java.util.Objects.equals(true, false);
+    }
+  }
+}
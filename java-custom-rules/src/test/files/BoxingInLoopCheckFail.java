@@ -0,0 +1,29 @@
+import java.util.List;
+import java.util.Map;
+
+class BoxingInLoopCheckFailClass {
+
+  void collections(Map<Integer, Long> totals, List<Integer> list, int[] ids) {
+    for (int id : ids) {
+      Long total = totals.get(id); // Noncompliant {{This int is boxed at each iteration: use a primitive-specialized collection or method.}}
+      totals.put(id, 0L); // Noncompliant [[sc=18;ec=20]]
+      list.add(id); // Noncompliant
+      list.contains(id * 2); // Noncompliant
+    }
+    int i = 0;
+    while (i < ids.length) {
+      totals.put(ids[i], // Noncompliant
+        1L + i); // Noncompliant
+      i++;
+    }
+  }
+
+  <T> void generic(T value, List<T> list) {
+  }
+
+  void generics(double[] values) {
+    for (double value : values) {
+      this.<Double>generic(value, null); // Noncompliant {{This double is boxed at each iteration: use a primitive-specialized collection or method.}}
+    }
+  }
+}
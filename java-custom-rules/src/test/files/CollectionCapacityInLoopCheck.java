@@ -0,0 +1,71 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+class CollectionCapacityInLoopCheckClass {
+
+  List<String> withCapacity(List<String> source) {
+    List<String> copy = new ArrayList<>(source.size());
+    for (String s : source) {
+      copy.add(s);
+    }
+    return copy;
+  }
+
+  int notEscaping(String[] source) {
+    List<String> copy = new ArrayList<>();
+    for (String s : source) {
+      copy.add(s);
+    }
+    return copy.size();
+  }
+
+  List<String> filtered(List<String> source) {
+    List<String> copy = new ArrayList<>();
+    for (String s : source) {
+      if (!s.isEmpty()) {
+        copy.add(s);
+      }
+    }
+    return copy;
+  }
+
+  List<String> unboundedLoops(Iterator<String> it, int n) {
+    List<String> copy = new ArrayList<>();
+    while (it.hasNext()) {
+      copy.add(it.next());
+    }
+    for (int i = 0; i < n; i++) {
+      copy.add("");
+    }
+    return copy;
+  }
+
+  Map<String, Integer> nested(List<List<String>> source) {
+    Map<String, Integer> counts = new HashMap<>();
+    for (List<String> row : source) {
+      for (String s : row) {
+        counts.put(s, 1);
+      }
+    }
+    return counts;
+  }
+
+  List<String> notFilled(List<String> source) {
+    List<String> copy = new ArrayList<>();
+    for (String s : source) {
+      System.out.println(s);
+    }
+    return copy;
+  }
+
+  List<String> anonymous(List<String> source) {
+    List<String> copy = new ArrayList<String>() {};
+    for (String s : source) {
+      copy.add(s);
+    }
+    return copy;
+  }
+}
@@ -0,0 +1,43 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class CollectionCapacityInLoopCheckFailClass {
+  private Set<String> field;
+
+  List<String> foreach(List<String> source) {
+    List<String> copy = new ArrayList<>(); // Noncompliant [[secondary=14]] {{Create this ArrayList with an initial capacity: the loop at line 14 which fills it has a known number of iterations.}}
+    for (String s : source) {
+      copy.add(s.trim());
+    }
+    return copy;
+  }
+
+  void indexed(String[] keys, List<Integer> values) {
+    Map<String, Integer> map = new HashMap<>(); // Noncompliant [[secondary=22]]
+    for (int i = 0; i < keys.length; i++) {
+      map.put(keys[i], i);
+    }
+    consume(map);
+    Set<Integer> set = new HashSet<>(); // only read after the loop
+    for (int i = 0; (i < values.size()); ++i) {
+      set.add(values.get(i));
+    }
+    if (set.isEmpty()) {
+      return;
+    }
+    field = null;
+    Set<String> linked = new LinkedHashSet<>(); // Noncompliant
+    for (int i = keys.length - 1; keys.length > i; i--) {
+      linked.add(keys[i]);
+    }
+    field = linked;
+  }
+
+  void consume(Map<String, Integer> map) {
+  }
+}
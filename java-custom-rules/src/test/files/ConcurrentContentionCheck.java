@@ -0,0 +1,46 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ConcurrentContentionCheckClass {
+  private static final AtomicLong SEQUENCE = new AtomicLong();
+  private static final AtomicLong USED_RESULT = new AtomicLong();
+  private static final AtomicInteger NEVER_INCREMENTED = new AtomicInteger();
+  static final AtomicLong NOT_PRIVATE = new AtomicLong();
+  private final AtomicLong instance = new AtomicLong();
+
+  private final ConcurrentMap<String, Integer> counts = new ConcurrentHashMap<>();
+  private final Map<String, Integer> plain = new HashMap<>();
+
+  long next() {
+    SEQUENCE.incrementAndGet();
+    SEQUENCE.compareAndSet(10, 0);
+    NOT_PRIVATE.incrementAndGet();
+    instance.incrementAndGet();
+    return USED_RESULT.incrementAndGet() + NEVER_INCREMENTED.get();
+  }
+
+  void atomics(String key, String other, ConcurrentMap<String, Integer> map) {
+    counts.computeIfAbsent(key, k -> 0);
+    counts.merge(key, 1, Integer::sum);
+    if (!plain.containsKey(key)) {
+      plain.put(key, 1);
+    }
+    if (!counts.containsKey(other)) {
+      counts.put(key, 1);
+    }
+    if (!map.containsKey(key)) {
+      counts.put(key, 1);
+    }
+    counts.put(key, 1);
+    Runnable r = () -> counts.get(key);
+    counts.put(key, 2);
+  }
+
+  void otherMethod(String key) {
+    counts.put(key, 3);
+  }
+}
@@ -0,0 +1,36 @@
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+class ConcurrentContentionCheckFailClass {
+  private static final AtomicLong REQUESTS = new AtomicLong(); // Noncompliant {{Replace this AtomicLong by a LongAdder: it is only incremented and read, and all the threads contend on its single value.}}
+  private static AtomicInteger errors = new AtomicInteger(); // Noncompliant [[sc=32;ec=38]]
+
+  private final ConcurrentMap<String, Integer> counts = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Object> sessions = new ConcurrentHashMap<>();
+
+  void handle(String user) {
+    REQUESTS.incrementAndGet();
+    errors.getAndAdd(2);
+    if (!sessions.containsKey(user)) {
+      sessions.put(user, new Object()); // Noncompliant [[secondary=16]] {{Use "computeIfAbsent" or "putIfAbsent" instead of checking the key then putting it: it is looked up twice and races with the other writers.}}
+    }
+    if (this.sessions.get(user) == null) {
+      log();
+      sessions.put(user, new Object()); // Noncompliant [[secondary=19]]
+    }
+    Integer count = counts.get(user);
+    if (count != null) {
+      this.counts.put(user, count + 1); // Noncompliant [[secondary=23]] {{Use "merge" or "compute" instead of getting then putting the value: the key is looked up twice and races with the other writers.}}
+    }
+    counts.put("total", counts.get("total") + 1); // Noncompliant
+  }
+
+  long read() {
+    return REQUESTS.get() + errors.intValue();
+  }
+
+  void log() {
+  }
+}
@@ -0,0 +1,32 @@
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+class ExpensiveCallInLoopCheckClass {
+  enum Color { RED, GREEN }
+
+  private static final Color[] COLORS = Color.values();
+
+  void hoisted(List<String> names) throws Exception {
+    Method method = String.class.getMethod("length");
+    Charset charset = Charset.forName("UTF-8");
+    for (String name : names) {
+      for (Color color : COLORS) {
+        name.getBytes(StandardCharsets.UTF_8);
+        name.getBytes(charset);
+        new String(new byte[0], StandardCharsets.UTF_8);
+        method.invoke(name);
+      }
+    }
+  }
+
+  void iteratedOnce(List<String> names) {
+    for (Color color : Color.values()) {
+      System.out.println(color);
+    }
+    for (int i = 0, n = Color.values().length; i < n; i++) {
+      Runnable r = () -> Color.values();
+    }
+  }
+}
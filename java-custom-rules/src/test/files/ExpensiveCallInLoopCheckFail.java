@@ -0,0 +1,28 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.text.SimpleDateFormat;
+import java.util.List;
+
+class ExpensiveCallInLoopCheckFailClass {
+  enum Color { RED, GREEN }
+
+  void loops(List<String> names, Object target) throws Exception {
+    for (String name : names) {
+      for (Color color : Color.values()) { // Noncompliant [[sc=32;ec=38]] {{Move this call to "Color.values" out of the loop: cache the array in a static final field, values() clones it at each call.}}
+      }
+      Method method = target.getClass().getMethod(name); // Noncompliant {{Move this call to "Class.getMethod" out of the loop: look the Method up once, or cache a MethodHandle, in a static final field.}}
+      Field field = target.getClass().getDeclaredField(name); // Noncompliant
+      byte[] bytes = name.getBytes("UTF-8"); // Noncompliant {{Move this call to "String.getBytes" out of the loop: pass a StandardCharsets constant, the charset is looked up by name at each call.}}
+      String copy = new String(bytes, "UTF-8"); // Noncompliant [[sc=25;ec=31]] {{Move this call to "new String" out of the loop: pass a StandardCharsets constant, the charset is looked up by name at each call.}}
+      Charset.forName(name); // Noncompliant
+      new SimpleDateFormat("yyyy"); // Noncompliant
+      MessageDigest.getInstance("SHA-256"); // Noncompliant
+    }
+    int i = 0;
+    while (i++ < 10) {
+      java.lang.invoke.MethodHandles.lookup().findVirtual(String.class, "length", null); // Noncompliant
+    }
+  }
+}
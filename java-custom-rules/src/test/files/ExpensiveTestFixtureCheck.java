@@ -0,0 +1,46 @@
+import java.net.ServerSocket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ExpensiveTestFixtureCheck {
+  private static ScriptEngine engine;
+  private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(2);
+  private Supplier<ScriptEngineManager> lazy = () -> new ScriptEngineManager();
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    engine = new ScriptEngineManager().getEngineByName("nashorn");
+    new ServerSocket(0).close();
+  }
+
+  @Before
+  public void setUp() {
+    StringBuilder cheap = new StringBuilder();
+    Runnable later = () -> new ScriptEngineManager();
+    Object anonymous = new Object() {
+      ScriptEngineManager manager = new ScriptEngineManager();
+    };
+  }
+
+  @Test
+  public void test() throws Exception {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      engine.eval("1 + 1");
+    }
+  }
+}
+
+class NotATest {
+  private ScriptEngineManager manager = new ScriptEngineManager();
+
+  NotATest() {
+    Executors.newSingleThreadExecutor();
+  }
+
+}
@@ -0,0 +1,47 @@
+import java.net.ServerSocket;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExpensiveTestFixtureCheckFail {
+  private ScriptEngineManager manager = new ScriptEngineManager(); // Noncompliant [[sc=41;ec=66]] {{Create this ScriptEngineManager once per test class, e.g. in a static @BeforeClass or @BeforeAll method: it discovers and loads every script engine of the classpath before each test.}}
+  private ExecutorService executor;
+  private ServerSocket socket;
+  private Connection connection;
+
+  {
+    executor = Executors.newFixedThreadPool(4); // Noncompliant {{Create this ExecutorService once per test class, e.g. in a static @BeforeClass or @BeforeAll method: it starts a thread pool before each test.}}
+  }
+
+  public ExpensiveTestFixtureCheckFail() throws Exception {
+    socket = new ServerSocket(0); // Noncompliant {{Create this ServerSocket once per test class, e.g. in a static @BeforeClass or @BeforeAll method: it binds a real server socket before each test.}}
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    ScriptEngine engine = new ScriptEngineManager().getEngineByName("nashorn"); // Noncompliant
+    connection = DriverManager.getConnection("jdbc:h2:mem:test"); // Noncompliant {{Create this Connection once per test class, e.g. in a static @BeforeClass or @BeforeAll method: it opens a database connection before each test.}}
+    if (engine == null) {
+      socket = new ServerSocket(0); // Noncompliant
+    }
+  }
+
+  @Test
+  public void test() {
+    executor.submit(() -> manager.getEngineFactories());
+  }
+}
+
+abstract class AbstractServerTest {
+  protected ServerSocket server;
+
+  @Before
+  public void startServer() throws Exception {
+    server = new ServerSocket(0); // Noncompliant
+  }
+}
@@ -1,6 +1,20 @@
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
 
 class ForLoopConditionFunctionCallCheckClass {
+    private int count;
+    private volatile boolean running;
+    private volatile List<String> pending;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private static int limit;
+
     public void function() {
         ArrayList<String> list = {"a", "b", "c"};
 
@@ -10,4 +24,115 @@ class ForLoopConditionFunctionCallCheckClass {
         }
 
     }
-}
\ No newline at end of file
+
+    void variants(Iterator<String> it, Queue<String> queue, List<String> items, String s) {
+        while (it.hasNext()) {
+            it.next();
+        }
+
+        String head;
+        while ((head = queue.poll()) != null) {
+        }
+
+        while (queue.poll() != null) {
+        }
+
+        for (int i = 0; i < items.size(); ++i) {
+            items.add("a");
+        }
+
+        for (int i = 0; i < items.size(); ++i) {
+            consume(items);
+        }
+
+        for (int i = 0; i < s.length(); ++i) {
+            s = s.substring(1);
+        }
+
+        for (int i = 0; i < size(items); ++i) {
+            items = new ArrayList<>();
+        }
+
+        while (count() > 0) {
+            count--;
+        }
+
+        while (count() > 0) {
+            decrement();
+        }
+    }
+
+    // changed by other threads: hoisting them would make the loops endless
+    void concurrency(AtomicInteger remaining, ConcurrentLinkedQueue<String> queue) {
+        while (!stopped.get()) {
+        }
+
+        while (remaining.get() > 0) {
+        }
+
+        while (queue.size() > 0) {
+        }
+
+        while (running && !Thread.currentThread().isInterrupted()) {
+        }
+
+        while (!Thread.interrupted()) {
+        }
+
+        for (int i = 0; i < pending.size(); ++i) {
+        }
+
+        for (int i = 0; i < this.pending.size(); ++i) {
+        }
+    }
+
+    // static methods may read or change a global state
+    void staticCalls(List<String> items) {
+        while (currentLimit() > 0) {
+            shrink();
+        }
+
+        for (int i = 0; i < System.identityHashCode(items); ++i) {
+        }
+    }
+
+    // calls which change their receiver
+    void receiverChanges(Matcher matcher, StringBuilder sb, String x, int n, ByteBuffer buf) {
+        while (matcher.find()) {
+        }
+
+        while (sb.append(x).length() < n) {
+        }
+
+        while (buf.hasRemaining()) {
+            buf.get();
+        }
+
+        for (int i = 0; i < buf.limit(); ++i) {
+            buf.get();
+        }
+    }
+
+    static int currentLimit() {
+        return limit;
+    }
+
+    static void shrink() {
+        limit--;
+    }
+
+    int count() {
+        return count;
+    }
+
+    void decrement() {
+        count--;
+    }
+
+    static int size(List<String> items) {
+        return items.size();
+    }
+
+    static void consume(List<String> items) {
+    }
+}
@@ -1,3 +1,7 @@
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 class ForLoopConditionFunctionCallCheckFailClass {
     public void function() {
         ArrayList<String> array = {"a", "b", "c"};
@@ -7,5 +11,63 @@ class ForLoopConditionFunctionCallCheckFailClass {
 
         }
 
+        for (int i = 0; i < array.size() - 1 // Noncompliant
+                && ok(); ++i) { // "ok" may change the fields of this instance
+
+        }
+
+        int k = 0;
+        // Noncompliant@+1 {{Function call inside a while loop condition should not be used.}}
+        while (k < array.size()) {
+            k++;
+        }
+
+        do {
+            k--;
+        // Noncompliant@+1 {{Function call inside a do-while loop condition should not be used.}}
+        } while (k > array.size());
+
+        // Noncompliant@+1
+        for (int i = 0; i < array.size(); ++i) {
+            for (int j = 0; j < 10; j = next(j)) {
+            }
+        }
+
+        for (;;) {
+            if (ok()) {
+                break;
+            }
+        }
+    }
+
+    void invariants(List<String> items, final String s, int[] values) {
+        // Noncompliant@+1
+        for (int i = 0; i < items.size(); ++i) {
+            String item = items.get(i);
+        }
+
+        // Noncompliant@+1
+        for (int i = 0; i < s.length(); ++i) {
+            char c = s.charAt(i);
+        }
+
+        // only the outermost invariant call is reported
+        // Noncompliant@+1
+        for (int i = 0; i < Math.min(values.length, items.size()); ++i) {
+            values[i] = 0;
+        }
+
+        for (int i = 0; i < items.size(); ++i) { // Noncompliant
+            for (int j = 0; j < items.get(i).length(); ++j) { // Noncompliant
+            }
+        }
+    }
+
+    boolean ok() {
+        return true;
+    }
+
+    int next(int j) {
+        return j + 1;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+class IncrementalSubscriptionVisitor {
+
+  void nameFirst() { // Noncompliant [[sc=8;ec=17]] {{Name.}}
+  }
+
+  void flow(int parameter) { // Noncompliant [[sc=8;ec=12;secondary=6;effortToFix=2]] {{Flow.}}
+  }
+
+  String range() { // Noncompliant [[sc=3;ec=15]] {{Range.}}
+    return "";
+  }
+
+  void line() { // Noncompliant {{Line.}}
+  }
+
+  void other() {
+  }
+}
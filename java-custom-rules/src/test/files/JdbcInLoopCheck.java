@@ -0,0 +1,38 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+class JdbcInLoopCheckClass {
+
+  void batched(Connection connection, List<Long> ids) throws SQLException {
+    try (PreparedStatement insert = connection.prepareStatement("INSERT INTO t VALUES (?)")) {
+      for (Long id : ids) {
+        insert.setLong(1, id);
+        insert.addBatch();
+      }
+      insert.executeBatch();
+    }
+  }
+
+  void outsideLoop(Statement statement, PreparedStatement query) throws SQLException {
+    statement.executeUpdate("DELETE FROM t");
+    query.executeQuery();
+  }
+
+  void independentQueries(Statement statement, PreparedStatement query, int retries) throws SQLException {
+    for (int i = 0; i < retries; i++) {
+      ResultSet rs = statement.executeQuery("SELECT 1");
+      query.setInt(1, retries);
+      query.executeQuery();
+    }
+  }
+
+  void notJdbc(List<Runnable> tasks) {
+    for (Runnable task : tasks) {
+      task.run();
+    }
+  }
+}
@@ -0,0 +1,42 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+class JdbcInLoopCheckFailClass {
+
+  void updates(Connection connection, List<Long> ids) throws SQLException {
+    try (PreparedStatement insert = connection.prepareStatement("INSERT INTO t VALUES (?)");
+         PreparedStatement audit = connection.prepareStatement("INSERT INTO a VALUES (?)")) {
+      for (Long id : ids) { // Noncompliant [[sc=7;ec=10;secondary=15,17]] {{Batch the 2 statements executed in this loop with "addBatch" and "executeBatch", or use a set-based query.}}
+        insert.setLong(1, id);
+        insert.executeUpdate();
+        audit.setLong(1, id);
+        audit.execute();
+      }
+    }
+  }
+
+  void queries(Statement statement, PreparedStatement query, long[] ids) throws SQLException {
+    for (int i = 0; i < ids.length; i++) { // Noncompliant [[secondary=24]] {{Batch the statement executed in this loop with "addBatch" and "executeBatch", or use a set-based query.}}
+      ResultSet rs = statement.executeQuery("SELECT * FROM t WHERE id = " + ids[i] + i);
+    }
+    int i = 0;
+    while (i < ids.length) { // Noncompliant [[secondary=30]]
+      long id = ids[i++];
+      query.setLong(1, id);
+      query.executeQuery();
+    }
+  }
+
+  void nested(Statement statement, List<List<String>> batches) throws SQLException {
+    for (List<String> batch : batches) { // Noncompliant [[secondary=36]]
+      statement.execute("DELETE FROM t");
+      for (String sql : batch) { // Noncompliant [[secondary=38]]
+        statement.executeUpdate(sql);
+      }
+    }
+  }
+}
@@ -0,0 +1,16 @@
+import java.util.Map;
+
+class KeySetIterationCheckClass {
+
+  void entries(Map<String, Integer> scores, Map<String, Integer> other) {
+    for (Map.Entry<String, Integer> score : scores.entrySet()) {
+      System.out.println(score.getKey() + score.getValue());
+    }
+    for (String name : scores.keySet()) {
+      System.out.println(name);
+      other.get(name);
+      scores.get(name.trim());
+      scores.containsKey(name);
+    }
+  }
+}
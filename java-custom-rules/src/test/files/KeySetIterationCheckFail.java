@@ -0,0 +1,17 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+class KeySetIterationCheckFailClass {
+  private final Map<String, Integer> scores = new HashMap<>();
+
+  void keys(TreeMap<String, Integer> sorted) {
+    for (String name : scores.keySet()) { // Noncompliant [[sc=31;ec=37;secondary=10,11]] {{Iterate over "entrySet()" instead of calling "get" for each key: n extra lookups, O(n) for the whole loop.}}
+      System.out.println(name + scores.get(name));
+      int score = this.scores.get(name);
+    }
+    for (String name : (sorted.keySet())) { // Noncompliant {{Iterate over "entrySet()" instead of calling "get" for each key: n extra lookups, O(n log n) for the whole loop.}}
+      sorted.get(name);
+    }
+  }
+}
@@ -0,0 +1,22 @@
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+class LinearListOperationInLoopCheckClass {
+
+  void indexed(List<String> names, LinkedList<String> linked, Set<String> index, ArrayDeque<String> deque) {
+    names.contains("a");
+    names.remove(0);
+    for (String name : names) {
+      index.contains(name);
+      linked.remove(0);
+      linked.add(0, name);
+      deque.poll();
+      names.remove(name.length());
+      names.add(1, name);
+      names.get(0);
+    }
+  }
+}
@@ -0,0 +1,22 @@
+import java.util.ArrayList;
+import java.util.List;
+
+class LinearListOperationInLoopCheckFailClass {
+
+  void loops(List<String> names, ArrayList<String> queue) {
+    List<String> unique = new ArrayList<>();
+    for (String name : names) {
+      if (!unique.contains(name)) { // Noncompliant [[sc=19;ec=27]] {{Index the elements in a HashSet or a HashMap: "contains" scans the list, O(n) per call, O(n²) in loop.}}
+        unique.add(name);
+      }
+      int i = names.indexOf(name); // Noncompliant
+      for (String other : names) {
+        names.lastIndexOf(other); // Noncompliant {{Index the elements in a HashSet or a HashMap: "lastIndexOf" scans the list, O(n) per call, O(n³) in loop.}}
+      }
+    }
+    while (!queue.isEmpty()) {
+      queue.remove(0); // Noncompliant {{Use an ArrayDeque: "remove(0)" shifts all the elements of the list, O(n) per call, O(n²) in loop.}}
+      queue.add(0, "a"); // Noncompliant {{Use an ArrayDeque: "add(0, e)" shifts all the elements of the list, O(n) per call, O(n²) in loop.}}
+    }
+  }
+}
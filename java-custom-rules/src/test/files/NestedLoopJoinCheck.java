@@ -0,0 +1,55 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+class NestedLoopJoinCheckClass {
+  enum Status { OPEN, CLOSED }
+
+  private static final List<String> KNOWN = Arrays.asList("a", "b");
+
+  void constantSized(List<String> names) {
+    for (String name : names) {
+      for (Status status : Status.values()) {
+        if (status.name().equals(name)) {
+        }
+      }
+      for (String known : KNOWN) {
+        if (known.equals(name)) {
+        }
+      }
+      for (String literal : Arrays.asList("x", "y")) {
+        if (literal.equals(name)) {
+        }
+      }
+      for (String literal : new String[] {"x", "y"}) {
+        if (literal.equals(name)) {
+        }
+      }
+    }
+  }
+
+  void notJoined(List<String> names, List<String> others, String target) {
+    for (String name : names) {
+      for (String other : others) {
+        if (other.equals(target) || name == null) {
+        }
+      }
+      for (int i = 0; i < 10; i++) {
+        if (names.get(i).equals(name)) {
+        }
+      }
+    }
+    for (String name : names) {
+      if (name.equals(target)) {
+      }
+    }
+  }
+
+  void lambda(List<String> names, List<String> others) {
+    for (String name : names) {
+      for (String other : others) {
+        Runnable r = () -> name.equals(other);
+      }
+    }
+  }
+}
@@ -0,0 +1,49 @@
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+class NestedLoopJoinCheckFailClass {
+
+  interface Order {
+    String getCustomerId();
+  }
+
+  interface Customer {
+    String getId();
+  }
+
+  static class Item {
+    long id;
+  }
+
+  void join(List<Order> orders, List<Customer> customers, Item[] items, List<Item> others, Map<String, Customer> byId) {
+    for (Order order : orders) { // Noncompliant [[sc=5;ec=8;secondary=22]] {{Build a hash index of one of the collections before this loop: the nested loop compares their elements, O(n×m).}}
+      for (Customer customer : customers) {
+        if (order.getCustomerId().equals(customer.getId())) {
+          break;
+        }
+      }
+    }
+    for (int i = 0; i < items.length; i++) { // Noncompliant [[secondary=29]]
+      for (int j = 0; j < others.size(); j++) {
+        if (items[i].id == others.get(j).id) {
+        }
+      }
+    }
+    for (int i = 0; i < items.length; i++) { // Noncompliant [[secondary=36]]
+      Item item = items[i];
+      for (Item other : others) {
+        if (Objects.equals(other, item)) {
+        }
+      }
+    }
+    for (Customer customer : byId.values()) { // Noncompliant [[secondary=43]]
+      for (Order order : orders) {
+        for (Customer other : customers) {
+          if (customer.getId().equals(order.getCustomerId())) {
+          }
+        }
+      }
+    }
+  }
+}
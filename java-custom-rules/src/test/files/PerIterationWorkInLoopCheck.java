@@ -0,0 +1,108 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+class PerIterationWorkInLoopCheck {
+  private static final int SIZE = 4096;
+  private byte[] last;
+
+  void reused(List<InputStream> streams) throws IOException {
+    byte[] buffer = new byte[8192];
+    StringBuilder sb = new StringBuilder();
+    for (InputStream in : streams) {
+      sb.setLength(0);
+      while (in.read(buffer) != -1) {
+        sb.append(buffer[0]);
+      }
+    }
+  }
+
+  void small(int n) {
+    for (int i = 0; i < n; i++) {
+      int[] pair = new int[2];
+      int[] sized = new int[i];
+      int[] literal = {1, 2, 3};
+      use(pair, sized, literal);
+    }
+  }
+
+  List<byte[]> escaping(List<InputStream> streams) throws IOException {
+    List<byte[]> result = new ArrayList<>();
+    List<Supplier<String>> suppliers = new ArrayList<>();
+    for (InputStream in : streams) {
+      byte[] kept = new byte[SIZE];
+      in.read(kept);
+      result.add(kept);
+      byte[] field = new byte[SIZE];
+      last = field;
+      StringBuilder captured = new StringBuilder();
+      suppliers.add(() -> captured.toString());
+      ByteArrayOutputStream wrapped = new ByteArrayOutputStream();
+      use(new Holder(wrapped));
+      ByteBuffer assigned = ByteBuffer.allocate(SIZE);
+      ByteBuffer previous = in.available() == 0 ? assigned : null;
+      use(previous);
+    }
+    return result;
+  }
+
+  StringBuilder returned(List<String> values) {
+    for (String value : values) {
+      StringBuilder sb = new StringBuilder(value);
+      if (value.isEmpty()) {
+        return sb;
+      }
+    }
+    return null;
+  }
+
+  void outsideLoops(List<String> values, int[] numbers) {
+    byte[] buffer = new byte[8192];
+    Collections.sort(values);
+    Arrays.sort(numbers);
+    values.stream().sorted().forEach(System.out::println);
+  }
+
+  void sortedOnce(List<List<String>> groups) {
+    for (List<String> group : groups) {
+      List<String> copy = new ArrayList<>(group);
+      Collections.sort(copy);
+      copy.sort(null);
+      copy.stream().sorted().forEach(System.out::println);
+      use(copy);
+    }
+  }
+
+  void sortedElements(List<List<String>> groups, Map<String, List<String>> map) {
+    for (int i = 0; i < groups.size(); i++) {
+      Collections.sort(groups.get(i));
+      groups.get(i).sort(null);
+    }
+    for (String k : map.keySet()) {
+      Collections.sort(map.get(k));
+      map.get(k).stream().sorted().forEach(System.out::println);
+    }
+  }
+
+  void lambda(List<String> values) {
+    for (int i = 0; i < 10; i++) {
+      Runnable r = () -> Collections.sort(values);
+      r.run();
+    }
+  }
+
+  void use(Object... objects) {
+  }
+
+  static class Holder {
+    Holder(Object o) {
+    }
+  }
+}
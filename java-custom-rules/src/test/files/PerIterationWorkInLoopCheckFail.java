@@ -0,0 +1,66 @@
+import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+class PerIterationWorkInLoopCheckFail {
+  private static final int SIZE = 4096;
+  private List<String> sortedField;
+
+  void buffers(List<InputStream> streams) throws IOException {
+    for (InputStream in : streams) {
+      byte[] buffer = new byte[8192]; // Noncompliant [[sc=23;ec=37]] {{Allocate this byte[] once, before the loop, and reuse it at each iteration.}}
+      char[] chars = new char[SIZE]; // Noncompliant {{Allocate this char[] once, before the loop, and reuse it at each iteration.}}
+      int[] counts = new int[0x1_000]; // Noncompliant
+      while (in.read(buffer) != -1) {
+        chars[0] = (char) buffer[0];
+        counts[0]++;
+      }
+      ByteBuffer direct = ByteBuffer.allocateDirect(SIZE); // Noncompliant {{Allocate this ByteBuffer once, before the loop, and reuse it at each iteration.}}
+      CharBuffer text = CharBuffer.allocate(SIZE); // Noncompliant
+      ByteArrayOutputStream out = new ByteArrayOutputStream(); // Noncompliant {{Allocate this ByteArrayOutputStream once, before the loop, and reuse it at each iteration.}}
+      CharArrayWriter writer = new CharArrayWriter(); // Noncompliant
+      out.write(buffer);
+      System.out.println(out.toString() + direct.capacity() + text.length() + writer.size());
+    }
+  }
+
+  void builders(List<String> lines, Map<String, String> map) {
+    int i = 0;
+    while (i < lines.size()) {
+      StringBuilder sb = new StringBuilder(); // Noncompliant [[sc=26;ec=45]] {{Create this StringBuilder once, before the loop, and reuse it with "setLength(0)" at each iteration.}}
+      StringBuffer buffer = (new StringBuffer(64)); // Noncompliant {{Create this StringBuffer once, before the loop, and reuse it with "setLength(0)" at each iteration.}}
+      sb.append(lines.get(i)).append(buffer);
+      map.put(lines.get(i), sb.toString());
+      i++;
+    }
+  }
+
+  void sorts(List<String> pending, int[] numbers, List<String> incoming) {
+    for (String value : incoming) {
+      pending.add(value);
+      Collections.sort(pending); // Noncompliant [[sc=7;ec=32]] {{Keep "pending" sorted, e.g. in a PriorityQueue or a TreeMap, instead of sorting it at each iteration: O(n log n) per iteration.}}
+      pending.sort(null); // Noncompliant
+      Arrays.sort(numbers); // Noncompliant {{Keep "numbers" sorted, e.g. in a PriorityQueue or a TreeMap, instead of sorting it at each iteration: O(n log n) per iteration.}}
+      List<String> top = pending.stream().filter(s -> !s.isEmpty()).sorted().limit(10).collect(Collectors.toList()); // Noncompliant
+      this.sortedField.sort(String::compareTo); // Noncompliant {{Keep "sortedField" sorted, e.g. in a PriorityQueue or a TreeMap, instead of sorting it at each iteration: O(n log n) per iteration.}}
+      System.out.println(top);
+    }
+  }
+
+  void nested(List<List<Integer>> groups, List<Integer> all) {
+    for (List<Integer> group : groups) {
+      for (Integer value : group) {
+        all.add(value);
+      }
+      Collections.sort(all, Collections.reverseOrder()); // Noncompliant
+    }
+  }
+}
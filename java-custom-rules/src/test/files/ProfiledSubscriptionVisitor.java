@@ -0,0 +1,11 @@
+class ProfiledSubscriptionVisitor {
+
+  void reportFirst() { // Noncompliant {{Method.}}
+  }
+
+  void reportSecond() { // Noncompliant {{Method.}}
+  }
+
+  void other() {
+  }
+}
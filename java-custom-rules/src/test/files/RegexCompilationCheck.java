@@ -0,0 +1,51 @@
+import java.util.List;
+import java.util.regex.Pattern;
+
+class RegexCompilationCheckClass {
+  private static final String SEPARATOR = ";";
+  private static final Pattern NUMBER = Pattern.compile("\\d+");
+  private static final Pattern NUMBERS = Pattern.compile(NUMBER.pattern() + SEPARATOR);
+  private static final Pattern SPACES;
+
+  static {
+    SPACES = Pattern.compile("\\s+");
+  }
+
+  interface Patterns {
+    Pattern WORD = Pattern.compile("\\w+");
+  }
+
+  void fastPathSplits(List<String> lines) {
+    for (String line : lines) {
+      line.split(",");
+      line.split(" ");
+      line.split("\\|");
+      line.split("\\.", 2);
+      line.split("\t");
+      line.split("\n");
+      line.split("\u0001");
+      line.split("\0");
+      line.split("\\\\");
+      // not literals: they may be on the fast path
+      line.split(SEPARATOR.substring(0));
+      line.split(SEPARATOR + SEPARATOR);
+    }
+  }
+
+  void outsideLoops(String line, String regex) {
+    line.matches("\\d+");
+    line.replaceAll(regex, "");
+    line.split(";\\s*");
+    Pattern compiled = Pattern.compile(regex);
+  }
+
+  void precompiled(List<String> lines, String regex) {
+    Pattern compiled = Pattern.compile(regex);
+    for (String line : lines) {
+      NUMBER.matcher(line).matches();
+      compiled.split(line);
+      line.replace(".", "");
+      Runnable r = () -> line.matches(regex);
+    }
+  }
+}
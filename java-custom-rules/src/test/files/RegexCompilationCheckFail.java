@@ -0,0 +1,28 @@
+import java.util.List;
+import java.util.regex.Pattern;
+
+class RegexCompilationCheckFailClass {
+  private static final String SEPARATOR = ";";
+  private final Pattern instance = Pattern.compile("\\d+"); // Noncompliant {{Precompile this regular expression in a "static final Pattern".}}
+  private static Pattern notFinal = Pattern.compile("\\d+"); // Noncompliant
+
+  void loops(List<String> lines, String regex) {
+    for (String line : lines) {
+      line.matches("\\d+"); // Noncompliant {{Precompile this regular expression in a "static final Pattern".}}
+      line.replaceAll("\\s+", " "); // Noncompliant
+      line.replaceFirst(regex, ""); // Noncompliant {{Compile this regular expression once, before the loop, instead of at each iteration.}}
+      line.split(";\\s*"); // Noncompliant
+      line.split("."); // Noncompliant
+      line.split("\\d"); // Noncompliant
+      line.split("\\t"); // Noncompliant
+      line.split("\t\t"); // Noncompliant
+      Pattern.compile(regex); // Noncompliant [[sc=7;ec=29]] {{Compile this regular expression once, before the loop, instead of at each iteration.}}
+      Pattern.matches(regex, line); // Noncompliant
+    }
+  }
+
+  boolean methods(String value) {
+    Pattern pattern = Pattern.compile("[a-z]+" + SEPARATOR); // Noncompliant
+    return Pattern.matches("\\d+", value); // Noncompliant
+  }
+}
@@ -0,0 +1,39 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+public class SleepInTestCheck {
+  private final AtomicBoolean done = new AtomicBoolean();
+
+  @Test
+  public void latch() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    new Thread(latch::countDown).start();
+    latch.await(5, TimeUnit.SECONDS);
+    TimeUnit.SECONDS.toMillis(2);
+  }
+
+  @Test
+  public void timedWait() throws InterruptedException {
+    synchronized (this) {
+      wait(100);
+    }
+  }
+
+  @Test
+  public void loops() {
+    while (!done.get()) {
+      process();
+    }
+    while (true) {
+    }
+  }
+
+  private void process() {
+    sleep(100);
+  }
+
+  private void sleep(long millis) {
+  }
+}
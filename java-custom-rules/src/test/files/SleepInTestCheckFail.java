@@ -0,0 +1,38 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+public class SleepInTestCheckFail {
+  private static final long TIMEOUT = 2_000;
+  private final AtomicBoolean done = new AtomicBoolean();
+  private volatile boolean ready;
+
+  @Test
+  public void sleeps(long delay, TimeUnit unit) throws InterruptedException {
+    Thread.sleep(500); // Noncompliant [[sc=5;ec=22]] {{Replace this fixed wait with a CountDownLatch or Awaitility: it wastes up to 500 ms.}}
+    Thread.sleep(TIMEOUT); // Noncompliant {{Replace this fixed wait with a CountDownLatch or Awaitility: it wastes up to 2 s.}}
+    Thread.sleep(1_500, 0); // Noncompliant {{Replace this fixed wait with a CountDownLatch or Awaitility: it wastes up to 1.5 s.}}
+    TimeUnit.SECONDS.sleep(5); // Noncompliant {{Replace this fixed wait with a CountDownLatch or Awaitility: it wastes up to 5 s.}}
+    MILLISECONDS.sleep(20); // Noncompliant {{Replace this fixed wait with a CountDownLatch or Awaitility: it wastes up to 20 ms.}}
+    LockSupport.parkNanos(50_000); // Noncompliant {{Replace this fixed wait with a CountDownLatch or Awaitility: it wastes up to 50 µs.}}
+    Thread.sleep(delay); // Noncompliant {{Replace this fixed wait with a CountDownLatch or Awaitility: it waits for a fixed time.}}
+    unit.sleep(1); // Noncompliant {{Replace this fixed wait with a CountDownLatch or Awaitility: it waits for a fixed time.}}
+  }
+
+  @Test
+  public void polls() throws InterruptedException {
+    while (!done.get()) {
+      Thread.sleep(100); // Noncompliant {{Replace this fixed wait with a CountDownLatch or Awaitility: it wastes up to 100 ms at each iteration.}}
+    }
+    while (!ready); // Noncompliant [[sc=5;ec=10]] {{Replace this busy loop with a CountDownLatch or Awaitility: it keeps a CPU busy while polling.}}
+    while (!done.get()) { // Noncompliant
+      Thread.onSpinWait();
+    }
+    do { // Noncompliant
+      Thread.yield();
+    } while (!ready);
+  }
+}
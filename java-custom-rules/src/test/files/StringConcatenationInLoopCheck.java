@@ -0,0 +1,55 @@
+import java.util.List;
+
+class StringConcatenationInLoopCheckClass {
+  private String label = "";
+
+  String builder(List<String> values) {
+    StringBuilder csv = new StringBuilder();
+    for (String value : values) {
+      csv.append(value).append(',');
+    }
+    return csv.toString();
+  }
+
+  void declaredInBody(List<String> values) {
+    for (String value : values) {
+      String line = "";
+      line += value;
+      line = line + ";";
+      System.out.println(line);
+    }
+  }
+
+  int numbers(int[] values) {
+    int sum = 0;
+    String prefix = "#";
+    for (int value : values) {
+      sum += value;
+      prefix = "#" + value;
+    }
+    return sum;
+  }
+
+  String outsideLoop(String a, String b) {
+    String s = a;
+    s += b;
+    return s;
+  }
+
+  void initializer(List<String> values) {
+    String s = "";
+    for (s = s + "init"; s.length() < 10; ) {
+      break;
+    }
+    for (String value : values) {
+      Runnable r = () -> {
+        label += value;
+      };
+      new Object() {
+        void run() {
+          label = label + value;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,46 @@
+import java.util.List;
+
+class StringConcatenationInLoopCheckFailClass {
+  private String label = "";
+
+  String loops(List<String> values, int count) {
+    String csv = "";
+    for (String value : values) {
+      csv += value; // Noncompliant {{Use a StringBuilder declared outside the loop to build "csv".}}
+    }
+    for (int i = 0; i < count; i++) {
+      csv = csv + i; // Noncompliant
+    }
+    int i = 0;
+    while (i < count) {
+      csv = (csv + "-"); // Noncompliant
+      csv = "[" + (csv + "]"); // Noncompliant
+      i++;
+    }
+    do {
+      csv += ';'; // Noncompliant
+    } while (csv.length() < count);
+    return csv;
+  }
+
+  void fields(List<String> values) {
+    for (String value : values) {
+      label += value; // Noncompliant
+      this.label = this.label + value; // Noncompliant
+    }
+  }
+
+  void parameter(String s, List<String> values) {
+    for (String value : values) {
+      for (int j = 0; j < 2; j++) {
+        s += value; // Noncompliant
+      }
+    }
+    for (int j = 0; j < 2; j = j + 1) {
+      String local = "";
+      for (String value : values) {
+        local += value; // Noncompliant
+      }
+    }
+  }
+}
@@ -0,0 +1,30 @@
+import java.util.List;
+
+class UnboxingInLoopCheckClass {
+
+  long primitives(int[] values) {
+    long sum = 0;
+    for (int value : values) {
+      sum += value;
+      if (value > 0) {
+        sum = sum * 2;
+      }
+    }
+    return sum;
+  }
+
+  long outsideLoop(List<Integer> values) {
+    return values.get(0) + values.get(1);
+  }
+
+  void notUnboxed(List<Integer> values, Integer max, String s) {
+    for (Integer value : values) {
+      s = s + value;
+      s += value;
+      boolean same = value == max;
+      max = max + 1;
+      Integer boxed = 0;
+      boxed += value;
+    }
+  }
+}
@@ -0,0 +1,21 @@
+import java.util.List;
+import java.util.Map;
+
+class UnboxingInLoopCheckFailClass {
+
+  long sum(List<Integer> values, Map<String, Long> totals) {
+    long sum = 0;
+    for (int i = 0; i < values.size(); i++) {
+      sum += values.get(i); // Noncompliant {{This Integer is unboxed at each iteration: store primitives, in a primitive local or a primitive-specialized collection.}}
+    }
+    for (Integer value : values) {
+      if (value > 0) { // Noncompliant
+        sum = sum + value * 2; // Noncompliant
+      }
+    }
+    for (String key : totals.keySet()) {
+      sum -= totals.get(key) - 1; // Noncompliant [[sc=14;ec=29]]
+    }
+    return sum;
+  }
+}
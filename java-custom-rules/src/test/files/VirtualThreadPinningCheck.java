@@ -0,0 +1,57 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.locks.ReentrantLock;
+
+class VirtualThreadPinningCheckClass {
+  private final Object monitor = new Object();
+  private final ReentrantLock lock = new ReentrantLock();
+
+  String locked(BufferedReader reader) throws IOException {
+    lock.lock();
+    try {
+      return reader.readLine();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void notBlocking(StringBuilder sb) {
+    synchronized (monitor) {
+      sb.append("a");
+    }
+  }
+
+  synchronized byte[] inMemory(byte[] data, ByteArrayInputStream in, StringReader reader) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(data);
+    out.flush();
+    in.read();
+    reader.read();
+    return out.toByteArray();
+  }
+
+  synchronized void deferred() {
+    Runnable r = () -> sleep();
+    new Thread() {
+      @Override
+      public void run() {
+        sleep();
+      }
+    }.start();
+  }
+
+  void outside() throws InterruptedException {
+    Thread.sleep(10);
+  }
+
+  static void sleep() {
+    try {
+      Thread.sleep(10);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,17 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+
+class VirtualThreadPinningCheckCustomClass {
+
+  interface Client {
+    String fetch(String url);
+    String fetchAll(String url);
+  }
+
+  synchronized void custom(Client client, BufferedReader reader) throws IOException, InterruptedException {
+    client.fetch("a"); // Noncompliant {{Replace this "synchronized" by a ReentrantLock: "Client.fetch" blocks while holding the monitor and pins the carrier thread.}}
+    client.fetchAll("b"); // Noncompliant
+    reader.readLine();
+    Thread.sleep(1); // Noncompliant
+  }
+}
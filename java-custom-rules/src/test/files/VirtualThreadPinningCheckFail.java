@@ -0,0 +1,34 @@
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+
+class VirtualThreadPinningCheckFailClass {
+  private final Object monitor = new Object();
+
+  synchronized String next(BufferedReader reader) throws IOException {
+    return reader.readLine(); // Noncompliant [[sc=19;ec=27;secondary=11]] {{Replace this "synchronized" by a ReentrantLock: "BufferedReader.readLine" blocks while holding the monitor and pins the carrier thread.}}
+  }
+
+  void blocks(FileInputStream in, PreparedStatement statement, BlockingQueue<String> queue) throws Exception {
+    synchronized (monitor) {
+      Thread.sleep(100); // Noncompliant [[secondary=16]] {{Replace this "synchronized" by a ReentrantLock: "Thread.sleep" blocks while holding the monitor and pins the carrier thread.}}
+      monitor.wait(); // Noncompliant {{Replace this "synchronized" by a ReentrantLock and "Object.wait" by a Condition: waiting on the monitor pins the carrier thread.}}
+      in.read(); // Noncompliant
+      if (statement.executeQuery() // Noncompliant
+        .next()) { // Noncompliant
+      }
+      String s = queue.take(); // Noncompliant
+    }
+  }
+
+  void nested() throws InterruptedException {
+    synchronized (monitor) {
+      synchronized (this) {
+        wait(10); // Noncompliant [[secondary=29]]
+      }
+    }
+  }
+}
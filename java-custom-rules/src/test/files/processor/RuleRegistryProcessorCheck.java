@@ -0,0 +1,31 @@
+package fixtures;
+
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.squidbridge.annotations.RuleTemplate;
+
+@Rule(key = "ProcessedRule", name = "Name of the annotation", priority = Priority.MINOR, tags = {"annotation-tag"},
+  description = "<p>Description of the annotation</p>")
+@RuleTemplate
+public class RuleRegistryProcessorCheck implements JavaFileScanner {
+
+  @RuleProperty(description = "Maximum \"allowed\"", defaultValue = "3")
+  int max;
+
+  @RuleProperty(key = "pattern", description = "Pattern")
+  String format;
+
+  @Override
+  public void scanFile(JavaFileScannerContext context) {
+  }
+
+  @Rule(key = "")
+  public static class NoKeyCheck implements JavaFileScanner {
+    @Override
+    public void scanFile(JavaFileScannerContext context) {
+    }
+  }
+}
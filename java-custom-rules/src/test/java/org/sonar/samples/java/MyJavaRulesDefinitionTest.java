@@ -48,6 +48,44 @@ public class MyJavaRulesDefinitionTest {
     assertAllRuleParametersHaveDescription(repository);
   }
 
+  @Test
+  public void rules_are_defined_from_generated_metadata() {
+    RulesDefinition.Context context = new RulesDefinition.Context();
+    new MyJavaRulesDefinition().define(context);
+    Rule rule = context.repository(MyJavaRulesDefinition.REPOSITORY_KEY).rule("ForLoopConditionFunctionCallCheck");
+
+    assertThat(rule.name()).isEqualTo("Function call in loop condition");
+    assertThat(rule.severity()).isEqualTo("MAJOR");
+    assertThat(rule.tags()).containsOnly("ecoscan");
+    assertThat(rule.htmlDescription()).startsWith("<p>Function call inside a for, while or do-while loop condition");
+    assertThat(rule.template()).isFalse();
+  }
+
+  @Test
+  public void rules_are_described_by_resources() {
+    RulesDefinition.Context context = new RulesDefinition.Context();
+    new MyJavaRulesDefinition().define(context);
+    Rule rule = context.repository(MyJavaRulesDefinition.REPOSITORY_KEY).rule("StringConcatenationInLoopCheck");
+
+    assertThat(rule.name()).isEqualTo("Strings should not be concatenated in loops");
+    assertThat(rule.severity()).isEqualTo("MAJOR");
+    assertThat(rule.type()).isEqualTo(RuleType.CODE_SMELL);
+    assertThat(rule.tags()).containsOnly("performance");
+    assertThat(rule.debtRemediationFunction().type()).isEqualTo(Type.CONSTANT_ISSUE);
+    assertThat(rule.htmlDescription()).startsWith("<p>Strings are immutable");
+  }
+
+  @Test
+  public void rule_properties_are_parameters() {
+    RulesDefinition.Context context = new RulesDefinition.Context();
+    new MyJavaRulesDefinition().define(context);
+    Param param = context.repository(MyJavaRulesDefinition.REPOSITORY_KEY).rule("VirtualThreadPinningCheck").param("blockingMethods");
+
+    assertThat(param.type()).isEqualTo(RuleParamType.TEXT);
+    assertThat(param.defaultValue()).startsWith("java.lang.Thread#sleep, ");
+    assertThat(param.description()).isNotEmpty();
+  }
+
   private void assertParameterProperties(Repository repository) {
     // TooManyLinesInFunctionCheck
     Param max = repository.rule("AvoidAnnotation").param("name");
@@ -0,0 +1,52 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import org.junit.Test;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+import org.sonar.samples.java.checks.helpers.MethodCatalog;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ExpensiveCallInLoopCheckTest {
+
+  @Test
+  public void test() {
+    JavaCheckVerifier.newVerifier()
+      .onFile("src/test/files/ExpensiveCallInLoopCheck.java")
+      .withCheck(new ExpensiveCallInLoopCheck())
+      .verifyNoIssues();
+    JavaCheckVerifier.newVerifier()
+      .onFile("src/test/files/ExpensiveCallInLoopCheckFail.java")
+      .withCheck(new ExpensiveCallInLoopCheck())
+      .verifyIssues();
+  }
+
+  @Test
+  public void expensive_calls_resource() {
+    assertThat(MethodCatalog.load(ExpensiveCallInLoopCheck.class, ExpensiveCallInLoopCheck.EXPENSIVE_CALLS_RESOURCE).size()).isEqualTo(28);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void missing_resource() {
+    MethodCatalog.load(ExpensiveCallInLoopCheck.class, "missing.txt");
+  }
+
+}
@@ -0,0 +1,49 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import org.junit.Test;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+import org.sonar.java.testing.FilesUtils;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ExpensiveTestFixtureCheckTest {
+
+  @Test
+  public void test() {
+    JavaCheckVerifier.newVerifier()
+      .onFile("src/test/files/ExpensiveTestFixtureCheck.java")
+      .withCheck(new ExpensiveTestFixtureCheck())
+      .withClassPath(FilesUtils.getClassPath("target/test-jars"))
+      .verifyNoIssues();
+    JavaCheckVerifier.newVerifier()
+      .onFile("src/test/files/ExpensiveTestFixtureCheckFail.java")
+      .withCheck(new ExpensiveTestFixtureCheck())
+      .withClassPath(FilesUtils.getClassPath("target/test-jars"))
+      .verifyIssues();
+  }
+
+  @Test
+  public void expensive_fixtures_resource() {
+    assertThat(ExpensiveTestFixtureCheck.EXPENSIVE_FIXTURES.size()).isEqualTo(20);
+  }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.checks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+import org.sonar.java.testing.FilesUtils;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class SleepInTestCheckTest {
+
+  @Test
+  public void test() {
+    JavaCheckVerifier.newVerifier()
+      .onFile("src/test/files/SleepInTestCheck.java")
+      .withCheck(new SleepInTestCheck())
+      .withClassPath(FilesUtils.getClassPath("target/test-jars"))
+      .verifyNoIssues();
+    JavaCheckVerifier.newVerifier()
+      .onFile("src/test/files/SleepInTestCheckFail.java")
+      .withCheck(new SleepInTestCheck())
+      .withClassPath(FilesUtils.getClassPath("target/test-jars"))
+      .verifyIssues();
+  }
+
+  @Test
+  public void durations() {
+    assertThat(SleepInTestCheck.format(TimeUnit.SECONDS.toNanos(3))).isEqualTo("3 s");
+    assertThat(SleepInTestCheck.format(TimeUnit.MILLISECONDS.toNanos(1500))).isEqualTo("1.5 s");
+    assertThat(SleepInTestCheck.format(TimeUnit.MILLISECONDS.toNanos(250))).isEqualTo("250 ms");
+    assertThat(SleepInTestCheck.format(TimeUnit.MICROSECONDS.toNanos(20))).isEqualTo("20 \u00b5s");
+  }
+
+}
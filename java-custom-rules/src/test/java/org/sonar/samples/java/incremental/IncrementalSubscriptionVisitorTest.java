@@ -0,0 +1,142 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.incremental;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.samples.rulekit.cache.IssueCache;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class IncrementalSubscriptionVisitorTest {
+
+  private static final String FILE = "src/test/files/IncrementalSubscriptionVisitor.java";
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void issues_of_an_unchanged_file_are_replayed() throws Exception {
+    Path file = temp.getRoot().toPath().resolve("java-custom-rules.cache");
+    IssueCache cache = IssueCache.open(file, "fingerprint", IssueCache.DEFAULT_MAX_SIZE);
+    MethodCheck first = new MethodCheck(cache);
+    JavaCheckVerifier.newVerifier().onFile(FILE).withCheck(first).verifyIssues();
+    assertThat(first.visited).isEqualTo(5);
+    assertThat(first.started).isEqualTo(1);
+    assertThat(first.ended).isEqualTo(1);
+    assertThat(cache.misses()).isEqualTo(1);
+    cache.save();
+
+    IssueCache reloaded = IssueCache.open(file, "fingerprint", IssueCache.DEFAULT_MAX_SIZE);
+    MethodCheck second = new MethodCheck(reloaded);
+    JavaCheckVerifier.newVerifier().onFile(FILE).withCheck(second).verifyIssues();
+    assertThat(second.visited).isZero();
+    assertThat(second.started).isZero();
+    assertThat(second.ended).isZero();
+    assertThat(reloaded.hits()).isEqualTo(1);
+  }
+
+  @Test
+  public void parameters_are_part_of_the_key() {
+    IssueCache cache = IssueCache.open(temp.getRoot().toPath().resolve("java-custom-rules.cache"), "fingerprint", IssueCache.DEFAULT_MAX_SIZE);
+    JavaCheckVerifier.newVerifier().onFile(FILE).withCheck(new MethodCheck(cache)).verifyIssues();
+
+    MethodCheck other = new MethodCheck(cache);
+    other.prefix = "other";
+    JavaCheckVerifier.newVerifier().onFile(FILE).withCheck(other).verifyNoIssues();
+    assertThat(other.visited).isEqualTo(5);
+    assertThat(cache.entries()).isEqualTo(2);
+  }
+
+  @Test
+  public void checks_run_on_each_file_without_cache() {
+    MethodCheck check = new MethodCheck(null);
+    JavaCheckVerifier.newVerifier().onFile(FILE).withCheck(check).verifyIssues();
+    JavaCheckVerifier.newVerifier().onFile(FILE).withCheck(check).verifyIssues();
+    assertThat(check.visited).isEqualTo(10);
+  }
+
+  @Test
+  public void rule_key() {
+    assertThat(IncrementalSubscriptionVisitor.ruleKey(MethodCheck.class)).isEqualTo("IncrementalMethodCheck");
+    assertThat(IncrementalSubscriptionVisitor.ruleKey(String.class)).isEqualTo("String");
+  }
+
+  @org.sonar.check.Rule(key = "IncrementalMethodCheck")
+  static class MethodCheck extends IncrementalSubscriptionVisitor {
+
+    @org.sonar.check.RuleProperty(key = "prefix")
+    String prefix = "";
+
+    private int started;
+    private int visited;
+    private int ended;
+
+    MethodCheck(IssueCache cache) {
+      super(cache);
+    }
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return Collections.singletonList(Tree.Kind.METHOD);
+    }
+
+    @Override
+    protected void startFile(JavaFileScannerContext context) {
+      started++;
+    }
+
+    @Override
+    protected void visit(Tree tree) {
+      visited++;
+      MethodTree method = (MethodTree) tree;
+      String name = method.simpleName().name();
+      if (!name.startsWith(prefix)) {
+        return;
+      }
+      if (name.startsWith("name")) {
+        reportIssue(method.simpleName(), "Name.");
+      } else if (name.equals("flow")) {
+        List<JavaFileScannerContext.Location> flow = Collections.singletonList(
+          new JavaFileScannerContext.Location("Parameter.", method.parameters().get(0)));
+        reportIssue(method.simpleName(), "Flow.", flow, 2);
+      } else if (name.equals("range")) {
+        reportIssue(method.returnType(), method.simpleName(), "Range.");
+      } else if (name.equals("line")) {
+        addIssue(method.simpleName().identifierToken().line(), "Line.");
+      }
+    }
+
+    @Override
+    protected void endFile(JavaFileScannerContext context) {
+      ended++;
+    }
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RuleRegistryProcessorTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private File classes;
+  private File generated;
+  private DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+  @Before
+  public void setUp() throws IOException {
+    classes = temp.newFolder("classes");
+    generated = temp.newFolder("generated");
+  }
+
+  @Test
+  public void registry_merges_annotations_and_resources() throws IOException {
+    Path resources = classes.toPath().resolve("org/sonar/l10n/java/rules/squid");
+    Files.createDirectories(resources);
+    Files.write(resources.resolve("ProcessedRule_java.json"), ("{\"title\": \"Title of the json\", \"type\": \"CODE_SMELL\", \"status\": \"ready\","
+      + " \"tags\": [\"json-tag\"], \"defaultSeverity\": \"Critical\","
+      + " \"remediation\": {\"func\": \"Constant/Issue\", \"constantCost\": \"5mn\"}}").getBytes(StandardCharsets.UTF_8));
+    // packed in descriptions.pack, not inlined
+    Files.write(resources.resolve("ProcessedRule_java.html"), "<p>Description of the resource</p>".getBytes(StandardCharsets.UTF_8));
+
+    compile();
+
+    String registry = registry();
+    assertThat(registry)
+      .contains("RULES.put(fixtures.RuleRegistryProcessorCheck.class, rule0());")
+      .contains("new RuleMetadata(\"ProcessedRule\", \"Title of the json\", \"CRITICAL\", \"CODE_SMELL\", \"READY\", true,")
+      .contains("new String[] {\"annotation-tag\", \"json-tag\"},")
+      .contains("\"<p>Description of the annotation</p>\")")
+      .contains(".param(\"max\", \"Maximum \\\"allowed\\\"\", \"3\", \"INTEGER\")")
+      .contains(".param(\"pattern\", \"Pattern\", null, \"STRING\")")
+      .contains(".remediation(\"Constant/Issue\", \"5mn\", null, null, null)")
+      .doesNotContain("NoKeyCheck.class");
+    assertThat(errors()).containsExactly("No key is defined in Rule annotation of fixtures.RuleRegistryProcessorCheck.NoKeyCheck");
+  }
+
+  @Test
+  public void registry_without_resources_uses_annotations() throws IOException {
+    compile();
+
+    assertThat(registry())
+      .contains("new RuleMetadata(\"ProcessedRule\", \"Name of the annotation\", \"MINOR\", null, \"READY\", true,")
+      .contains("new String[] {\"annotation-tag\"},")
+      .contains("\"<p>Description of the annotation</p>\")")
+      .doesNotContain(".remediation(");
+  }
+
+  private void compile() throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+      List<String> options = Arrays.asList(
+        "-classpath", System.getProperty("java.class.path"),
+        "-d", classes.getAbsolutePath(),
+        "-s", generated.getAbsolutePath(),
+        "-proc:only");
+      RuleRegistryProcessor processor = new RuleRegistryProcessor();
+      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+        fileManager.getJavaFileObjects(new File("src/test/files/processor/RuleRegistryProcessorCheck.java")));
+      task.setProcessors(Collections.singletonList(processor));
+      task.call();
+    }
+  }
+
+  private String registry() throws IOException {
+    Path source = generated.toPath().resolve(RuleRegistryProcessor.REGISTRY_CLASS.replace('.', '/') + ".java");
+    return new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+  }
+
+  private List<String> errors() {
+    return diagnostics.getDiagnostics().stream()
+      .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+      .map(d -> d.getMessage(null))
+      .collect(Collectors.toList());
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * SonarQube Java Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.java.profiling;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+public class ProfiledSubscriptionVisitorTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void profiles_each_file() throws Exception {
+    Path dump = temp.newFile("rules.jfr").toPath();
+    MethodCheck check = new MethodCheck();
+    try (Recording recording = new Recording()) {
+      recording.enable("org.sonar.samples.RuleExecution").withThreshold(Duration.ZERO);
+      recording.start();
+      JavaCheckVerifier.newVerifier()
+        .onFile("src/test/files/ProfiledSubscriptionVisitor.java")
+        .withCheck(check)
+        .verifyIssues();
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+      .filter(event -> "ProfiledMethodCheck".equals(event.getString("rule")))
+      .collect(Collectors.toList());
+    assertThat(events).hasSize(1);
+    RecordedEvent event = events.get(0);
+    assertThat(event.getString("file")).endsWith("ProfiledSubscriptionVisitor.java");
+    assertThat(event.getLong("nodes")).isEqualTo(3);
+    assertThat(event.getInt("issues")).isEqualTo(2);
+    assertThat(event.getDuration("ruleTime").toNanos()).isGreaterThan(0);
+    assertThat(check.started).isEqualTo(1);
+    assertThat(check.left).isEqualTo(3);
+    assertThat(check.ended).isEqualTo(1);
+  }
+
+  @Test
+  public void rule_key() {
+    assertThat(ProfiledSubscriptionVisitor.ruleKey(MethodCheck.class)).isEqualTo("ProfiledMethodCheck");
+    assertThat(ProfiledSubscriptionVisitor.ruleKey(String.class)).isEqualTo("String");
+  }
+
+  @org.sonar.check.Rule(key = "ProfiledMethodCheck")
+  static class MethodCheck extends ProfiledSubscriptionVisitor {
+
+    private int started;
+    private int left;
+    private int ended;
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return Collections.singletonList(Tree.Kind.METHOD);
+    }
+
+    @Override
+    protected void startFile(JavaFileScannerContext context) {
+      started++;
+    }
+
+    @Override
+    protected void visit(Tree tree) {
+      MethodTree method = (MethodTree) tree;
+      if (method.simpleName().name().startsWith("report")) {
+        reportIssue(method.simpleName(), "Method.");
+      }
+    }
+
+    @Override
+    protected void leave(Tree tree) {
+      left++;
+    }
+
+    @Override
+    protected void endFile(JavaFileScannerContext context) {
+      ended++;
+    }
+  }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import org.sonar.plugins.javascript.api.symbols.SymbolModel;
+import org.sonar.plugins.javascript.api.tree.ScriptTree;
+import org.sonar.plugins.javascript.api.visitors.JavaScriptFile;
+import org.sonar.plugins.javascript.api.visitors.TreeVisitorContext;
+
+/**
+ * Context of the analysis of an in-memory file, without symbols: the checks under test do not use them.
+ */
+class BenchmarkVisitorContext implements TreeVisitorContext, JavaScriptFile {
+
+  private final ScriptTree tree;
+  private final String contents;
+
+  BenchmarkVisitorContext(ScriptTree tree, String contents) {
+    this.tree = tree;
+    this.contents = contents;
+  }
+
+  @Override
+  public ScriptTree getTopTree() {
+    return tree;
+  }
+
+  @Override
+  public JavaScriptFile getJavaScriptFile() {
+    return this;
+  }
+
+  @Override
+  public SymbolModel getSymbolModel() {
+    throw new UnsupportedOperationException("No symbol model in the benchmarks");
+  }
+
+  @Override
+  public String relativePath() {
+    return "bundle.min.js";
+  }
+
+  @Override
+  public String fileName() {
+    return "bundle.min.js";
+  }
+
+  @Override
+  public String contents() throws IOException {
+    return contents;
+  }
+
+  @Override
+  public URI uri() {
+    return URI.create("file:///bundle.min.js");
+  }
+
+}
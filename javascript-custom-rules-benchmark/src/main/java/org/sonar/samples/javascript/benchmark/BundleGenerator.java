@@ -0,0 +1,120 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates deterministic inputs of the benchmarks: a minified bundle, and forbidden names taken from the same
+ * vocabulary, so that a part of the calls of the bundle are forbidden.
+ */
+public final class BundleGenerator {
+
+  private static final long SEED = 42;
+  private static final int OBJECTS = 400;
+  private static final int METHODS = 60;
+  private static final int STATEMENTS_PER_MODULE = 50;
+
+  private BundleGenerator() {
+  }
+
+  /**
+   * @return a single line of at least the given number of characters, made of modules like
+   * "!function(a,b){a.c(b),d.e.f(a),g(b["h"](1))}(window,document);"
+   */
+  public static String bundle(int characters) {
+    return bundle(characters, SEED);
+  }
+
+  /**
+   * @return a bundle like {@link #bundle(int)}, whose calls are drawn with the given seed
+   */
+  public static String bundle(int characters, long seed) {
+    Random random = new Random(seed);
+    StringBuilder sb = new StringBuilder(characters + 1000);
+    while (sb.length() < characters) {
+      sb.append("!function(a,b,c){var d=a.length;");
+      for (int i = 0; i < STATEMENTS_PER_MODULE; i++) {
+        sb.append(i == 0 ? "" : ",");
+        call(sb, random);
+        if (random.nextInt(4) == 0) {
+          sb.append("&&");
+          call(sb, random);
+        }
+      }
+      sb.append(";for(var e=0;e<d;e++)b=");
+      call(sb, random);
+      sb.append("}(window,document,jQuery);");
+    }
+    return sb.toString();
+  }
+
+  private static void call(StringBuilder sb, Random random) {
+    int kind = random.nextInt(10);
+    if (kind < 2) {
+      sb.append(function(random.nextInt(OBJECTS)));
+    } else {
+      sb.append(object(random.nextInt(OBJECTS)));
+      if (kind < 4) {
+        sb.append('.').append(object(random.nextInt(OBJECTS)));
+      }
+      if (kind == 4) {
+        sb.append("[\"").append(method(random.nextInt(METHODS))).append("\"]");
+      } else {
+        sb.append('.').append(method(random.nextInt(METHODS)));
+      }
+    }
+    sb.append("(a,").append(random.nextInt(100)).append(",b.").append(method(random.nextInt(METHODS))).append("(c))");
+  }
+
+  /**
+   * @return qualified names of functions and methods, e.g. "f12", "o3.m7" or "o3.o18.m7"
+   */
+  public static List<String> forbiddenNames(int count) {
+    Random random = new Random(SEED + 1);
+    List<String> names = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int kind = random.nextInt(10);
+      if (kind < 2) {
+        names.add(function(random.nextInt(OBJECTS * 10)));
+      } else if (kind < 4) {
+        names.add(object(random.nextInt(OBJECTS)) + "." + object(random.nextInt(OBJECTS)) + "." + method(random.nextInt(METHODS)));
+      } else {
+        names.add(object(random.nextInt(OBJECTS)) + "." + method(random.nextInt(METHODS)));
+      }
+    }
+    return names;
+  }
+
+  private static String function(int index) {
+    return "f" + index;
+  }
+
+  private static String object(int index) {
+    return "o" + index;
+  }
+
+  private static String method(int index) {
+    return "m" + index;
+  }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.sonar.javascript.parser.JavaScriptParserBuilder;
+import org.sonar.plugins.javascript.api.JavaScriptCheck;
+import org.sonar.plugins.javascript.api.tree.ScriptTree;
+import org.sonar.samples.javascript.JavaScriptCustomRulesDefinition;
+import org.sonar.samples.rulekit.scale.ScaleHarness;
+
+/**
+ * Runs all the checks of the plugin on 10,000 generated files in one JVM, with the {@link ScaleHarness}: the checks
+ * are instantiated once and reused for every file, as during analysis, and must neither keep the state of a file
+ * for the next one nor retain more memory as the number of files grows.
+ * <p>
+ * Each file is a small bundle drawn with its own seed, followed by calls forbidden by each check.
+ * The arguments are those of {@link ScaleHarness#fromArgs(String[], java.io.PrintStream)}.
+ */
+public final class ChecksScale implements ScaleHarness.Analysis {
+
+  private static final int CHARACTERS = 2_000;
+
+  private final List<JavaScriptCheck> checks = newChecks();
+
+  public static void main(String[] args) {
+    ScaleHarness.fromArgs(args, System.out).run(new ChecksScale());
+  }
+
+  @Override
+  public Object analyze(int file) {
+    return analyze(checks, file);
+  }
+
+  @Override
+  public Object analyzeWithNewChecks(int file) {
+    return analyze(newChecks(), file);
+  }
+
+  /**
+   * @return the number of issues raised by each check
+   */
+  private static List<Integer> analyze(List<JavaScriptCheck> checks, int file) {
+    String source = BundleGenerator.bundle(CHARACTERS, file) + "eval(a);foo(" + file + ");baz(b);";
+    ScriptTree tree = (ScriptTree) JavaScriptParserBuilder.createParser().parse(source);
+    BenchmarkVisitorContext context = new BenchmarkVisitorContext(tree, source);
+    List<Integer> issues = new ArrayList<>(checks.size());
+    for (JavaScriptCheck check : checks) {
+      issues.add(check.scanFile(context).size());
+    }
+    return issues;
+  }
+
+  private static List<JavaScriptCheck> newChecks() {
+    List<JavaScriptCheck> checks = new ArrayList<>();
+    for (Class<?> checkClass : new JavaScriptCustomRulesDefinition().checkClasses()) {
+      try {
+        checks.add((JavaScriptCheck) checkClass.getDeclaredConstructor().newInstance());
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Unable to instantiate " + checkClass.getName(), e);
+      }
+    }
+    return checks;
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.benchmark;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.javascript.parser.JavaScriptParserBuilder;
+import org.sonar.plugins.javascript.api.tree.ScriptTree;
+import org.sonar.plugins.javascript.api.tree.Tree.Kind;
+import org.sonar.plugins.javascript.api.visitors.Issue;
+import org.sonar.plugins.javascript.api.visitors.SubscriptionVisitorCheck;
+import org.sonar.samples.javascript.checks.ForbiddenCallCheck;
+
+/**
+ * Measures the cost of checking forbidden calls in a large minified bundle, parsed once per trial.
+ *
+ * Each operation is one scan of the whole bundle by one check. "-prof gc" gives the allocations per scan
+ * (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ForbiddenCallBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Bundle {
+
+    @Param({"1000000"})
+    public int characters;
+
+    @Param({"50", "5000"})
+    public int forbiddenNames;
+
+    BenchmarkVisitorContext context;
+    List<String> names;
+
+    @Setup(Level.Trial)
+    public void parse() {
+      String source = BundleGenerator.bundle(characters);
+      ScriptTree tree = (ScriptTree) JavaScriptParserBuilder.createParser().parse(source);
+      context = new BenchmarkVisitorContext(tree, source);
+      names = BundleGenerator.forbiddenNames(forbiddenNames);
+    }
+  }
+
+  /**
+   * Checks are instantiated once and reused for every file, as during analysis.
+   */
+  @State(Scope.Thread)
+  public static class Checks {
+    SubscriptionVisitorCheck walkOnly;
+    ForbiddenCallCheck calleeTrie;
+    SubscriptionVisitorCheck qualifiedNames;
+
+    @Setup(Level.Trial)
+    public void create(Bundle bundle) {
+      walkOnly = new SubscriptionVisitorCheck() {
+        @Override
+        public Set<Kind> nodesToVisit() {
+          return ImmutableSet.of(Kind.CALL_EXPRESSION);
+        }
+      };
+      calleeTrie = new ForbiddenCallCheck();
+      calleeTrie.forbiddenCalls = String.join(",", bundle.names);
+      qualifiedNames = new QualifiedNameForbiddenCallCheck(bundle.names);
+    }
+  }
+
+  /**
+   * Visit of the call expressions, shared by all the checks.
+   */
+  @Benchmark
+  public List<Issue> walkOnly(Bundle bundle, Checks checks) {
+    return checks.walkOnly.scanFile(bundle.context);
+  }
+
+  @Benchmark
+  public List<Issue> calleeTrie(Bundle bundle, Checks checks) {
+    return checks.calleeTrie.scanFile(bundle.context);
+  }
+
+  /**
+   * Implementation building the qualified name of each callee, to compare with {@link #calleeTrie}.
+   */
+  @Benchmark
+  public List<Issue> qualifiedNames(Bundle bundle, Checks checks) {
+    return checks.qualifiedNames.scanFile(bundle.context);
+  }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.benchmark;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.HashSet;
+import java.util.Set;
+import org.sonar.plugins.javascript.api.tree.Tree;
+import org.sonar.plugins.javascript.api.tree.Tree.Kind;
+import org.sonar.plugins.javascript.api.tree.expression.CallExpressionTree;
+import org.sonar.plugins.javascript.api.tree.expression.DotMemberExpressionTree;
+import org.sonar.plugins.javascript.api.tree.expression.ExpressionTree;
+import org.sonar.plugins.javascript.api.tree.expression.IdentifierTree;
+import org.sonar.plugins.javascript.api.visitors.SubscriptionVisitorCheck;
+
+/**
+ * Straightforward implementation of {@link org.sonar.samples.javascript.checks.ForbiddenCallCheck}, which builds
+ * the qualified name of every callee and looks it up in a set. Kept as reference for the benchmarks only.
+ */
+public class QualifiedNameForbiddenCallCheck extends SubscriptionVisitorCheck {
+
+  private final Set<String> forbiddenCalls;
+
+  public QualifiedNameForbiddenCallCheck(Iterable<String> forbiddenCalls) {
+    this.forbiddenCalls = new HashSet<>();
+    forbiddenCalls.forEach(this.forbiddenCalls::add);
+  }
+
+  @Override
+  public Set<Kind> nodesToVisit() {
+    return ImmutableSet.of(Kind.CALL_EXPRESSION);
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    String qualifiedName = qualifiedName(((CallExpressionTree) tree).callee());
+    if (qualifiedName != null && forbiddenCalls.contains(qualifiedName)) {
+      addIssue(tree, "Remove this call to the forbidden \"" + qualifiedName + "\".");
+    }
+  }
+
+  private static String qualifiedName(ExpressionTree tree) {
+    if (tree.is(Kind.IDENTIFIER_REFERENCE)) {
+      return ((IdentifierTree) tree).name();
+    }
+    if (tree.is(Kind.DOT_MEMBER_EXPRESSION)) {
+      DotMemberExpressionTree member = (DotMemberExpressionTree) tree;
+      String object = qualifiedName(member.object());
+      return object == null ? null : (object + "." + member.property().name());
+    }
+    return null;
+  }
+
+}
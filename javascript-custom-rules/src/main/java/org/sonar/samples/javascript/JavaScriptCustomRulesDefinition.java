@@ -19,18 +19,15 @@
  */
 package org.sonar.samples.javascript;
 
-import com.google.common.io.CharStreams;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.api.server.rule.RulesDefinitionAnnotationLoader;
 import org.sonar.plugins.javascript.api.CustomRuleRepository;
+import org.sonar.samples.javascript.checks.ForbiddenCallCheck;
 import org.sonar.samples.javascript.checks.ForbiddenFunctionUseCheck;
 import org.sonar.samples.javascript.checks.OtherForbiddenFunctionUseCheck;
+import org.sonar.samples.rulekit.RuleDescriptions;
 
 /**
  * Extension point to define a JavaScript rule repository.
@@ -44,9 +41,11 @@ public class JavaScriptCustomRulesDefinition implements RulesDefinition, CustomR
 
     // this will load metadata from @Rule annotation
     new RulesDefinitionAnnotationLoader().load(repository, checkClasses().toArray(new Class[] {}));
+    // descriptions are loaded from html files in resources directory, packed at build time and read at once
+    RuleDescriptions descriptions = RuleDescriptions.load(JavaScriptCustomRulesDefinition.class,
+      "/org/sonar/l10n/javascript/rules/custom-javascript-repo/" + RuleDescriptions.PACK_NAME);
     NewRule rule = repository.rule("S1");
-    // description is loaded from html file in resources directory
-    rule.setHtmlDescription(loadRuleDescription(rule.key()));
+    rule.setHtmlDescription(descriptions.description(rule.key()));
     // remediation function sets how much rule violation contributes to technical debt
     rule.setDebtRemediationFunction(rule.debtRemediationFunctions().linear("5min"));
 
@@ -67,19 +66,6 @@ public class JavaScriptCustomRulesDefinition implements RulesDefinition, CustomR
    */
   @Override
   public List<Class> checkClasses() {
-    return Arrays.asList(ForbiddenFunctionUseCheck.class, OtherForbiddenFunctionUseCheck.class);
-  }
-
-  private static String loadRuleDescription(String ruleKey) {
-    try {
-      InputStream resource = JavaScriptCustomRulesDefinition.class.getClassLoader()
-        .getResourceAsStream(ruleKey + ".html");
-      if (resource == null) {
-        throw new IllegalStateException("Rule description not found");
-      }
-      return CharStreams.toString(new InputStreamReader(resource, StandardCharsets.UTF_8));
-    } catch (IOException e) {
-      throw new IllegalStateException("Error loading rule description", e);
-    }
+    return Arrays.asList(ForbiddenFunctionUseCheck.class, OtherForbiddenFunctionUseCheck.class, ForbiddenCallCheck.class);
   }
 }
@@ -20,6 +20,8 @@
 package org.sonar.samples.javascript;
 
 import org.sonar.api.Plugin;
+import org.sonar.samples.javascript.incremental.IssueCachePostJob;
+import org.sonar.samples.javascript.profiling.RuleProfileSummaryPostJob;
 
 /**
  * Define a SonarQube Plugin.
@@ -29,6 +31,8 @@ public class JavaScriptCustomRulesPlugin implements Plugin {
   @Override
   public void define(Context context) {
     context.addExtension(JavaScriptCustomRulesDefinition.class);
+    context.addExtension(RuleProfileSummaryPostJob.class);
+    context.addExtension(IssueCachePostJob.class);
   }
 
 }
@@ -0,0 +1,76 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.checks;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import org.sonar.check.Priority;
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.javascript.api.tree.Tree;
+import org.sonar.plugins.javascript.api.tree.Tree.Kind;
+import org.sonar.plugins.javascript.api.tree.expression.CallExpressionTree;
+import org.sonar.plugins.javascript.api.visitors.SubscriptionVisitorCheck;
+import org.sonar.samples.javascript.checks.utils.CalleeTrie;
+
+@Rule(
+  key = "S3",
+  priority = Priority.CRITICAL,
+  name = "Forbidden functions and methods should not be called",
+  tags = {"security"},
+  description = "<p>The functions and methods listed in the \"forbiddenCalls\" parameter, e.g. <code>eval</code> or "
+    + "<code>document.write</code>, should not be called.</p>"
+  )
+public class ForbiddenCallCheck extends SubscriptionVisitorCheck {
+
+  static final String DEFAULT_FORBIDDEN_CALLS = "eval, document.write, document.writeln";
+
+  @RuleProperty(
+    key = "forbiddenCalls",
+    description = "Qualified names of the forbidden functions and methods, separated by commas or new lines",
+    defaultValue = DEFAULT_FORBIDDEN_CALLS,
+    type = "TEXT")
+  public String forbiddenCalls = DEFAULT_FORBIDDEN_CALLS;
+
+  private CalleeTrie index;
+
+  @Override
+  public Set<Kind> nodesToVisit() {
+    return ImmutableSet.of(Kind.CALL_EXPRESSION);
+  }
+
+  @Override
+  public void visitFile(Tree scriptTree) {
+    // the index of the names is built once, for the first file
+    if (index == null) {
+      index = CalleeTrie.parse(forbiddenCalls);
+    }
+  }
+
+  @Override
+  public void visitNode(Tree tree) {
+    CallExpressionTree callExpressionTree = (CallExpressionTree) tree;
+    String forbiddenCall = index.match(callExpressionTree.callee());
+    if (forbiddenCall != null) {
+      addIssue(callExpressionTree.callee(), "Remove this call to the forbidden \"" + forbiddenCall + "\".");
+    }
+  }
+
+}
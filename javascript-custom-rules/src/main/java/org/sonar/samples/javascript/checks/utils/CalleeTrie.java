@@ -0,0 +1,136 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.checks.utils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.sonar.plugins.javascript.api.tree.Tree;
+import org.sonar.plugins.javascript.api.tree.Tree.Kind;
+import org.sonar.plugins.javascript.api.tree.expression.ExpressionTree;
+import org.sonar.plugins.javascript.api.tree.expression.IdentifierTree;
+import org.sonar.plugins.javascript.api.tree.expression.LiteralTree;
+import org.sonar.plugins.javascript.api.tree.expression.MemberExpressionTree;
+
+/**
+ * Index of qualified names, such as "eval" or "document.write", matched against the callees of the calls.
+ *<p>
+ * The names are stored in a trie from their last segment to their first one: a callee is looked up by walking
+ * its chain of member expressions from the called property to the leftmost identifier, one hash lookup
+ * per segment and without building its qualified name. The cost of a lookup does not depend on the number
+ * of indexed names.
+ */
+public final class CalleeTrie {
+
+  private static final Pattern SEPARATORS = Pattern.compile("[\\s,]+");
+
+  private final Node root = new Node();
+  private int size = 0;
+
+  private CalleeTrie() {
+  }
+
+  /**
+   * @param qualifiedNames names separated by commas or whitespaces, e.g. "eval, document.write"
+   */
+  public static CalleeTrie parse(String qualifiedNames) {
+    CalleeTrie trie = new CalleeTrie();
+    for (String qualifiedName : SEPARATORS.split(qualifiedNames.trim())) {
+      if (!qualifiedName.isEmpty()) {
+        trie.add(qualifiedName);
+      }
+    }
+    return trie;
+  }
+
+  private void add(String qualifiedName) {
+    String[] segments = qualifiedName.split("\\.", -1);
+    Node node = root;
+    for (int i = segments.length - 1; i >= 0; i--) {
+      if (segments[i].isEmpty()) {
+        throw new IllegalArgumentException("Invalid qualified name: \"" + qualifiedName + "\"");
+      }
+      node = node.childOrCreate(segments[i]);
+    }
+    if (node.qualifiedName == null) {
+      node.qualifiedName = qualifiedName;
+      size++;
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the indexed name of the callee, or null if it is not indexed or is not a chain of identifiers and
+   * properties, e.g. "a.b['c']"
+   */
+  public String match(ExpressionTree callee) {
+    Node node = root;
+    Tree tree = callee;
+    while (tree.is(Kind.DOT_MEMBER_EXPRESSION, Kind.BRACKET_MEMBER_EXPRESSION)) {
+      MemberExpressionTree member = (MemberExpressionTree) tree;
+      node = node.child(propertyName(member));
+      if (node == null) {
+        return null;
+      }
+      tree = member.object();
+    }
+    if (tree.is(Kind.IDENTIFIER_REFERENCE)) {
+      node = node.child(((IdentifierTree) tree).name());
+      return node == null ? null : node.qualifiedName;
+    }
+    return null;
+  }
+
+  private static String propertyName(MemberExpressionTree member) {
+    Tree property = member.property();
+    if (property.is(Kind.PROPERTY_IDENTIFIER)) {
+      return ((IdentifierTree) property).name();
+    }
+    if (property.is(Kind.STRING_LITERAL)) {
+      String quoted = ((LiteralTree) property).value();
+      return quoted.substring(1, quoted.length() - 1);
+    }
+    // computed property, e.g. "a[b]"
+    return null;
+  }
+
+  private static class Node {
+    private Map<String, Node> children = Collections.emptyMap();
+    // not null if the path from the root to the node is an indexed name
+    private String qualifiedName;
+
+    Node child(String segment) {
+      return segment == null ? null : children.get(segment);
+    }
+
+    Node childOrCreate(String segment) {
+      if (children.isEmpty()) {
+        // most of the nodes are leaves
+        children = new HashMap<>(4);
+      }
+      return children.computeIfAbsent(segment, key -> new Node());
+    }
+  }
+
+}
@@ -0,0 +1,52 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.incremental;
+
+import java.util.List;
+import org.sonar.plugins.javascript.api.visitors.DoubleDispatchVisitorCheck;
+import org.sonar.plugins.javascript.api.visitors.Issue;
+import org.sonar.plugins.javascript.api.visitors.TreeVisitorContext;
+import org.sonar.samples.rulekit.cache.IssueCache;
+
+/**
+ * Base class of the double dispatch checks which opt into the incremental mode, see
+ * {@link IncrementalSubscriptionVisitorCheck}.
+ */
+public abstract class IncrementalDoubleDispatchVisitorCheck extends DoubleDispatchVisitorCheck {
+
+  private final IncrementalScan scan;
+
+  protected IncrementalDoubleDispatchVisitorCheck() {
+    this(IncrementalScan.PLUGIN_CACHE.get());
+  }
+
+  /**
+   * @param cache the cache of the issues, or null to always run the check
+   */
+  IncrementalDoubleDispatchVisitorCheck(IssueCache cache) {
+    this.scan = new IncrementalScan(cache);
+  }
+
+  @Override
+  public List<Issue> scanFile(TreeVisitorContext context) {
+    return scan.scanFile(this, context, super::scanFile);
+  }
+
+}
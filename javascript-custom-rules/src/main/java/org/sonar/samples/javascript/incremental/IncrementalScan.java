@@ -0,0 +1,187 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.incremental;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.javascript.api.JavaScriptCheck;
+import org.sonar.plugins.javascript.api.tree.Tree;
+import org.sonar.plugins.javascript.api.tree.lexical.SyntaxToken;
+import org.sonar.plugins.javascript.api.visitors.FileIssue;
+import org.sonar.plugins.javascript.api.visitors.Issue;
+import org.sonar.plugins.javascript.api.visitors.IssueLocation;
+import org.sonar.plugins.javascript.api.visitors.LineIssue;
+import org.sonar.plugins.javascript.api.visitors.PreciseIssue;
+import org.sonar.plugins.javascript.api.visitors.SubscriptionVisitor;
+import org.sonar.plugins.javascript.api.visitors.TreeVisitorContext;
+import org.sonar.samples.rulekit.cache.CacheKey;
+import org.sonar.samples.rulekit.cache.CachedIssue;
+import org.sonar.samples.rulekit.cache.CachedIssue.Location;
+import org.sonar.samples.rulekit.cache.IssueCache;
+import org.sonar.samples.rulekit.cache.PluginIssueCache;
+
+import static org.sonar.samples.javascript.incremental.IncrementalSubscriptionVisitorCheck.ruleKey;
+
+/**
+ * Scan of a file by an incremental check: the issues of the check are taken from the cache when the file did not
+ * change, otherwise the check is run and its issues are cached.
+ */
+final class IncrementalScan {
+
+  /**
+   * Saved and released at the end of each analysis by {@link IssueCachePostJob}
+   */
+  static final PluginIssueCache PLUGIN_CACHE = new PluginIssueCache(IncrementalSubscriptionVisitorCheck.PLUGIN_KEY, IncrementalScan.class, JavaScriptCheck.class);
+
+  private final IssueCache cache;
+
+  /**
+   * @param cache the cache of the issues, or null to always run the check
+   */
+  IncrementalScan(IssueCache cache) {
+    this.cache = cache;
+  }
+
+  List<Issue> scanFile(JavaScriptCheck check, TreeVisitorContext context, Function<TreeVisitorContext, List<Issue>> scan) {
+    if (cache == null) {
+      return scan.apply(context);
+    }
+    String content;
+    try {
+      content = context.getJavaScriptFile().contents();
+    } catch (IOException e) {
+      return scan.apply(context);
+    }
+    CacheKey key = CacheKey.of(content, ruleKey(check.getClass()), CacheKey.parameters(check, RuleProperty.class));
+    List<CachedIssue> cached = cache.get(key);
+    if (cached != null) {
+      return replay(check, context.getTopTree(), cached);
+    }
+    List<Issue> issues = scan.apply(context);
+    List<CachedIssue> recorded = new ArrayList<>(issues.size());
+    for (Issue issue : issues) {
+      recorded.add(record(issue));
+    }
+    cache.put(key, recorded);
+    return issues;
+  }
+
+  private static CachedIssue record(Issue issue) {
+    if (issue instanceof PreciseIssue) {
+      PreciseIssue precise = (PreciseIssue) issue;
+      List<Location> secondaries = new ArrayList<>(precise.secondaryLocations().size());
+      for (IssueLocation secondary : precise.secondaryLocations()) {
+        secondaries.add(location(secondary));
+      }
+      return new CachedIssue(location(precise.primaryLocation()), secondaries, issue.cost());
+    }
+    Location primary;
+    if (issue instanceof LineIssue) {
+      primary = Location.line(((LineIssue) issue).line(), ((LineIssue) issue).message());
+    } else {
+      primary = Location.file(((FileIssue) issue).message());
+    }
+    return new CachedIssue(primary, Collections.emptyList(), issue.cost());
+  }
+
+  private static Location location(IssueLocation location) {
+    return Location.range(Location.NO_KIND, location.startLine(), location.startLineOffset(), location.endLine(), location.endLineOffset(), location.message());
+  }
+
+  /**
+   * The file has the same content, so the tokens of the issues are found again. Were one of them missing, its issue
+   * would be reported on its line.
+   */
+  private static List<Issue> replay(JavaScriptCheck check, Tree tree, List<CachedIssue> cached) {
+    List<Issue> issues = new ArrayList<>(cached.size());
+    TokenLocator tokens = cached.isEmpty() ? null : new TokenLocator(tree);
+    for (CachedIssue issue : cached) {
+      Location primary = issue.primary();
+      Issue replayed;
+      if (primary.isFile()) {
+        replayed = new FileIssue(check, primary.message());
+      } else if (primary.isLine() || !tokens.contains(primary)) {
+        replayed = new LineIssue(check, primary.startLine(), primary.message());
+      } else {
+        PreciseIssue precise = new PreciseIssue(check, tokens.location(primary));
+        for (Location secondary : issue.secondaries()) {
+          if (tokens.contains(secondary)) {
+            precise.secondary(tokens.location(secondary));
+          }
+        }
+        replayed = precise;
+      }
+      if (issue.cost() != null) {
+        replayed.cost(issue.cost());
+      }
+      issues.add(replayed);
+    }
+    return issues;
+  }
+
+  /**
+   * Tokens of a file by the positions of their start and of their end.
+   */
+  private static final class TokenLocator extends SubscriptionVisitor {
+
+    private final Map<Long, SyntaxToken> byStart = new HashMap<>();
+    private final Map<Long, SyntaxToken> byEnd = new HashMap<>();
+
+    TokenLocator(Tree tree) {
+      scanTree(tree);
+    }
+
+    @Override
+    public Set<Tree.Kind> nodesToVisit() {
+      return EnumSet.of(Tree.Kind.TOKEN);
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      SyntaxToken token = (SyntaxToken) tree;
+      byStart.putIfAbsent(position(token.line(), token.column()), token);
+      byEnd.putIfAbsent(position(token.endLine(), token.endColumn()), token);
+    }
+
+    boolean contains(Location location) {
+      return byStart.containsKey(position(location.startLine(), location.startColumn()))
+        && byEnd.containsKey(position(location.endLine(), location.endColumn()));
+    }
+
+    IssueLocation location(Location location) {
+      SyntaxToken first = byStart.get(position(location.startLine(), location.startColumn()));
+      SyntaxToken last = byEnd.get(position(location.endLine(), location.endColumn()));
+      return new IssueLocation(first, last, location.message());
+    }
+
+    private static long position(int line, int column) {
+      return ((long) line << 32) | column;
+    }
+  }
+
+}
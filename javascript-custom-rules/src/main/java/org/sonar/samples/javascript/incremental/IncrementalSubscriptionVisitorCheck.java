@@ -0,0 +1,69 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.incremental;
+
+import java.util.List;
+import org.sonar.check.Rule;
+import org.sonar.plugins.javascript.api.visitors.Issue;
+import org.sonar.plugins.javascript.api.visitors.SubscriptionVisitorCheck;
+import org.sonar.plugins.javascript.api.visitors.TreeVisitorContext;
+import org.sonar.samples.rulekit.cache.IssueCache;
+
+/**
+ * Base class of the subscription checks which opt into the incremental mode: when the
+ * {@value IssueCache#INCREMENTAL_PROPERTY} system property is "true", the issues of the check on a file are kept in
+ * the {@link IssueCache} of the plugin, and returned instead of walking the file again as long as neither its content
+ * nor the parameters of the check change. Only the checks whose issues depend on the file alone should extend this
+ * class.
+ * <p>
+ * The issues are replayed on the tokens found again from their positions, in a walk of the tree which only visits
+ * the tokens, and only when the file has issues.
+ */
+public abstract class IncrementalSubscriptionVisitorCheck extends SubscriptionVisitorCheck {
+
+  public static final String PLUGIN_KEY = "javascript-custom-rules";
+
+  private final IncrementalScan scan;
+
+  protected IncrementalSubscriptionVisitorCheck() {
+    this(IncrementalScan.PLUGIN_CACHE.get());
+  }
+
+  /**
+   * @param cache the cache of the issues, or null to always run the check
+   */
+  IncrementalSubscriptionVisitorCheck(IssueCache cache) {
+    this.scan = new IncrementalScan(cache);
+  }
+
+  @Override
+  public List<Issue> scanFile(TreeVisitorContext context) {
+    return scan.scanFile(this, context, super::scanFile);
+  }
+
+  /**
+   * @return the key of the {@link Rule} annotation of the check, or its simple name if it has none
+   */
+  static String ruleKey(Class<?> check) {
+    Rule rule = check.getAnnotation(Rule.class);
+    return rule == null || rule.key().isEmpty() ? check.getSimpleName() : rule.key();
+  }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.profiling;
+
+import java.util.List;
+import org.sonar.plugins.javascript.api.tree.Tree;
+import org.sonar.plugins.javascript.api.visitors.DoubleDispatchVisitorCheck;
+import org.sonar.plugins.javascript.api.visitors.Issue;
+import org.sonar.plugins.javascript.api.visitors.TreeVisitorContext;
+import org.sonar.samples.rulekit.profiling.RuleProfiler;
+
+import static org.sonar.samples.javascript.profiling.ProfiledSubscriptionVisitorCheck.ruleKey;
+
+/**
+ * Base class of the double dispatch checks which opt into profiling, see {@link ProfiledSubscriptionVisitorCheck}.
+ * The nodes whose children are scanned, i.e. whose "visit" method calls its super method, are counted: the
+ * tokens and the subtrees skipped by the check are not.
+ */
+public abstract class ProfiledDoubleDispatchVisitorCheck extends DoubleDispatchVisitorCheck {
+
+  private final RuleProfiler profiler = RuleProfiler.of(ruleKey(getClass()));
+
+  @Override
+  public List<Issue> scanFile(TreeVisitorContext context) {
+    profiler.startFile(context.getJavaScriptFile().relativePath());
+    List<Issue> issues = null;
+    profiler.enter();
+    try {
+      issues = super.scanFile(context);
+      return issues;
+    } finally {
+      profiler.exit();
+      if (issues != null) {
+        profiler.issues(issues.size());
+      }
+      profiler.endFile();
+    }
+  }
+
+  @Override
+  protected void scanChildren(Tree tree) {
+    profiler.node();
+    super.scanChildren(tree);
+  }
+
+}
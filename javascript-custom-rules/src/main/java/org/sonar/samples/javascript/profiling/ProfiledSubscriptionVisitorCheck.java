@@ -0,0 +1,76 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.profiling;
+
+import java.util.List;
+import org.sonar.check.Rule;
+import org.sonar.plugins.javascript.api.tree.Tree;
+import org.sonar.plugins.javascript.api.visitors.Issue;
+import org.sonar.plugins.javascript.api.visitors.SubscriptionVisitorCheck;
+import org.sonar.plugins.javascript.api.visitors.TreeVisitorContext;
+import org.sonar.samples.rulekit.profiling.RuleProfiler;
+
+/**
+ * Base class of the subscription checks which opt into profiling: their time, visited nodes, allocations and issues
+ * are measured per file by a {@link RuleProfiler}, sent to Java Flight Recorder and summed in the summary of the
+ * slowest rules.
+ * <p>
+ * Each check walks the tree of the file on its own, so the whole walk is measured at once, including the nodes the
+ * check is not subscribed to. Only the subscribed nodes are counted.
+ */
+public abstract class ProfiledSubscriptionVisitorCheck extends SubscriptionVisitorCheck {
+
+  private final RuleProfiler profiler = RuleProfiler.of(ruleKey(getClass()));
+
+  @Override
+  public List<Issue> scanFile(TreeVisitorContext context) {
+    profiler.startFile(context.getJavaScriptFile().relativePath());
+    List<Issue> issues = null;
+    profiler.enter();
+    try {
+      issues = super.scanFile(context);
+      return issues;
+    } finally {
+      profiler.exit();
+      if (issues != null) {
+        profiler.issues(issues.size());
+      }
+      profiler.endFile();
+    }
+  }
+
+  @Override
+  protected boolean isSubscribed(Tree tree) {
+    boolean subscribed = super.isSubscribed(tree);
+    if (subscribed) {
+      profiler.node();
+    }
+    return subscribed;
+  }
+
+  /**
+   * @return the key of the {@link Rule} annotation of the check, or its simple name if it has none
+   */
+  static String ruleKey(Class<?> check) {
+    Rule rule = check.getAnnotation(Rule.class);
+    return rule == null || rule.key().isEmpty() ? check.getSimpleName() : rule.key();
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.checks.utils;
+
+import com.sonar.sslr.api.typed.ActionParser;
+import org.junit.Test;
+import org.sonar.javascript.parser.JavaScriptParserBuilder;
+import org.sonar.plugins.javascript.api.tree.ScriptTree;
+import org.sonar.plugins.javascript.api.tree.Tree;
+import org.sonar.plugins.javascript.api.tree.expression.CallExpressionTree;
+import org.sonar.plugins.javascript.api.tree.statement.ExpressionStatementTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CalleeTrieTest {
+
+  private static final ActionParser<Tree> PARSER = JavaScriptParserBuilder.createParser();
+
+  @Test
+  public void match() {
+    CalleeTrie trie = CalleeTrie.parse("eval, document.write\n a.b.c.d  a.b");
+    assertEquals(4, trie.size());
+    assertEquals("eval", trie.match(call("eval(x)").callee()));
+    assertEquals("document.write", trie.match(call("document.write(x)").callee()));
+    assertEquals("document.write", trie.match(call("document['write'](x)").callee()));
+    assertEquals("a.b.c.d", trie.match(call("a.b.c.d()").callee()));
+    assertEquals("a.b", trie.match(call("a.b()").callee()));
+  }
+
+  @Test
+  public void no_match() {
+    CalleeTrie trie = CalleeTrie.parse("eval, document.write, a.b.c.d");
+    assertNull(trie.match(call("write(x)").callee()));
+    assertNull(trie.match(call("x.eval()").callee()));
+    assertNull(trie.match(call("document.write.call(document)").callee()));
+    assertNull(trie.match(call("b.c.d()").callee()));
+    assertNull(trie.match(call("a.b.c()").callee()));
+    assertNull(trie.match(call("document[write](x)").callee()));
+    assertNull(trie.match(call("f().write(x)").callee()));
+  }
+
+  @Test
+  public void duplicates_and_empty_names_are_ignored() {
+    assertEquals(1, CalleeTrie.parse(" eval,, eval \n").size());
+    assertEquals(0, CalleeTrie.parse("").size());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalid_name() {
+    CalleeTrie.parse("document..write");
+  }
+
+  private static CallExpressionTree call(String code) {
+    ScriptTree script = (ScriptTree) PARSER.parse(code);
+    return (CallExpressionTree) ((ExpressionStatementTree) script.items().items().get(0)).expression();
+  }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.incremental;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.check.RuleProperty;
+import org.sonar.javascript.checks.verifier.JavaScriptCheckVerifier;
+import org.sonar.plugins.javascript.api.JavaScriptCheck;
+import org.sonar.plugins.javascript.api.tree.Tree;
+import org.sonar.plugins.javascript.api.tree.Tree.Kind;
+import org.sonar.plugins.javascript.api.tree.expression.CallExpressionTree;
+import org.sonar.plugins.javascript.api.visitors.LineIssue;
+import org.sonar.samples.rulekit.cache.IssueCache;
+
+import static org.junit.Assert.assertEquals;
+
+public class IncrementalChecksTest {
+
+  private static final File FILE = new File("src/test/resources/checks/incrementalCheck.js");
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void subscription_check() throws Exception {
+    Path file = temp.getRoot().toPath().resolve("javascript-custom-rules.cache");
+    IssueCache cache = IssueCache.open(file, "fingerprint", IssueCache.DEFAULT_MAX_SIZE);
+    SubscriptionCheck first = new SubscriptionCheck(cache);
+    JavaScriptCheckVerifier.verify(first, FILE);
+    assertEquals(3, first.calls);
+    cache.save();
+
+    IssueCache reloaded = IssueCache.open(file, "fingerprint", IssueCache.DEFAULT_MAX_SIZE);
+    SubscriptionCheck second = new SubscriptionCheck(reloaded);
+    JavaScriptCheckVerifier.verify(second, FILE);
+    assertEquals(0, second.calls);
+    assertEquals(1, reloaded.hits());
+  }
+
+  @Test
+  public void double_dispatch_check() {
+    IssueCache cache = IssueCache.open(temp.getRoot().toPath().resolve("javascript-custom-rules.cache"), "fingerprint", IssueCache.DEFAULT_MAX_SIZE);
+    DoubleDispatchCheck first = new DoubleDispatchCheck(cache);
+    JavaScriptCheckVerifier.verify(first, FILE);
+    DoubleDispatchCheck second = new DoubleDispatchCheck(cache);
+    JavaScriptCheckVerifier.verify(second, FILE);
+    assertEquals(3, first.calls);
+    assertEquals(0, second.calls);
+  }
+
+  @Test
+  public void parameters_are_part_of_the_key() {
+    IssueCache cache = IssueCache.open(temp.getRoot().toPath().resolve("javascript-custom-rules.cache"), "fingerprint", IssueCache.DEFAULT_MAX_SIZE);
+    JavaScriptCheckVerifier.verify(new SubscriptionCheck(cache), FILE);
+
+    SubscriptionCheck other = new SubscriptionCheck(cache);
+    other.prefix = "other";
+    JavaScriptCheckVerifier.issues(other, FILE).noMore();
+    assertEquals(3, other.calls);
+    assertEquals(2, cache.entries());
+  }
+
+  @Test
+  public void checks_run_on_each_file_without_cache() {
+    SubscriptionCheck check = new SubscriptionCheck(null);
+    JavaScriptCheckVerifier.verify(check, FILE);
+    JavaScriptCheckVerifier.verify(check, FILE);
+    assertEquals(6, check.calls);
+  }
+
+  @Test
+  public void rule_key() {
+    assertEquals("IncrementalSubscriptionCheck", IncrementalSubscriptionVisitorCheck.ruleKey(SubscriptionCheck.class));
+    assertEquals("DoubleDispatchCheck", IncrementalSubscriptionVisitorCheck.ruleKey(DoubleDispatchCheck.class));
+  }
+
+  private static void report(JavaScriptCheck check, CallExpressionTree call, String prefix) {
+    String callee = call.callee().toString();
+    if (!callee.startsWith(prefix)) {
+      return;
+    }
+    if ("report".equals(callee)) {
+      check.addIssue(call, "Call.").secondary(call.argumentClause().arguments().get(0)).cost(2);
+    } else if ("line".equals(callee)) {
+      check.addIssue(new LineIssue(check, call, "Line."));
+    }
+  }
+
+  @org.sonar.check.Rule(key = "IncrementalSubscriptionCheck")
+  public static class SubscriptionCheck extends IncrementalSubscriptionVisitorCheck {
+
+    @RuleProperty(key = "prefix")
+    String prefix = "";
+
+    private int calls;
+
+    SubscriptionCheck(IssueCache cache) {
+      super(cache);
+    }
+
+    @Override
+    public Set<Kind> nodesToVisit() {
+      return ImmutableSet.of(Kind.CALL_EXPRESSION);
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      calls++;
+      report(this, (CallExpressionTree) tree, prefix);
+    }
+  }
+
+  public static class DoubleDispatchCheck extends IncrementalDoubleDispatchVisitorCheck {
+
+    private int calls;
+
+    DoubleDispatchCheck(IssueCache cache) {
+      super(cache);
+    }
+
+    @Override
+    public void visitCallExpression(CallExpressionTree tree) {
+      calls++;
+      report(this, tree, "");
+      super.visitCallExpression(tree);
+    }
+  }
+
+}
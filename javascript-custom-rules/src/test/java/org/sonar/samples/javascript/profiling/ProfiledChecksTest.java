@@ -0,0 +1,114 @@
+/*
+ * SonarQube JavaScript Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.javascript.profiling;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.javascript.checks.verifier.JavaScriptCheckVerifier;
+import org.sonar.plugins.javascript.api.JavaScriptCheck;
+import org.sonar.plugins.javascript.api.tree.Tree;
+import org.sonar.plugins.javascript.api.tree.Tree.Kind;
+import org.sonar.plugins.javascript.api.tree.expression.CallExpressionTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ProfiledChecksTest {
+
+  private static final File FILE = new File("src/test/resources/checks/profiledCheck.js");
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void subscription_check() throws Exception {
+    RecordedEvent event = profile(new SubscriptionCheck(), "ProfiledSubscriptionCheck");
+    assertTrue(event.getString("file").endsWith("profiledCheck.js"));
+    assertEquals(4, event.getLong("nodes"));
+    assertEquals(2, event.getInt("issues"));
+    assertTrue(event.getDuration("ruleTime").toNanos() > 0);
+  }
+
+  @Test
+  public void double_dispatch_check() throws Exception {
+    RecordedEvent event = profile(new DoubleDispatchCheck(), "DoubleDispatchCheck");
+    assertTrue(event.getLong("nodes") > 4);
+    assertEquals(2, event.getInt("issues"));
+  }
+
+  private RecordedEvent profile(JavaScriptCheck check, String rule) throws Exception {
+    Path dump = temp.newFile("rules.jfr").toPath();
+    try (Recording recording = new Recording()) {
+      recording.enable("org.sonar.samples.RuleExecution").withThreshold(Duration.ZERO);
+      recording.start();
+      JavaScriptCheckVerifier.verify(check, FILE);
+      recording.stop();
+      recording.dump(dump);
+    }
+    List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+      .filter(event -> rule.equals(event.getString("rule")))
+      .collect(Collectors.toList());
+    assertEquals(1, events.size());
+    return events.get(0);
+  }
+
+  private static boolean isReport(CallExpressionTree call) {
+    return "report".equals(call.callee().toString());
+  }
+
+  @org.sonar.check.Rule(key = "ProfiledSubscriptionCheck")
+  public static class SubscriptionCheck extends ProfiledSubscriptionVisitorCheck {
+
+    @Override
+    public Set<Kind> nodesToVisit() {
+      return ImmutableSet.of(Kind.CALL_EXPRESSION);
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      if (isReport((CallExpressionTree) tree)) {
+        addIssue(tree, "Call.");
+      }
+    }
+  }
+
+  public static class DoubleDispatchCheck extends ProfiledDoubleDispatchVisitorCheck {
+
+    @Override
+    public void visitCallExpression(CallExpressionTree tree) {
+      if (isReport(tree)) {
+        addIssue(tree, "Call.");
+      }
+      super.visitCallExpression(tree);
+    }
+  }
+
+}
@@ -0,0 +1,11 @@
+eval("1 + 1");  // Noncompliant {{Remove this call to the forbidden "eval".}} [[sc=1;ec=5]]
+document.write("<p>");  // Noncompliant {{Remove this call to the forbidden "document.write".}} [[sc=1;ec=15]]
+document["writeln"]("<p>");  // Noncompliant {{Remove this call to the forbidden "document.writeln".}}
+
+window.eval("1 + 1");
+write("<p>");
+other.document.write("<p>");
+document.write.call(document, "<p>");
+document[method]("<p>");
+myObj.eval();
+(function () { return eval; })()("1");
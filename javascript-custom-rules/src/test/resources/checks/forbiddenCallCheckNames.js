@@ -0,0 +1,8 @@
+window.localStorage.setItem("key", token);  // Noncompliant {{Remove this call to the forbidden "window.localStorage.setItem".}}
+localStorage.setItem("key", token);  // Noncompliant {{Remove this call to the forbidden "localStorage.setItem".}}
+$.globalEval(script);  // Noncompliant
+crypto.subtle.digest("SHA-1", data);
+
+eval("1 + 1");
+window.localStorage.getItem("key");
+setItem("key", token);
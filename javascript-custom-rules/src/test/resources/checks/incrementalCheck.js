@@ -0,0 +1,3 @@
+report("a");  // Noncompliant [[sc=1;ec=12;secondary=+0;effortToFix=2]] {{Call.}}
+other("b");
+line();  // Noncompliant {{Line.}}
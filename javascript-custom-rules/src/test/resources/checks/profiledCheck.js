@@ -0,0 +1,3 @@
+report("a");  // Noncompliant {{Call.}}
+other("b");
+report(other("c"));  // Noncompliant {{Call.}}
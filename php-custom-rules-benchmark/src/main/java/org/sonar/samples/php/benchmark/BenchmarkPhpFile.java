@@ -0,0 +1,53 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.benchmark;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.sonar.plugins.php.api.visitors.PhpFile;
+
+/**
+ * In-memory file analyzed by the benchmarks.
+ */
+class BenchmarkPhpFile implements PhpFile {
+
+  private final String contents;
+
+  BenchmarkPhpFile(String contents) {
+    this.contents = contents;
+  }
+
+  @Override
+  public Path relativePath() {
+    return Paths.get("generated.php");
+  }
+
+  @Override
+  public String contents() {
+    return contents;
+  }
+
+  @Override
+  public File file() {
+    return new File("generated.php");
+  }
+
+}
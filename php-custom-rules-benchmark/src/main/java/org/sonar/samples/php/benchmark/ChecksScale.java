@@ -0,0 +1,86 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.php.tree.symbols.SymbolTableImpl;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.visitors.PHPCheck;
+import org.sonar.samples.php.MyPhpRules;
+import org.sonar.samples.rulekit.scale.ScaleHarness;
+
+/**
+ * Runs all the checks of the plugin on 10,000 generated files in one JVM, with the {@link ScaleHarness}: the checks
+ * are instantiated once and reused for every file, as during analysis, and must neither keep the state of a file
+ * for the next one, e.g. the counters of the enclosing loops, nor retain more memory as the number of files grows.
+ * <p>
+ * The files have their own function names and from 50 to 150 lines.
+ * The arguments are those of {@link ScaleHarness#fromArgs(String[], java.io.PrintStream)}.
+ */
+public final class ChecksScale implements ScaleHarness.Analysis {
+
+  private final List<PHPCheck> checks = newChecks();
+
+  public static void main(String[] args) {
+    ScaleHarness.fromArgs(args, System.out).run(new ChecksScale());
+  }
+
+  @Override
+  public Object analyze(int file) {
+    return analyze(checks, file);
+  }
+
+  @Override
+  public Object analyzeWithNewChecks(int file) {
+    return analyze(newChecks(), file);
+  }
+
+  /**
+   * @return the number of issues raised by each check
+   */
+  private static List<Integer> analyze(List<PHPCheck> checks, int file) {
+    String source = CorpusGenerator.generate(50 + file % 101).replace("function generated", "function file" + file + "_");
+    CompilationUnitTree tree = (CompilationUnitTree) PHPParserBuilder.createParser().parse(source);
+    SymbolTableImpl symbolTable = SymbolTableImpl.create(tree);
+    BenchmarkPhpFile phpFile = new BenchmarkPhpFile(source);
+    List<Integer> issues = new ArrayList<>(checks.size());
+    for (PHPCheck check : checks) {
+      issues.add(check.analyze(phpFile, tree, symbolTable).size());
+    }
+    return issues;
+  }
+
+  private static List<PHPCheck> newChecks() {
+    List<PHPCheck> checks = new ArrayList<>();
+    for (Class<?> checkClass : new MyPhpRules().checkClasses()) {
+      try {
+        PHPCheck check = (PHPCheck) checkClass.getDeclaredConstructor().newInstance();
+        check.init();
+        checks.add(check);
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Unable to instantiate " + checkClass.getName(), e);
+      }
+    }
+    return checks;
+  }
+
+}
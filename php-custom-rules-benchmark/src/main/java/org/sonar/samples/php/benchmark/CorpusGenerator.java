@@ -0,0 +1,81 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.benchmark;
+
+/**
+ * Generates deterministic PHP sources used as benchmark input.
+ */
+public final class CorpusGenerator {
+
+  private CorpusGenerator() {
+  }
+
+  public static String generate(int lines) {
+    Source source = new Source();
+    source.line("<?php");
+    int function = 0;
+    while (source.lines < lines) {
+      function(source, function);
+      function++;
+    }
+    return source.toString();
+  }
+
+  private static void function(Source source, int index) {
+    source.line("function generated" + index + "($values, $object)");
+    source.line("{");
+    source.line("    $total = 0;");
+    source.line("    for ($i = 0; $i < count($values); $i++) {");
+    source.line("        $total += strlen($values[$i]) * ($i + 1);");
+    source.line("    }");
+    source.line("    $count = count($values);");
+    source.line("    for ($j = 0; $j < $count && $total > 0; ++$j) {");
+    source.line("        $total -= $object->weight($values[$j], $j);");
+    source.line("        $total--;");
+    source.line("    }");
+    source.line("    for ($k = $count - 1; ($k >= 0); --$k) {");
+    source.line("        for ($l = 0; $l < $object->size(); $l++) {");
+    source.line("            $total += $k * $l;");
+    source.line("        }");
+    source.line("    }");
+    source.line("    while ($total-- > 100) {");
+    source.line("        echo \"$total\\n\";");
+    source.line("    }");
+    source.line("    return $total;");
+    source.line("}");
+    source.line("");
+  }
+
+  private static final class Source {
+    private final StringBuilder sb = new StringBuilder();
+    private int lines = 0;
+
+    void line(String line) {
+      sb.append(line).append('\n');
+      lines++;
+    }
+
+    @Override
+    public String toString() {
+      return sb.toString();
+    }
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.benchmark;
+
+import java.util.regex.Pattern;
+import org.apache.commons.lang.StringUtils;
+import org.sonar.plugins.php.api.tree.expression.ExpressionTree;
+import org.sonar.plugins.php.api.tree.expression.UnaryExpressionTree;
+import org.sonar.plugins.php.api.tree.statement.ForStatementTree;
+import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+
+/**
+ * First implementations of the checks, which matched a regular expression against the source of the trees.
+ * Kept as reference for the benchmarks only.
+ */
+final class LegacyChecks {
+
+  private LegacyChecks() {
+  }
+
+  private static boolean matches(Pattern pattern, ExpressionTree tree) {
+    return pattern.matcher(StringUtils.remove(tree.toString(), "$")).matches();
+  }
+
+  /**
+   * {@link org.sonar.samples.php.checks.ForLoopConditionFunctionCallCheck} with the format "^.*\(.*\)$"
+   */
+  static class ForLoopConditionFunctionCall extends PHPVisitorCheck {
+
+    private static final Pattern PATTERN = Pattern.compile("^.*\\(.*\\)$");
+
+    @Override
+    public void visitForStatement(ForStatementTree forStatement) {
+      super.visitForStatement(forStatement);
+      for (ExpressionTree condition : forStatement.condition()) {
+        if (matches(PATTERN, condition)) {
+          context().newIssue(this, forStatement, "Function call inside a for loop condition should not be used");
+        }
+      }
+    }
+  }
+
+  /**
+   * {@link org.sonar.samples.php.checks.PrefixAssignmentCheck} with the format "^.*\+{2}|\-{2}$"
+   */
+  static class PrefixAssignment extends PHPVisitorCheck {
+
+    private static final Pattern PATTERN = Pattern.compile("^.*\\+{2}|\\-{2}$");
+
+    @Override
+    public void visitPrefixExpression(UnaryExpressionTree tree) {
+      check(tree);
+      super.visitPrefixExpression(tree);
+    }
+
+    @Override
+    public void visitPostfixExpression(UnaryExpressionTree tree) {
+      check(tree);
+      super.visitPostfixExpression(tree);
+    }
+
+    private void check(UnaryExpressionTree tree) {
+      if (matches(PATTERN, tree)) {
+        context().newIssue(this, tree, "Refactor the code to avoid creating provisional variable: ++$i / $i++");
+      }
+    }
+  }
+
+}
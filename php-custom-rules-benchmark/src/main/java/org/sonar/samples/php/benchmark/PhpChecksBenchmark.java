@@ -0,0 +1,138 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.php.tree.symbols.SymbolTableImpl;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.visitors.PHPCheck;
+import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+import org.sonar.plugins.php.api.visitors.PhpFile;
+import org.sonar.plugins.php.api.visitors.PhpIssue;
+import org.sonar.samples.php.checks.ForLoopConditionFunctionCallCheck;
+import org.sonar.samples.php.checks.PrefixAssignmentCheck;
+
+/**
+ * Measures the cost of each check of the plugin on a single generated file.
+ *
+ * The file is parsed once per trial, each operation is one analysis of the whole file by one check.
+ * "-prof gc" gives the allocations per file (gc.alloc.rate.norm), to compare the checks matching
+ * tree patterns with their legacy implementations matching regular expressions on the source of the trees.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class PhpChecksBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class Corpus {
+
+    @Param({"1000", "10000"})
+    public int lines;
+
+    PhpFile file;
+    CompilationUnitTree tree;
+    SymbolTableImpl symbolTable;
+
+    @Setup(Level.Trial)
+    public void parse() {
+      String source = CorpusGenerator.generate(lines);
+      file = new BenchmarkPhpFile(source);
+      tree = (CompilationUnitTree) PHPParserBuilder.createParser().parse(source);
+      symbolTable = SymbolTableImpl.create(tree);
+    }
+  }
+
+  /**
+   * Checks are instantiated once and reused for every file, as during analysis.
+   */
+  @State(Scope.Thread)
+  public static class Checks {
+    PHPCheck walkOnly;
+    PHPCheck forLoopConditionFunctionCall;
+    PHPCheck forLoopConditionFunctionCallLegacy;
+    PHPCheck prefixAssignment;
+    PHPCheck prefixAssignmentLegacy;
+
+    @Setup(Level.Trial)
+    public void create() {
+      walkOnly = init(new PHPVisitorCheck() {
+      });
+      forLoopConditionFunctionCall = init(new ForLoopConditionFunctionCallCheck());
+      forLoopConditionFunctionCallLegacy = init(new LegacyChecks.ForLoopConditionFunctionCall());
+      prefixAssignment = init(new PrefixAssignmentCheck());
+      prefixAssignmentLegacy = init(new LegacyChecks.PrefixAssignment());
+    }
+
+    private static PHPCheck init(PHPCheck check) {
+      check.init();
+      return check;
+    }
+  }
+
+  /**
+   * Traversal of the tree, shared by all the checks.
+   */
+  @Benchmark
+  public List<PhpIssue> walkOnly(Corpus corpus, Checks checks) {
+    return analyze(checks.walkOnly, corpus);
+  }
+
+  @Benchmark
+  public List<PhpIssue> forLoopConditionFunctionCall(Corpus corpus, Checks checks) {
+    return analyze(checks.forLoopConditionFunctionCall, corpus);
+  }
+
+  @Benchmark
+  public List<PhpIssue> forLoopConditionFunctionCallLegacy(Corpus corpus, Checks checks) {
+    return analyze(checks.forLoopConditionFunctionCallLegacy, corpus);
+  }
+
+  @Benchmark
+  public List<PhpIssue> prefixAssignment(Corpus corpus, Checks checks) {
+    return analyze(checks.prefixAssignment, corpus);
+  }
+
+  @Benchmark
+  public List<PhpIssue> prefixAssignmentLegacy(Corpus corpus, Checks checks) {
+    return analyze(checks.prefixAssignmentLegacy, corpus);
+  }
+
+  private static List<PhpIssue> analyze(PHPCheck check, Corpus corpus) {
+    return check.analyze(corpus.file, corpus.tree, corpus.symbolTable);
+  }
+
+}
@@ -21,11 +21,6 @@ package org.sonar.samples.php;
 
 
 import com.google.common.collect.ImmutableList;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import org.sonar.api.server.rule.RulesDefinition;
@@ -33,6 +28,7 @@ import org.sonar.api.server.rule.RulesDefinitionAnnotationLoader;
 import org.sonar.plugins.php.api.visitors.PHPCustomRuleRepository;
 import org.sonar.samples.php.checks.ForLoopConditionFunctionCallCheck;
 import org.sonar.samples.php.checks.PrefixAssignmentCheck;
+import org.sonar.samples.rulekit.RuleDescriptions;
 
 /**
  * Extension point to define a PHP rule repository.
@@ -64,8 +60,9 @@ public class MyPhpRules implements RulesDefinition, PHPCustomRuleRepository {
     RulesDefinitionAnnotationLoader annotationLoader = new RulesDefinitionAnnotationLoader();
     checkClasses().forEach(ruleClass -> annotationLoader.load(repository, ruleClass));
 
-    // Optionally override html description from annotation with content from html files
-    repository.rules().forEach(rule -> rule.setHtmlDescription(loadResource("/org/sonar/l10n/php/rules/custom/" + rule.key() + ".html")));
+    // Optionally override html description from annotation with content from html files, packed at build time
+    RuleDescriptions descriptions = RuleDescriptions.load(MyPhpRules.class, "/org/sonar/l10n/php/rules/custom/" + RuleDescriptions.PACK_NAME);
+    repository.rules().forEach(rule -> rule.setHtmlDescription(descriptions.description(rule.key())));
 
     // Optionally define remediation costs
     Map<String, String> remediationCosts = new HashMap<>();
@@ -76,21 +73,4 @@ public class MyPhpRules implements RulesDefinition, PHPCustomRuleRepository {
 
     repository.done();
   }
-
-  private String loadResource(String path) {
-    URL resource = getClass().getResource(path);
-    if (resource == null) {
-      throw new IllegalStateException("Resource not found: " + path);
-    }
-    ByteArrayOutputStream result = new ByteArrayOutputStream();
-    try (InputStream in = resource.openStream()) {
-      byte[] buffer = new byte[1024];
-      for (int len = in.read(buffer); len != -1; len = in.read(buffer)) {
-        result.write(buffer, 0, len);
-      }
-      return new String(result.toByteArray(), StandardCharsets.UTF_8);
-    } catch (IOException e) {
-      throw new IllegalStateException("Failed to read resource: " + path, e);
-    }
-  }
 }
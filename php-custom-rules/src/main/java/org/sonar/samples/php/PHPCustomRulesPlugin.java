@@ -20,6 +20,8 @@
 package org.sonar.samples.php;
 
 import org.sonar.api.Plugin;
+import org.sonar.samples.php.incremental.IssueCachePostJob;
+import org.sonar.samples.php.profiling.RuleProfileSummaryPostJob;
 
 /**
  * Extension point to define a Sonar Plugin.
@@ -29,5 +31,7 @@ public class PHPCustomRulesPlugin implements Plugin {
   @Override
   public void define(Context context) {
     context.addExtension(MyPhpRules.class);
+    context.addExtension(RuleProfileSummaryPostJob.class);
+    context.addExtension(IssueCachePostJob.class);
   }
 }
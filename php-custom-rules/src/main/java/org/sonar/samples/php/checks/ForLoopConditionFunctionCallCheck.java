@@ -19,18 +19,15 @@
  */
 package org.sonar.samples.php.checks;
 
-import java.util.*;
-import java.util.regex.Pattern;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
-import org.sonar.plugins.php.api.tree.CompilationUnitTree;
 import org.sonar.plugins.php.api.tree.Tree;
-import org.sonar.plugins.php.api.tree.Tree.Kind;
-import org.sonar.plugins.php.api.tree.expression.*;
+import org.sonar.plugins.php.api.tree.expression.ExpressionTree;
 import org.sonar.plugins.php.api.tree.statement.ForStatementTree;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
-import org.apache.commons.lang.StringUtils;
+import org.sonar.samples.php.checks.utils.TreePatternMatcher;
+import org.sonar.samples.php.checks.utils.TreePatterns;
 
 /**
  * Example of implementation of a check by extending {@link PHPVisitorCheck}.
@@ -51,41 +48,30 @@ import org.apache.commons.lang.StringUtils;
 )
 public class ForLoopConditionFunctionCallCheck extends PHPVisitorCheck  {
 
-    public static final String FUNCTION_PATTERN = "^.*\\(.*\\)$";
-    private Pattern pattern;
+    public static final String FUNCTION_PATTERN = "contains(FUNCTION_CALL)";
+    /**
+     * Former default value of "format", a regular expression on the source of the condition, still found in profiles
+     */
+    static final String LEGACY_FUNCTION_PATTERN = "^.*\\(.*\\)$";
+    private TreePatternMatcher matcher;
     public static final String KEY = "ForLoopConditionFunctionCallCheck";
     private static final String MESSAGE = "Function call inside a for loop condition should not be used";
 
-
-    private Deque<Set<String>> counterStack = new ArrayDeque<>();
     @RuleProperty(
             key = "format",
+            description = "Reported conditions, e.g. contains(FUNCTION_CALL) or contains(FUNCTION_CALL(count, strlen))",
             defaultValue = FUNCTION_PATTERN)
     String format = FUNCTION_PATTERN;
     @Override
     public void init() {
-        pattern = Pattern.compile(format);
-    }
-    @Override
-    public void visitCompilationUnit(CompilationUnitTree tree) {
-        counterStack.clear();
-        super.visitCompilationUnit(tree);
+        matcher = new TreePatternMatcher(KEY, TreePatterns.compile(LEGACY_FUNCTION_PATTERN.equals(format) ? FUNCTION_PATTERN : format));
     }
 
     @Override
     public void visitForStatement(ForStatementTree forStatement) {
         visitAll(forStatement.condition());
-
-        Set<String> newCounters = new HashSet<>();
-        if (!counterStack.isEmpty()) {
-            newCounters.addAll(counterStack.peek());
-        }
-        newCounters.addAll(getCounterNames(forStatement));
-
-        counterStack.push(newCounters);
         visitAll(forStatement.statements());
         checkFunctionCall(forStatement);
-        counterStack.pop();
     }
 
     private void visitAll(Iterable<? extends Tree> trees) {
@@ -96,24 +82,10 @@ public class ForLoopConditionFunctionCallCheck extends PHPVisitorCheck  {
 
     private void checkFunctionCall(ForStatementTree forStatement) {
         for (ExpressionTree condition : forStatement.condition()) {
-            if(isNotCompliant(condition.toString())){
-                context().newIssue(this, forStatement, String.format(MESSAGE, forStatement.toString()
-                ));
+            if (matcher.matches(condition, context().getPhpFile())) {
+                context().newIssue(this, forStatement, MESSAGE);
             }
         }
     }
-    private boolean isNotCompliant(String varName) {
-        return pattern.matcher(StringUtils.remove(varName, "$")).matches();
-    }
-
-    private static Set<String> getCounterNames(ForStatementTree forStatement) {
-        Set<String> counterNames = new HashSet<>();
-        for (ExpressionTree condition : forStatement.condition()) {
-                counterNames.add(condition.toString());
-        }
-        return counterNames;
-    }
-
 
 }
-
@@ -19,18 +19,15 @@
  */
 package org.sonar.samples.php.checks;
 
-import java.util.*;
-import java.util.regex.Pattern;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
 import org.sonar.check.RuleProperty;
-import org.sonar.plugins.php.api.tree.CompilationUnitTree;
-import org.sonar.plugins.php.api.tree.Tree;
 import org.sonar.plugins.php.api.tree.Tree.Kind;
-import org.sonar.plugins.php.api.tree.expression.*;
+import org.sonar.plugins.php.api.tree.expression.UnaryExpressionTree;
 import org.sonar.plugins.php.api.tree.statement.ForStatementTree;
 import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
-import org.apache.commons.lang.StringUtils;
+import org.sonar.samples.php.checks.utils.TreePatternMatcher;
+import org.sonar.samples.php.checks.utils.TreePatterns;
 
 /**
  * Example of implementation of a check by extending {@link PHPVisitorCheck}.
@@ -51,10 +48,14 @@ import org.apache.commons.lang.StringUtils;
   )
 public class PrefixAssignmentCheck extends PHPVisitorCheck  {
 
-  public static final String PREFIX_PATTERN = "^.*\\+{2}|\\-{2}$";
+  public static final String PREFIX_PATTERN = "POSTFIX_INCREMENT|POSTFIX_DECREMENT";
+  /**
+   * Former default value of "format", a regular expression on the source of the expression, still found in profiles
+   */
+  static final String LEGACY_PREFIX_PATTERN = "^.*\\+{2}|\\-{2}$";
   public static final String KEY = "PostIncrementDecrementCheck";
   private static final String MESSAGE = "Refactor the code to avoid creating provisional variable: ++$i / $i++";
-  private Pattern pattern;
+  private TreePatternMatcher matcher;
 
   private static final Kind[] INCREMENT_DECREMENT = {
           Kind.PREFIX_INCREMENT,
@@ -64,42 +65,13 @@ public class PrefixAssignmentCheck extends PHPVisitorCheck  {
 
   @RuleProperty(
           key = "format",
+          description = "Kinds of the reported increments and decrements, e.g. POSTFIX_INCREMENT|POSTFIX_DECREMENT",
           defaultValue = PREFIX_PATTERN)
           String format = PREFIX_PATTERN;
 
   @Override
   public void init() {
-    pattern = Pattern.compile(format);
-  }
-  private Deque<Set<String>> counterStack = new ArrayDeque<>();
-
-  @Override
-  public void visitCompilationUnit(CompilationUnitTree tree) {
-    counterStack.clear();
-    super.visitCompilationUnit(tree);
-  }
-
-  @Override
-  public void visitForStatement(ForStatementTree forStatement) {
-    visitAll(forStatement.init());
-    visitAll(forStatement.condition());
-    visitAll(forStatement.update());
-
-    Set<String> newCounters = new HashSet<>();
-    if (!counterStack.isEmpty()) {
-      newCounters.addAll(counterStack.peek());
-    }
-    newCounters.addAll(getCounterNames(forStatement));
-
-    counterStack.push(newCounters);
-    visitAll(forStatement.statements());
-    counterStack.pop();
-  }
-
-  private void visitAll(Iterable<? extends Tree> trees) {
-    for (Tree tree : trees) {
-      tree.accept(this);
-    }
+    matcher = new TreePatternMatcher(KEY, TreePatterns.compile(LEGACY_PREFIX_PATTERN.equals(format) ? PREFIX_PATTERN : format));
   }
 
   @Override
@@ -115,31 +87,9 @@ public class PrefixAssignmentCheck extends PHPVisitorCheck  {
   }
 
   private void checkUnaryExpressionTree(UnaryExpressionTree tree) {
-    if (tree.is(INCREMENT_DECREMENT)) {
-      if(isNotCompliant(tree.toString())){
-        context().newIssue(this, tree, String.format(MESSAGE, tree.toString()
-        ));
-      }
-    }
-  }
-  private boolean isNotCompliant(String varName) {
-    return pattern.matcher(StringUtils.remove(varName, "$")).matches();
-  }
-
-  private static Set<String> getCounterNames(ForStatementTree forStatement) {
-    Set<String> counterNames = new HashSet<>();
-    for (ExpressionTree initExpression : forStatement.init()) {
-
-      if (initExpression.is(Kind.ASSIGNMENT)) {
-        counterNames.add(((AssignmentExpressionTree) initExpression).variable().toString());
-      } else if (initExpression.is(INCREMENT_DECREMENT)) {
-        counterNames.add(((UnaryExpressionTree) initExpression).expression().toString());
-      }
-
+    if (tree.is(INCREMENT_DECREMENT) && matcher.matches(tree, context().getPhpFile())) {
+      context().newIssue(this, tree, MESSAGE);
     }
-    return counterNames;
   }
 
-
 }
-
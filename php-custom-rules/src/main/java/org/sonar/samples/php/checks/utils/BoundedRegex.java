@@ -0,0 +1,178 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.checks.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Pattern;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Regular expression given as rule property, whose matches are abandoned after a number of steps linear in the
+ * length of the input: a pattern which backtracks catastrophically cannot hang the analysis of a large file.
+ *<p>
+ * A step is a read of a character of the input by the regex engine.
+ */
+public class BoundedRegex {
+
+  private static final Logger LOG = Loggers.get(BoundedRegex.class);
+
+  static final long BASE_STEPS = 10_000;
+  static final long STEPS_PER_CHARACTER = 100;
+
+  private final Pattern pattern;
+
+  private BoundedRegex(Pattern pattern) {
+    this.pattern = pattern;
+  }
+
+  /**
+   * Compiles the regular expression, with a warning if it repeats a group containing an unbounded quantifier,
+   * e.g. "(a+)+" or "(.*a){12}": those regular expressions are likely to reach their budget.
+   */
+  public static BoundedRegex compile(String regex) {
+    if (nestsQuantifiers(regex)) {
+      LOG.warn("The regular expression \"{}\" nests quantifiers, which can backtrack exponentially: "
+        + "its matches are abandoned after {} steps per character", regex, STEPS_PER_CHARACTER);
+    }
+    return new BoundedRegex(Pattern.compile(regex));
+  }
+
+  /**
+   * @throws BudgetExceededException if the match was abandoned
+   */
+  public boolean matches(CharSequence input) {
+    long budget = BASE_STEPS + STEPS_PER_CHARACTER * input.length();
+    return pattern.matcher(new BoundedCharSequence(input, budget, pattern.pattern())).matches();
+  }
+
+  public String pattern() {
+    return pattern.pattern();
+  }
+
+  /**
+   * @return true if a repeated group contains an unbounded quantifier, e.g. "(a+)+", "(?:x.*y)*" or "(.*a){12}"
+   */
+  static boolean nestsQuantifiers(String regex) {
+    // for each open group, whether it contains an unbounded quantifier
+    Deque<Boolean> groups = new ArrayDeque<>();
+    boolean lastGroupQuantified = false;
+    int i = 0;
+    while (i < regex.length()) {
+      char c = regex.charAt(i);
+      boolean closedGroupQuantified = false;
+      if (c == '\\') {
+        i++;
+      } else if (c == '[') {
+        i = endOfCharacterClass(regex, i);
+      } else if (c == '(') {
+        groups.push(false);
+      } else if (c == ')' && !groups.isEmpty()) {
+        closedGroupQuantified = groups.pop();
+        if (closedGroupQuantified && !groups.isEmpty()) {
+          groups.pop();
+          groups.push(true);
+        }
+      } else if (lastGroupQuantified && (c == '*' || c == '+' || c == '{')) {
+        return true;
+      } else if (isUnboundedQuantifier(regex, i)) {
+        if (!groups.isEmpty()) {
+          groups.pop();
+          groups.push(true);
+        }
+      }
+      lastGroupQuantified = closedGroupQuantified;
+      i++;
+    }
+    return false;
+  }
+
+  private static boolean isUnboundedQuantifier(String regex, int i) {
+    char c = regex.charAt(i);
+    if (c == '*' || c == '+') {
+      return true;
+    }
+    if (c == '{') {
+      int end = regex.indexOf('}', i);
+      return end > 0 && regex.charAt(end - 1) == ',';
+    }
+    return false;
+  }
+
+  private static int endOfCharacterClass(String regex, int start) {
+    int i = start + 1;
+    while (i < regex.length() && regex.charAt(i) != ']') {
+      if (regex.charAt(i) == '\\') {
+        i++;
+      }
+      i++;
+    }
+    return i;
+  }
+
+  public static class BudgetExceededException extends RuntimeException {
+    BudgetExceededException(String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * Input counting the characters read by the regex engine.
+   */
+  private static class BoundedCharSequence implements CharSequence {
+    private final CharSequence input;
+    private final long budget;
+    private final String regex;
+    private long steps = 0;
+
+    BoundedCharSequence(CharSequence input, long budget, String regex) {
+      this.input = input;
+      this.budget = budget;
+      this.regex = regex;
+    }
+
+    @Override
+    public char charAt(int index) {
+      steps++;
+      if (steps > budget) {
+        throw new BudgetExceededException("The regular expression \"" + regex + "\" was abandoned after " + budget
+          + " steps on " + input.length() + " characters");
+      }
+      return input.charAt(index);
+    }
+
+    @Override
+    public int length() {
+      return input.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      return input.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+      return input.toString();
+    }
+  }
+
+}
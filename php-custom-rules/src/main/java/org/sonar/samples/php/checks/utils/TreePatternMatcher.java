@@ -0,0 +1,63 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.checks.utils;
+
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.php.tree.impl.PHPTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.visitors.PhpFile;
+
+/**
+ * Matches the {@link TreePattern} of a rule on the trees of the analyzed files. When a regular expression of the
+ * pattern reaches its {@link BoundedRegex budget} on a file, the tree does not match, a single warning is logged for
+ * the rule and the file, and the pattern is not matched again on the rest of the file.
+ *<p>
+ * Each check has its own matcher: it is not thread-safe.
+ */
+public final class TreePatternMatcher {
+
+  private static final Logger LOG = Loggers.get(TreePatternMatcher.class);
+
+  private final String ruleKey;
+  private final TreePattern pattern;
+  private PhpFile abandonedFile;
+
+  public TreePatternMatcher(String ruleKey, TreePattern pattern) {
+    this.ruleKey = ruleKey;
+    this.pattern = pattern;
+  }
+
+  public boolean matches(Tree tree, PhpFile file) {
+    if (file == abandonedFile) {
+      return false;
+    }
+    abandonedFile = null;
+    try {
+      return pattern.matches(tree);
+    } catch (BoundedRegex.BudgetExceededException e) {
+      abandonedFile = file;
+      LOG.warn("{} in {} at line {}: rule {} is not matched on the rest of the file",
+        e.getMessage(), file.relativePath(), ((PHPTree) tree).getLine(), ruleKey);
+      return false;
+    }
+  }
+
+}
@@ -0,0 +1,270 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.checks.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.apache.commons.lang.StringUtils;
+import org.sonar.php.tree.impl.PHPTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.tree.Tree.Kind;
+import org.sonar.plugins.php.api.tree.declaration.NamespaceNameTree;
+import org.sonar.plugins.php.api.tree.expression.FunctionCallTree;
+import org.sonar.plugins.php.api.tree.expression.IdentifierTree;
+import org.sonar.plugins.php.api.tree.expression.MemberAccessTree;
+
+/**
+ * Factories of {@link TreePattern}, and compilation of the patterns given as rule properties.
+ *<p>
+ * Syntax of a compiled pattern:
+ * <pre>
+ *   pattern     := alternative ( '|' alternative )*
+ *   alternative := 'contains' '(' pattern ')'
+ *                | KIND [ '(' name ( ',' name )* ')' ]
+ * </pre>
+ * where KIND is the name of a {@link Kind}, e.g. {@code POSTFIX_INCREMENT|POSTFIX_DECREMENT}.
+ * Names can only follow {@code FUNCTION_CALL}: they restrict the matched calls to the given functions or methods,
+ * compared case-insensitively, e.g. {@code contains(FUNCTION_CALL(count, strlen))}.
+ *<p>
+ * For backward compatibility, a property which contains other characters, or which is not a valid tree pattern, such
+ * as {@code count|sizeof}, is a regular expression: it is matched against the source text of the tree without its
+ * '$', which is much slower, and within a {@link BoundedRegex budget}.
+ */
+public final class TreePatterns {
+
+  private static final Pattern TREE_PATTERN_SYNTAX = Pattern.compile("[\\w\\s|(),]*");
+
+  private TreePatterns() {
+  }
+
+  public static TreePattern compile(String format) {
+    if (TREE_PATTERN_SYNTAX.matcher(format).matches()) {
+      try {
+        return parse(format);
+      } catch (IllegalArgumentException e) {
+        try {
+          return text(BoundedRegex.compile(format));
+        } catch (PatternSyntaxException regexError) {
+          e.addSuppressed(regexError);
+          throw e;
+        }
+      }
+    }
+    return text(BoundedRegex.compile(format));
+  }
+
+  /**
+   * @throws IllegalArgumentException if the format is not a valid tree pattern
+   */
+  static TreePattern parse(String format) {
+    Parser parser = new Parser(format);
+    TreePattern pattern = parser.pattern();
+    parser.expectEnd();
+    return pattern;
+  }
+
+  public static TreePattern kind(Kind... kinds) {
+    return tree -> tree.is(kinds);
+  }
+
+  /**
+   * @param names names of the called functions or methods, any call matches if there are none
+   */
+  public static TreePattern call(String... names) {
+    if (names.length == 0) {
+      return kind(Kind.FUNCTION_CALL);
+    }
+    return tree -> tree.is(Kind.FUNCTION_CALL) && isAnyOf(calleeName((FunctionCallTree) tree), names);
+  }
+
+  /**
+   * Matches a tree if the given pattern matches it or one of its descendants. The bodies of the
+   * anonymous functions and classes, which are not evaluated with the tree, are not searched.
+   */
+  public static TreePattern contains(TreePattern pattern) {
+    return new TreePattern() {
+      @Override
+      public boolean matches(Tree tree) {
+        if (pattern.matches(tree)) {
+          return true;
+        }
+        if (((PHPTree) tree).isLeaf() || tree.is(Kind.FUNCTION_EXPRESSION, Kind.ANONYMOUS_CLASS)) {
+          return false;
+        }
+        Iterator<Tree> children = ((PHPTree) tree).childrenIterator();
+        while (children.hasNext()) {
+          Tree child = children.next();
+          if (child != null && matches(child)) {
+            return true;
+          }
+        }
+        return false;
+      }
+    };
+  }
+
+  public static TreePattern anyOf(List<TreePattern> patterns) {
+    if (patterns.size() == 1) {
+      return patterns.get(0);
+    }
+    TreePattern[] alternatives = patterns.toArray(new TreePattern[0]);
+    return tree -> {
+      for (TreePattern alternative : alternatives) {
+        if (alternative.matches(tree)) {
+          return true;
+        }
+      }
+      return false;
+    };
+  }
+
+  /**
+   * Legacy matching of the source text of the tree, without its '$'.
+   *
+   * @see BoundedRegex#matches(CharSequence)
+   */
+  public static TreePattern text(BoundedRegex regex) {
+    return tree -> regex.matches(StringUtils.remove(tree.toString(), "$"));
+  }
+
+  private static String calleeName(FunctionCallTree call) {
+    Tree callee = call.callee();
+    if (callee.is(Kind.NAMESPACE_NAME)) {
+      return ((NamespaceNameTree) callee).name().text();
+    }
+    if (callee.is(Kind.OBJECT_MEMBER_ACCESS, Kind.CLASS_MEMBER_ACCESS)) {
+      Tree member = ((MemberAccessTree) callee).member();
+      if (member.is(Kind.NAME_IDENTIFIER)) {
+        return ((IdentifierTree) member).text();
+      }
+    }
+    // e.g. "$callback()"
+    return null;
+  }
+
+  private static boolean isAnyOf(String name, String[] names) {
+    if (name != null) {
+      for (String candidate : names) {
+        if (candidate.equalsIgnoreCase(name)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static class Parser {
+    private final String format;
+    private int position = 0;
+
+    Parser(String format) {
+      this.format = format;
+    }
+
+    TreePattern pattern() {
+      List<TreePattern> alternatives = new ArrayList<>();
+      alternatives.add(alternative());
+      while (accept('|')) {
+        alternatives.add(alternative());
+      }
+      return anyOf(alternatives);
+    }
+
+    private TreePattern alternative() {
+      String word = word();
+      if ("contains".equals(word)) {
+        expect('(');
+        TreePattern pattern = pattern();
+        expect(')');
+        return contains(pattern);
+      }
+      Kind kind = parseKind(word);
+      if (!accept('(')) {
+        return TreePatterns.kind(kind);
+      }
+      if (kind != Kind.FUNCTION_CALL) {
+        throw error("names can only be given to FUNCTION_CALL, not to " + kind);
+      }
+      List<String> names = new ArrayList<>();
+      do {
+        names.add(word());
+      } while (accept(','));
+      expect(')');
+      return call(names.toArray(new String[0]));
+    }
+
+    private Kind parseKind(String word) {
+      try {
+        return Kind.valueOf(word.toUpperCase(Locale.ENGLISH));
+      } catch (IllegalArgumentException e) {
+        throw error("unknown kind " + word);
+      }
+    }
+
+    private String word() {
+      skipWhitespaces();
+      int start = position;
+      while (position < format.length() && Character.isJavaIdentifierPart(format.charAt(position))) {
+        position++;
+      }
+      if (start == position) {
+        throw error("name expected");
+      }
+      return format.substring(start, position);
+    }
+
+    private boolean accept(char expected) {
+      skipWhitespaces();
+      if (position < format.length() && format.charAt(position) == expected) {
+        position++;
+        return true;
+      }
+      return false;
+    }
+
+    private void expect(char expected) {
+      if (!accept(expected)) {
+        throw error("'" + expected + "' expected");
+      }
+    }
+
+    void expectEnd() {
+      skipWhitespaces();
+      if (position < format.length()) {
+        throw error("unexpected '" + format.charAt(position) + "'");
+      }
+    }
+
+    private void skipWhitespaces() {
+      while (position < format.length() && Character.isWhitespace(format.charAt(position))) {
+        position++;
+      }
+    }
+
+    private IllegalArgumentException error(String message) {
+      return new IllegalArgumentException("Invalid tree pattern \"" + format + "\" at position " + position + ": " + message);
+    }
+  }
+
+}
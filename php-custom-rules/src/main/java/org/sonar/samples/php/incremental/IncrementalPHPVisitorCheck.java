@@ -0,0 +1,195 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.incremental;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.lexical.SyntaxToken;
+import org.sonar.plugins.php.api.visitors.CheckContext;
+import org.sonar.plugins.php.api.visitors.FileIssue;
+import org.sonar.plugins.php.api.visitors.IssueLocation;
+import org.sonar.plugins.php.api.visitors.LineIssue;
+import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+import org.sonar.plugins.php.api.visitors.PhpIssue;
+import org.sonar.plugins.php.api.visitors.PreciseIssue;
+import org.sonar.samples.rulekit.cache.CacheKey;
+import org.sonar.samples.rulekit.cache.CachedIssue;
+import org.sonar.samples.rulekit.cache.CachedIssue.Location;
+import org.sonar.samples.rulekit.cache.IssueCache;
+import org.sonar.samples.rulekit.cache.PluginIssueCache;
+
+/**
+ * Base class of the checks which opt into the incremental mode: when the {@value IssueCache#INCREMENTAL_PROPERTY}
+ * system property is "true", the issues of the check on a file are kept in the {@link IssueCache} of the plugin, and
+ * replayed instead of walking the file again as long as neither its content nor the parameters of the check, such as
+ * a "format", change. Only the checks whose issues depend on the file alone should extend this class.
+ * <p>
+ * The issues are replayed on the tokens found again from their positions, in a walk of the tree which only visits
+ * the tokens, and only when the file has issues.
+ */
+public abstract class IncrementalPHPVisitorCheck extends PHPVisitorCheck {
+
+  public static final String PLUGIN_KEY = "php-custom-rules";
+
+  /**
+   * Saved and released at the end of each analysis by {@link IssueCachePostJob}
+   */
+  static final PluginIssueCache PLUGIN_CACHE = new PluginIssueCache(PLUGIN_KEY, IncrementalPHPVisitorCheck.class, PHPVisitorCheck.class);
+
+  private final IssueCache cache;
+
+  protected IncrementalPHPVisitorCheck() {
+    this(PLUGIN_CACHE.get());
+  }
+
+  /**
+   * @param cache the cache of the issues, or null to always run the check
+   */
+  IncrementalPHPVisitorCheck(IssueCache cache) {
+    this.cache = cache;
+  }
+
+  /**
+   * Both "analyze" methods start the walk of the file here, after setting the context of the file.
+   */
+  @Override
+  public void visitCompilationUnit(CompilationUnitTree tree) {
+    if (cache == null) {
+      super.visitCompilationUnit(tree);
+      return;
+    }
+    CheckContext context = context();
+    CacheKey key = CacheKey.of(context.getPhpFile().contents(), ruleKey(getClass()), CacheKey.parameters(this, RuleProperty.class));
+    List<CachedIssue> cached = cache.get(key);
+    if (cached != null) {
+      replay(context, tree, cached);
+      return;
+    }
+    int issuesBefore = context.getIssues().size();
+    super.visitCompilationUnit(tree);
+    List<PhpIssue> issues = context.getIssues();
+    List<CachedIssue> recorded = new ArrayList<>(issues.size() - issuesBefore);
+    for (PhpIssue issue : issues.subList(issuesBefore, issues.size())) {
+      if (issue.check() == this) {
+        recorded.add(record(issue));
+      }
+    }
+    cache.put(key, recorded);
+  }
+
+  private static CachedIssue record(PhpIssue issue) {
+    if (issue instanceof PreciseIssue) {
+      PreciseIssue precise = (PreciseIssue) issue;
+      List<Location> secondaries = new ArrayList<>(precise.secondaryLocations().size());
+      for (IssueLocation secondary : precise.secondaryLocations()) {
+        secondaries.add(location(secondary));
+      }
+      return new CachedIssue(location(precise.primaryLocation()), secondaries, issue.cost());
+    }
+    Location primary;
+    if (issue instanceof LineIssue) {
+      primary = Location.line(((LineIssue) issue).line(), ((LineIssue) issue).message());
+    } else {
+      primary = Location.file(((FileIssue) issue).message());
+    }
+    return new CachedIssue(primary, new ArrayList<>(), issue.cost());
+  }
+
+  private static Location location(IssueLocation location) {
+    return Location.range(Location.NO_KIND, location.startLine(), location.startLineOffset(), location.endLine(), location.endLineOffset(), location.message());
+  }
+
+  /**
+   * The file has the same content, so the tokens of the issues are found again. Were one of them missing, its issue
+   * would be reported on its line.
+   */
+  private void replay(CheckContext context, CompilationUnitTree tree, List<CachedIssue> issues) {
+    TokenLocator tokens = issues.isEmpty() ? null : new TokenLocator(tree);
+    for (CachedIssue issue : issues) {
+      Location primary = issue.primary();
+      PhpIssue replayed;
+      if (primary.isFile()) {
+        replayed = context.newFileIssue(this, primary.message());
+      } else if (primary.isLine() || !tokens.contains(primary)) {
+        replayed = context.newLineIssue(this, primary.startLine(), primary.message());
+      } else {
+        PreciseIssue precise = context.newIssue(this, tokens.first(primary), tokens.last(primary), primary.message());
+        for (Location secondary : issue.secondaries()) {
+          if (tokens.contains(secondary)) {
+            precise.secondary(tokens.first(secondary), tokens.last(secondary), secondary.message());
+          }
+        }
+        replayed = precise;
+      }
+      if (issue.cost() != null) {
+        replayed.cost(issue.cost());
+      }
+    }
+  }
+
+  /**
+   * @return the key of the {@link Rule} annotation of the check, or its simple name if it has none
+   */
+  static String ruleKey(Class<?> check) {
+    Rule rule = check.getAnnotation(Rule.class);
+    return rule == null || rule.key().isEmpty() ? check.getSimpleName() : rule.key();
+  }
+
+  /**
+   * Tokens of a file by the positions of their start and of their end.
+   */
+  private static final class TokenLocator extends PHPVisitorCheck {
+
+    private final Map<Long, SyntaxToken> byStart = new HashMap<>();
+    private final Map<Long, SyntaxToken> byEnd = new HashMap<>();
+
+    TokenLocator(CompilationUnitTree tree) {
+      tree.accept(this);
+    }
+
+    @Override
+    public void visitToken(SyntaxToken token) {
+      byStart.putIfAbsent(position(token.line(), token.column()), token);
+      byEnd.putIfAbsent(position(token.endLine(), token.endColumn()), token);
+    }
+
+    boolean contains(Location location) {
+      return first(location) != null && last(location) != null;
+    }
+
+    SyntaxToken first(Location location) {
+      return byStart.get(position(location.startLine(), location.startColumn()));
+    }
+
+    SyntaxToken last(Location location) {
+      return byEnd.get(position(location.endLine(), location.endColumn()));
+    }
+
+    private static long position(int line, int column) {
+      return ((long) line << 32) | column;
+    }
+  }
+
+}
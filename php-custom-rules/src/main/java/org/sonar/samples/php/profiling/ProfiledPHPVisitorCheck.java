@@ -0,0 +1,73 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.profiling;
+
+import org.sonar.check.Rule;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.visitors.CheckContext;
+import org.sonar.plugins.php.api.visitors.PHPVisitorCheck;
+import org.sonar.samples.rulekit.profiling.RuleProfiler;
+
+/**
+ * Base class of the checks which opt into profiling: their time, visited nodes, allocations and issues are measured
+ * per file by a {@link RuleProfiler}, sent to Java Flight Recorder and summed in the summary of the slowest rules.
+ * <p>
+ * Each check walks the tree of the file on its own, so the whole walk is measured at once. The nodes whose children
+ * are scanned, i.e. whose "visit" method calls its super method, are counted: the tokens and the subtrees skipped by
+ * the check are not.
+ */
+public abstract class ProfiledPHPVisitorCheck extends PHPVisitorCheck {
+
+  private final RuleProfiler profiler = RuleProfiler.of(ruleKey(getClass()));
+
+  /**
+   * Both "analyze" methods start the walk of the file here, after setting the context of the file.
+   */
+  @Override
+  public void visitCompilationUnit(CompilationUnitTree tree) {
+    CheckContext context = context();
+    profiler.startFile(context.getPhpFile().relativePath().toString());
+    int issuesBefore = context.getIssues().size();
+    profiler.enter();
+    try {
+      super.visitCompilationUnit(tree);
+    } finally {
+      profiler.exit();
+      profiler.issues(context.getIssues().size() - issuesBefore);
+      profiler.endFile();
+    }
+  }
+
+  @Override
+  protected void scan(Tree tree) {
+    profiler.node();
+    super.scan(tree);
+  }
+
+  /**
+   * @return the key of the {@link Rule} annotation of the check, or its simple name if it has none
+   */
+  static String ruleKey(Class<?> check) {
+    Rule rule = check.getAnnotation(Rule.class);
+    return rule == null || rule.key().isEmpty() ? check.getSimpleName() : rule.key();
+  }
+
+}
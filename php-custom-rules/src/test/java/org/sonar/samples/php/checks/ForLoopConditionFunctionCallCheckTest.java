@@ -19,21 +19,60 @@
  */
 package org.sonar.samples.php.checks;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
 import org.sonar.plugins.php.api.tests.PHPCheckTest;
 import org.sonar.plugins.php.api.tests.PHPCheckVerifier;
 import org.sonar.plugins.php.api.tests.PhpTestFile;
 
 import java.io.File;
 
+import static org.junit.Assert.assertEquals;
+
 /**
  * Test class to test the check implementation.
  */
 public class ForLoopConditionFunctionCallCheckTest {
 
+  @Rule
+  public LogTester logTester = new LogTester();
+
   @Test
   public void test(){
     PHPCheckVerifier.verify(new PhpTestFile(new File("src/test/resources/checks/forLoopConditionFunctionCallCheck.php")),new ForLoopConditionFunctionCallCheck());
   }
 
+  @Test
+  public void legacy_default_format(){
+    ForLoopConditionFunctionCallCheck check = new ForLoopConditionFunctionCallCheck();
+    check.format = ForLoopConditionFunctionCallCheck.LEGACY_FUNCTION_PATTERN;
+    PHPCheckVerifier.verify(new PhpTestFile(new File("src/test/resources/checks/forLoopConditionFunctionCallCheck.php")),check);
+  }
+
+  @Test
+  public void called_functions(){
+    ForLoopConditionFunctionCallCheck check = new ForLoopConditionFunctionCallCheck();
+    check.format = "contains(FUNCTION_CALL(strlen, substr))";
+    PHPCheckVerifier.verify(new PhpTestFile(new File("src/test/resources/checks/forLoopConditionFunctionCallCheckFormat.php")),check);
+  }
+
+  @Test
+  public void regular_expression_format(){
+    ForLoopConditionFunctionCallCheck check = new ForLoopConditionFunctionCallCheck();
+    check.format = "(?i)^.*strlen\\(.*\\)$";
+    PHPCheckVerifier.verify(new PhpTestFile(new File("src/test/resources/checks/forLoopConditionFunctionCallCheckFormat.php")),check);
+  }
+
+  @Test
+  public void backtracking_regular_expression_format(){
+    ForLoopConditionFunctionCallCheck check = new ForLoopConditionFunctionCallCheck();
+    check.format = ".*(.*a){12}b";
+    PHPCheckVerifier.verifyNoIssue(new PhpTestFile(new File("src/test/resources/checks/forLoopConditionFunctionCallCheckBacktracking.php")),check);
+    assertEquals(2, logTester.logs(LoggerLevel.WARN).size());
+    assertEquals("The regular expression \".*(.*a){12}b\" was abandoned after 20500 steps on 105 characters in src/test/resources/checks/forLoopConditionFunctionCallCheckBacktracking.php at line 4: rule ForLoopConditionFunctionCallCheck is not matched on the rest of the file",
+      logTester.logs(LoggerLevel.WARN).get(1));
+  }
+
 }
@@ -0,0 +1,136 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.checks;
+
+import com.sonar.sslr.api.typed.ActionParser;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+import org.junit.Test;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.php.tree.symbols.SymbolTableImpl;
+import org.sonar.plugins.php.api.tests.PhpTestFile;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.visitors.PHPCheck;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Analyzes the same number of for loops, nested at increasing depths: the allocations and the time per loop of the
+ * checks keeping the counters of the enclosing loops must not depend on the depth.
+ */
+public class NestedLoopsStressTest {
+
+  private static final int LOOPS = 1200;
+  private static final int[] DEPTHS = {4, 40, 400};
+  private static final int RUNS = 10;
+
+  private static final PhpTestFile FILE = new PhpTestFile(new File("src/test/resources/checks/forLoopConditionFunctionCallCheck.php"));
+
+  @Test
+  public void prefix_assignment_check_is_flat_with_nesting_depth() throws Exception {
+    assertFlat(PrefixAssignmentCheck::new);
+  }
+
+  @Test
+  public void for_loop_condition_function_call_check_is_flat_with_nesting_depth() throws Exception {
+    assertFlat(ForLoopConditionFunctionCallCheck::new);
+  }
+
+  private static void assertFlat(Supplier<PHPCheck> checkFactory) throws Exception {
+    Measure[] measures = new Measure[DEPTHS.length];
+    // deeply nested trees are parsed and visited recursively
+    Thread thread = new Thread(null, () -> {
+      for (int i = 0; i < DEPTHS.length; i++) {
+        measures[i] = measure(checkFactory.get(), DEPTHS[i]);
+      }
+    }, "nested-loops", 512L * 1024 * 1024);
+    thread.start();
+    thread.join();
+
+    Measure shallow = measures[0];
+    for (int i = 1; i < DEPTHS.length; i++) {
+      Measure deep = measures[i];
+      String message = "depth " + DEPTHS[0] + ": " + shallow + ", depth " + DEPTHS[i] + ": " + deep;
+      assertTrue(message, deep.bytesPerLoop < shallow.bytesPerLoop * 1.25);
+      // generous bound on time, which is not as stable as allocations
+      assertTrue(message, deep.nanosPerLoop < shallow.nanosPerLoop * 4);
+    }
+  }
+
+  private static Measure measure(PHPCheck check, int depth) {
+    ActionParser<Tree> parser = PHPParserBuilder.createParser();
+    CompilationUnitTree tree = (CompilationUnitTree) parser.parse(generate(depth, LOOPS / depth));
+    SymbolTableImpl symbolTable = SymbolTableImpl.create(tree);
+    check.init();
+
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    long minBytes = Long.MAX_VALUE;
+    long minNanos = Long.MAX_VALUE;
+    // first runs warm up the JIT compiler
+    for (int run = 0; run < RUNS * 2; run++) {
+      long bytes = threads.getThreadAllocatedBytes(threadId);
+      long nanos = System.nanoTime();
+      check.analyze(FILE, tree, symbolTable);
+      nanos = System.nanoTime() - nanos;
+      bytes = threads.getThreadAllocatedBytes(threadId) - bytes;
+      if (run >= RUNS) {
+        minBytes = Math.min(minBytes, bytes);
+        minNanos = Math.min(minNanos, nanos);
+      }
+    }
+    return new Measure(minBytes / LOOPS, minNanos / LOOPS);
+  }
+
+  /**
+   * @return "nests" times "depth" nested for loops
+   */
+  static String generate(int depth, int nests) {
+    StringBuilder php = new StringBuilder("<?php\nfunction f() {\n");
+    for (int nest = 0; nest < nests; nest++) {
+      for (int level = 0; level < depth; level++) {
+        php.append("for ($i").append(level).append(" = 0; $i").append(level).append(" < 10; $i").append(level).append("++) {\n");
+      }
+      php.append("echo $i0;\n");
+      for (int level = 0; level < depth; level++) {
+        php.append("}\n");
+      }
+    }
+    return php.append("}\n").toString();
+  }
+
+  private static class Measure {
+    private final long bytesPerLoop;
+    private final long nanosPerLoop;
+
+    Measure(long bytesPerLoop, long nanosPerLoop) {
+      this.bytesPerLoop = bytesPerLoop;
+      this.nanosPerLoop = nanosPerLoop;
+    }
+
+    @Override
+    public String toString() {
+      return bytesPerLoop + " B/loop, " + nanosPerLoop + " ns/loop";
+    }
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.checks.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BoundedRegexTest {
+
+  @Rule
+  public LogTester logTester = new LogTester();
+
+  @Test
+  public void matches() {
+    BoundedRegex regex = BoundedRegex.compile("^.*\\(.*\\)$");
+    assertTrue(regex.matches("i < count(array)"));
+    assertFalse(regex.matches("i < n"));
+    assertTrue(logTester.logs(LoggerLevel.WARN).isEmpty());
+  }
+
+  @Test
+  public void quadratic_backtracking_is_abandoned() {
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 100_000; i++) {
+      input.append('(');
+    }
+    BoundedRegex regex = BoundedRegex.compile("^.*\\(.*\\)$");
+    try {
+      regex.matches(input);
+      fail("Expected the match to be abandoned");
+    } catch (BoundedRegex.BudgetExceededException e) {
+      assertEquals("The regular expression \"^.*\\(.*\\)$\" was abandoned after 10010000 steps on 100000 characters", e.getMessage());
+    }
+  }
+
+  @Test
+  public void exponential_backtracking_is_abandoned() {
+    BoundedRegex regex = BoundedRegex.compile(".*(.*a){12}b");
+    assertEquals(1, logTester.logs(LoggerLevel.WARN).size());
+    try {
+      // would take seconds without budget
+      regex.matches("i < aaaaaaaaaaaaaaaaaaaaaaaaa");
+      fail("Expected the match to be abandoned");
+    } catch (BoundedRegex.BudgetExceededException e) {
+      assertTrue(e.getMessage().startsWith("The regular expression \".*(.*a){12}b\" was abandoned after "));
+    }
+  }
+
+  @Test
+  public void nested_quantifiers() {
+    assertTrue(BoundedRegex.nestsQuantifiers("(a+)+"));
+    assertTrue(BoundedRegex.nestsQuantifiers("(a*b)*"));
+    assertTrue(BoundedRegex.nestsQuantifiers("(?:x.*y){2,}"));
+    assertTrue(BoundedRegex.nestsQuantifiers("((a+)b)+"));
+    assertFalse(BoundedRegex.nestsQuantifiers("^.*\\(.*\\)$"));
+    assertFalse(BoundedRegex.nestsQuantifiers("(ab)+"));
+    assertFalse(BoundedRegex.nestsQuantifiers("(a+)b+"));
+    assertTrue(BoundedRegex.nestsQuantifiers("(.*a){12}"));
+    assertFalse(BoundedRegex.nestsQuantifiers("(a+)?"));
+    assertFalse(BoundedRegex.nestsQuantifiers("([+*])+"));
+    assertFalse(BoundedRegex.nestsQuantifiers("(\\+)+"));
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.checks.utils;
+
+import com.sonar.sslr.api.typed.ActionParser;
+import java.io.File;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.php.parser.PHPLexicalGrammar;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.plugins.php.api.tree.Tree;
+import org.sonar.plugins.php.api.tests.PhpTestFile;
+import org.sonar.plugins.php.api.visitors.PhpFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TreePatternMatcherTest {
+
+  private static final ActionParser<Tree> PARSER = PHPParserBuilder.createParser(PHPLexicalGrammar.EXPRESSION);
+
+  @Rule
+  public LogTester logTester = new LogTester();
+
+  private int matches = 0;
+
+  @Test
+  public void budget_overrun_is_reported_once_per_file() {
+    TreePatternMatcher matcher = new TreePatternMatcher("MyRule", tree -> {
+      matches++;
+      throw new BoundedRegex.BudgetExceededException("Abandoned");
+    });
+    PhpFile file = file();
+    Tree tree = PARSER.parse("$i < count($array)");
+
+    assertFalse(matcher.matches(tree, file));
+    assertFalse(matcher.matches(tree, file));
+    assertEquals(1, matches);
+    assertEquals(1, logTester.logs(LoggerLevel.WARN).size());
+    assertEquals("Abandoned in src/test/resources/checks/forLoopConditionFunctionCallCheck.php at line 1: rule MyRule is not matched on the rest of the file",
+      logTester.logs(LoggerLevel.WARN).get(0));
+
+    assertFalse(matcher.matches(tree, file()));
+    assertEquals(2, matches);
+    assertEquals(2, logTester.logs(LoggerLevel.WARN).size());
+  }
+
+  @Test
+  public void pattern_is_matched() {
+    TreePatternMatcher matcher = new TreePatternMatcher("MyRule", TreePatterns.compile("contains(FUNCTION_CALL)"));
+    assertTrue(matcher.matches(PARSER.parse("$i < count($array)"), file()));
+    assertFalse(matcher.matches(PARSER.parse("$i < $n"), file()));
+    assertTrue(logTester.logs(LoggerLevel.WARN).isEmpty());
+  }
+
+  private static PhpFile file() {
+    return new PhpTestFile(new File("src/test/resources/checks/forLoopConditionFunctionCallCheck.php"));
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.checks.utils;
+
+import com.sonar.sslr.api.typed.ActionParser;
+import org.junit.Test;
+import org.sonar.php.parser.PHPLexicalGrammar;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.plugins.php.api.tree.Tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TreePatternsTest {
+
+  private static final ActionParser<Tree> PARSER = PHPParserBuilder.createParser(PHPLexicalGrammar.EXPRESSION);
+
+  @Test
+  public void kinds() {
+    TreePattern pattern = TreePatterns.compile("POSTFIX_INCREMENT | postfix_decrement");
+    assertTrue(pattern.matches(parse("$i++")));
+    assertTrue(pattern.matches(parse("$i--")));
+    assertFalse(pattern.matches(parse("++$i")));
+  }
+
+  @Test
+  public void contains() {
+    TreePattern pattern = TreePatterns.compile("contains(FUNCTION_CALL)");
+    assertTrue(pattern.matches(parse("$i < count($array)")));
+    assertTrue(pattern.matches(parse("count($array) > $i")));
+    assertTrue(pattern.matches(parse("$i < $a->size() - 1")));
+    assertFalse(pattern.matches(parse("($i < $n)")));
+    assertFalse(pattern.matches(parse("$i < $n && function() { return count($a); }")));
+  }
+
+  @Test
+  public void called_functions() {
+    TreePattern pattern = TreePatterns.compile("contains(FUNCTION_CALL(count, size))");
+    assertTrue(pattern.matches(parse("$i < COUNT($array)")));
+    assertTrue(pattern.matches(parse("$i < \\count($array)")));
+    assertTrue(pattern.matches(parse("$i < $a->size()")));
+    assertTrue(pattern.matches(parse("$i < Collection::size($a)")));
+    assertFalse(pattern.matches(parse("$i < strlen($s)")));
+    assertFalse(pattern.matches(parse("$i < $count()")));
+  }
+
+  @Test
+  public void regular_expressions_match_the_source_without_dollars() {
+    TreePattern pattern = TreePatterns.compile("^.*\\(.*\\)$");
+    assertTrue(pattern.matches(parse("$i < count($array)")));
+    assertTrue(pattern.matches(parse("($i < $n)")));
+    assertFalse(pattern.matches(parse("count($array) > $i")));
+  }
+
+  @Test
+  public void word_only_regular_expressions_are_still_regular_expressions() {
+    TreePattern alternatives = TreePatterns.compile("count|sizeof");
+    assertTrue(alternatives.matches(parse("count")));
+    assertTrue(alternatives.matches(parse("$sizeof")));
+    assertFalse(alternatives.matches(parse("$i < count($array)")));
+    TreePattern group = TreePatterns.compile("(strlen)");
+    assertTrue(group.matches(parse("strlen")));
+    assertFalse(group.matches(parse("strlen($s)")));
+  }
+
+  @Test
+  public void invalid_patterns() {
+    assertInvalid("FUNCTION", "Invalid tree pattern \"FUNCTION\" at position 8: unknown kind FUNCTION");
+    assertInvalid("contains(FUNCTION_CALL", "Invalid tree pattern \"contains(FUNCTION_CALL\" at position 22: ')' expected");
+    assertInvalid("POSTFIX_INCREMENT(i)", "Invalid tree pattern \"POSTFIX_INCREMENT(i)\" at position 18: names can only be given to FUNCTION_CALL, not to POSTFIX_INCREMENT");
+    assertInvalid("FUNCTION_CALL()", "Invalid tree pattern \"FUNCTION_CALL()\" at position 14: name expected");
+    assertInvalid("FUNCTION_CALL NAMESPACE_NAME", "Invalid tree pattern \"FUNCTION_CALL NAMESPACE_NAME\" at position 14: unexpected 'N'");
+  }
+
+  @Test
+  public void invalid_patterns_and_regular_expressions() {
+    try {
+      TreePatterns.compile("contains(FUNCTION_CALL");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Invalid tree pattern \"contains(FUNCTION_CALL\" at position 22: ')' expected", e.getMessage());
+      assertEquals(1, e.getSuppressed().length);
+    }
+  }
+
+  private static void assertInvalid(String format, String message) {
+    try {
+      TreePatterns.parse(format);
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      assertEquals(message, e.getMessage());
+    }
+  }
+
+  private static Tree parse(String expression) {
+    return PARSER.parse(expression);
+  }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.incremental;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.check.RuleProperty;
+import org.sonar.php.parser.PHPParserBuilder;
+import org.sonar.plugins.php.api.tests.PHPCheckVerifier;
+import org.sonar.plugins.php.api.tests.PhpTestFile;
+import org.sonar.plugins.php.api.tree.CompilationUnitTree;
+import org.sonar.plugins.php.api.tree.expression.FunctionCallTree;
+import org.sonar.plugins.php.api.visitors.IssueLocation;
+import org.sonar.plugins.php.api.visitors.LineIssue;
+import org.sonar.plugins.php.api.visitors.PhpIssue;
+import org.sonar.plugins.php.api.visitors.PreciseIssue;
+import org.sonar.samples.rulekit.cache.IssueCache;
+
+import static org.junit.Assert.assertEquals;
+
+public class IncrementalPHPVisitorCheckTest {
+
+  private static final PhpTestFile FILE = new PhpTestFile(new File("src/test/resources/checks/incrementalCheck.php"));
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void issues_of_an_unchanged_file_are_replayed() throws Exception {
+    IssueCache cache = IssueCache.open(temp.getRoot().toPath().resolve("php-custom-rules.cache"), "fingerprint", IssueCache.DEFAULT_MAX_SIZE);
+    CallCheck first = new CallCheck(cache);
+    List<String> analyzed = describe(analyze(first));
+    assertEquals(5, first.calls);
+    assertEquals(3, analyzed.size());
+    assertEquals("3:0-3:11 Call. secondary 3:7-3:10 Argument. cost 2.0", analyzed.get(0));
+    assertEquals("5:0-6:6 Call. secondary 5:7-5:17 Argument. cost 2.0", analyzed.get(1));
+    cache.save();
+
+    IssueCache reloaded = IssueCache.open(temp.getRoot().toPath().resolve("php-custom-rules.cache"), "fingerprint", IssueCache.DEFAULT_MAX_SIZE);
+    CallCheck second = new CallCheck(reloaded);
+    assertEquals(analyzed, describe(analyze(second)));
+    PHPCheckVerifier.verify(FILE, second);
+    assertEquals(0, second.calls);
+    assertEquals(2, reloaded.hits());
+  }
+
+  @Test
+  public void parameters_are_part_of_the_key() {
+    IssueCache cache = IssueCache.open(temp.getRoot().toPath().resolve("php-custom-rules.cache"), "fingerprint", IssueCache.DEFAULT_MAX_SIZE);
+    analyze(new CallCheck(cache));
+
+    CallCheck other = new CallCheck(cache);
+    other.format = "other";
+    assertEquals(0, analyze(other).size());
+    assertEquals(5, other.calls);
+    assertEquals(2, cache.entries());
+  }
+
+  @Test
+  public void checks_run_on_each_file_without_cache() {
+    CallCheck check = new CallCheck(null);
+    analyze(check);
+    analyze(check);
+    assertEquals(10, check.calls);
+  }
+
+  @Test
+  public void rule_key() {
+    assertEquals("IncrementalCallCheck", IncrementalPHPVisitorCheck.ruleKey(CallCheck.class));
+    assertEquals("String", IncrementalPHPVisitorCheck.ruleKey(String.class));
+  }
+
+  private static List<PhpIssue> analyze(CallCheck check) {
+    CompilationUnitTree tree = (CompilationUnitTree) PHPParserBuilder.createParser().parse(FILE.contents());
+    check.init();
+    return check.analyze(FILE, tree);
+  }
+
+  private static List<String> describe(List<PhpIssue> issues) {
+    List<String> descriptions = new ArrayList<>();
+    for (PhpIssue issue : issues) {
+      StringBuilder description = new StringBuilder();
+      if (issue instanceof PreciseIssue) {
+        describe(((PreciseIssue) issue).primaryLocation(), description);
+        for (IssueLocation secondary : ((PreciseIssue) issue).secondaryLocations()) {
+          describe(secondary, description.append(" secondary "));
+        }
+      } else {
+        description.append("line ").append(((LineIssue) issue).line()).append(' ').append(((LineIssue) issue).message());
+      }
+      descriptions.add(description.append(" cost ").append(issue.cost()).toString());
+    }
+    return descriptions;
+  }
+
+  private static void describe(IssueLocation location, StringBuilder description) {
+    description.append(location.startLine()).append(':').append(location.startLineOffset())
+      .append('-').append(location.endLine()).append(':').append(location.endLineOffset())
+      .append(' ').append(location.message());
+  }
+
+  @org.sonar.check.Rule(key = "IncrementalCallCheck")
+  public static class CallCheck extends IncrementalPHPVisitorCheck {
+
+    @RuleProperty(key = "format")
+    String format = "";
+
+    private int calls;
+
+    CallCheck(IssueCache cache) {
+      super(cache);
+    }
+
+    @Override
+    public void visitFunctionCall(FunctionCallTree tree) {
+      calls++;
+      String callee = tree.callee().toString();
+      if (!callee.startsWith(format)) {
+        // another format reports nothing
+      } else if ("report".equals(callee)) {
+        context().newIssue(this, tree, "Call.").secondary(tree.arguments().get(0), "Argument.").cost(2);
+      } else if ("line".equals(callee)) {
+        context().newLineIssue(this, 7, "Line.");
+      }
+      super.visitFunctionCall(tree);
+    }
+  }
+
+}
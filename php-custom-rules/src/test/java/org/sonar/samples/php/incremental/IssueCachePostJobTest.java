@@ -0,0 +1,79 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.incremental;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.samples.rulekit.cache.CacheKey;
+import org.sonar.samples.rulekit.cache.IssueCache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class IssueCachePostJobTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Rule
+  public LogTester logTester = new LogTester();
+
+  @After
+  public void clearProperties() {
+    System.clearProperty(IssueCache.INCREMENTAL_PROPERTY);
+    System.clearProperty(IssueCache.DIRECTORY_PROPERTY);
+  }
+
+  @Test
+  public void cache_is_saved_when_the_analysis_ends() throws Exception {
+    System.setProperty(IssueCache.INCREMENTAL_PROPERTY, "true");
+    System.setProperty(IssueCache.DIRECTORY_PROPERTY, temp.getRoot().toString());
+    IssueCache cache = IncrementalPHPVisitorCheck.PLUGIN_CACHE.get();
+    cache.put(CacheKey.of("<?php", "Rule", Collections.emptyMap()), Collections.emptyList());
+
+    new IssueCachePostJob().execute(null);
+
+    assertTrue(Files.exists(temp.getRoot().toPath().resolve("php-custom-rules.cache")));
+    assertNotSame(cache, IncrementalPHPVisitorCheck.PLUGIN_CACHE.get());
+    new IssueCachePostJob().execute(null);
+    assertTrue(logTester.logs(LoggerLevel.WARN).isEmpty());
+  }
+
+  @Test
+  public void failure_to_save_is_logged() throws Exception {
+    File notDirectory = temp.newFile("file");
+    System.setProperty(IssueCache.INCREMENTAL_PROPERTY, "true");
+    System.setProperty(IssueCache.DIRECTORY_PROPERTY, notDirectory.toString());
+    IncrementalPHPVisitorCheck.PLUGIN_CACHE.get().put(CacheKey.of("<?php", "Rule", Collections.emptyMap()), Collections.emptyList());
+
+    new IssueCachePostJob().execute(null);
+
+    assertEquals(Collections.singletonList("Cannot save the issue cache of the incremental rules"), logTester.logs(LoggerLevel.WARN));
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.profiling;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.plugins.php.api.tests.PHPCheckVerifier;
+import org.sonar.plugins.php.api.tests.PhpTestFile;
+import org.sonar.plugins.php.api.tree.expression.FunctionCallTree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ProfiledPHPVisitorCheckTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void profiles_each_file() throws Exception {
+    Path dump = temp.newFile("rules.jfr").toPath();
+    try (Recording recording = new Recording()) {
+      recording.enable("org.sonar.samples.RuleExecution").withThreshold(Duration.ZERO);
+      recording.start();
+      PHPCheckVerifier.verify(new PhpTestFile(new File("src/test/resources/checks/profiledCheck.php")), new CallCheck());
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(dump).stream()
+      .filter(event -> "ProfiledCallCheck".equals(event.getString("rule")))
+      .collect(Collectors.toList());
+    assertFalse(events.isEmpty());
+    RecordedEvent event = events.get(0);
+    assertTrue(event.getString("file").endsWith("profiledCheck.php"));
+    assertTrue(event.getLong("nodes") > 4);
+    assertEquals(2, event.getInt("issues"));
+    assertTrue(event.getDuration("ruleTime").toNanos() > 0);
+  }
+
+  @Test
+  public void rule_key() {
+    assertEquals("ProfiledCallCheck", ProfiledPHPVisitorCheck.ruleKey(CallCheck.class));
+    assertEquals("String", ProfiledPHPVisitorCheck.ruleKey(String.class));
+  }
+
+  @org.sonar.check.Rule(key = "ProfiledCallCheck")
+  public static class CallCheck extends ProfiledPHPVisitorCheck {
+
+    @Override
+    public void visitFunctionCall(FunctionCallTree tree) {
+      if ("report".equals(tree.callee().toString())) {
+        context().newIssue(this, tree, "Call.");
+      }
+      super.visitFunctionCall(tree);
+    }
+  }
+
+}
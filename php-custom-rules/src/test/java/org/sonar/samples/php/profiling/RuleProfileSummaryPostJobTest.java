@@ -0,0 +1,49 @@
+/*
+ * SonarQube PHP Custom Rules Example
+ * Copyright (C) 2016-2016 SonarSource SA
+ * mailto:contact AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.php.profiling;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.api.utils.log.LoggerLevel;
+import org.sonar.samples.rulekit.profiling.RuleProfileSummary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RuleProfileSummaryPostJobTest {
+
+  @Rule
+  public LogTester logTester = new LogTester();
+
+  @Test
+  public void logs_the_slowest_rules_once() {
+    RuleProfileSummary.endAnalysis();
+    RuleProfileSummary.global().record("S1", 1_000, 1, 0, 0);
+    RuleProfileSummaryPostJob postJob = new RuleProfileSummaryPostJob();
+
+    postJob.execute(null);
+    postJob.execute(null);
+
+    assertEquals(1, logTester.logs(LoggerLevel.INFO).size());
+    assertTrue(logTester.logs(LoggerLevel.INFO).get(0).startsWith("Top 1 slowest rules, out of 1:"));
+  }
+
+}
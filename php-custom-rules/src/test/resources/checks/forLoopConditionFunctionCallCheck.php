@@ -10,5 +10,23 @@ function my_function()
     for($i=0;$i<count($array);++$i){ //Noncompliant {{Function call inside a for loop condition should not be used}}
         echo $i;
     }
+
+    for($i=0;count($array)>$i;++$i){ //Noncompliant {{Function call inside a for loop condition should not be used}}
+        echo $i;
+    }
+
+    for($i=0;$i<$array->count();++$i){ //Noncompliant {{Function call inside a for loop condition should not be used}}
+        echo $i;
+    }
+
+    // parentheses are not calls
+    for($i=0;($i<$count);++$i){
+        echo $i;
+    }
+
+    // the body of the closure is not evaluated by the condition
+    for($i=0;$i<$count && function() { return strlen("a") > 0; };++$i){
+        echo $i;
+    }
 }
 
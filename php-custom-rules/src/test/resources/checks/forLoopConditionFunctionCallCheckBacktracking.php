@@ -0,0 +1,10 @@
+<?php
+function my_function()
+{
+    for($i=0;$i<$aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa;++$i){
+        echo $i;
+    }
+    for($i=0;$i<$aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa;++$i){
+        echo $i;
+    }
+}
@@ -0,0 +1,16 @@
+<?php
+function my_function()
+{
+    $array = ["a", "b", "c"];
+    for($i=0;$i<count($array);++$i){
+        echo $i;
+    }
+
+    for($i=0;$i<STRLEN("abc");++$i){ //Noncompliant {{Function call inside a for loop condition should not be used}}
+        echo $i;
+    }
+
+    for($i=0;$i<$array->strlen();++$i){ //Noncompliant {{Function call inside a for loop condition should not be used}}
+        echo $i;
+    }
+}
@@ -0,0 +1,7 @@
+<?php
+
+report("a");  // Noncompliant {{Call.}}
+other("b");
+report(other("c"),
+  "d");  // Noncompliant@-1 {{Call.}}
+line();  // Noncompliant {{Line.}}
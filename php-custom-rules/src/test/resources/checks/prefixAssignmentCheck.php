@@ -27,6 +27,7 @@ function my_function(){
         $k++;   // Noncompliant {{Refactor the code to avoid creating provisional variable: ++$i / $i++}}
     }
     while($k<4);
+    $k--;   // Noncompliant {{Refactor the code to avoid creating provisional variable: ++$i / $i++}}
     $i=0;
     for(; ; ){
         if ($i > 10) {
@@ -54,5 +55,6 @@ function my_function(){
         ++$k;
     }
     while($k<4);
+    --$k;
 
 }
\ No newline at end of file
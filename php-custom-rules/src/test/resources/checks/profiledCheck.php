@@ -0,0 +1,5 @@
+<?php
+
+report("a");  // Noncompliant {{Call.}}
+other("b");
+report(other("c"));  // Noncompliant {{Call.}}
@@ -19,11 +19,6 @@
  */
 package org.sonar.samples.python;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -33,6 +28,7 @@ import org.sonar.api.server.rule.RulesDefinitionAnnotationLoader;
 import org.sonar.plugins.python.api.PythonCustomRuleRepository;
 import org.sonar.samples.python.checks.CustomPythonSubscriptionCheck;
 import org.sonar.samples.python.checks.CustomPythonVisitorCheck;
+import org.sonar.samples.rulekit.RuleDescriptions;
 
 public class CustomPythonRuleRepository implements RulesDefinition, PythonCustomRuleRepository {
 
@@ -46,8 +42,10 @@ public class CustomPythonRuleRepository implements RulesDefinition, PythonCustom
     repository.rules().forEach(rule -> rule.setDebtRemediationFunction(
       rule.debtRemediationFunctions().constantPerIssue(remediationCosts.get(rule.key()))));
 
-    // Optionally override html description from annotation with content from html files
-    repository.rules().forEach(rule -> rule.setHtmlDescription(loadResource("/org/sonar/l10n/python/rules/python/" + rule.key() + ".html")));
+    // Optionally override html description from annotation with content from html files, packed at build time
+    RuleDescriptions descriptions = RuleDescriptions.load(CustomPythonRuleRepository.class,
+      "/org/sonar/l10n/python/rules/python/" + RuleDescriptions.PACK_NAME);
+    repository.rules().forEach(rule -> rule.setHtmlDescription(descriptions.description(rule.key())));
     repository.done();
   }
 
@@ -60,21 +58,4 @@ public class CustomPythonRuleRepository implements RulesDefinition, PythonCustom
   public List<Class> checkClasses() {
     return Arrays.asList(CustomPythonVisitorCheck.class, CustomPythonSubscriptionCheck.class);
   }
-
-  private String loadResource(String path) {
-    URL resource = getClass().getResource(path);
-    if (resource == null) {
-      throw new IllegalStateException("Resource not found: " + path);
-    }
-    ByteArrayOutputStream result = new ByteArrayOutputStream();
-    try (InputStream in = resource.openStream()) {
-      byte[] buffer = new byte[1024];
-      for (int len = in.read(buffer); len != -1; len = in.read(buffer)) {
-        result.write(buffer, 0, len);
-      }
-      return new String(result.toByteArray(), StandardCharsets.UTF_8);
-    } catch (IOException e) {
-      throw new IllegalStateException("Failed to read resource: " + path, e);
-    }
-  }
 }
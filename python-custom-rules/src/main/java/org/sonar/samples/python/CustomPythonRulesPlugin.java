@@ -20,12 +20,14 @@
 package org.sonar.samples.python;
 
 import org.sonar.api.Plugin;
+import org.sonar.samples.python.profiling.RuleProfileSummaryPostJob;
 
 public class CustomPythonRulesPlugin implements Plugin {
 
   @Override
   public void define(Context context) {
     context.addExtension(CustomPythonRuleRepository.class);
+    context.addExtension(RuleProfileSummaryPostJob.class);
   }
 
 }
@@ -0,0 +1,72 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.python.profiling;
+
+import javax.annotation.Nullable;
+import org.sonar.check.Rule;
+import org.sonar.plugins.python.api.PythonCheckTree;
+import org.sonar.plugins.python.api.PythonVisitorContext;
+import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.samples.rulekit.profiling.RuleProfiler;
+
+/**
+ * Base class of the visitor checks which opt into profiling: their time, visited nodes, allocations and issues are
+ * measured per file by a {@link RuleProfiler}, sent to Java Flight Recorder and summed in the summary of the slowest
+ * rules.
+ * <p>
+ * Each visitor check walks the tree of the file on its own, so the whole walk is measured at once. The nodes scanned
+ * by the check are counted: the subtrees it skips, by not calling the super method of a "visit" method, are not.
+ * The subscription checks are called back by the walk shared by all the rules, and are not profiled.
+ */
+public abstract class ProfiledPythonVisitorCheck extends PythonCheckTree {
+
+  private final RuleProfiler profiler = RuleProfiler.of(ruleKey(getClass()));
+
+  @Override
+  public void scanFile(PythonVisitorContext visitorContext) {
+    profiler.startFile(visitorContext.pythonFile().fileName());
+    int issuesBefore = visitorContext.getIssues().size();
+    profiler.enter();
+    try {
+      super.scanFile(visitorContext);
+    } finally {
+      profiler.exit();
+      profiler.issues(visitorContext.getIssues().size() - issuesBefore);
+      profiler.endFile();
+    }
+  }
+
+  @Override
+  protected void scan(@Nullable Tree tree) {
+    if (tree != null) {
+      profiler.node();
+    }
+    super.scan(tree);
+  }
+
+  /**
+   * @return the key of the {@link Rule} annotation of the check, or its simple name if it has none
+   */
+  static String ruleKey(Class<?> check) {
+    Rule rule = check.getAnnotation(Rule.class);
+    return rule == null || rule.key().isEmpty() ? check.getSimpleName() : rule.key();
+  }
+
+}
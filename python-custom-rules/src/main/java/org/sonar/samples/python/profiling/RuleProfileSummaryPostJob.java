@@ -0,0 +1,51 @@
+/*
+ * SonarQube Python Plugin
+ * Copyright (C) 2012-2019 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.samples.python.profiling;
+
+import org.sonar.api.batch.postjob.PostJob;
+import org.sonar.api.batch.postjob.PostJobContext;
+import org.sonar.api.batch.postjob.PostJobDescriptor;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.samples.rulekit.profiling.RuleProfileSummary;
+import org.sonar.samples.rulekit.profiling.RuleProfiler;
+
+/**
+ * Logs the slowest rules when the analysis ends, if the checks were profiled with the
+ * {@value RuleProfiler#PROFILING_PROPERTY} system property.
+ */
+public class RuleProfileSummaryPostJob implements PostJob {
+
+  private static final Logger LOG = Loggers.get(RuleProfileSummaryPostJob.class);
+
+  @Override
+  public void describe(PostJobDescriptor descriptor) {
+    descriptor.name("Summary of the profiled rules");
+  }
+
+  @Override
+  public void execute(PostJobContext context) {
+    String table = RuleProfileSummary.endAnalysis();
+    if (table != null) {
+      LOG.info(table);
+    }
+  }
+
+}
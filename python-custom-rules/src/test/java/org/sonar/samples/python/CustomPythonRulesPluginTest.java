@@ -36,6 +36,6 @@ public class CustomPythonRulesPluginTest {
     SonarRuntime sonarRuntime = SonarRuntimeImpl.forSonarQube(Version.create(7, 9), SonarQubeSide.SCANNER, SonarEdition.DEVELOPER);
     Plugin.Context context = new PluginContextImpl.Builder().setSonarRuntime(sonarRuntime).build();
     new CustomPythonRulesPlugin().define(context);
-    assertThat(context.getExtensions()).hasSize(1);
+    assertThat(context.getExtensions()).hasSize(2);
   }
 }
@@ -23,6 +23,7 @@ import com.sonarsource.rpg.api.CustomRulesDefinition;
 import com.sonarsource.rpg.example.checks.DataStructureNamingConventionCheck;
 import java.util.Arrays;
 import java.util.List;
+import org.sonar.samples.rulekit.RuleDescriptions;
 
 public class MyRpgRulesDefinition implements CustomRulesDefinition {
 
@@ -32,10 +33,14 @@ public class MyRpgRulesDefinition implements CustomRulesDefinition {
   public void define(Context context) {
     NewRepository repository = context.createRepository(REPOSITORY_KEY, "rpg");
     repository.setName("MyCompany Custom Repository");
-    
+
+    // html descriptions are packed at build time
+    RuleDescriptions descriptions = RuleDescriptions.load(MyRpgRulesDefinition.class,
+      "/org/sonar/l10n/rpg/rules/" + REPOSITORY_KEY + "/" + RuleDescriptions.PACK_NAME);
+
     NewRule rule = repository.createRule(DataStructureNamingConventionCheck.RULE_KEY)
       .setName("This is the title of my rule")
-      .setHtmlDescription("This is the HTML description of my rule")
+      .setHtmlDescription(descriptions.description(DataStructureNamingConventionCheck.RULE_KEY))
       .addTags("convention");
     rule.setDebtRemediationFunction(rule.debtRemediationFunctions().constantPerIssue("10min"));
     repository.done();
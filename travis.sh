@@ -13,6 +13,11 @@ RunMaven() {
   fi
 }
 
+# used by all the plugins
+cd custom-rules-kit
+mvn install
+cd ..
+
 cd java-custom-rules
 RunMaven
 cd ..